@@ -2,7 +2,10 @@ package org.cbioportal;
 
 import java.util.List;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import org.cbioportal.web.util.FilterComplexityMetricsInterceptor;
 import org.cbioportal.web.util.InvolvedCancerStudyExtractorInterceptor;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -24,6 +27,12 @@ public class WebAppConfig implements WebMvcConfigurer {
 	@Value("${springdoc.swagger-ui.path:/swagger-ui.html}")
 	private String swaggerRedirectUrl;
 
+	@Value("${request_metrics.enabled:true}")
+	private boolean requestMetricsEnabled;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
 	@Override
 	public void addResourceHandlers(ResourceHandlerRegistry registry) {
 		registry.addResourceHandler("/images/**").addResourceLocations("classpath:/webapp/images/");
@@ -75,6 +84,9 @@ public class WebAppConfig implements WebMvcConfigurer {
 	@Override
 	public void addInterceptors(InterceptorRegistry registry) {
 		registry.addInterceptor(involvedCancerStudyExtractorInterceptor());
+		if (requestMetricsEnabled) {
+			registry.addInterceptor(new FilterComplexityMetricsInterceptor(meterRegistry));
+		}
 	}
 
 	@Override
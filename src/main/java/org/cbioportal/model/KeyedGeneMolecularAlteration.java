@@ -0,0 +1,18 @@
+package org.cbioportal.model;
+
+/**
+ * The values of a gene in a molecular profile with their {@link MolecularDataKey}, as read by the molecular data
+ * export.
+ */
+public class KeyedGeneMolecularAlteration extends GeneMolecularAlteration {
+
+    private MolecularDataKey key;
+
+    public MolecularDataKey getKey() {
+        return key;
+    }
+
+    public void setKey(MolecularDataKey key) {
+        this.key = key;
+    }
+}
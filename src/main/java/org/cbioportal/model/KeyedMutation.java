@@ -0,0 +1,20 @@
+package org.cbioportal.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/**
+ * A mutation with its {@link MutationKey}, as read by the mutation export.
+ */
+public class KeyedMutation extends Mutation {
+
+    @JsonIgnore
+    private MutationKey key;
+
+    public MutationKey getKey() {
+        return key;
+    }
+
+    public void setKey(MutationKey key) {
+        this.key = key;
+    }
+}
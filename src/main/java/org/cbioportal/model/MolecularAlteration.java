@@ -16,6 +16,13 @@ public abstract class MolecularAlteration implements Serializable {
         this.values = values;
     }
 
+    /**
+     * Returns the values for all samples as stored, comma (,) separated.
+     */
+    public String getValues() {
+        return values;
+    }
+
     /**
      * Returns the values attribute split on (,).
      * 
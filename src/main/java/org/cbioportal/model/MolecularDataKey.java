@@ -0,0 +1,56 @@
+package org.cbioportal.model;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * Position of a gene row in the (molecular profile, genetic entity) order of the molecular data export, by internal
+ * ids. The order is the one of the primary key of the genetic_alteration table.
+ */
+public class MolecularDataKey implements Serializable {
+
+    private Integer molecularProfileInternalId;
+    private Integer geneticEntityId;
+
+    public MolecularDataKey() {
+    }
+
+    public MolecularDataKey(Integer molecularProfileInternalId, Integer geneticEntityId) {
+        this.molecularProfileInternalId = molecularProfileInternalId;
+        this.geneticEntityId = geneticEntityId;
+    }
+
+    public Integer getMolecularProfileInternalId() {
+        return molecularProfileInternalId;
+    }
+
+    public void setMolecularProfileInternalId(Integer molecularProfileInternalId) {
+        this.molecularProfileInternalId = molecularProfileInternalId;
+    }
+
+    public Integer getGeneticEntityId() {
+        return geneticEntityId;
+    }
+
+    public void setGeneticEntityId(Integer geneticEntityId) {
+        this.geneticEntityId = geneticEntityId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof MolecularDataKey)) {
+            return false;
+        }
+        MolecularDataKey that = (MolecularDataKey) o;
+        return Objects.equals(molecularProfileInternalId, that.molecularProfileInternalId)
+            && Objects.equals(geneticEntityId, that.geneticEntityId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(molecularProfileInternalId, geneticEntityId);
+    }
+}
@@ -0,0 +1,68 @@
+package org.cbioportal.model;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * Position of a mutation in the (molecular profile, sample, mutation event) order of the mutation export, by
+ * internal ids. The order is the one of the (GENETIC_PROFILE_ID, SAMPLE_ID) index of the mutation table, whose
+ * entries end with the MUTATION_EVENT_ID of the table's unique key.
+ */
+public class MutationKey implements Serializable {
+
+    private Integer molecularProfileInternalId;
+    private Integer sampleInternalId;
+    private Integer mutationEventId;
+
+    public MutationKey() {
+    }
+
+    public MutationKey(Integer molecularProfileInternalId, Integer sampleInternalId, Integer mutationEventId) {
+        this.molecularProfileInternalId = molecularProfileInternalId;
+        this.sampleInternalId = sampleInternalId;
+        this.mutationEventId = mutationEventId;
+    }
+
+    public Integer getMolecularProfileInternalId() {
+        return molecularProfileInternalId;
+    }
+
+    public void setMolecularProfileInternalId(Integer molecularProfileInternalId) {
+        this.molecularProfileInternalId = molecularProfileInternalId;
+    }
+
+    public Integer getSampleInternalId() {
+        return sampleInternalId;
+    }
+
+    public void setSampleInternalId(Integer sampleInternalId) {
+        this.sampleInternalId = sampleInternalId;
+    }
+
+    public Integer getMutationEventId() {
+        return mutationEventId;
+    }
+
+    public void setMutationEventId(Integer mutationEventId) {
+        this.mutationEventId = mutationEventId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof MutationKey)) {
+            return false;
+        }
+        MutationKey that = (MutationKey) o;
+        return Objects.equals(molecularProfileInternalId, that.molecularProfileInternalId)
+            && Objects.equals(sampleInternalId, that.sampleInternalId)
+            && Objects.equals(mutationEventId, that.mutationEventId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(molecularProfileInternalId, sampleInternalId, mutationEventId);
+    }
+}
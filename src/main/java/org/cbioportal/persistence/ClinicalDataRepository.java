@@ -59,11 +59,14 @@ public interface ClinicalDataRepository {
     List<ClinicalData> getPatientClinicalDataDetailedToSample(List<String> studyIds, List<String> patientIds,
                                                               List<String> attributeIds);
 
-    List<Integer> getVisibleSampleInternalIdsForClinicalTable(List<String> studyIds, List<String> sampleIds,
-                                                              Integer pageSize, Integer pageNumber, String searchTerm,
-                                                              String sortBy, String direction);
-
     List<ClinicalData> getSampleClinicalDataBySampleInternalIds(List<Integer> visibleSampleInternalIds);
 
     List<ClinicalData> getPatientClinicalDataBySampleInternalIds(List<Integer> visibleSampleInternalIds);
+
+    // Streams all sample clinical data of the study (internalId is the sample's); must be iterated within a transaction.
+    Iterable<ClinicalData> getSampleClinicalDataInStudyIterable(String studyId);
+
+    // Streams all patient clinical data of the study (internalId is the patient's); must be iterated within a
+    // transaction.
+    Iterable<ClinicalData> getPatientClinicalDataInStudyIterable(String studyId);
 }
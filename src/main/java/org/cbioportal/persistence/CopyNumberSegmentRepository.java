@@ -28,4 +28,7 @@ public interface CopyNumberSegmentRepository {
 
     @Cacheable(cacheResolver = "generalRepositoryCacheResolver", condition = "@cacheEnabledConfig.getEnabled()")
     List<CopyNumberSeg> getCopyNumberSegmentsBySampleListId(String studyId, String sampleListId, String chromosome, String projection);
+
+    // Streams all segments of the study, in no particular order; must be iterated within a transaction.
+    Iterable<CopyNumberSeg> getCopyNumberSegmentsInStudyIterable(String studyId);
 }
@@ -3,10 +3,13 @@ package org.cbioportal.persistence;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Consumer;
 
 import org.cbioportal.model.GeneMolecularAlteration;
 import org.cbioportal.model.GenericAssayMolecularAlteration;
 import org.cbioportal.model.GenesetMolecularAlteration;
+import org.cbioportal.model.KeyedGeneMolecularAlteration;
+import org.cbioportal.model.MolecularDataKey;
 import org.springframework.cache.annotation.Cacheable;
 import org.cbioportal.model.MolecularProfileSamples;
 
@@ -36,6 +39,15 @@ public interface MolecularDataRepository {
                                                                                          List<Integer> entrezGeneIds,
                                                                                          String projection);
 
+    /**
+     * Passes the first {@code limit} gene rows after the given key (all if null) to the consumer in key order, as
+     * they are read from a cursor. Must be called in a transaction.
+     */
+    void streamGeneMolecularAlterationsInMultipleMolecularProfiles(Set<String> molecularProfileIds,
+                                                                   List<Integer> entrezGeneIds, String projection,
+                                                                   MolecularDataKey after, Integer limit,
+                                                                   Consumer<KeyedGeneMolecularAlteration> consumer);
+
     @Cacheable(cacheResolver = "generalRepositoryCacheResolver", condition = "@cacheEnabledConfig.getEnabled()")
     List<GenesetMolecularAlteration> getGenesetMolecularAlterations(String molecularProfileId, List<String> genesetIds,
                                                                     String projection);
@@ -2,12 +2,15 @@ package org.cbioportal.persistence;
 
 import org.cbioportal.model.GeneFilterQuery;
 import org.cbioportal.model.GenomicDataCountItem;
+import org.cbioportal.model.KeyedMutation;
 import org.cbioportal.model.Mutation;
 import org.cbioportal.model.MutationCountByPosition;
+import org.cbioportal.model.MutationKey;
 import org.cbioportal.model.meta.MutationMeta;
 import org.springframework.cache.annotation.Cacheable;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface MutationRepository {
 
@@ -28,6 +31,15 @@ public interface MutationRepository {
                                                            Integer pageSize, Integer pageNumber,
                                                            String sortBy, String direction);
 
+    /**
+     * Passes the first {@code limit} mutations after the given key (all if null) to the consumer in key order, as
+     * they are read from a cursor. Must be called in a transaction.
+     */
+    void streamMutationsInMultipleMolecularProfiles(List<String> molecularProfileIds, List<String> sampleIds,
+                                                    List<Integer> entrezGeneIds, String projection,
+                                                    MutationKey after, Integer limit,
+                                                    Consumer<KeyedMutation> consumer);
+
     @Cacheable(cacheResolver = "generalRepositoryCacheResolver", condition = "@cacheEnabledConfig.getEnabled()")
     List<Mutation> getMutationsInMultipleMolecularProfilesByGeneQueries(List<String> molecularProfileIds,
                                                                       List<String> sampleIds,
@@ -1,22 +1,46 @@
 package org.cbioportal.persistence.config;
 
+import org.cbioportal.persistence.util.CacheMetrics;
 import org.cbioportal.persistence.util.CustomEhcachingProvider;
 import org.cbioportal.persistence.util.CustomKeyGenerator;
+import org.cbioportal.persistence.util.LocalCacheLeases;
+import org.cbioportal.persistence.util.LocalStudyKeyIndex;
+import org.cbioportal.persistence.util.MetricsCacheResolver;
+import org.cbioportal.persistence.util.SingleFlightCacheResolver;
+import org.cbioportal.persistence.util.SingleFlightLeaseInterceptor;
+import org.cbioportal.persistence.util.StudyIndexingCacheResolver;
+import org.cbioportal.persistence.util.StudyKeyIndex;
 import org.cbioportal.utils.config.annotation.ConditionalOnProperty;
+import org.springframework.aop.Advisor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CachingConfigurerSupport;
 import org.springframework.cache.annotation.EnableCaching;
-import org.springframework.cache.interceptor.KeyGenerator;
+import org.springframework.cache.interceptor.CacheResolver;
 import org.springframework.cache.interceptor.NamedCacheResolver;
 import org.springframework.cache.jcache.JCacheCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+
+import java.util.concurrent.TimeUnit;
 
 @Configuration
 @EnableCaching
 @ConditionalOnProperty(name = "persistence.cache_type", havingValue = {"ehcache-heap", "ehcache-disk", "ehcache-hybrid"})
 public class EhCacheConfig extends CachingConfigurerSupport {
 
+    @Value("${cache.single_flight.lease_seconds:60}")
+    private long singleFlightLeaseSeconds;
+
+    @Value("${cache.metrics.enabled:true}")
+    private boolean metricsEnabled;
+
+    @Autowired
+    private CacheMetrics cacheMetrics;
+
     @Bean
     @Override
     public CacheManager cacheManager() {
@@ -27,7 +51,7 @@ public class EhCacheConfig extends CachingConfigurerSupport {
     
     @Bean
     @Override
-    public KeyGenerator keyGenerator() {
+    public CustomKeyGenerator keyGenerator() {
         return new CustomKeyGenerator();
     }
 
@@ -37,13 +61,42 @@ public class EhCacheConfig extends CachingConfigurerSupport {
     }
 
     @Bean
-    public NamedCacheResolver generalRepositoryCacheResolver() {
-        return new NamedCacheResolver(cacheManager(), "GeneralRepositoryCache");
+    public CacheResolver generalRepositoryCacheResolver() {
+        return metered(singleFlight(studyIndexed(new NamedCacheResolver(cacheManager(), "GeneralRepositoryCache"))));
     }
     
     @Bean
-    public NamedCacheResolver staticRepositoryCacheOneResolver() {
-        return new NamedCacheResolver(cacheManager(), "StaticRepositoryCacheOne");
+    public CacheResolver staticRepositoryCacheOneResolver() {
+        return metered(singleFlight(studyIndexed(new NamedCacheResolver(cacheManager(), "StaticRepositoryCacheOne"))));
+    }
+
+    // releases single flight leases of @Cacheable methods that fail, so that waiting callers do not block until the
+    // lease expires
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    public static Advisor singleFlightLeaseAdvisor() {
+        return SingleFlightLeaseInterceptor.createAdvisor();
+    }
+
+    @Bean
+    public StudyKeyIndex studyKeyIndex() {
+        return new LocalStudyKeyIndex();
+    }
+
+    private CacheResolver metered(CacheResolver cacheResolver) {
+        return metricsEnabled ? new MetricsCacheResolver(cacheResolver, cacheMetrics) : cacheResolver;
+    }
+
+    private CacheResolver studyIndexed(CacheResolver cacheResolver) {
+        return new StudyIndexingCacheResolver(cacheResolver, studyKeyIndex(), keyGenerator()::extractStudyIds);
+    }
+
+    private CacheResolver singleFlight(CacheResolver cacheResolver) {
+        if (singleFlightLeaseSeconds <= 0) {
+            return cacheResolver;
+        }
+        long leaseMillis = TimeUnit.SECONDS.toMillis(singleFlightLeaseSeconds);
+        return new SingleFlightCacheResolver(cacheResolver, cache -> new LocalCacheLeases(leaseMillis), leaseMillis);
     }
     
 }
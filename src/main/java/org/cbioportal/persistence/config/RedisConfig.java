@@ -1,20 +1,34 @@
 package org.cbioportal.persistence.config;
 
+import org.cbioportal.persistence.util.CacheMetrics;
 import org.cbioportal.persistence.util.CustomKeyGenerator;
 import org.cbioportal.persistence.util.CustomRedisCachingProvider;
 import org.cbioportal.persistence.util.LoggingCacheErrorHandler;
+import org.cbioportal.persistence.util.MetricsCacheResolver;
+import org.cbioportal.persistence.util.RedisCacheLeases;
+import org.cbioportal.persistence.util.RedisStudyKeyIndex;
+import org.cbioportal.persistence.util.SingleFlightCacheResolver;
+import org.cbioportal.persistence.util.SingleFlightLeaseInterceptor;
+import org.cbioportal.persistence.util.StudyIndexingCacheResolver;
+import org.cbioportal.persistence.util.StudyKeyIndex;
 import org.cbioportal.utils.config.annotation.ConditionalOnProperty;
+import org.redisson.api.RedissonClient;
+import org.springframework.aop.Advisor;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CachingConfigurerSupport;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cache.interceptor.CacheErrorHandler;
 import org.springframework.cache.interceptor.CacheResolver;
-import org.springframework.cache.interceptor.KeyGenerator;
 import org.springframework.cache.interceptor.NamedCacheResolver;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+
+import java.util.concurrent.TimeUnit;
 
 @Configuration
 @EnableCaching
@@ -24,6 +38,15 @@ public class RedisConfig extends CachingConfigurerSupport {
     @Value("${redis.name:cbioportal}")
     private String redisName;
 
+    @Value("${cache.single_flight.lease_seconds:60}")
+    private long singleFlightLeaseSeconds;
+
+    @Value("${cache.metrics.enabled:true}")
+    private boolean metricsEnabled;
+
+    @Autowired
+    private CacheMetrics cacheMetrics;
+
     @Bean
     @Override
     public CacheManager cacheManager() {
@@ -39,7 +62,7 @@ public class RedisConfig extends CachingConfigurerSupport {
 
     @Bean
     @Override
-    public KeyGenerator keyGenerator() {
+    public CustomKeyGenerator keyGenerator() {
         return new CustomKeyGenerator();
     }
     
@@ -50,12 +73,46 @@ public class RedisConfig extends CachingConfigurerSupport {
 
     @Bean
     public CacheResolver generalRepositoryCacheResolver() {
-        return new NamedCacheResolver(cacheManager(), redisName + "GeneralRepositoryCache");
+        return metered(singleFlight(studyIndexed(
+            new NamedCacheResolver(cacheManager(), redisName + "GeneralRepositoryCache"))));
     }
     
     @Bean
     public CacheResolver staticRepositoryCacheOneResolver() {
-        return new NamedCacheResolver(cacheManager(), redisName + "StaticRepositoryCacheOne");
+        return metered(singleFlight(studyIndexed(
+            new NamedCacheResolver(cacheManager(), redisName + "StaticRepositoryCacheOne"))));
+    }
+
+    // releases single flight leases of @Cacheable methods that fail, so that waiting callers do not block until the
+    // lease expires
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    public static Advisor singleFlightLeaseAdvisor() {
+        return SingleFlightLeaseInterceptor.createAdvisor();
+    }
+
+    @Bean
+    public StudyKeyIndex studyKeyIndex() {
+        return new RedisStudyKeyIndex(cacheManager());
+    }
+
+    private CacheResolver metered(CacheResolver cacheResolver) {
+        return metricsEnabled ? new MetricsCacheResolver(cacheResolver, cacheMetrics) : cacheResolver;
+    }
+
+    private CacheResolver studyIndexed(CacheResolver cacheResolver) {
+        return new StudyIndexingCacheResolver(cacheResolver, studyKeyIndex(), keyGenerator()::extractStudyIds);
+    }
+
+    private CacheResolver singleFlight(CacheResolver cacheResolver) {
+        if (singleFlightLeaseSeconds <= 0) {
+            return cacheResolver;
+        }
+        // leases live in Redis, so that concurrent misses on all portal instances share one computation
+        long leaseMillis = TimeUnit.SECONDS.toMillis(singleFlightLeaseSeconds);
+        return new SingleFlightCacheResolver(cacheResolver,
+            cache -> new RedisCacheLeases((RedissonClient) cache.getNativeCache(), cache.getName(), leaseMillis),
+            leaseMillis);
     }
 
 }
@@ -12,6 +12,7 @@ import org.cbioportal.model.MolecularProfile.MolecularAlterationType;
 import org.cbioportal.model.util.Select;
 import org.cbioportal.persistence.AlterationRepository;
 import org.cbioportal.persistence.MolecularProfileRepository;
+import org.cbioportal.persistence.mybatis.util.CaseFilterTableUtil;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 
@@ -25,6 +26,8 @@ public class AlterationMyBatisRepository implements AlterationRepository {
     private AlterationCountsMapper alterationCountsMapper;
     @Autowired
     private MolecularProfileRepository molecularProfileRepository;
+    @Autowired
+    private CaseFilterTableUtil caseFilterTableUtil;
 
     @Override
     public List<AlterationCountByGene> getSampleAlterationGeneCounts(Set<MolecularProfileCaseIdentifier> molecularProfileCaseIdentifiers,
@@ -50,24 +53,25 @@ public class AlterationMyBatisRepository implements AlterationRepository {
             .stream()
             .collect(Collectors.toMap(datum -> datum.getMolecularProfileId().toString(), MolecularProfile::getMolecularAlterationType));
         Map<MolecularAlterationType, List<MolecularProfileCaseIdentifier>> groupedIdentifiersByProfileType =
-            alterationCountsMapper.getMolecularProfileCaseInternalIdentifier(new ArrayList<>(molecularProfileCaseIdentifiers), "SAMPLE_ID")
+            getMolecularProfileCaseInternalIdentifiers(molecularProfileCaseIdentifiers, "SAMPLE_ID")
             .stream()
             .collect(Collectors.groupingBy(e -> profileTypeByProfileId.getOrDefault(e.getMolecularProfileId(), null)));
-        return alterationCountsMapper.getSampleAlterationGeneCounts(
-            groupedIdentifiersByProfileType.get(MolecularAlterationType.MUTATION_EXTENDED),
-            groupedIdentifiersByProfileType.get(MolecularAlterationType.COPY_NUMBER_ALTERATION),
-            groupedIdentifiersByProfileType.get(MolecularAlterationType.STRUCTURAL_VARIANT),
-            entrezGeneIds,
-            createMutationTypeList(alterationFilter),
-            createCnaTypeList(alterationFilter),
-            alterationFilter.getIncludeDriver(),
-            alterationFilter.getIncludeVUS(),
-            alterationFilter.getIncludeUnknownOncogenicity(),
-            alterationFilter.getSelectedTiers(),
-            alterationFilter.getIncludeUnknownTier(),
-            alterationFilter.getIncludeGermline(),
-            alterationFilter.getIncludeSomatic(),
-            alterationFilter.getIncludeUnknownStatus());
+        return caseFilterTableUtil.query(getCaseFilterTables(groupedIdentifiersByProfileType), true, () ->
+            alterationCountsMapper.getSampleAlterationGeneCounts(
+                groupedIdentifiersByProfileType.get(MolecularAlterationType.MUTATION_EXTENDED),
+                groupedIdentifiersByProfileType.get(MolecularAlterationType.COPY_NUMBER_ALTERATION),
+                groupedIdentifiersByProfileType.get(MolecularAlterationType.STRUCTURAL_VARIANT),
+                entrezGeneIds,
+                createMutationTypeList(alterationFilter),
+                createCnaTypeList(alterationFilter),
+                alterationFilter.getIncludeDriver(),
+                alterationFilter.getIncludeVUS(),
+                alterationFilter.getIncludeUnknownOncogenicity(),
+                alterationFilter.getSelectedTiers(),
+                alterationFilter.getIncludeUnknownTier(),
+                alterationFilter.getIncludeGermline(),
+                alterationFilter.getIncludeSomatic(),
+                alterationFilter.getIncludeUnknownStatus()));
     }
 
     @Override
@@ -94,27 +98,28 @@ public class AlterationMyBatisRepository implements AlterationRepository {
             .collect(Collectors.toMap(datum -> datum.getMolecularProfileId().toString(), MolecularProfile::getMolecularAlterationType));
 
         Map<MolecularAlterationType, List<MolecularProfileCaseIdentifier>> groupedIdentifiersByProfileType =
-            alterationCountsMapper.getMolecularProfileCaseInternalIdentifier(new ArrayList<>(molecularProfileCaseIdentifiers), "PATIENT_ID")
+            getMolecularProfileCaseInternalIdentifiers(molecularProfileCaseIdentifiers, "PATIENT_ID")
             .stream()
             .collect(Collectors.groupingBy(e -> profileTypeByProfileId.getOrDefault(e.getMolecularProfileId(), null)));
 
 
-        return alterationCountsMapper.getPatientAlterationGeneCounts(
-            groupedIdentifiersByProfileType.get(MolecularAlterationType.MUTATION_EXTENDED),
-            groupedIdentifiersByProfileType.get(MolecularAlterationType.COPY_NUMBER_ALTERATION),
-            groupedIdentifiersByProfileType.get(MolecularAlterationType.STRUCTURAL_VARIANT),
-            entrezGeneIds,
-            createMutationTypeList(alterationFilter),
-            createCnaTypeList(alterationFilter),
-            alterationFilter.getIncludeDriver(),
-            alterationFilter.getIncludeVUS(),
-            alterationFilter.getIncludeUnknownOncogenicity(),
-            alterationFilter.getSelectedTiers(),
-            alterationFilter.getIncludeUnknownTier(),
-            alterationFilter.getIncludeGermline(),
-            alterationFilter.getIncludeSomatic(),
-            alterationFilter.getIncludeUnknownStatus()
-        );
+        return caseFilterTableUtil.query(getCaseFilterTables(groupedIdentifiersByProfileType), true, () ->
+            alterationCountsMapper.getPatientAlterationGeneCounts(
+                groupedIdentifiersByProfileType.get(MolecularAlterationType.MUTATION_EXTENDED),
+                groupedIdentifiersByProfileType.get(MolecularAlterationType.COPY_NUMBER_ALTERATION),
+                groupedIdentifiersByProfileType.get(MolecularAlterationType.STRUCTURAL_VARIANT),
+                entrezGeneIds,
+                createMutationTypeList(alterationFilter),
+                createCnaTypeList(alterationFilter),
+                alterationFilter.getIncludeDriver(),
+                alterationFilter.getIncludeVUS(),
+                alterationFilter.getIncludeUnknownOncogenicity(),
+                alterationFilter.getSelectedTiers(),
+                alterationFilter.getIncludeUnknownTier(),
+                alterationFilter.getIncludeGermline(),
+                alterationFilter.getIncludeSomatic(),
+                alterationFilter.getIncludeUnknownStatus()
+            ));
     }
 
     @Override
@@ -129,17 +134,18 @@ public class AlterationMyBatisRepository implements AlterationRepository {
         }
 
         List<MolecularProfileCaseIdentifier> molecularProfileCaseInternalIdentifiers =
-            alterationCountsMapper.getMolecularProfileCaseInternalIdentifier(new ArrayList<>(molecularProfileCaseIdentifiers), "SAMPLE_ID");
-
-        return alterationCountsMapper.getSampleCnaGeneCounts(
-            molecularProfileCaseInternalIdentifiers,
-            entrezGeneIds,
-            createCnaTypeList(alterationFilter),
-            alterationFilter.getIncludeDriver(),
-            alterationFilter.getIncludeVUS(),
-            alterationFilter.getIncludeUnknownOncogenicity(),
-            alterationFilter.getSelectedTiers(),
-            alterationFilter.getIncludeUnknownTier());
+            getMolecularProfileCaseInternalIdentifiers(molecularProfileCaseIdentifiers, "SAMPLE_ID");
+
+        return caseFilterTableUtil.query(CaseFilterTableUtil.COPY_NUMBER_ALTERATIONS, molecularProfileCaseInternalIdentifiers, true, () ->
+            alterationCountsMapper.getSampleCnaGeneCounts(
+                molecularProfileCaseInternalIdentifiers,
+                entrezGeneIds,
+                createCnaTypeList(alterationFilter),
+                alterationFilter.getIncludeDriver(),
+                alterationFilter.getIncludeVUS(),
+                alterationFilter.getIncludeUnknownOncogenicity(),
+                alterationFilter.getSelectedTiers(),
+                alterationFilter.getIncludeUnknownTier()));
     }
 
     @Override
@@ -153,17 +159,18 @@ public class AlterationMyBatisRepository implements AlterationRepository {
             return Collections.emptyList();
         }
         List<MolecularProfileCaseIdentifier> molecularProfileCaseInternalIdentifiers =
-            alterationCountsMapper.getMolecularProfileCaseInternalIdentifier(new ArrayList<>(molecularProfileCaseIdentifiers), "PATIENT_ID");
-
-        return alterationCountsMapper.getPatientCnaGeneCounts(
-            molecularProfileCaseInternalIdentifiers,
-            entrezGeneIds,
-            createCnaTypeList(alterationFilter),
-            alterationFilter.getIncludeDriver(),
-            alterationFilter.getIncludeVUS(),
-            alterationFilter.getIncludeUnknownOncogenicity(),
-            alterationFilter.getSelectedTiers(),
-            alterationFilter.getIncludeUnknownTier());
+            getMolecularProfileCaseInternalIdentifiers(molecularProfileCaseIdentifiers, "PATIENT_ID");
+
+        return caseFilterTableUtil.query(CaseFilterTableUtil.COPY_NUMBER_ALTERATIONS, molecularProfileCaseInternalIdentifiers, true, () ->
+            alterationCountsMapper.getPatientCnaGeneCounts(
+                molecularProfileCaseInternalIdentifiers,
+                entrezGeneIds,
+                createCnaTypeList(alterationFilter),
+                alterationFilter.getIncludeDriver(),
+                alterationFilter.getIncludeVUS(),
+                alterationFilter.getIncludeUnknownOncogenicity(),
+                alterationFilter.getSelectedTiers(),
+                alterationFilter.getIncludeUnknownTier()));
     }
 
     @Override
@@ -176,16 +183,17 @@ public class AlterationMyBatisRepository implements AlterationRepository {
             return Collections.emptyList();
         }
 
-        return alterationCountsMapper.getSampleStructuralVariantCounts(
-            new ArrayList<>(molecularProfileCaseIdentifiers),
-            alterationFilter.getIncludeDriver(),
-            alterationFilter.getIncludeVUS(),
-            alterationFilter.getIncludeUnknownOncogenicity(),
-            alterationFilter.getSelectedTiers(),
-            alterationFilter.getIncludeUnknownTier(),
-            alterationFilter.getIncludeGermline(),
-            alterationFilter.getIncludeSomatic(),
-            alterationFilter.getIncludeUnknownStatus());
+        return caseFilterTableUtil.query(CaseFilterTableUtil.STRUCTURAL_VARIANTS, molecularProfileCaseIdentifiers, false, () ->
+            alterationCountsMapper.getSampleStructuralVariantCounts(
+                new ArrayList<>(molecularProfileCaseIdentifiers),
+                alterationFilter.getIncludeDriver(),
+                alterationFilter.getIncludeVUS(),
+                alterationFilter.getIncludeUnknownOncogenicity(),
+                alterationFilter.getSelectedTiers(),
+                alterationFilter.getIncludeUnknownTier(),
+                alterationFilter.getIncludeGermline(),
+                alterationFilter.getIncludeSomatic(),
+                alterationFilter.getIncludeUnknownStatus()));
     }
 
     @Override
@@ -198,18 +206,36 @@ public class AlterationMyBatisRepository implements AlterationRepository {
             return Collections.emptyList();
         }
 
-        return alterationCountsMapper.getPatientStructuralVariantCounts(
-            new ArrayList<>(molecularProfileCaseIdentifiers),
-            alterationFilter.getIncludeDriver(),
-            alterationFilter.getIncludeVUS(),
-            alterationFilter.getIncludeUnknownOncogenicity(),
-            alterationFilter.getSelectedTiers(),
-            alterationFilter.getIncludeUnknownTier(),
-            alterationFilter.getIncludeGermline(),
-            alterationFilter.getIncludeSomatic(),
-            alterationFilter.getIncludeUnknownStatus());
+        return caseFilterTableUtil.query(CaseFilterTableUtil.STRUCTURAL_VARIANTS, molecularProfileCaseIdentifiers, false, () ->
+            alterationCountsMapper.getPatientStructuralVariantCounts(
+                new ArrayList<>(molecularProfileCaseIdentifiers),
+                alterationFilter.getIncludeDriver(),
+                alterationFilter.getIncludeVUS(),
+                alterationFilter.getIncludeUnknownOncogenicity(),
+                alterationFilter.getSelectedTiers(),
+                alterationFilter.getIncludeUnknownTier(),
+                alterationFilter.getIncludeGermline(),
+                alterationFilter.getIncludeSomatic(),
+                alterationFilter.getIncludeUnknownStatus()));
     }
     
+    private List<MolecularProfileCaseIdentifier> getMolecularProfileCaseInternalIdentifiers(
+        Set<MolecularProfileCaseIdentifier> molecularProfileCaseIdentifiers, String caseType) {
+
+        return caseFilterTableUtil.query(CaseFilterTableUtil.CASES, molecularProfileCaseIdentifiers, false, () ->
+            alterationCountsMapper.getMolecularProfileCaseInternalIdentifier(new ArrayList<>(molecularProfileCaseIdentifiers), caseType));
+    }
+
+    private Map<String, List<MolecularProfileCaseIdentifier>> getCaseFilterTables(
+        Map<MolecularAlterationType, List<MolecularProfileCaseIdentifier>> groupedIdentifiersByProfileType) {
+
+        Map<String, List<MolecularProfileCaseIdentifier>> caseFilterTables = new HashMap<>();
+        caseFilterTables.put(CaseFilterTableUtil.MUTATIONS, groupedIdentifiersByProfileType.get(MolecularAlterationType.MUTATION_EXTENDED));
+        caseFilterTables.put(CaseFilterTableUtil.COPY_NUMBER_ALTERATIONS, groupedIdentifiersByProfileType.get(MolecularAlterationType.COPY_NUMBER_ALTERATION));
+        caseFilterTables.put(CaseFilterTableUtil.STRUCTURAL_VARIANTS, groupedIdentifiersByProfileType.get(MolecularAlterationType.STRUCTURAL_VARIANT));
+        return caseFilterTables;
+    }
+
     private Select<Short> createCnaTypeList(final AlterationFilter alterationFilter) {
         if (alterationFilter.getCNAEventTypeSelect().hasNone())
             return Select.none();
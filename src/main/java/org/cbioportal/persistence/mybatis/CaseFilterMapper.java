@@ -0,0 +1,20 @@
+package org.cbioportal.persistence.mybatis;
+
+import org.cbioportal.model.MolecularProfileCaseIdentifier;
+
+import java.util.List;
+
+public interface CaseFilterMapper {
+
+    /**
+     * @return the collation of a column of the current database, or null if it is not known
+     */
+    String getColumnCollation(String tableName, String columnName);
+
+    void createCaseFilterTable(String tableName, boolean internalIds, String molecularProfileIdCollation,
+                               String caseIdCollation);
+
+    void insertCaseFilterRows(String tableName, List<MolecularProfileCaseIdentifier> identifiers);
+
+    void dropCaseFilterTable(String tableName);
+}
@@ -1,5 +1,6 @@
 package org.cbioportal.persistence.mybatis;
 
+import org.apache.ibatis.cursor.Cursor;
 import org.cbioportal.model.ClinicalData;
 import org.cbioportal.model.ClinicalDataCount;
 import org.cbioportal.model.meta.BaseMeta;
@@ -38,12 +39,11 @@ public interface ClinicalDataMapper {
                                                               List<String> attributeIds, String projection, Integer limit,
                                                               Integer offset, String sortBy, String direction);
 
-    List<Integer> getVisibleSampleInternalIdsForClinicalTable(List<String> studyIds, List<String> sampleIds,
-                                                              String projection, Integer limit, Integer offset,
-                                                              String searchTerm, String sortAttrId, Boolean sortAttrIsNumber,
-                                                              Boolean sortIsPatientAttr, String direction);
-
     List<ClinicalData> getSampleClinicalDataBySampleInternalIds(List<Integer> sampleInternalIds);
 
     List<ClinicalData> getPatientClinicalDataBySampleInternalIds(List<Integer> sampleInternalIds);
+
+    Cursor<ClinicalData> getSampleClinicalDataInStudyIter(String studyId);
+
+    Cursor<ClinicalData> getPatientClinicalDataInStudyIter(String studyId);
 }
@@ -1,22 +1,18 @@
 package org.cbioportal.persistence.mybatis;
 
-import org.cbioportal.model.ClinicalAttribute;
 import org.cbioportal.model.ClinicalData;
 import org.cbioportal.model.ClinicalDataCount;
 import org.cbioportal.model.Patient;
 import org.cbioportal.model.meta.BaseMeta;
 import org.cbioportal.persistence.ClinicalDataRepository;
-import org.cbioportal.persistence.ClinicalAttributeRepository;
 import org.cbioportal.persistence.PatientRepository;
 import org.cbioportal.persistence.PersistenceConstants;
 import org.cbioportal.persistence.mybatis.util.PaginationCalculator;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
-import org.springframework.util.Assert;
 
 import java.util.*;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 @Repository
 public class ClinicalDataMyBatisRepository implements ClinicalDataRepository {
@@ -25,8 +21,6 @@ public class ClinicalDataMyBatisRepository implements ClinicalDataRepository {
     private ClinicalDataMapper clinicalDataMapper;
     @Autowired
     private PatientRepository patientRepository;
-    @Autowired
-    private ClinicalAttributeRepository clinicalAttributeRepository;
 
     @Override
     public List<ClinicalData> getAllClinicalDataOfSampleInStudy(String studyId, String sampleId,
@@ -139,48 +133,6 @@ public class ClinicalDataMyBatisRepository implements ClinicalDataRepository {
         }
     }
 
-    public List<Integer> getVisibleSampleInternalIdsForClinicalTable(List<String> studyIds, List<String> sampleIds,
-                                                                       Integer pageSize, Integer pageNumber, String searchTerm,
-                                                                       String sortAttrId, String direction) {
-        if (sampleIds.isEmpty()) {
-            return new ArrayList<>();
-        }
-        Integer offset = PaginationCalculator.offset(pageSize, pageNumber);
-        Boolean sortAttrIsNumber = null;
-        Boolean sortIsPatientAttr = null;
-        
-        if (sortAttrId != null) {
-            if (sortAttrId.equals("patientId") || sortAttrId.equals("sampleId")) {
-                //these are both false because patientId and sampleId are actually not 
-                //clinical attributes and are never numbers
-                sortAttrIsNumber = false;
-                sortIsPatientAttr = false;
-            } else {
-                ClinicalAttribute clinicalAttributeMeta = getClinicalAttributeMeta(studyIds, sortAttrId);
-                sortAttrIsNumber = clinicalAttributeMeta.getDatatype().equals("NUMBER");
-                sortIsPatientAttr = clinicalAttributeMeta.getPatientAttribute();
-            }
-        }
-        
-        
-        
-        return clinicalDataMapper.getVisibleSampleInternalIdsForClinicalTable(studyIds, sampleIds,"SUMMARY", pageSize, 
-            offset, searchTerm, sortAttrId, sortAttrIsNumber, sortIsPatientAttr, direction);
-    }
-    
-    private ClinicalAttribute getClinicalAttributeMeta(List<String> studyIds, String attrId) {
-        Assert.notNull(studyIds, "Arguments may not be null");
-        Assert.notNull(attrId, "Arguments may not be null");
-        Stream<String> uniqueStudyIds = studyIds.stream().distinct();
-        Optional<ClinicalAttribute> clinicalAttributeMeta = uniqueStudyIds
-            .map(studyId -> clinicalAttributeRepository.getClinicalAttribute(studyId, attrId))
-            .filter(Objects::nonNull)
-            .findFirst();
-        Assert.isTrue(clinicalAttributeMeta.isPresent(), "Clinical Attribute " + attrId + 
-            " was not found in studies " + studyIds.stream().collect(Collectors.joining(", ")) );
-        return clinicalAttributeMeta.get();
-    }
-
     @Override
     public BaseMeta fetchMetaClinicalData(List<String> studyIds, List<String> ids, List<String> attributeIds,
                                           String clinicalDataType) {
@@ -232,4 +184,14 @@ public class ClinicalDataMyBatisRepository implements ClinicalDataRepository {
         return sampleInternalIds == null || sampleInternalIds.isEmpty() ?
             new ArrayList<>() : clinicalDataMapper.getPatientClinicalDataBySampleInternalIds(sampleInternalIds);
     }
+
+    @Override
+    public Iterable<ClinicalData> getSampleClinicalDataInStudyIterable(String studyId) {
+        return clinicalDataMapper.getSampleClinicalDataInStudyIter(studyId);
+    }
+
+    @Override
+    public Iterable<ClinicalData> getPatientClinicalDataInStudyIterable(String studyId) {
+        return clinicalDataMapper.getPatientClinicalDataInStudyIter(studyId);
+    }
 }
@@ -1,5 +1,6 @@
 package org.cbioportal.persistence.mybatis;
 
+import org.apache.ibatis.cursor.Cursor;
 import org.cbioportal.model.CopyNumberSeg;
 import org.cbioportal.model.meta.BaseMeta;
 
@@ -15,4 +16,6 @@ public interface CopyNumberSegmentMapper {
     BaseMeta getMetaCopyNumberSegments(List<String> studyIds, List<String> sampleIds, String chromosome);
     
     List<CopyNumberSeg> getCopyNumberSegmentsBySampleListId(String studyId, String sampleListId, String chromosome, String projection);
+
+    Cursor<CopyNumberSeg> getCopyNumberSegmentsInStudyIter(String studyId);
 }
@@ -61,4 +61,10 @@ public class CopyNumberSegmentMyBatisRepository implements CopyNumberSegmentRepo
         
         return copyNumberSegmentMapper.getCopyNumberSegmentsBySampleListId(studyId, sampleListId, chromosome, projection);
     }
+
+    @Override
+    public Iterable<CopyNumberSeg> getCopyNumberSegmentsInStudyIterable(String studyId) {
+
+        return copyNumberSegmentMapper.getCopyNumberSegmentsInStudyIter(studyId);
+    }
 }
@@ -5,6 +5,7 @@ import org.cbioportal.model.DiscreteCopyNumberData;
 import org.cbioportal.model.GeneFilterQuery;
 import org.cbioportal.model.meta.BaseMeta;
 import org.cbioportal.persistence.DiscreteCopyNumberRepository;
+import org.cbioportal.persistence.mybatis.util.CaseFilterTableUtil;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 
@@ -15,6 +16,8 @@ public class DiscreteCopyNumberMyBatisRepository implements DiscreteCopyNumberRe
 
     @Autowired
     private DiscreteCopyNumberMapper discreteCopyNumberMapper;
+    @Autowired
+    private CaseFilterTableUtil caseFilterTableUtil;
 
     @Override
     public List<DiscreteCopyNumberData> getDiscreteCopyNumbersInMolecularProfileBySampleListId(
@@ -55,8 +58,9 @@ public class DiscreteCopyNumberMyBatisRepository implements DiscreteCopyNumberRe
                                                                                           List<Integer> entrezGeneIds,
                                                                                           List<Integer> alterationTypes,
                                                                                           String projection) {
-        return discreteCopyNumberMapper.getDiscreteCopyNumbersInMultipleMolecularProfiles(molecularProfileIds,
-            sampleIds, entrezGeneIds, alterationTypes, projection);
+        return caseFilterTableUtil.query(molecularProfileIds, sampleIds, () ->
+            discreteCopyNumberMapper.getDiscreteCopyNumbersInMultipleMolecularProfiles(molecularProfileIds,
+                sampleIds, entrezGeneIds, alterationTypes, projection));
     }
 
     @Override
@@ -65,8 +69,9 @@ public class DiscreteCopyNumberMyBatisRepository implements DiscreteCopyNumberRe
                                                                                            List<GeneFilterQuery> geneQueries,
                                                                                            String projection) {
         
-        return discreteCopyNumberMapper.getDiscreteCopyNumbersInMultipleMolecularProfilesByGeneQueries(molecularProfileIds, 
-            sampleIds, projection, geneQueries);
+        return caseFilterTableUtil.query(molecularProfileIds, sampleIds, () ->
+            discreteCopyNumberMapper.getDiscreteCopyNumbersInMultipleMolecularProfilesByGeneQueries(molecularProfileIds,
+                sampleIds, projection, geneQueries));
     }
 
     @Override
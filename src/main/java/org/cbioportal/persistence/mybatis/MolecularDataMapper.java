@@ -4,6 +4,8 @@ package org.cbioportal.persistence.mybatis;
 import org.cbioportal.model.GeneMolecularAlteration;
 import org.cbioportal.model.GenericAssayMolecularAlteration;
 import org.cbioportal.model.GenesetMolecularAlteration;
+import org.cbioportal.model.KeyedGeneMolecularAlteration;
+import org.cbioportal.model.MolecularDataKey;
 import org.cbioportal.model.MolecularProfileSamples;
 
 import java.util.List;
@@ -28,6 +30,10 @@ public interface MolecularDataMapper {
     List<GeneMolecularAlteration> getGeneMolecularAlterationsInMultipleMolecularProfiles(Set<String> molecularProfileIds, 
                                                                                          List<Integer> entrezGeneIds, String projection);
 
+    Cursor<KeyedGeneMolecularAlteration> getGeneMolecularAlterationsInMultipleMolecularProfilesAfterKey(
+        Set<String> molecularProfileIds, List<Integer> entrezGeneIds, String projection, MolecularDataKey after,
+        Integer limit);
+
     List<GenesetMolecularAlteration> getGenesetMolecularAlterations(String molecularProfileId, List<String> genesetIds,
                                                                     String projection);
 
@@ -1,11 +1,15 @@
 package org.cbioportal.persistence.mybatis;
 
+import org.apache.ibatis.cursor.Cursor;
 import org.cbioportal.model.*;
 import org.cbioportal.persistence.MolecularDataRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -65,6 +69,22 @@ public class MolecularDataMyBatisRepository implements MolecularDataRepository {
                 projection);
 	}
 
+    @Override
+    public void streamGeneMolecularAlterationsInMultipleMolecularProfiles(Set<String> molecularProfileIds,
+                                                                          List<Integer> entrezGeneIds,
+                                                                          String projection, MolecularDataKey after,
+                                                                          Integer limit,
+                                                                          Consumer<KeyedGeneMolecularAlteration> consumer) {
+
+        try (Cursor<KeyedGeneMolecularAlteration> cursor = molecularDataMapper
+            .getGeneMolecularAlterationsInMultipleMolecularProfilesAfterKey(molecularProfileIds, entrezGeneIds,
+                projection, after, limit)) {
+            cursor.forEach(consumer);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
     @Override
 	public List<GenesetMolecularAlteration> getGenesetMolecularAlterations(String molecularProfileId, 
                                                                            List<String> genesetIds, String projection) {
@@ -1,9 +1,12 @@
 package org.cbioportal.persistence.mybatis;
 
+import org.apache.ibatis.cursor.Cursor;
 import org.cbioportal.model.GeneFilterQuery;
 import org.cbioportal.model.GenomicDataCountItem;
+import org.cbioportal.model.KeyedMutation;
 import org.cbioportal.model.Mutation;
 import org.cbioportal.model.MutationCountByPosition;
+import org.cbioportal.model.MutationKey;
 import org.cbioportal.model.meta.MutationMeta;
 
 import java.util.List;
@@ -23,6 +26,12 @@ public interface MutationMapper {
                                                                         String projection, Integer limit,
                                                                         Integer offset, String sortBy, String direction);
 
+    Cursor<KeyedMutation> getMutationsInMultipleMolecularProfilesAfterKey(List<String> molecularProfileIds,
+                                                                         List<String> sampleIds,
+                                                                         List<Integer> entrezGeneIds, boolean snpOnly,
+                                                                         String projection, MutationKey after,
+                                                                         Integer limit);
+
     List<Mutation> getMutationsInMultipleMolecularProfilesByGeneQueries(List<String> molecularProfileIds,
                                                                         List<String> sampleIds,
                                                                         boolean snpOnly,
@@ -1,17 +1,24 @@
 package org.cbioportal.persistence.mybatis;
 
 import org.cbioportal.model.GeneFilterQuery;
+import org.apache.ibatis.cursor.Cursor;
 import org.cbioportal.model.GenomicDataCountItem;
+import org.cbioportal.model.KeyedMutation;
 import org.cbioportal.model.Mutation;
 import org.cbioportal.model.MutationCountByPosition;
+import org.cbioportal.model.MutationKey;
 import org.cbioportal.model.meta.MutationMeta;
 import org.cbioportal.persistence.MutationRepository;
+import org.cbioportal.persistence.mybatis.util.CaseFilterTableUtil;
 import org.cbioportal.persistence.mybatis.util.MolecularProfileCaseIdentifierUtil;
 import org.cbioportal.persistence.mybatis.util.PaginationCalculator;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Repository
@@ -21,6 +28,8 @@ public class MutationMyBatisRepository implements MutationRepository {
     private MutationMapper mutationMapper;
     @Autowired
     private MolecularProfileCaseIdentifierUtil molecularProfileCaseIdentifierUtil;
+    @Autowired
+    private CaseFilterTableUtil caseFilterTableUtil;
 
     @Override
     public List<Mutation> getMutationsInMolecularProfileBySampleListId(String molecularProfileId, String sampleListId,
@@ -50,19 +59,41 @@ public class MutationMyBatisRepository implements MutationRepository {
             .getGroupedCasesByMolecularProfileId(molecularProfileIds, sampleIds)
             .entrySet()
             .stream()
-            .flatMap(entry -> mutationMapper.getMutationsInMultipleMolecularProfiles(
-                Arrays.asList(entry.getKey()),
-                new ArrayList<>(entry.getValue()),
-                entrezGeneIds,
-                false,
-                projection,
-                pageSize,
-                PaginationCalculator.offset(pageSize, pageNumber),
-                sortBy,
-                direction).stream())
+            .flatMap(entry -> {
+                List<String> profileIds = Arrays.asList(entry.getKey());
+                List<String> profileSampleIds = new ArrayList<>(entry.getValue());
+                return caseFilterTableUtil.query(profileIds, profileSampleIds, () ->
+                    mutationMapper.getMutationsInMultipleMolecularProfiles(
+                        profileIds,
+                        profileSampleIds,
+                        entrezGeneIds,
+                        false,
+                        projection,
+                        pageSize,
+                        PaginationCalculator.offset(pageSize, pageNumber),
+                        sortBy,
+                        direction)).stream();
+            })
             .collect(Collectors.toList());
     }
 
+    @Override
+    public void streamMutationsInMultipleMolecularProfiles(List<String> molecularProfileIds, List<String> sampleIds,
+                                                           List<Integer> entrezGeneIds, String projection,
+                                                           MutationKey after, Integer limit,
+                                                           Consumer<KeyedMutation> consumer) {
+
+        caseFilterTableUtil.query(molecularProfileIds, sampleIds, () -> {
+            try (Cursor<KeyedMutation> cursor = mutationMapper.getMutationsInMultipleMolecularProfilesAfterKey(
+                molecularProfileIds, sampleIds, entrezGeneIds, false, projection, after, limit)) {
+                cursor.forEach(consumer);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return null;
+        });
+    }
+
     @Override
     public List<Mutation> getMutationsInMultipleMolecularProfilesByGeneQueries(List<String> molecularProfileIds,
                                                                                List<String> sampleIds,
@@ -79,16 +110,21 @@ public class MutationMyBatisRepository implements MutationRepository {
             .getGroupedCasesByMolecularProfileId(molecularProfileIds, sampleIds)
             .entrySet()
             .stream()
-            .flatMap(entry -> mutationMapper.getMutationsInMultipleMolecularProfilesByGeneQueries(
-                Arrays.asList(entry.getKey()),
-                new ArrayList<>(entry.getValue()),
-                false,
-                projection,
-                pageSize,
-                PaginationCalculator.offset(pageSize, pageNumber),
-                sortBy,
-                direction,
-                geneQueries).stream())
+            .flatMap(entry -> {
+                List<String> profileIds = Arrays.asList(entry.getKey());
+                List<String> profileSampleIds = new ArrayList<>(entry.getValue());
+                return caseFilterTableUtil.query(profileIds, profileSampleIds, () ->
+                    mutationMapper.getMutationsInMultipleMolecularProfilesByGeneQueries(
+                        profileIds,
+                        profileSampleIds,
+                        false,
+                        projection,
+                        pageSize,
+                        PaginationCalculator.offset(pageSize, pageNumber),
+                        sortBy,
+                        direction,
+                        geneQueries)).stream();
+            })
             .collect(Collectors.toList());
     }
 
@@ -97,8 +133,9 @@ public class MutationMyBatisRepository implements MutationRepository {
                                                                     List<String> sampleIds,
                                                                     List<Integer> entrezGeneIds) {
 
-        return mutationMapper.getMetaMutationsInMultipleMolecularProfiles(molecularProfileIds, sampleIds, entrezGeneIds,
-            false);
+        return caseFilterTableUtil.query(molecularProfileIds, sampleIds, () ->
+            mutationMapper.getMetaMutationsInMultipleMolecularProfiles(molecularProfileIds, sampleIds, entrezGeneIds,
+                false));
     }
 
     @Override
@@ -107,16 +144,19 @@ public class MutationMyBatisRepository implements MutationRepository {
                                                            String projection, Integer pageSize, Integer pageNumber,
                                                            String sortBy, String direction) {
 
-        return mutationMapper.getMutationsInMultipleMolecularProfiles(
-            Arrays.asList(molecularProfileId),
-            new ArrayList<>(sampleIds),
-            entrezGeneIds,
-            snpOnly,
-            projection,
-            pageSize,
-            PaginationCalculator.offset(pageSize, pageNumber),
-            sortBy,
-            direction);
+        List<String> molecularProfileIds = Arrays.asList(molecularProfileId);
+        List<String> profileSampleIds = new ArrayList<>(sampleIds);
+        return caseFilterTableUtil.query(molecularProfileIds, profileSampleIds, () ->
+            mutationMapper.getMutationsInMultipleMolecularProfiles(
+                molecularProfileIds,
+                profileSampleIds,
+                entrezGeneIds,
+                snpOnly,
+                projection,
+                pageSize,
+                PaginationCalculator.offset(pageSize, pageNumber),
+                sortBy,
+                direction));
     }
 
     @Override
@@ -136,7 +176,8 @@ public class MutationMyBatisRepository implements MutationRepository {
     @Override
     public GenomicDataCountItem getMutationCountsByType(List<String> molecularProfileIds, List<String> sampleIds, 
                                                        List<Integer> entrezGeneIds, String profileType) {
-        return mutationMapper.getMutationCountsByType(molecularProfileIds, sampleIds, entrezGeneIds,
-            false, profileType);
+        return caseFilterTableUtil.query(molecularProfileIds, sampleIds, () ->
+            mutationMapper.getMutationCountsByType(molecularProfileIds, sampleIds, entrezGeneIds,
+                false, profileType));
     }
 }
@@ -28,6 +28,7 @@ import org.cbioportal.model.StructuralVariantFilterQuery;
 import org.cbioportal.model.StructuralVariant;
 import org.cbioportal.model.StructuralVariantQuery;
 import org.cbioportal.persistence.StructuralVariantRepository;
+import org.cbioportal.persistence.mybatis.util.CaseFilterTableUtil;
 import org.cbioportal.persistence.mybatis.util.MolecularProfileCaseIdentifierUtil;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
@@ -45,6 +46,8 @@ public class StructuralVariantMyBatisRepository implements StructuralVariantRepo
     private StructuralVariantMapper structuralVariantMapper;
     @Autowired
     private MolecularProfileCaseIdentifierUtil molecularProfileCaseIdentifierUtil;
+    @Autowired
+    private CaseFilterTableUtil caseFilterTableUtil;
 
     @Override
     public List<StructuralVariant> fetchStructuralVariants(List<String> molecularProfileIds,
@@ -57,16 +60,19 @@ public class StructuralVariantMyBatisRepository implements StructuralVariantRepo
         return molecularProfileCaseIdentifierUtil.getGroupedCasesByMolecularProfileId(molecularProfileIds, sampleIds)
             .entrySet()
             .stream()
-            .flatMap(entry ->
-                structuralVariantMapper
-                    .fetchStructuralVariants(
-                        asList(entry.getKey()),
-                        new ArrayList<>(entry.getValue()),
-                        entrezGeneIds,
-                        structuralVariantQueries
-                    )
-                    .stream()
-            )
+            .flatMap(entry -> {
+                List<String> profileIds = asList(entry.getKey());
+                List<String> profileSampleIds = new ArrayList<>(entry.getValue());
+                return caseFilterTableUtil.query(profileIds, profileSampleIds, () ->
+                    structuralVariantMapper
+                        .fetchStructuralVariants(
+                            profileIds,
+                            profileSampleIds,
+                            entrezGeneIds,
+                            structuralVariantQueries
+                        ))
+                    .stream();
+            })
             .collect(Collectors.toList());
     }
 
@@ -78,7 +84,8 @@ public class StructuralVariantMyBatisRepository implements StructuralVariantRepo
             || molecularProfileIds == null || molecularProfileIds.isEmpty()) {
             return new ArrayList<>();
         }
-        return structuralVariantMapper.fetchStructuralVariantsByGeneQueries(molecularProfileIds, sampleIds, geneQueries);
+        return caseFilterTableUtil.query(molecularProfileIds, sampleIds, () ->
+            structuralVariantMapper.fetchStructuralVariantsByGeneQueries(molecularProfileIds, sampleIds, geneQueries));
     }
 
     @Override
@@ -89,6 +96,7 @@ public class StructuralVariantMyBatisRepository implements StructuralVariantRepo
             || molecularProfileIds == null || molecularProfileIds.isEmpty()) {
             return new ArrayList<>();
         }
-        return structuralVariantMapper.fetchStructuralVariantsByStructVarQueries(molecularProfileIds, sampleIds, structVarQueries);
+        return caseFilterTableUtil.query(molecularProfileIds, sampleIds, () ->
+            structuralVariantMapper.fetchStructuralVariantsByStructVarQueries(molecularProfileIds, sampleIds, structVarQueries));
     }
 }
@@ -0,0 +1,221 @@
+package org.cbioportal.persistence.mybatis.util;
+
+import org.cbioportal.model.MolecularProfileCaseIdentifier;
+import org.cbioportal.persistence.mybatis.CaseFilterMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * Large (molecular profile, case) filters are expanded by the mappers into an IN list with one tuple per case,
+ * which for tens of thousands of cases gives multi-megabyte statements that are slow to parse and plan. Above
+ * db.case_filter_table_threshold identifiers, the identifiers are instead bulk-loaded into a session scoped
+ * temporary table which the statement joins against. The tables only live for the duration of the query, on
+ * the connection of a transaction that is opened for it.
+ *
+ * Mappers check {@link #isActive(String)} from their case filter fragments to select from a table instead of
+ * expanding the identifiers. MySQL can not refer to a temporary table more than once in a statement, so every
+ * identifier list of a statement gets its own table.
+ *
+ * Creating the tables needs the CREATE TEMPORARY TABLES privilege and fails within a transaction under
+ * enforce_gtid_consistency on older MySQL versions. When a table can not be created, the query falls back to the
+ * IN list. Errors that will not go away by themselves (a missing privilege, an unsupported engine or the GTID
+ * restriction) stop the use of tables until the next restart; after other errors tables are tried again once
+ * db.case_filter_table_retry_seconds have passed.
+ */
+@Component
+public class CaseFilterTableUtil {
+
+    public static final String CASES = "case_filter_cases";
+    public static final String SAMPLES = "case_filter_samples";
+    public static final String MUTATIONS = "case_filter_mutations";
+    public static final String COPY_NUMBER_ALTERATIONS = "case_filter_cnas";
+    public static final String STRUCTURAL_VARIANTS = "case_filter_structural_variants";
+
+    private static final Logger LOG = LoggerFactory.getLogger(CaseFilterTableUtil.class);
+
+    private static final int INSERT_BATCH_SIZE = 1000;
+    private static final ThreadLocal<Set<String>> ACTIVE_TABLES = ThreadLocal.withInitial(HashSet::new);
+    private static final Pattern COLLATION_NAME = Pattern.compile("\\w+");
+    // MySQL error codes: database, table and privilege access denied, unknown storage engine, feature disabled and
+    // temporary table creation inside a transaction under enforce_gtid_consistency
+    private static final Set<Integer> DEFINITIVE_ERROR_CODES = Set.of(1044, 1142, 1227, 1286, 1289, 1787);
+
+    @Autowired
+    private CaseFilterMapper caseFilterMapper;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${db.case_filter_table_threshold:5000}")
+    private int threshold;
+    @Value("${db.case_filter_table_retry_seconds:300}")
+    private long retrySeconds;
+
+    // tables are not used before this time (milliseconds since the epoch)
+    private volatile long disabledUntil = 0;
+    private volatile ColumnCollations columnCollations;
+
+    /**
+     * @return whether the statement that is being built should select the cases from the given table
+     */
+    public static boolean isActive(String tableName) {
+        return ACTIVE_TABLES.get().contains(tableName);
+    }
+
+    /**
+     * Runs the query with the identifiers loaded into the given table, or directly when there are not more
+     * identifiers than the threshold.
+     *
+     * @param internalIds whether the identifiers hold internal genetic profile and sample/patient ids rather
+     *                    than stable ids
+     */
+    public <T> T query(String tableName, Collection<MolecularProfileCaseIdentifier> identifiers, boolean internalIds,
+                       Supplier<T> query) {
+
+        return query(Collections.singletonMap(tableName, identifiers), internalIds, query);
+    }
+
+    /**
+     * Runs the query with every identifier list that has more identifiers than the threshold loaded into its
+     * table. Null lists are ignored.
+     */
+    public <T> T query(Map<String, ? extends Collection<MolecularProfileCaseIdentifier>> identifiersByTable,
+                       boolean internalIds, Supplier<T> query) {
+
+        Map<String, List<MolecularProfileCaseIdentifier>> tables = new LinkedHashMap<>();
+        if (threshold > 0 && !isDisabled() && ACTIVE_TABLES.get().isEmpty()) {
+            identifiersByTable.forEach((tableName, identifiers) -> {
+                if (identifiers != null && identifiers.size() > threshold) {
+                    tables.put(tableName, new ArrayList<>(new LinkedHashSet<>(identifiers)));
+                }
+            });
+        }
+        if (tables.isEmpty()) {
+            return query.get();
+        }
+
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        return transactionTemplate.execute(status -> {
+            List<String> createdTables = new ArrayList<>();
+            try {
+                try {
+                    for (Map.Entry<String, List<MolecularProfileCaseIdentifier>> table : tables.entrySet()) {
+                        createTable(table.getKey(), table.getValue(), internalIds);
+                        createdTables.add(table.getKey());
+                    }
+                } catch (DataAccessException e) {
+                    disable(e);
+                    return query.get();
+                }
+                ACTIVE_TABLES.get().addAll(tables.keySet());
+                return query.get();
+            } finally {
+                ACTIVE_TABLES.remove();
+                for (String tableName : createdTables) {
+                    caseFilterMapper.dropCaseFilterTable(tableName);
+                }
+            }
+        });
+    }
+
+    /**
+     * Stable id variant for mappers that take parallel molecular profile and sample id lists. A single molecular
+     * profile id applies to all sample ids.
+     */
+    public <T> T query(List<String> molecularProfileIds, List<String> sampleIds, Supplier<T> query) {
+
+        if (threshold <= 0 || isDisabled() || sampleIds == null || sampleIds.size() <= threshold) {
+            return query.get();
+        }
+        List<MolecularProfileCaseIdentifier> identifiers = new ArrayList<>(sampleIds.size());
+        for (int i = 0; i < sampleIds.size(); i++) {
+            String molecularProfileId = molecularProfileIds.size() == 1 ? molecularProfileIds.get(0) : molecularProfileIds.get(i);
+            identifiers.add(new MolecularProfileCaseIdentifier(sampleIds.get(i), molecularProfileId));
+        }
+        return query(SAMPLES, identifiers, false, query);
+    }
+
+    private boolean isDisabled() {
+        return System.currentTimeMillis() < disabledUntil;
+    }
+
+    private void disable(DataAccessException e) {
+        if (isDefinitive(e)) {
+            disabledUntil = Long.MAX_VALUE;
+            LOG.warn("Could not create case filter table, large case filters are expanded into IN lists "
+                + "from now on: " + e.getMessage());
+        } else {
+            disabledUntil = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(retrySeconds);
+            LOG.warn("Could not create case filter table, large case filters are expanded into IN lists for the next "
+                + retrySeconds + " seconds: " + e.getMessage());
+        }
+    }
+
+    private static boolean isDefinitive(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sqlException
+                && DEFINITIVE_ERROR_CODES.contains(sqlException.getErrorCode())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void createTable(String tableName, List<MolecularProfileCaseIdentifier> identifiers, boolean internalIds) {
+
+        // a previous request on this pooled connection may have failed before dropping its table
+        caseFilterMapper.dropCaseFilterTable(tableName);
+        ColumnCollations collations = getColumnCollations();
+        caseFilterMapper.createCaseFilterTable(tableName, internalIds, collations.molecularProfileId,
+            collations.caseId);
+        for (int from = 0; from < identifiers.size(); from += INSERT_BATCH_SIZE) {
+            int to = Math.min(from + INSERT_BATCH_SIZE, identifiers.size());
+            caseFilterMapper.insertCaseFilterRows(tableName, identifiers.subList(from, to));
+        }
+    }
+
+    private ColumnCollations getColumnCollations() {
+        if (columnCollations == null) {
+            columnCollations = new ColumnCollations(
+                getColumnCollation("genetic_profile", "STABLE_ID"),
+                getColumnCollation("sample", "STABLE_ID"));
+        }
+        return columnCollations;
+    }
+
+    private String getColumnCollation(String tableName, String columnName) {
+        String collation = caseFilterMapper.getColumnCollation(tableName, columnName);
+        // the name is written into the statement
+        return collation != null && COLLATION_NAME.matcher(collation).matches() ? collation : null;
+    }
+
+    private static class ColumnCollations {
+
+        private final String molecularProfileId;
+        private final String caseId;
+
+        private ColumnCollations(String molecularProfileId, String caseId) {
+            this.molecularProfileId = molecularProfileId;
+            this.caseId = caseId;
+        }
+    }
+}
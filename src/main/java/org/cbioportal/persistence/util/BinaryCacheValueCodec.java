@@ -0,0 +1,95 @@
+package org.cbioportal.persistence.util;
+
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FastDecompressor;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+
+/**
+ * Stores model objects in {@link ModelBinaryFormat} and other values with Java serialization, in both cases
+ * compressed with LZ4, which decompresses several times faster than GZIP.
+ *
+ * Layout: format (1 byte), uncompressed length (4 bytes), LZ4 block. Values that were stored by
+ * {@link JavaSerializationCodec} start with the GZIP magic number instead and can still be read.
+ */
+public class BinaryCacheValueCodec implements CacheValueCodec {
+
+    private static final byte MODEL_BINARY_FORMAT = 1;
+    private static final byte JAVA_SERIALIZATION_FORMAT = 2;
+    private static final int HEADER_LENGTH = 5;
+
+    private static final LZ4Factory LZ4 = LZ4Factory.fastestInstance();
+
+    private final JavaSerializationCodec legacyCodec = new JavaSerializationCodec();
+
+    @Override
+    public byte[] encode(Object value) throws IOException {
+        byte format;
+        byte[] uncompressed;
+        try {
+            uncompressed = ModelBinaryFormat.encode(value);
+            format = MODEL_BINARY_FORMAT;
+        } catch (ModelBinaryFormat.UnsupportedValueException e) {
+            ByteArrayOutputStream byteOut = new ByteArrayOutputStream();
+            try (ObjectOutputStream objectOut = new ObjectOutputStream(byteOut)) {
+                objectOut.writeObject(value);
+            }
+            uncompressed = byteOut.toByteArray();
+            format = JAVA_SERIALIZATION_FORMAT;
+        }
+
+        LZ4Compressor compressor = LZ4.fastCompressor();
+        byte[] frame = new byte[HEADER_LENGTH + compressor.maxCompressedLength(uncompressed.length)];
+        frame[0] = format;
+        writeInt(frame, 1, uncompressed.length);
+        int compressedLength = compressor.compress(uncompressed, 0, uncompressed.length, frame, HEADER_LENGTH);
+        byte[] result = new byte[HEADER_LENGTH + compressedLength];
+        System.arraycopy(frame, 0, result, 0, result.length);
+        return result;
+    }
+
+    @Override
+    public Object decode(byte[] bytes) throws IOException {
+        if (JavaSerializationCodec.isGzip(bytes)) {
+            return legacyCodec.decode(bytes);
+        }
+        if (bytes.length < HEADER_LENGTH) {
+            throw new IOException("Cached value is too short");
+        }
+        int length = readInt(bytes, 1);
+        if (length < 0) {
+            throw new IOException("Invalid length of cached value");
+        }
+        byte[] uncompressed = new byte[length];
+        try {
+            LZ4FastDecompressor decompressor = LZ4.fastDecompressor();
+            decompressor.decompress(bytes, HEADER_LENGTH, uncompressed, 0, length);
+        } catch (RuntimeException e) {
+            throw new IOException("Could not decompress cached value", e);
+        }
+        switch (bytes[0]) {
+            case MODEL_BINARY_FORMAT:
+                return ModelBinaryFormat.decode(uncompressed, 0, length);
+            case JAVA_SERIALIZATION_FORMAT:
+                return JavaSerializationCodec.readObject(new ByteArrayInputStream(uncompressed));
+            default:
+                throw new IOException("Unknown cached value format " + bytes[0]);
+        }
+    }
+
+    private static void writeInt(byte[] bytes, int offset, int value) {
+        bytes[offset] = (byte) (value >>> 24);
+        bytes[offset + 1] = (byte) (value >>> 16);
+        bytes[offset + 2] = (byte) (value >>> 8);
+        bytes[offset + 3] = (byte) value;
+    }
+
+    private static int readInt(byte[] bytes, int offset) {
+        return ((bytes[offset] & 0xFF) << 24) | ((bytes[offset + 1] & 0xFF) << 16)
+            | ((bytes[offset + 2] & 0xFF) << 8) | (bytes[offset + 3] & 0xFF);
+    }
+}
@@ -0,0 +1,25 @@
+package org.cbioportal.persistence.util;
+
+/**
+ * Leases on cache keys, held by the caller that computes the value of a key after a miss. A lease expires on its
+ * own when it is not released, so that a computation that failed does not block the key.
+ */
+public interface CacheLeases {
+
+    /**
+     * @return true if the lease was acquired, false if it is held by another caller
+     */
+    boolean tryAcquire(String key);
+
+    /**
+     * Waits until the lease of the key has been released or has expired, or until the timeout has passed.
+     *
+     * @return true if the lease is no longer held
+     */
+    boolean awaitRelease(String key, long timeoutMillis) throws InterruptedException;
+
+    /**
+     * Releases the lease if it is held by this caller.
+     */
+    void release(String key);
+}
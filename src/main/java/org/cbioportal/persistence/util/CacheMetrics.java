@@ -0,0 +1,140 @@
+package org.cbioportal.persistence.util;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Records the metrics of the Spring caches per cache and per cached method, the method being taken from the
+ * {@link CustomKeyGenerator} key ({@code SimpleClassName_methodName_params}):
+ * <ul>
+ *     <li>cbioportal.cache.gets: lookups, tagged with result=hit|miss</li>
+ *     <li>cbioportal.cache.hit.ratio: hits / lookups since startup</li>
+ *     <li>cbioportal.cache.load: time from a miss until the computed value was put</li>
+ *     <li>cbioportal.cache.entry.size: serialized size of the values put (Redis only, Ehcache keeps them on heap)</li>
+ *     <li>cbioportal.cache.evictions: evictions, tagged with cause=explicit|capacity|expiry</li>
+ * </ul>
+ */
+@Component
+public class CacheMetrics {
+
+    public static final String UNKNOWN_METHOD = "unknown";
+
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentMap<String, MethodMetrics> methodMetrics = new ConcurrentHashMap<>();
+
+    public CacheMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public void recordHit(String cacheName, Object key) {
+        getMethodMetrics(cacheName, key).hits.increment();
+    }
+
+    public void recordMiss(String cacheName, Object key) {
+        getMethodMetrics(cacheName, key).misses.increment();
+    }
+
+    public void recordLoad(String cacheName, Object key, long nanos) {
+        getMethodMetrics(cacheName, key).load.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordEntrySize(String cacheName, Object key, long bytes) {
+        getMethodMetrics(cacheName, key).entrySize.record(bytes);
+    }
+
+    public void recordEviction(String cacheName) {
+        Counter.builder("cbioportal.cache.evictions")
+            .tag("cache", cacheName)
+            .tag("cause", "explicit")
+            .description("Evictions from the cache")
+            .register(meterRegistry)
+            .increment();
+    }
+
+    /**
+     * Registers evictions counted by the cache itself, e.g. the capacity evictions of Ehcache.
+     */
+    public <T> void registerEvictions(String cacheName, String cause, T source, ToDoubleFunction<T> count) {
+        FunctionCounter.builder("cbioportal.cache.evictions", source, count)
+            .tag("cache", cacheName)
+            .tag("cause", cause)
+            .description("Evictions from the cache")
+            .register(meterRegistry);
+    }
+
+    /**
+     * @return the cached method of a key generated by {@link CustomKeyGenerator}, e.g.
+     * {@code SampleMyBatisRepository_getSample} or {@link #UNKNOWN_METHOD} if the key was generated otherwise
+     */
+    public static String getMethod(Object key) {
+        if (!(key instanceof String)) {
+            return UNKNOWN_METHOD;
+        }
+        String text = (String) key;
+        int classEnd = text.indexOf(CustomKeyGenerator.CACHE_KEY_PARAM_DELIMITER);
+        if (classEnd <= 0) {
+            return UNKNOWN_METHOD;
+        }
+        int methodEnd = text.indexOf(CustomKeyGenerator.CACHE_KEY_PARAM_DELIMITER, classEnd + 1);
+        return methodEnd < 0 ? UNKNOWN_METHOD : text.substring(0, methodEnd);
+    }
+
+    private MethodMetrics getMethodMetrics(String cacheName, Object key) {
+        String method = getMethod(key);
+        String id = cacheName + ':' + method;
+        MethodMetrics metrics = methodMetrics.get(id);
+        if (metrics == null) {
+            metrics = methodMetrics.computeIfAbsent(id, k -> new MethodMetrics(meterRegistry, cacheName, method));
+        }
+        return metrics;
+    }
+
+    private static class MethodMetrics {
+
+        private final Counter hits;
+        private final Counter misses;
+        private final Timer load;
+        private final DistributionSummary entrySize;
+
+        private MethodMetrics(MeterRegistry meterRegistry, String cacheName, String method) {
+            hits = Counter.builder("cbioportal.cache.gets")
+                .tags("cache", cacheName, "method", method, "result", "hit")
+                .description("Lookups of cached method results")
+                .register(meterRegistry);
+            misses = Counter.builder("cbioportal.cache.gets")
+                .tags("cache", cacheName, "method", method, "result", "miss")
+                .description("Lookups of cached method results")
+                .register(meterRegistry);
+            load = Timer.builder("cbioportal.cache.load")
+                .tags("cache", cacheName, "method", method)
+                .description("Time to compute a value after a miss")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+            entrySize = DistributionSummary.builder("cbioportal.cache.entry.size")
+                .tags("cache", cacheName, "method", method)
+                .baseUnit("bytes")
+                .description("Serialized size of the cached values")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+            Gauge.builder("cbioportal.cache.hit.ratio", this, MethodMetrics::getHitRatio)
+                .tags("cache", cacheName, "method", method)
+                .description("Hits / lookups of cached method results")
+                .register(meterRegistry);
+        }
+
+        private double getHitRatio() {
+            double lookups = hits.count() + misses.count();
+            return lookups == 0 ? Double.NaN : hits.count() / lookups;
+        }
+    }
+}
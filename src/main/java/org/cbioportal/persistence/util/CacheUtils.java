@@ -3,6 +3,15 @@ package org.cbioportal.persistence.util;
 import java.util.List;
 
 public interface CacheUtils {
+    String ALL_KEYS_PATTERN = ".*";
+
     List<String> getKeys(String cacheName);
     void evictByPattern(String cacheName, String pattern);
+
+    /**
+     * Evicts the keys that contain the study id and the keys without any study id, using the {@link StudyKeyIndex}.
+     * Returns false (and evicts nothing) when the index does not cover all keys of the cache, in which case the
+     * caller has to fall back to {@link #evictByPattern(String, String)}.
+     */
+    boolean evictByStudy(String cacheName, String studyId);
 }
@@ -0,0 +1,15 @@
+package org.cbioportal.persistence.util;
+
+import java.io.IOException;
+
+/**
+ * Converts the values of {@link CustomRedisCache} to and from the bytes that are stored in Redis. Selected with
+ * the redis.codec property: 'binary' (default), 'java', or the class name of another implementation with a
+ * public no-argument constructor.
+ */
+public interface CacheValueCodec {
+
+    byte[] encode(Object value) throws IOException;
+
+    Object decode(byte[] bytes) throws IOException;
+}
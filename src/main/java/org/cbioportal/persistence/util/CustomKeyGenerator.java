@@ -32,20 +32,29 @@
 
 package org.cbioportal.persistence.util;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
 import org.cbioportal.model.CancerStudy;
+import org.cbioportal.model.TableTimestampPair;
 import org.cbioportal.model.util.Select;
 import org.cbioportal.persistence.CacheEnabledConfig;
+import org.cbioportal.persistence.StaticDataTimeStampRepository;
 import org.cbioportal.persistence.StudyRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.interceptor.KeyGenerator;
-import org.springframework.util.DigestUtils;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.lang.reflect.Method;
-import java.util.Arrays;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 
@@ -53,54 +62,177 @@ public class CustomKeyGenerator implements KeyGenerator {
     public static final String CACHE_KEY_PARAM_DELIMITER = "_";
     public static final int PARAM_LENGTH_HASH_LIMIT = 1024;
 
+    private static final List<String> STUDY_TABLES = Collections.singletonList("cancer_study");
+
     @Autowired
     private CacheEnabledConfig cacheEnabledConfig;
 
     @Autowired
     private StudyRepository studyRepository;
+
+    @Autowired
+    private StaticDataTimeStampRepository staticDataTimeStampRepository;
+
+    // how often to check whether the studies have changed. A matcher that is behind is safe for eviction: keys of
+    // a new study then carry no study id and are evicted with every study, a removed study merely tags extra keys.
+    @Value("${cache.key_generator.study_check_seconds:30}")
+    private long studyCheckSeconds;
     
     private static final ObjectMapper mapper = new ObjectMapper();
 
     private static final Logger LOG = LoggerFactory.getLogger(CustomKeyGenerator.class);
 
+    // set while the study list is loaded, so that the (cached) call to getAllStudies does not recurse
+    private static final ThreadLocal<Boolean> LISTING_STUDIES = new ThreadLocal<>();
+
+    private volatile StudyIdMatcher studyIdMatcher;
+    private volatile long nextStudyCheckMillis;
+    private List<TableTimestampPair> studyTableTimestamps;
+
     public Object generate(Object target, Method method, Object... params) {
         if (!cacheEnabledConfig.isEnabled()) {
             return "";
         }
-        String key = target.getClass().getSimpleName() + CACHE_KEY_PARAM_DELIMITER
-            + method.getName() + CACHE_KEY_PARAM_DELIMITER
-            + Arrays.stream(params)
-                .map(this::exceptionlessWrite)
-                .collect(Collectors.joining(CACHE_KEY_PARAM_DELIMITER));
-        LOG.debug("Created key: " + key);
-        return key;
+        StringBuilder key = new StringBuilder()
+            .append(target.getClass().getSimpleName()).append(CACHE_KEY_PARAM_DELIMITER)
+            .append(method.getName()).append(CACHE_KEY_PARAM_DELIMITER);
+        for (int i = 0; i < params.length; i++) {
+            if (i > 0) {
+                key.append(CACHE_KEY_PARAM_DELIMITER);
+            }
+            exceptionlessWrite(params[i], key);
+        }
+        LOG.debug("Created key: {}", key);
+        return key.toString();
     }
     
-    private String exceptionlessWrite(Object toSerialize) {
+    private void exceptionlessWrite(Object toSerialize, StringBuilder key) {
         if (toSerialize instanceof Select && ((Select) toSerialize).hasAll()) {
             // Select implements Iterable, but Select.All throws an exception
             // when you call iterator(), which breaks Jackson, so we need some custom logic
-            return "Select.ALL";
+            key.append("Select.ALL");
+            return;
         }
         try {
-            String json = mapper.writeValueAsString(toSerialize);
-            if (json.length() > PARAM_LENGTH_HASH_LIMIT) {
+            ParamOutputStream out = new ParamOutputStream();
+            mapper.writeValue(out, toSerialize);
+            if (out.search != null) {
                 // To allow study-specific cache eviction, extract relevant
                 // study identifiers and add these to the cache keys.
-                String matchedStudyIds = studyRepository.getAllStudies(null, "SUMMARY", null, null, null, null)
-                    .stream()
-                    .map(CancerStudy::getCancerStudyIdentifier)
-                    .distinct()
-                    .filter(json::contains)
-                    .collect(Collectors.joining(CACHE_KEY_PARAM_DELIMITER));
-                return matchedStudyIds + CACHE_KEY_PARAM_DELIMITER + DigestUtils.md5DigestAsHex(json.getBytes());
+                key.append(String.join(CACHE_KEY_PARAM_DELIMITER, out.search.getMatches()))
+                    .append(CACHE_KEY_PARAM_DELIMITER)
+                    .append(out.hasher.hash());
             } else {
                 // leave short keys intact, but remove semicolons to make things look cleaner in redis
-                return json.replaceAll(":", CACHE_KEY_PARAM_DELIMITER);
+                key.append(new String(out.buffer, 0, out.length, StandardCharsets.UTF_8)
+                    .replace(":", CACHE_KEY_PARAM_DELIMITER));
             }
-        } catch (JsonProcessingException e) {
+        } catch (IOException e) {
             LOG.error("Could not serialize param to string: ", e);
-            return "";
+        }
+    }
+
+    /**
+     * Returns the ids of the studies in the portal that occur in the given key or parameter, in the order of
+     * the study list. These are the studies whose eviction must also evict the key.
+     */
+    public Set<String> extractStudyIds(String text) {
+        StudyIdMatcher matcher = getStudyIdMatcher();
+        return matcher != null ? matcher.match(text) : Collections.emptySet();
+    }
+
+    /**
+     * Makes the next key rebuild the study id matcher from the study list, so that the keys of a study that has just
+     * been loaded are tagged with its id. Called when the caches are cleared, after the study list has been evicted.
+     */
+    public synchronized void resetStudyIdMatcher() {
+        studyTableTimestamps = null;
+        nextStudyCheckMillis = 0;
+    }
+
+    private StudyIdMatcher getStudyIdMatcher() {
+        if (studyIdMatcher == null || System.currentTimeMillis() >= nextStudyCheckMillis) {
+            if (Boolean.TRUE.equals(LISTING_STUDIES.get())) {
+                // the key of the study list itself does not contain study ids
+                return studyIdMatcher;
+            }
+            LISTING_STUDIES.set(true);
+            try {
+                refreshStudyIdMatcher();
+            } finally {
+                LISTING_STUDIES.remove();
+            }
+        }
+        return studyIdMatcher;
+    }
+
+    private synchronized void refreshStudyIdMatcher() {
+        if (studyIdMatcher != null && System.currentTimeMillis() < nextStudyCheckMillis) {
+            return;
+        }
+        List<TableTimestampPair> timestamps = staticDataTimeStampRepository.getTimestamps(STUDY_TABLES);
+        if (studyIdMatcher == null || !sameTimestamps(timestamps, studyTableTimestamps)) {
+            List<String> studyIds = studyRepository.getAllStudies(null, "SUMMARY", null, null, null, null)
+                .stream()
+                .map(CancerStudy::getCancerStudyIdentifier)
+                .collect(Collectors.toList());
+            studyIdMatcher = new StudyIdMatcher(studyIds);
+            studyTableTimestamps = timestamps;
+        }
+        nextStudyCheckMillis = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(studyCheckSeconds);
+    }
+
+    // no timestamps are found when the database name is not configured, in which case the studies may have changed
+    private static boolean sameTimestamps(List<TableTimestampPair> timestamps, List<TableTimestampPair> other) {
+        if (timestamps == null || other == null || timestamps.isEmpty() || timestamps.size() != other.size()) {
+            return false;
+        }
+        for (int i = 0; i < timestamps.size(); i++) {
+            if (!String.valueOf(timestamps.get(i).getUpdateTime()).equals(String.valueOf(other.get(i).getUpdateTime()))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Receives the serialized parameter. The first PARAM_LENGTH_HASH_LIMIT bytes are buffered; once a parameter
+     * is longer, its bytes are only hashed and searched for study ids, without materializing the JSON.
+     */
+    private class ParamOutputStream extends OutputStream {
+
+        private final byte[] buffer = new byte[PARAM_LENGTH_HASH_LIMIT];
+        private int length;
+        private Hasher hasher;
+        private StudyIdMatcher.Search search;
+
+        private final byte[] single = new byte[1];
+
+        @Override
+        public void write(int b) {
+            single[0] = (byte) b;
+            write(single, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int count) {
+            if (search == null && length + count <= buffer.length) {
+                System.arraycopy(bytes, offset, buffer, length, count);
+                length += count;
+                return;
+            }
+            if (search == null) {
+                StudyIdMatcher matcher = getStudyIdMatcher();
+                search = (matcher != null ? matcher : new StudyIdMatcher(Collections.emptyList())).newSearch();
+                hasher = Hashing.murmur3_128().newHasher();
+                update(buffer, 0, length);
+            }
+            update(bytes, offset, count);
+        }
+
+        private void update(byte[] bytes, int offset, int count) {
+            search.update(bytes, offset, count);
+            hasher.putBytes(bytes, offset, count);
         }
     }
 }
@@ -8,11 +8,9 @@ import org.springframework.cache.support.AbstractValueAdaptingCache;
 import org.springframework.cache.support.SimpleValueWrapper;
 import org.springframework.lang.Nullable;
 
-import java.io.*;
+import java.io.IOException;
 import java.util.concurrent.Callable;
 import java.util.concurrent.TimeUnit;
-import java.util.zip.GZIPInputStream;
-import java.util.zip.GZIPOutputStream;
 
 public class CustomRedisCache extends AbstractValueAdaptingCache {
     private static final Logger LOG = LoggerFactory.getLogger(CustomRedisCache.class);
@@ -22,16 +20,30 @@ public class CustomRedisCache extends AbstractValueAdaptingCache {
     private final String name;
     private final long ttlMinutes;
     private final RedissonClient redissonClient;
+    private final CacheValueCodec codec;
+    private CacheMetrics cacheMetrics;
 
     /**
      * Create a new ConcurrentMapCache with the specified name.
      * @param name the name of the cache
      */
     public CustomRedisCache(String name, RedissonClient client, long ttlMinutes) {
+        this(name, client, ttlMinutes, new BinaryCacheValueCodec());
+    }
+
+    public CustomRedisCache(String name, RedissonClient client, long ttlMinutes, CacheValueCodec codec) {
         super(true);
         this.name = name;
         this.redissonClient = client;
         this.ttlMinutes = ttlMinutes;
+        this.codec = codec;
+    }
+
+    /**
+     * @param cacheMetrics where to record the serialized size of the values put, none by default
+     */
+    public void setCacheMetrics(@Nullable CacheMetrics cacheMetrics) {
+        this.cacheMetrics = cacheMetrics;
     }
 
     @Override
@@ -43,6 +55,10 @@ public class CustomRedisCache extends AbstractValueAdaptingCache {
         return this.redissonClient;
     }
 
+    public long getTtlMinutes() {
+        return ttlMinutes;
+    }
+
     @Override
     @Nullable
     protected Object lookup(Object key) {
@@ -81,10 +97,14 @@ public class CustomRedisCache extends AbstractValueAdaptingCache {
         if (value == null) {
             LOG.warn("Storing null value for key {} in cache. That's probably not great.", key);
         }
+        Object storeValue = toStoreValue(value);
+        if (cacheMetrics != null && storeValue != null) {
+            cacheMetrics.recordEntrySize(name, key, ((byte[]) storeValue).length);
+        }
         if (ttlMinutes == INFINITE_TTL) {
-            this.redissonClient.getBucket(name + DELIMITER + key).setAsync(toStoreValue(value));
+            this.redissonClient.getBucket(name + DELIMITER + key).setAsync(storeValue);
         } else {
-            this.redissonClient.getBucket(name + DELIMITER + key).setAsync(toStoreValue(value), ttlMinutes, TimeUnit.MINUTES);
+            this.redissonClient.getBucket(name + DELIMITER + key).setAsync(storeValue, ttlMinutes, TimeUnit.MINUTES);
         }
     }
 
@@ -138,21 +158,8 @@ public class CustomRedisCache extends AbstractValueAdaptingCache {
             return null;
         }
         
-        ByteArrayOutputStream byteOut = new ByteArrayOutputStream();
-        ObjectOutputStream objectOut;
         try {
-            // serialize to byte array
-            objectOut = new ObjectOutputStream(byteOut);
-            objectOut.writeObject(userValue);
-            objectOut.flush();
-            byte[] uncompressedByteArray = byteOut.toByteArray();
-            
-            // compress byte array
-            byteOut = new ByteArrayOutputStream(uncompressedByteArray.length);
-            GZIPOutputStream g = new GZIPOutputStream(byteOut);
-            g.write(uncompressedByteArray);
-            g.close();
-            return byteOut.toByteArray();
+            return codec.encode(userValue);
         } catch (IOException e) {
             LOG.warn("Error compressing object for cache: ", e);
             return null;
@@ -165,25 +172,9 @@ public class CustomRedisCache extends AbstractValueAdaptingCache {
             return null;
         }
         
-        byte[] bytes = (byte[]) storeValue;
-        ByteArrayInputStream byteIn = new ByteArrayInputStream(bytes);
-        ByteArrayOutputStream byteOut = new ByteArrayOutputStream();
-        GZIPInputStream gzipIn;
         try {
-            // inflate to byte array
-            gzipIn = new GZIPInputStream(byteIn);
-            byte[] buffer = new byte[1024];
-            int len;
-            while ((len = gzipIn.read(buffer)) != -1) {
-                byteOut.write(buffer, 0, len);
-            }
-            byte[] unzippedBytes = byteOut.toByteArray();
-            
-            // deserialize byte array to object
-            byteIn = new ByteArrayInputStream(unzippedBytes);
-            ObjectInputStream oi = new ObjectInputStream(byteIn);
-            return oi.readObject();
-        } catch (IOException | ClassNotFoundException e) {
+            return codec.decode((byte[]) storeValue);
+        } catch (IOException e) {
             LOG.warn("Error inflating object from cache: ", e);
             return null;
         }
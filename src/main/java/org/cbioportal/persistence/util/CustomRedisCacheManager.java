@@ -14,10 +14,24 @@ public class CustomRedisCacheManager implements CacheManager {
     private final ConcurrentMap<String, CustomRedisCache> caches = new ConcurrentHashMap<>();
     private final RedissonClient client;
     private final long ttlInMins;
+    private final CacheValueCodec codec;
+    private CacheMetrics cacheMetrics;
 
     public CustomRedisCacheManager(RedissonClient client, long ttlInMins) {
+        this(client, ttlInMins, new BinaryCacheValueCodec());
+    }
+
+    public CustomRedisCacheManager(RedissonClient client, long ttlInMins, CacheValueCodec codec) {
         this.client = client;
         this.ttlInMins = ttlInMins;
+        this.codec = codec;
+    }
+
+    /**
+     * @param cacheMetrics where the caches created from now on record the serialized size of their values
+     */
+    public void setCacheMetrics(CacheMetrics cacheMetrics) {
+        this.cacheMetrics = cacheMetrics;
     }
 
     /**
@@ -42,7 +56,11 @@ public class CustomRedisCacheManager implements CacheManager {
     @NotNull
     public Cache getCache(String name, boolean expires) {
         long clientTTLInMinutes = expires ? ttlInMins : CustomRedisCache.INFINITE_TTL;
-        return caches.computeIfAbsent(name, k -> new CustomRedisCache(name, client, clientTTLInMinutes));
+        return caches.computeIfAbsent(name, k -> {
+            CustomRedisCache cache = new CustomRedisCache(name, client, clientTTLInMinutes, codec);
+            cache.setCacheMetrics(cacheMetrics);
+            return cache;
+        });
     }
 
     /**
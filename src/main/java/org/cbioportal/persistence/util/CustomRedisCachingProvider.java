@@ -37,6 +37,7 @@ import org.redisson.api.RedissonClient;
 import org.redisson.config.Config;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
@@ -65,6 +66,15 @@ public class CustomRedisCachingProvider {
 
     @Value("${redis.clear_on_startup:true}")
     private boolean clearOnStartup;
+
+    @Value("${redis.codec:binary}")
+    private String codec;
+
+    @Value("${cache.metrics.enabled:true}")
+    private boolean metricsEnabled;
+
+    @Autowired(required = false)
+    private CacheMetrics cacheMetrics;
     
     public RedissonClient getRedissonClient() {
         if (leaderAddress == null || "".equals(leaderAddress)) {
@@ -86,19 +96,39 @@ public class CustomRedisCachingProvider {
     }
 
     public CacheManager getCacheManager(RedissonClient redissonClient) {
-        CustomRedisCacheManager manager = new CustomRedisCacheManager(redissonClient, expiryMins);
+        CustomRedisCacheManager manager = new CustomRedisCacheManager(redissonClient, expiryMins, getCodec());
+        if (metricsEnabled) {
+            manager.setCacheMetrics(cacheMetrics);
+        }
         
         if (clearOnStartup) {
+            // the caches are empty now, so from here on the study key index covers all of their keys
+            StudyKeyIndex studyKeyIndex = new RedisStudyKeyIndex(manager);
         	Cache generalCache = manager.getCache(redisName + "GeneralRepositoryCache");
         	if(generalCache != null) {
         		generalCache.clear();
+        		studyKeyIndex.reset(generalCache.getName());
         	}
             
             Cache staticRepositoryCache = manager.getCache(redisName + "StaticRepositoryCacheOne");
             if(staticRepositoryCache != null) {
             	staticRepositoryCache.clear();
+            	studyKeyIndex.reset(staticRepositoryCache.getName());
             }
         }
         return manager;
     }
+
+    private CacheValueCodec getCodec() {
+        if ("binary".equalsIgnoreCase(codec)) {
+            return new BinaryCacheValueCodec();
+        } else if ("java".equalsIgnoreCase(codec)) {
+            return new JavaSerializationCodec();
+        }
+        try {
+            return (CacheValueCodec) Class.forName(codec).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | ClassCastException e) {
+            throw new IllegalArgumentException("Invalid redis.codec: " + codec, e);
+        }
+    }
 }
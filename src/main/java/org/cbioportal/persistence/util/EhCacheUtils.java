@@ -8,6 +8,7 @@ import org.springframework.stereotype.Component;
 
 import javax.cache.CacheManager;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 
 @Component
@@ -18,9 +19,20 @@ public class EhCacheUtils implements CacheUtils {
     private CustomEhcachingProvider customEhcachingProvider;
     private CacheManager cacheManager;
 
+    @Autowired(required = false)
+    private StudyKeyIndex studyKeyIndex;
+
     @PostConstruct
     public void init() {
         this.cacheManager = customEhcachingProvider.getCacheManager();
+        if (studyKeyIndex != null) {
+            // caches that start empty (i.e. are not restored from disk) are fully covered by the study key index
+            for (String cacheName : cacheManager.getCacheNames()) {
+                if (!cacheManager.getCache(cacheName).iterator().hasNext()) {
+                    studyKeyIndex.reset(cacheName);
+                }
+            }
+        }
     }
     
     @Override
@@ -42,5 +54,18 @@ public class EhCacheUtils implements CacheUtils {
             .forEach(key -> {
                 cache.remove(key);
             });
+        if (studyKeyIndex != null && ALL_KEYS_PATTERN.equals(pattern)) {
+            studyKeyIndex.reset(cacheName);
+        }
+    }
+
+    @Override
+    public boolean evictByStudy(String cacheName, String studyId) {
+        javax.cache.Cache<String, Object> cache = cacheManager.getCache(cacheName);
+        if (cache == null || studyKeyIndex == null || !studyKeyIndex.isComplete(cacheName)) {
+            return false;
+        }
+        cache.removeAll(new HashSet<>(studyKeyIndex.removeStudy(cacheName, studyId)));
+        return true;
     }
 }
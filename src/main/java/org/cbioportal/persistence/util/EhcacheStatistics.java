@@ -39,6 +39,7 @@ import org.ehcache.config.ResourceType;
 import org.ehcache.impl.internal.statistics.DefaultStatisticsService;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.util.Map;
@@ -54,6 +55,12 @@ public class EhcacheStatistics {
 
     @Autowired
     private CustomEhcachingProvider customEhcachingProvider;
+
+    @Autowired(required = false)
+    private CacheMetrics cacheMetrics;
+
+    @Value("${cache.metrics.enabled:true}")
+    private boolean metricsEnabled;
     
     private javax.cache.CacheManager cacheManager;
     private DefaultStatisticsService statisticsService;
@@ -67,6 +74,13 @@ public class EhcacheStatistics {
                 javax.cache.Cache cache = cacheManager.getCache(cacheName);
                 org.ehcache.Cache ehcache = (org.ehcache.Cache)cache.unwrap(org.ehcache.Cache.class);
                 statisticsService.cacheAdded(cacheName, ehcache);
+                if (metricsEnabled && cacheMetrics != null) {
+                    // explicit evictions are recorded by MetricsCache, these are the ones Ehcache does itself
+                    cacheMetrics.registerEvictions(cacheName, "capacity", statisticsService,
+                        service -> service.getCacheStatistics(cacheName).getCacheEvictions());
+                    cacheMetrics.registerEvictions(cacheName, "expiry", statisticsService,
+                        service -> service.getCacheStatistics(cacheName).getCacheExpirations());
+                }
             }
         }
         catch (Exception e) {
@@ -0,0 +1,48 @@
+package org.cbioportal.persistence.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Java serialization compressed with GZIP, the format that CustomRedisCache has always stored.
+ */
+public class JavaSerializationCodec implements CacheValueCodec {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    @Override
+    public byte[] encode(Object value) throws IOException {
+        ByteArrayOutputStream byteOut = new ByteArrayOutputStream();
+        // serialize straight into the compressed stream instead of through an intermediate byte array
+        try (ObjectOutputStream objectOut = new ObjectOutputStream(new GZIPOutputStream(byteOut, BUFFER_SIZE))) {
+            objectOut.writeObject(value);
+        }
+        return byteOut.toByteArray();
+    }
+
+    @Override
+    public Object decode(byte[] bytes) throws IOException {
+        try (InputStream gzipIn = new GZIPInputStream(new ByteArrayInputStream(bytes), BUFFER_SIZE)) {
+            return readObject(gzipIn);
+        }
+    }
+
+    static Object readObject(InputStream in) throws IOException {
+        try (ObjectInputStream objectIn = new ObjectInputStream(in)) {
+            return objectIn.readObject();
+        } catch (ClassNotFoundException e) {
+            throw new IOException(e);
+        }
+    }
+
+    static boolean isGzip(byte[] bytes) {
+        return bytes.length > 1 && bytes[0] == (byte) GZIPInputStream.GZIP_MAGIC
+            && bytes[1] == (byte) (GZIPInputStream.GZIP_MAGIC >> 8);
+    }
+}
@@ -0,0 +1,62 @@
+package org.cbioportal.persistence.util;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Leases within one JVM, for caches that are local to the instance (Ehcache). The leases live in a concurrent
+ * map, so callers on different keys only contend on the stripe of their key.
+ */
+public class LocalCacheLeases implements CacheLeases {
+
+    private final long leaseMillis;
+    private final ConcurrentMap<String, Lease> leases = new ConcurrentHashMap<>();
+
+    public LocalCacheLeases(long leaseMillis) {
+        this.leaseMillis = leaseMillis;
+    }
+
+    @Override
+    public boolean tryAcquire(String key) {
+        Lease lease = new Lease(Thread.currentThread(), System.currentTimeMillis() + leaseMillis);
+        Lease current = leases.compute(key, (k, held) -> held == null || held.isExpired() ? lease : held);
+        return current == lease;
+    }
+
+    @Override
+    public boolean awaitRelease(String key, long timeoutMillis) throws InterruptedException {
+        Lease lease = leases.get(key);
+        if (lease == null) {
+            return true;
+        }
+        long remainingMillis = Math.max(0, lease.expiresAt - System.currentTimeMillis());
+        return lease.released.await(Math.min(timeoutMillis, remainingMillis), TimeUnit.MILLISECONDS)
+            || lease.isExpired();
+    }
+
+    @Override
+    public void release(String key) {
+        Lease lease = leases.get(key);
+        if (lease != null && lease.owner == Thread.currentThread() && leases.remove(key, lease)) {
+            lease.released.countDown();
+        }
+    }
+
+    private static class Lease {
+
+        private final Thread owner;
+        private final long expiresAt;
+        private final CountDownLatch released = new CountDownLatch(1);
+
+        private Lease(Thread owner, long expiresAt) {
+            this.owner = owner;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isExpired() {
+            return System.currentTimeMillis() >= expiresAt;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package org.cbioportal.persistence.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * {@link StudyKeyIndex} kept in memory, for caches that are local to this portal instance (Ehcache).
+ *
+ * Keys that the cache expires or evicts on its own stay in the index until their study is evicted. To bound the
+ * memory this takes, the index of a cache is dropped (and study eviction falls back to scanning the keys until the
+ * next full clear) once it tracks more than maxKeys keys.
+ */
+public class LocalStudyKeyIndex implements StudyKeyIndex {
+
+    public static final int DEFAULT_MAX_KEYS = 1_000_000;
+
+    private final int maxKeys;
+    private final ConcurrentMap<String, CacheIndex> indexes = new ConcurrentHashMap<>();
+
+    public LocalStudyKeyIndex() {
+        this(DEFAULT_MAX_KEYS);
+    }
+
+    public LocalStudyKeyIndex(int maxKeys) {
+        this.maxKeys = maxKeys;
+    }
+
+    @Override
+    public void add(String cacheName, String key, Collection<String> studyIds) {
+        getIndex(cacheName).add(key, studyIds);
+    }
+
+    @Override
+    public Collection<String> removeStudy(String cacheName, String studyId) {
+        return getIndex(cacheName).removeStudy(studyId);
+    }
+
+    @Override
+    public boolean isComplete(String cacheName) {
+        return getIndex(cacheName).complete;
+    }
+
+    @Override
+    public void reset(String cacheName) {
+        getIndex(cacheName).reset();
+    }
+
+    private CacheIndex getIndex(String cacheName) {
+        return indexes.computeIfAbsent(cacheName, name -> new CacheIndex());
+    }
+
+    private class CacheIndex {
+
+        private final Map<String, Set<String>> keysByStudy = new HashMap<>();
+        private final Set<String> keysWithoutStudy = new HashSet<>();
+        private int size;
+        private volatile boolean complete;
+
+        synchronized void add(String key, Collection<String> studyIds) {
+            if (studyIds.isEmpty()) {
+                size += keysWithoutStudy.add(key) ? 1 : 0;
+            }
+            for (String studyId : studyIds) {
+                size += keysByStudy.computeIfAbsent(studyId, id -> new HashSet<>()).add(key) ? 1 : 0;
+            }
+            if (size > maxKeys) {
+                keysByStudy.clear();
+                keysWithoutStudy.clear();
+                size = 0;
+                complete = false;
+            }
+        }
+
+        synchronized Collection<String> removeStudy(String studyId) {
+            Set<String> keys = keysByStudy.remove(studyId);
+            Collection<String> result = new ArrayList<>(keysWithoutStudy);
+            size -= keysWithoutStudy.size();
+            keysWithoutStudy.clear();
+            if (keys != null) {
+                result.addAll(keys);
+                size -= keys.size();
+            }
+            return result;
+        }
+
+        synchronized void reset() {
+            keysByStudy.clear();
+            keysWithoutStudy.clear();
+            size = 0;
+            complete = true;
+        }
+    }
+}
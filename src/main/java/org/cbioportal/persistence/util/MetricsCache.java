@@ -0,0 +1,174 @@
+package org.cbioportal.persistence.util;
+
+import org.springframework.cache.Cache;
+import org.springframework.lang.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Records the hits, misses, load times and evictions of a cache in {@link CacheMetrics}.
+ *
+ * For {@code @Cacheable} methods that are not synchronized Spring calls {@link #get(Object)} and, after a miss,
+ * runs the method and calls {@link #put(Object, Object)} on the same thread. The load time is the time between the
+ * two: the misses of a thread are kept on a stack, as cached methods may call other cached methods.
+ */
+public class MetricsCache implements Cache {
+
+    // misses of methods that failed are never put, don't let them pile up
+    private static final int MAX_PENDING_LOADS = 32;
+
+    private final Cache cache;
+    private final CacheMetrics cacheMetrics;
+    private final ThreadLocal<Deque<PendingLoad>> pendingLoads = ThreadLocal.withInitial(ArrayDeque::new);
+
+    public MetricsCache(Cache cache, CacheMetrics cacheMetrics) {
+        this.cache = cache;
+        this.cacheMetrics = cacheMetrics;
+    }
+
+    @Override
+    public String getName() {
+        return cache.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return cache.getNativeCache();
+    }
+
+    @Override
+    @Nullable
+    public ValueWrapper get(Object key) {
+        ValueWrapper value = cache.get(key);
+        if (value != null) {
+            cacheMetrics.recordHit(getName(), key);
+        } else {
+            cacheMetrics.recordMiss(getName(), key);
+            Deque<PendingLoad> loads = pendingLoads.get();
+            if (loads.size() >= MAX_PENDING_LOADS) {
+                loads.removeLast();
+            }
+            loads.push(new PendingLoad(key, System.nanoTime()));
+        }
+        return value;
+    }
+
+    @Override
+    @Nullable
+    public <T> T get(Object key, @Nullable Class<T> type) {
+        T value = cache.get(key, type);
+        if (value != null) {
+            cacheMetrics.recordHit(getName(), key);
+        } else {
+            cacheMetrics.recordMiss(getName(), key);
+        }
+        return value;
+    }
+
+    @Override
+    @Nullable
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        boolean[] loaded = new boolean[1];
+        long start = System.nanoTime();
+        T value = cache.get(key, () -> {
+            loaded[0] = true;
+            return valueLoader.call();
+        });
+        if (loaded[0]) {
+            cacheMetrics.recordMiss(getName(), key);
+            cacheMetrics.recordLoad(getName(), key, System.nanoTime() - start);
+        } else {
+            cacheMetrics.recordHit(getName(), key);
+        }
+        return value;
+    }
+
+    @Override
+    @Nullable
+    public CompletableFuture<?> retrieve(Object key) {
+        return cache.retrieve(key);
+    }
+
+    @Override
+    public <T> CompletableFuture<T> retrieve(Object key, Supplier<CompletableFuture<T>> valueLoader) {
+        return cache.retrieve(key, valueLoader);
+    }
+
+    @Override
+    public void put(Object key, @Nullable Object value) {
+        cache.put(key, value);
+        recordLoad(key);
+    }
+
+    @Override
+    @Nullable
+    public ValueWrapper putIfAbsent(Object key, @Nullable Object value) {
+        ValueWrapper existingValue = cache.putIfAbsent(key, value);
+        recordLoad(key);
+        return existingValue;
+    }
+
+    @Override
+    public void evict(Object key) {
+        cache.evict(key);
+        cacheMetrics.recordEviction(getName());
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        boolean evicted = cache.evictIfPresent(key);
+        if (evicted) {
+            cacheMetrics.recordEviction(getName());
+        }
+        return evicted;
+    }
+
+    @Override
+    public void clear() {
+        cache.clear();
+        cacheMetrics.recordEviction(getName());
+    }
+
+    @Override
+    public boolean invalidate() {
+        boolean invalidated = cache.invalidate();
+        if (invalidated) {
+            cacheMetrics.recordEviction(getName());
+        }
+        return invalidated;
+    }
+
+    private void recordLoad(Object key) {
+        Deque<PendingLoad> loads = pendingLoads.get();
+        if (loads.isEmpty()) {
+            return;
+        }
+        // the loads above the key's are those of nested methods that failed
+        for (PendingLoad load : loads) {
+            if (Objects.equals(load.key, key)) {
+                PendingLoad popped;
+                do {
+                    popped = loads.pop();
+                } while (popped != load);
+                cacheMetrics.recordLoad(getName(), key, System.nanoTime() - load.startNanos);
+                return;
+            }
+        }
+    }
+
+    private static class PendingLoad {
+
+        private final Object key;
+        private final long startNanos;
+
+        private PendingLoad(Object key, long startNanos) {
+            this.key = key;
+            this.startNanos = startNanos;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package org.cbioportal.persistence.util;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.interceptor.CacheOperationInvocationContext;
+import org.springframework.cache.interceptor.CacheResolver;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Wraps the caches of another resolver in {@link MetricsCache}s.
+ */
+public class MetricsCacheResolver implements CacheResolver {
+
+    private final CacheResolver cacheResolver;
+    private final CacheMetrics cacheMetrics;
+    private final ConcurrentMap<String, MetricsCache> caches = new ConcurrentHashMap<>();
+
+    public MetricsCacheResolver(CacheResolver cacheResolver, CacheMetrics cacheMetrics) {
+        this.cacheResolver = cacheResolver;
+        this.cacheMetrics = cacheMetrics;
+    }
+
+    @Override
+    public Collection<? extends Cache> resolveCaches(CacheOperationInvocationContext<?> context) {
+        Collection<? extends Cache> resolved = cacheResolver.resolveCaches(context);
+        Collection<Cache> result = new ArrayList<>(resolved.size());
+        for (Cache cache : resolved) {
+            MetricsCache metricsCache = caches.get(cache.getName());
+            if (metricsCache == null) {
+                metricsCache = caches.computeIfAbsent(cache.getName(), name -> new MetricsCache(cache, cacheMetrics));
+            }
+            result.add(metricsCache);
+        }
+        return result;
+    }
+}
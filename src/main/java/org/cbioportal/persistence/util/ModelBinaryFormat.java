@@ -0,0 +1,519 @@
+package org.cbioportal.persistence.util;
+
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compact binary format for cached model objects (ClinicalData, Mutation, Sample, AlterationCountByGene, ...) and
+ * lists, sets and maps of them.
+ *
+ * The fields of a model class are written in a fixed order without names. The first occurrence of a class in a
+ * value writes its name and a fingerprint of its fields, so that values written by another version of the class
+ * are rejected instead of misread. Strings that occur more than once (study ids, attribute ids, gene symbols)
+ * are written once and referenced by index afterwards.
+ *
+ * Only classes in the model packages are instantiated on decoding. Values that contain anything else, or that
+ * are nested deeper than MAX_DEPTH (e.g. cyclic object graphs), cause an {@link UnsupportedValueException} on
+ * encoding, and the caller falls back to Java serialization.
+ */
+class ModelBinaryFormat {
+
+    private static final List<String> MODEL_PACKAGES = Arrays.asList("org.cbioportal.model.", "org.cbioportal.web.parameter.");
+
+    static final int MAX_DEPTH = 64;
+
+    private static final Map<Class<?>, Class<?>> WRAPPER_TYPES = Map.of(
+        boolean.class, Boolean.class, byte.class, Byte.class, short.class, Short.class, char.class, Character.class,
+        int.class, Integer.class, long.class, Long.class, float.class, Float.class, double.class, Double.class);
+
+    private static final byte NULL = 0;
+    private static final byte STRING = 1;
+    private static final byte STRING_REFERENCE = 2;
+    private static final byte INTEGER = 3;
+    private static final byte LONG = 4;
+    private static final byte DOUBLE = 5;
+    private static final byte FLOAT = 6;
+    private static final byte TRUE = 7;
+    private static final byte FALSE = 8;
+    private static final byte SHORT = 9;
+    private static final byte BYTE = 10;
+    private static final byte BIG_DECIMAL = 11;
+    private static final byte DATE = 12;
+    private static final byte ENUM = 13;
+    private static final byte LIST = 14;
+    private static final byte SET = 15;
+    private static final byte MAP = 16;
+    private static final byte OBJECT = 17;
+
+    private static final Map<Class<?>, Schema> SCHEMAS = new ConcurrentHashMap<>();
+
+    private ModelBinaryFormat() {}
+
+    static byte[] encode(Object value) {
+        Writer writer = new Writer();
+        writer.writeValue(value);
+        return Arrays.copyOf(writer.buffer, writer.position);
+    }
+
+    static Object decode(byte[] bytes, int offset, int length) throws IOException {
+        Reader reader = new Reader(bytes, offset, offset + length);
+        try {
+            Object value = reader.readValue();
+            if (reader.position != reader.limit) {
+                throw new IOException("Trailing bytes after cached value");
+            }
+            return value;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            throw new IOException("Could not decode cached value", e);
+        }
+    }
+
+    static class UnsupportedValueException extends RuntimeException {
+
+        UnsupportedValueException(Class<?> type) {
+            this("Unsupported type " + type.getName());
+        }
+
+        UnsupportedValueException(String message) {
+            super(message, null, false, false);
+        }
+    }
+
+    private static boolean isModelClass(Class<?> type) {
+        String name = type.getName();
+        for (String modelPackage : MODEL_PACKAGES) {
+            if (name.startsWith(modelPackage)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Schema getSchema(Class<?> type) {
+        Schema schema = SCHEMAS.get(type);
+        if (schema == null) {
+            schema = SCHEMAS.computeIfAbsent(type, Schema::new);
+        }
+        return schema;
+    }
+
+    private static class Schema {
+
+        private final Class<?> type;
+        private final Field[] fields;
+        // the types of the fields, with primitive types replaced by their wrapper types
+        private final Class<?>[] fieldTypes;
+        private final Constructor<?> constructor;
+        private final int fingerprint;
+
+        private Schema(Class<?> type) {
+            this.type = type;
+            if (!isModelClass(type)) {
+                throw new UnsupportedValueException(type);
+            }
+            if (type.isEnum()) {
+                fields = new Field[0];
+                fieldTypes = new Class<?>[0];
+                constructor = null;
+                StringBuilder signature = new StringBuilder(type.getName());
+                for (Object constant : type.getEnumConstants()) {
+                    signature.append(';').append(((Enum<?>) constant).name());
+                }
+                fingerprint = signature.toString().hashCode();
+                return;
+            }
+            if (Modifier.isAbstract(type.getModifiers()) || type.isArray()
+                || type.isAnonymousClass() || (type.isMemberClass() && !Modifier.isStatic(type.getModifiers()))) {
+                throw new UnsupportedValueException(type);
+            }
+            try {
+                constructor = type.getDeclaredConstructor();
+                constructor.setAccessible(true);
+            } catch (NoSuchMethodException e) {
+                throw new UnsupportedValueException(type);
+            }
+            List<Field> allFields = new ArrayList<>();
+            StringBuilder signature = new StringBuilder(type.getName());
+            for (Class<?> declaring : getHierarchy(type)) {
+                Field[] declared = declaring.getDeclaredFields();
+                Arrays.sort(declared, Comparator.comparing(Field::getName));
+                for (Field field : declared) {
+                    int modifiers = field.getModifiers();
+                    if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers) || field.isSynthetic()) {
+                        continue;
+                    }
+                    field.setAccessible(true);
+                    allFields.add(field);
+                    signature.append(';').append(field.getName()).append(':').append(field.getType().getName());
+                }
+            }
+            fields = allFields.toArray(new Field[0]);
+            fieldTypes = allFields.stream()
+                .map(field -> WRAPPER_TYPES.getOrDefault(field.getType(), field.getType()))
+                .toArray(Class<?>[]::new);
+            fingerprint = signature.toString().hashCode();
+        }
+
+        private static List<Class<?>> getHierarchy(Class<?> type) {
+            List<Class<?>> hierarchy = new ArrayList<>();
+            for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+                if (!isModelClass(current)) {
+                    throw new UnsupportedValueException(current);
+                }
+                hierarchy.add(0, current);
+            }
+            return hierarchy;
+        }
+    }
+
+    private static class Writer {
+
+        private byte[] buffer = new byte[4096];
+        private int position = 0;
+        private final Map<String, Integer> strings = new HashMap<>();
+        private final Map<Class<?>, Integer> classes = new HashMap<>();
+        private int depth = 0;
+
+        private void writeValue(Object value) {
+            if (++depth > MAX_DEPTH) {
+                throw new UnsupportedValueException("Value nested deeper than " + MAX_DEPTH + " levels");
+            }
+            if (value == null) {
+                writeByte(NULL);
+            } else if (value instanceof String) {
+                writeString((String) value);
+            } else if (value instanceof Integer) {
+                writeByte(INTEGER);
+                writeVarLong((Integer) value);
+            } else if (value instanceof Long) {
+                writeByte(LONG);
+                writeVarLong((Long) value);
+            } else if (value instanceof Double) {
+                writeByte(DOUBLE);
+                writeFixedLong(Double.doubleToRawLongBits((Double) value));
+            } else if (value instanceof Float) {
+                writeByte(FLOAT);
+                writeVarLong(Float.floatToRawIntBits((Float) value));
+            } else if (value instanceof Boolean) {
+                writeByte((Boolean) value ? TRUE : FALSE);
+            } else if (value instanceof Short) {
+                writeByte(SHORT);
+                writeVarLong((Short) value);
+            } else if (value instanceof Byte) {
+                writeByte(BYTE);
+                writeByte((Byte) value);
+            } else if (value.getClass() == BigDecimal.class) {
+                BigDecimal decimal = (BigDecimal) value;
+                writeByte(BIG_DECIMAL);
+                writeVarLong(decimal.scale());
+                byte[] unscaled = decimal.unscaledValue().toByteArray();
+                writeVarLong(unscaled.length);
+                writeBytes(unscaled, unscaled.length);
+            } else if (value.getClass() == Date.class) {
+                writeByte(DATE);
+                writeVarLong(((Date) value).getTime());
+            } else if (value instanceof Enum) {
+                writeByte(ENUM);
+                writeClass(((Enum<?>) value).getDeclaringClass());
+                writeVarLong(((Enum<?>) value).ordinal());
+            } else if (value instanceof List && isJavaUtil(value)) {
+                writeByte(LIST);
+                writeCollection((List<?>) value);
+            } else if (value instanceof Set && !(value instanceof SortedSet) && isJavaUtil(value)) {
+                writeByte(SET);
+                writeCollection((Set<?>) value);
+            } else if (value instanceof Map && !(value instanceof SortedMap) && isJavaUtil(value)) {
+                writeByte(MAP);
+                Map<?, ?> map = (Map<?, ?>) value;
+                writeVarLong(map.size());
+                for (Map.Entry<?, ?> entry : map.entrySet()) {
+                    writeValue(entry.getKey());
+                    writeValue(entry.getValue());
+                }
+            } else {
+                writeByte(OBJECT);
+                Schema schema = writeClass(value.getClass());
+                try {
+                    for (int i = 0; i < schema.fields.length; i++) {
+                        Object fieldValue = schema.fields[i].get(value);
+                        if (fieldValue != null && !schema.fieldTypes[i].isAssignableFrom(getDecodedType(fieldValue))) {
+                            // e.g. a LinkedList field, which can not hold the ArrayList that is decoded
+                            throw new UnsupportedValueException(schema.fields[i].getType());
+                        }
+                        writeValue(fieldValue);
+                    }
+                } catch (IllegalAccessException e) {
+                    throw new UnsupportedValueException(value.getClass());
+                }
+            }
+            depth--;
+        }
+
+        private static Class<?> getDecodedType(Object value) {
+            if (value instanceof List) {
+                return ArrayList.class;
+            } else if (value instanceof Set) {
+                return LinkedHashSet.class;
+            } else if (value instanceof Map) {
+                return LinkedHashMap.class;
+            }
+            return value.getClass();
+        }
+
+        private static boolean isJavaUtil(Object value) {
+            // also covers Arrays.asList, List.of, Collections.unmodifiable...; decoded as mutable equivalents
+            return value.getClass().getName().startsWith("java.util.");
+        }
+
+        private void writeCollection(Collection<?> values) {
+            writeVarLong(values.size());
+            for (Object element : values) {
+                writeValue(element);
+            }
+        }
+
+        private Schema writeClass(Class<?> type) {
+            Schema schema = getSchema(type);
+            Integer index = classes.get(type);
+            if (index != null) {
+                writeVarLong(index + 1);
+            } else {
+                classes.put(type, classes.size());
+                writeVarLong(0);
+                writeUtf8(type.getName());
+                writeVarLong(schema.fingerprint);
+            }
+            return schema;
+        }
+
+        private void writeString(String value) {
+            Integer index = strings.get(value);
+            if (index != null) {
+                writeByte(STRING_REFERENCE);
+                writeVarLong(index);
+            } else {
+                strings.put(value, strings.size());
+                writeByte(STRING);
+                writeUtf8(value);
+            }
+        }
+
+        private void writeUtf8(String value) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(bytes.length);
+            writeBytes(bytes, bytes.length);
+        }
+
+        private void writeVarLong(long value) {
+            // zig-zag, so that small negative numbers are short as well
+            long zigZag = (value << 1) ^ (value >> 63);
+            ensureCapacity(10);
+            while ((zigZag & ~0x7FL) != 0) {
+                buffer[position++] = (byte) ((zigZag & 0x7F) | 0x80);
+                zigZag >>>= 7;
+            }
+            buffer[position++] = (byte) zigZag;
+        }
+
+        private void writeFixedLong(long value) {
+            ensureCapacity(8);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                buffer[position++] = (byte) (value >>> shift);
+            }
+        }
+
+        private void writeByte(int value) {
+            ensureCapacity(1);
+            buffer[position++] = (byte) value;
+        }
+
+        private void writeBytes(byte[] bytes, int length) {
+            ensureCapacity(length);
+            System.arraycopy(bytes, 0, buffer, position, length);
+            position += length;
+        }
+
+        private void ensureCapacity(int additional) {
+            if (position + additional > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + additional));
+            }
+        }
+    }
+
+    private static class Reader {
+
+        private final byte[] buffer;
+        private int position;
+        private final int limit;
+        private final List<String> strings = new ArrayList<>();
+        private final List<Schema> classes = new ArrayList<>();
+
+        private Reader(byte[] buffer, int position, int limit) {
+            this.buffer = buffer;
+            this.position = position;
+            this.limit = limit;
+        }
+
+        private Object readValue() throws IOException, ReflectiveOperationException {
+            byte tag = readByte();
+            switch (tag) {
+                case NULL:
+                    return null;
+                case STRING:
+                    String value = readUtf8();
+                    strings.add(value);
+                    return value;
+                case STRING_REFERENCE:
+                    return strings.get(readInt());
+                case INTEGER:
+                    return (int) readVarLong();
+                case LONG:
+                    return readVarLong();
+                case DOUBLE:
+                    return Double.longBitsToDouble(readFixedLong());
+                case FLOAT:
+                    return Float.intBitsToFloat((int) readVarLong());
+                case TRUE:
+                    return Boolean.TRUE;
+                case FALSE:
+                    return Boolean.FALSE;
+                case SHORT:
+                    return (short) readVarLong();
+                case BYTE:
+                    return readByte();
+                case BIG_DECIMAL:
+                    int scale = readInt();
+                    byte[] unscaled = readBytes(readInt());
+                    return new BigDecimal(new BigInteger(unscaled), scale);
+                case DATE:
+                    return new Date(readVarLong());
+                case ENUM:
+                    Schema enumSchema = readClass();
+                    return enumSchema.type.getEnumConstants()[readInt()];
+                case LIST: {
+                    int size = readInt();
+                    List<Object> list = new ArrayList<>(size);
+                    for (int i = 0; i < size; i++) {
+                        list.add(readValue());
+                    }
+                    return list;
+                }
+                case SET: {
+                    int size = readInt();
+                    Set<Object> set = new LinkedHashSet<>(Math.max(16, (int) (size / 0.75f) + 1));
+                    for (int i = 0; i < size; i++) {
+                        set.add(readValue());
+                    }
+                    return set;
+                }
+                case MAP: {
+                    int size = readInt();
+                    Map<Object, Object> map = new LinkedHashMap<>(Math.max(16, (int) (size / 0.75f) + 1));
+                    for (int i = 0; i < size; i++) {
+                        Object key = readValue();
+                        map.put(key, readValue());
+                    }
+                    return map;
+                }
+                case OBJECT:
+                    Schema schema = readClass();
+                    Object object = schema.constructor.newInstance();
+                    for (Field field : schema.fields) {
+                        field.set(object, readValue());
+                    }
+                    return object;
+                default:
+                    throw new IOException("Unknown tag " + tag);
+            }
+        }
+
+        private Schema readClass() throws IOException, ClassNotFoundException {
+            int index = readInt();
+            if (index > 0) {
+                return classes.get(index - 1);
+            }
+            String className = readUtf8();
+            int fingerprint = readInt();
+            Class<?> type = Class.forName(className, false, ModelBinaryFormat.class.getClassLoader());
+            if (!isModelClass(type)) {
+                throw new IOException("Not a model class: " + className);
+            }
+            Schema schema = getSchema(type);
+            if (schema.fingerprint != fingerprint) {
+                throw new IOException("Cached value was written by another version of " + className);
+            }
+            classes.add(schema);
+            return schema;
+        }
+
+        private String readUtf8() throws IOException {
+            int length = readInt();
+            checkAvailable(length);
+            String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+
+        private byte[] readBytes(int length) throws IOException {
+            checkAvailable(length);
+            byte[] bytes = Arrays.copyOfRange(buffer, position, position + length);
+            position += length;
+            return bytes;
+        }
+
+        private int readInt() throws IOException {
+            return (int) readVarLong();
+        }
+
+        private long readVarLong() throws IOException {
+            long zigZag = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte b = readByte();
+                zigZag |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return (zigZag >>> 1) ^ -(zigZag & 1);
+                }
+            }
+            throw new IOException("Malformed variable length number");
+        }
+
+        private long readFixedLong() throws IOException {
+            checkAvailable(8);
+            long value = 0;
+            for (int i = 0; i < 8; i++) {
+                value = (value << 8) | (buffer[position++] & 0xFF);
+            }
+            return value;
+        }
+
+        private byte readByte() throws IOException {
+            checkAvailable(1);
+            return buffer[position++];
+        }
+
+        private void checkAvailable(int length) throws IOException {
+            if (length < 0 || position + length > limit) {
+                throw new IOException("Truncated cached value");
+            }
+        }
+    }
+}
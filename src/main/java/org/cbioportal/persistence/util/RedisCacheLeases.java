@@ -0,0 +1,66 @@
+package org.cbioportal.persistence.util;
+
+import org.redisson.api.RBucket;
+import org.redisson.api.RedissonClient;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Leases shared by all portal instances that use the same Redis cache. A lease is a bucket next to the cached
+ * value that is only set if absent and expires after the lease time; it holds a token of the instance and thread
+ * that acquired it, so that only the owner releases it.
+ */
+public class RedisCacheLeases implements CacheLeases {
+
+    private static final String LEASE_SUFFIX = "-lease";
+    private static final long MIN_POLL_MILLIS = 20;
+    private static final long MAX_POLL_MILLIS = 500;
+
+    private final RedissonClient redissonClient;
+    private final String leasePrefix;
+    private final long leaseMillis;
+    private final String instanceId = UUID.randomUUID().toString();
+
+    public RedisCacheLeases(RedissonClient redissonClient, String cacheName, long leaseMillis) {
+        this.redissonClient = redissonClient;
+        // outside of the cache name pattern, so that clearing the cache leaves the leases alone
+        this.leasePrefix = cacheName + LEASE_SUFFIX + CustomRedisCache.DELIMITER;
+        this.leaseMillis = leaseMillis;
+    }
+
+    @Override
+    public boolean tryAcquire(String key) {
+        return getLease(key).trySet(getToken(), leaseMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public boolean awaitRelease(String key, long timeoutMillis) throws InterruptedException {
+        RBucket<String> lease = getLease(key);
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        long pollMillis = MIN_POLL_MILLIS;
+        while (lease.isExists()) {
+            long remainingMillis = deadline - System.currentTimeMillis();
+            if (remainingMillis <= 0) {
+                return false;
+            }
+            Thread.sleep(Math.min(pollMillis, remainingMillis));
+            pollMillis = Math.min(pollMillis * 2, MAX_POLL_MILLIS);
+        }
+        return true;
+    }
+
+    @Override
+    public void release(String key) {
+        // deletes the lease only if it still holds our token, it may have expired and been taken by another
+        getLease(key).compareAndSet(getToken(), null);
+    }
+
+    private RBucket<String> getLease(String key) {
+        return redissonClient.getBucket(leasePrefix + key);
+    }
+
+    private String getToken() {
+        return instanceId + CustomRedisCache.DELIMITER + Thread.currentThread().getId();
+    }
+}
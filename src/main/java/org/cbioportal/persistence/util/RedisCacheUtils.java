@@ -10,6 +10,7 @@ import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
 import org.springframework.stereotype.Component;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -19,6 +20,12 @@ public class RedisCacheUtils implements CacheUtils {
 
     @Autowired
     private CacheManager cacheManager;
+
+    @Autowired(required = false)
+    private StudyKeyIndex studyKeyIndex;
+
+    // number of keys deleted per request to Redis
+    private static final int DELETE_BATCH_SIZE = 1000;
     
     @Override
     public List<String> getKeys(String cacheName) {
@@ -44,6 +51,25 @@ public class RedisCacheUtils implements CacheUtils {
         Cache cache = cacheManager.getCache(cacheName);
         if(cache != null) {
         	cache.evict(pattern);
+            if (studyKeyIndex != null && ALL_KEYS_PATTERN.equals(pattern)) {
+                studyKeyIndex.reset(cacheName);
+            }
+        }
+    }
+
+    @Override
+    public boolean evictByStudy(String cacheName, String studyId) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache == null || studyKeyIndex == null || !studyKeyIndex.isComplete(cacheName)) {
+            return false;
+        }
+        String[] keys = studyKeyIndex.removeStudy(cacheName, studyId).stream()
+            .map(key -> cacheName + DELIMITER + key)
+            .toArray(String[]::new);
+        RedissonClient redissonClient = (RedissonClient) cache.getNativeCache();
+        for (int start = 0; start < keys.length; start += DELETE_BATCH_SIZE) {
+            redissonClient.getKeys().delete(Arrays.copyOfRange(keys, start, Math.min(keys.length, start + DELETE_BATCH_SIZE)));
         }
+        return true;
     }
 }
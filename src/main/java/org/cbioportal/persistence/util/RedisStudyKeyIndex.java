@@ -0,0 +1,143 @@
+package org.cbioportal.persistence.util;
+
+import org.redisson.api.RBatch;
+import org.redisson.api.RBucket;
+import org.redisson.api.RScoredSortedSetAsync;
+import org.redisson.api.RScript;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.CacheManager;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * {@link StudyKeyIndex} stored in Redis next to the cache, so that it is shared by all portal instances. The keys of
+ * a study are kept in the sorted set {@code <cache name>-study-keys:<study id>}, keys without study id in
+ * {@code <cache name>-study-keys-untagged}, scored by the time they were indexed.
+ *
+ * The sets expire with the TTL of their cache, counted from the last key added. Every {@value #ADDS_PER_TRIM}th add
+ * also trims the sets it writes to: keys indexed longer than the TTL ago whose value is gone are removed, and the
+ * others are scored again, as values expire a TTL after they were last read. The marker of a complete index expires
+ * with the TTL of its cache as well.
+ */
+public class RedisStudyKeyIndex implements StudyKeyIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(RedisStudyKeyIndex.class);
+
+    public static final int ADDS_PER_TRIM = 16;
+    public static final int MAX_KEYS_TRIMMED = 1000;
+
+    // KEYS[1]: the set, ARGV: the score of expired keys, the prefix of the value keys, the maximum number of keys to
+    // trim and the current time
+    private static final String TRIM_SCRIPT =
+        "local keys = redis.call('zrangebyscore', KEYS[1], '-inf', ARGV[1], 'LIMIT', 0, ARGV[3]) " +
+        "for _, key in ipairs(keys) do " +
+        "  if redis.call('exists', ARGV[2] .. key) == 1 then " +
+        "    redis.call('zadd', KEYS[1], ARGV[4], key) " +
+        "  else " +
+        "    redis.call('zrem', KEYS[1], key) " +
+        "  end " +
+        "end " +
+        "return #keys";
+
+    private final CacheManager cacheManager;
+    private final AtomicLong adds = new AtomicLong();
+
+    public RedisStudyKeyIndex(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    /**
+     * Writes the key to the sets of its studies, sets their TTL and, every {@value #ADDS_PER_TRIM} adds, trims them
+     * in one batch. The batch is executed asynchronously, so the value can be stored without waiting for Redis.
+     */
+    @Override
+    public void add(String cacheName, String key, Collection<String> studyIds) {
+        CustomRedisCache cache = getCache(cacheName);
+        long ttlMinutes = cache.getTtlMinutes();
+        long now = System.currentTimeMillis();
+        boolean trim = ttlMinutes != CustomRedisCache.INFINITE_TTL && adds.getAndIncrement() % ADDS_PER_TRIM == 0;
+        List<String> setNames = studyIds.isEmpty() ? Collections.singletonList(untaggedSetName(cacheName)) :
+            studyIds.stream().map(studyId -> studySetName(cacheName, studyId)).collect(Collectors.toList());
+
+        RBatch batch = cache.getNativeCache().createBatch();
+        for (String setName : setNames) {
+            RScoredSortedSetAsync<String> set = batch.getScoredSortedSet(setName, StringCodec.INSTANCE);
+            set.addAsync(now, key);
+            if (ttlMinutes != CustomRedisCache.INFINITE_TTL) {
+                set.expireAsync(ttlMinutes, TimeUnit.MINUTES);
+            }
+            if (trim) {
+                long expiredBefore = now - TimeUnit.MINUTES.toMillis(ttlMinutes);
+                batch.getScript(StringCodec.INSTANCE).evalAsync(RScript.Mode.READ_WRITE, TRIM_SCRIPT,
+                    RScript.ReturnType.INTEGER, Collections.<Object>singletonList(setName),
+                    String.valueOf(expiredBefore), cacheName + CustomRedisCache.DELIMITER,
+                    String.valueOf(MAX_KEYS_TRIMMED), String.valueOf(now));
+            }
+        }
+        batch.executeAsync().whenComplete((result, e) -> {
+            if (e != null) {
+                log.warn("Could not index key " + key + " of cache " + cacheName, e);
+            }
+        });
+    }
+
+    @Override
+    public Collection<String> removeStudy(String cacheName, String studyId) {
+        String studySetName = studySetName(cacheName, studyId);
+        String untaggedSetName = untaggedSetName(cacheName);
+        RedissonClient client = getCache(cacheName).getNativeCache();
+        Set<String> keys = new HashSet<>(client.<String>getScoredSortedSet(studySetName, StringCodec.INSTANCE)
+            .readAll());
+        keys.addAll(client.<String>getScoredSortedSet(untaggedSetName, StringCodec.INSTANCE).readAll());
+        client.getKeys().delete(studySetName, untaggedSetName);
+        return keys;
+    }
+
+    @Override
+    public boolean isComplete(String cacheName) {
+        return getClient(cacheName).getBucket(completeMarkerName(cacheName), StringCodec.INSTANCE).isExists();
+    }
+
+    @Override
+    public void reset(String cacheName) {
+        getClient(cacheName).getKeys().deleteByPattern(studySetName(cacheName, "*"));
+        getClient(cacheName).getKeys().delete(untaggedSetName(cacheName));
+        long ttlMinutes = getCache(cacheName).getTtlMinutes();
+        RBucket<String> marker = getClient(cacheName).getBucket(completeMarkerName(cacheName), StringCodec.INSTANCE);
+        if (ttlMinutes == CustomRedisCache.INFINITE_TTL) {
+            marker.set("complete");
+        } else {
+            marker.set("complete", ttlMinutes, TimeUnit.MINUTES);
+        }
+    }
+
+    private CustomRedisCache getCache(String cacheName) {
+        return (CustomRedisCache) cacheManager.getCache(cacheName);
+    }
+
+    private RedissonClient getClient(String cacheName) {
+        return getCache(cacheName).getNativeCache();
+    }
+
+    private static String studySetName(String cacheName, String studyId) {
+        return cacheName + "-study-keys:" + studyId;
+    }
+
+    private static String untaggedSetName(String cacheName) {
+        return cacheName + "-study-keys-untagged";
+    }
+
+    private static String completeMarkerName(String cacheName) {
+        return cacheName + "-study-key-index";
+    }
+}
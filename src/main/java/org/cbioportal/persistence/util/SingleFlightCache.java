@@ -0,0 +1,205 @@
+package org.cbioportal.persistence.util;
+
+import org.springframework.cache.Cache;
+import org.springframework.lang.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent misses on the same key. The first caller that misses acquires a lease on the key and
+ * computes the value; other callers that miss while the lease is held wait until the value has been put (or the
+ * lease has expired) and then read it from the cache instead of running the same query.
+ *
+ * Spring only calls {@link #get(Object)} and {@link #put(Object, Object)} for {@code @Cacheable} methods that are
+ * not synchronized, so the lease is released on put. When the method fails (or its result is not cached) nothing is
+ * put; {@link SingleFlightLeaseInterceptor} then releases the leases that the invocation still holds, through
+ * {@link #getHeldLeaseCount()} and {@link #releaseLeasesAcquiredAfter(int)}, so that the waiting callers do not wait
+ * for the lease to expire.
+ */
+public class SingleFlightCache implements Cache {
+
+    // the leases acquired by the current thread that have not been released yet, in the order they were acquired
+    private static final ThreadLocal<List<HeldLease>> HELD_LEASES = ThreadLocal.withInitial(ArrayList::new);
+
+    private final Cache cache;
+    private final CacheLeases leases;
+    private final long waitMillis;
+
+    public SingleFlightCache(Cache cache, CacheLeases leases, long waitMillis) {
+        this.cache = cache;
+        this.leases = leases;
+        this.waitMillis = waitMillis;
+    }
+
+    /**
+     * @return the number of leases held by the current thread
+     */
+    public static int getHeldLeaseCount() {
+        return HELD_LEASES.get().size();
+    }
+
+    /**
+     * Releases the leases that the current thread acquired after {@link #getHeldLeaseCount()} returned the given count
+     * and still holds.
+     */
+    public static void releaseLeasesAcquiredAfter(int heldLeaseCount) {
+        List<HeldLease> heldLeases = HELD_LEASES.get();
+        while (heldLeases.size() > heldLeaseCount) {
+            HeldLease heldLease = heldLeases.remove(heldLeases.size() - 1);
+            heldLease.leases.release(heldLease.key);
+        }
+    }
+
+    @Override
+    public String getName() {
+        return cache.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return cache.getNativeCache();
+    }
+
+    @Override
+    @Nullable
+    public ValueWrapper get(Object key) {
+        ValueWrapper value = cache.get(key);
+        if (value != null) {
+            return value;
+        }
+        String leaseKey = String.valueOf(key);
+        if (tryAcquire(leaseKey)) {
+            return null;
+        }
+        try {
+            leases.awaitRelease(leaseKey, waitMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+        value = cache.get(key);
+        if (value == null) {
+            // the computation failed or took too long, let one of the waiting callers take over
+            tryAcquire(leaseKey);
+        }
+        return value;
+    }
+
+    @Override
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, @Nullable Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper != null ? wrapper.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException(
+                "Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper wrapper = get(key);
+        if (wrapper != null) {
+            return (T) wrapper.get();
+        }
+        T value;
+        try {
+            value = valueLoader.call();
+        } catch (Exception e) {
+            release(key);
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+        put(key, value);
+        return value;
+    }
+
+    @Override
+    @Nullable
+    public CompletableFuture<?> retrieve(Object key) {
+        return cache.retrieve(key);
+    }
+
+    @Override
+    public <T> CompletableFuture<T> retrieve(Object key, Supplier<CompletableFuture<T>> valueLoader) {
+        return cache.retrieve(key, valueLoader);
+    }
+
+    @Override
+    public void put(Object key, @Nullable Object value) {
+        try {
+            cache.put(key, value);
+        } finally {
+            release(key);
+        }
+    }
+
+    @Override
+    @Nullable
+    public ValueWrapper putIfAbsent(Object key, @Nullable Object value) {
+        try {
+            return cache.putIfAbsent(key, value);
+        } finally {
+            release(key);
+        }
+    }
+
+    @Override
+    public void evict(Object key) {
+        cache.evict(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        return cache.evictIfPresent(key);
+    }
+
+    @Override
+    public void clear() {
+        cache.clear();
+    }
+
+    @Override
+    public boolean invalidate() {
+        return cache.invalidate();
+    }
+
+    private boolean tryAcquire(String leaseKey) {
+        if (!leases.tryAcquire(leaseKey)) {
+            return false;
+        }
+        HELD_LEASES.get().add(new HeldLease(leases, leaseKey));
+        return true;
+    }
+
+    private void release(Object key) {
+        String leaseKey = String.valueOf(key);
+        List<HeldLease> heldLeases = HELD_LEASES.get();
+        for (int i = heldLeases.size() - 1; i >= 0; i--) {
+            HeldLease heldLease = heldLeases.get(i);
+            if (heldLease.leases == leases && heldLease.key.equals(leaseKey)) {
+                heldLeases.remove(i);
+                break;
+            }
+        }
+        leases.release(leaseKey);
+    }
+
+    private static class HeldLease {
+
+        private final CacheLeases leases;
+        private final String key;
+
+        private HeldLease(CacheLeases leases, String key) {
+            this.leases = leases;
+            this.key = key;
+        }
+    }
+}
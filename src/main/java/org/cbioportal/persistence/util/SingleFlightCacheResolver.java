@@ -0,0 +1,45 @@
+package org.cbioportal.persistence.util;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.interceptor.CacheOperationInvocationContext;
+import org.springframework.cache.interceptor.CacheResolver;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * Wraps the caches of another resolver in {@link SingleFlightCache}s, so that concurrent misses on a key (e.g.
+ * when many users open the same study after the cache has been cleared) share one computation.
+ */
+public class SingleFlightCacheResolver implements CacheResolver {
+
+    private final CacheResolver cacheResolver;
+    private final Function<Cache, CacheLeases> leasesFactory;
+    private final long waitMillis;
+    private final ConcurrentMap<String, SingleFlightCache> caches = new ConcurrentHashMap<>();
+
+    public SingleFlightCacheResolver(CacheResolver cacheResolver, Function<Cache, CacheLeases> leasesFactory,
+                                     long waitMillis) {
+        this.cacheResolver = cacheResolver;
+        this.leasesFactory = leasesFactory;
+        this.waitMillis = waitMillis;
+    }
+
+    @Override
+    public Collection<? extends Cache> resolveCaches(CacheOperationInvocationContext<?> context) {
+        Collection<? extends Cache> resolved = cacheResolver.resolveCaches(context);
+        Collection<Cache> result = new ArrayList<>(resolved.size());
+        for (Cache cache : resolved) {
+            SingleFlightCache singleFlightCache = caches.get(cache.getName());
+            if (singleFlightCache == null) {
+                singleFlightCache = caches.computeIfAbsent(cache.getName(),
+                    name -> new SingleFlightCache(cache, leasesFactory.apply(cache), waitMillis));
+            }
+            result.add(singleFlightCache);
+        }
+        return result;
+    }
+}
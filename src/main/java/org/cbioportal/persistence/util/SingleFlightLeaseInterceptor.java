@@ -0,0 +1,39 @@
+package org.cbioportal.persistence.util;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.core.Ordered;
+
+/**
+ * Wraps {@code @Cacheable} methods, outside of the caching interceptor, and releases the {@link SingleFlightCache}
+ * leases that an invocation acquired but did not release by putting a value, i.e. when the method threw or its result
+ * was not cached. Callers waiting on such a lease then compute the value right away instead of waiting for the lease
+ * to expire.
+ */
+public class SingleFlightLeaseInterceptor implements MethodInterceptor {
+
+    /**
+     * @return an advisor that applies the interceptor to {@code @Cacheable} methods, ordered before the caching
+     * advisor of {@code @EnableCaching} (which has the lowest precedence)
+     */
+    public static Advisor createAdvisor() {
+        DefaultPointcutAdvisor advisor = new DefaultPointcutAdvisor(
+            new AnnotationMatchingPointcut(null, Cacheable.class, true), new SingleFlightLeaseInterceptor());
+        advisor.setOrder(Ordered.LOWEST_PRECEDENCE - 1);
+        return advisor;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        int heldLeaseCount = SingleFlightCache.getHeldLeaseCount();
+        try {
+            return invocation.proceed();
+        } finally {
+            SingleFlightCache.releaseLeasesAcquiredAfter(heldLeaseCount);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package org.cbioportal.persistence.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+
+/**
+ * Finds all study ids that occur in a text in one pass over its UTF-8 bytes (Aho-Corasick), instead of one
+ * {@code contains} per study. The automaton is built once per study list; matching allocates nothing but the result.
+ */
+public class StudyIdMatcher {
+
+    private static final int ROOT = 0;
+
+    private final List<String> studyIds;
+    // bytes that occur in a study id are mapped to 1..alphabetSize, all other bytes to 0 (which leads back to the root)
+    private final int[] byteClasses = new int[256];
+    private final int alphabetSize;
+    // transitions[state * (alphabetSize + 1) + class] is the next state; the automaton is complete, no failure links
+    private final int[] transitions;
+    // indexes of the study ids that end in a state, including those reached through failure links
+    private final int[][] outputs;
+
+    public StudyIdMatcher(List<String> studyIds) {
+        this.studyIds = new ArrayList<>(studyIds);
+
+        List<byte[]> patterns = new ArrayList<>(studyIds.size());
+        int classes = 0;
+        int maxStates = 1;
+        for (String studyId : studyIds) {
+            byte[] pattern = studyId.getBytes(StandardCharsets.UTF_8);
+            patterns.add(pattern);
+            maxStates += pattern.length;
+            for (byte b : pattern) {
+                if (byteClasses[b & 0xFF] == 0) {
+                    byteClasses[b & 0xFF] = ++classes;
+                }
+            }
+        }
+        this.alphabetSize = classes;
+        int width = alphabetSize + 1;
+
+        // build the trie, with -1 for missing edges
+        int[] trie = new int[maxStates * width];
+        Arrays.fill(trie, -1);
+        List<List<Integer>> stateOutputs = new ArrayList<>();
+        stateOutputs.add(new ArrayList<>());
+        int states = 1;
+        for (int i = 0; i < patterns.size(); i++) {
+            int state = ROOT;
+            for (byte b : patterns.get(i)) {
+                int edge = state * width + byteClasses[b & 0xFF];
+                if (trie[edge] == -1) {
+                    trie[edge] = states++;
+                    stateOutputs.add(new ArrayList<>());
+                }
+                state = trie[edge];
+            }
+            // empty ids would match everything
+            if (state != ROOT) {
+                stateOutputs.get(state).add(i);
+            }
+        }
+
+        // turn it into a complete automaton breadth first, merging the outputs of the failure states
+        this.transitions = Arrays.copyOf(trie, states * width);
+        int[] failure = new int[states];
+        Queue<Integer> queue = new ArrayDeque<>();
+        for (int c = 0; c < width; c++) {
+            int next = transitions[c];
+            if (next == -1 || c == 0) {
+                transitions[c] = ROOT;
+            } else {
+                failure[next] = ROOT;
+                queue.add(next);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            stateOutputs.get(state).addAll(stateOutputs.get(failure[state]));
+            for (int c = 0; c < width; c++) {
+                int edge = state * width + c;
+                int next = transitions[edge];
+                int fallback = transitions[failure[state] * width + c];
+                if (next == -1 || c == 0) {
+                    transitions[edge] = c == 0 ? ROOT : fallback;
+                } else {
+                    failure[next] = fallback;
+                    queue.add(next);
+                }
+            }
+        }
+        this.outputs = new int[states][];
+        for (int state = 0; state < states; state++) {
+            outputs[state] = stateOutputs.get(state).stream().mapToInt(Integer::intValue).toArray();
+        }
+    }
+
+    public Set<String> match(String text) {
+        Search search = newSearch();
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        search.update(bytes, 0, bytes.length);
+        return search.getMatches();
+    }
+
+    /**
+     * Starts a search over text that is passed in chunks, e.g. while it is being serialized.
+     */
+    public Search newSearch() {
+        return new Search();
+    }
+
+    public class Search {
+
+        private int state = ROOT;
+        private final BitSet matched = new BitSet();
+
+        public void update(byte[] bytes, int offset, int length) {
+            int width = alphabetSize + 1;
+            int current = state;
+            for (int i = offset; i < offset + length; i++) {
+                current = transitions[current * width + byteClasses[bytes[i] & 0xFF]];
+                for (int studyIndex : outputs[current]) {
+                    matched.set(studyIndex);
+                }
+            }
+            state = current;
+        }
+
+        /**
+         * @return the matched study ids, in the order of the study list
+         */
+        public Set<String> getMatches() {
+            if (matched.isEmpty()) {
+                return Collections.emptySet();
+            }
+            Set<String> result = new LinkedHashSet<>();
+            for (int i = matched.nextSetBit(0); i >= 0; i = matched.nextSetBit(i + 1)) {
+                result.add(studyIds.get(i));
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package org.cbioportal.persistence.util;
+
+import org.springframework.cache.Cache;
+import org.springframework.lang.Nullable;
+
+import java.util.Collection;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Adds every key that is put into the cache to a {@link StudyKeyIndex}, tagged with the study ids that occur in the
+ * key. The key is indexed before the value is stored, so that a study eviction never misses a stored value.
+ */
+public class StudyIndexingCache implements Cache {
+
+    private final Cache cache;
+    private final StudyKeyIndex studyKeyIndex;
+    private final Function<String, Collection<String>> studyIdExtractor;
+
+    public StudyIndexingCache(Cache cache, StudyKeyIndex studyKeyIndex,
+                              Function<String, Collection<String>> studyIdExtractor) {
+        this.cache = cache;
+        this.studyKeyIndex = studyKeyIndex;
+        this.studyIdExtractor = studyIdExtractor;
+    }
+
+    @Override
+    public String getName() {
+        return cache.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return cache.getNativeCache();
+    }
+
+    @Override
+    @Nullable
+    public ValueWrapper get(Object key) {
+        return cache.get(key);
+    }
+
+    @Override
+    @Nullable
+    public <T> T get(Object key, @Nullable Class<T> type) {
+        return cache.get(key, type);
+    }
+
+    @Override
+    @Nullable
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        return cache.get(key, () -> {
+            index(key);
+            return valueLoader.call();
+        });
+    }
+
+    @Override
+    @Nullable
+    public CompletableFuture<?> retrieve(Object key) {
+        return cache.retrieve(key);
+    }
+
+    @Override
+    public <T> CompletableFuture<T> retrieve(Object key, Supplier<CompletableFuture<T>> valueLoader) {
+        return cache.retrieve(key, () -> {
+            index(key);
+            return valueLoader.get();
+        });
+    }
+
+    @Override
+    public void put(Object key, @Nullable Object value) {
+        index(key);
+        cache.put(key, value);
+    }
+
+    @Override
+    @Nullable
+    public ValueWrapper putIfAbsent(Object key, @Nullable Object value) {
+        index(key);
+        return cache.putIfAbsent(key, value);
+    }
+
+    @Override
+    public void evict(Object key) {
+        cache.evict(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        return cache.evictIfPresent(key);
+    }
+
+    @Override
+    public void clear() {
+        cache.clear();
+        studyKeyIndex.reset(getName());
+    }
+
+    @Override
+    public boolean invalidate() {
+        boolean invalidated = cache.invalidate();
+        studyKeyIndex.reset(getName());
+        return invalidated;
+    }
+
+    private void index(Object key) {
+        String keyString = String.valueOf(key);
+        studyKeyIndex.add(getName(), keyString, studyIdExtractor.apply(keyString));
+    }
+}
@@ -0,0 +1,45 @@
+package org.cbioportal.persistence.util;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.interceptor.CacheOperationInvocationContext;
+import org.springframework.cache.interceptor.CacheResolver;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * Wraps the caches of another resolver in {@link StudyIndexingCache}s, so that the keys of a study can be evicted
+ * with {@link CacheUtils#evictByStudy(String, String)}.
+ */
+public class StudyIndexingCacheResolver implements CacheResolver {
+
+    private final CacheResolver cacheResolver;
+    private final StudyKeyIndex studyKeyIndex;
+    private final Function<String, Collection<String>> studyIdExtractor;
+    private final ConcurrentMap<String, StudyIndexingCache> caches = new ConcurrentHashMap<>();
+
+    public StudyIndexingCacheResolver(CacheResolver cacheResolver, StudyKeyIndex studyKeyIndex,
+                                      Function<String, Collection<String>> studyIdExtractor) {
+        this.cacheResolver = cacheResolver;
+        this.studyKeyIndex = studyKeyIndex;
+        this.studyIdExtractor = studyIdExtractor;
+    }
+
+    @Override
+    public Collection<? extends Cache> resolveCaches(CacheOperationInvocationContext<?> context) {
+        Collection<? extends Cache> resolved = cacheResolver.resolveCaches(context);
+        Collection<Cache> result = new ArrayList<>(resolved.size());
+        for (Cache cache : resolved) {
+            StudyIndexingCache studyIndexingCache = caches.get(cache.getName());
+            if (studyIndexingCache == null) {
+                studyIndexingCache = caches.computeIfAbsent(cache.getName(),
+                    name -> new StudyIndexingCache(cache, studyKeyIndex, studyIdExtractor));
+            }
+            result.add(studyIndexingCache);
+        }
+        return result;
+    }
+}
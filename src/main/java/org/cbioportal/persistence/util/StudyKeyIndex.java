@@ -0,0 +1,29 @@
+package org.cbioportal.persistence.util;
+
+import java.util.Collection;
+
+/**
+ * Secondary index from study ids to the cache keys that contain them, so that the keys of a study can be evicted
+ * without scanning all keys of a cache. Keys without any study id are tracked separately, because they may depend
+ * on the list of studies and are evicted together with every study.
+ */
+public interface StudyKeyIndex {
+
+    void add(String cacheName, String key, Collection<String> studyIds);
+
+    /**
+     * Removes and returns the keys of the study and the keys without any study id.
+     */
+    Collection<String> removeStudy(String cacheName, String studyId);
+
+    /**
+     * Whether every key in the cache has been indexed. This is only known after the cache has been cleared (or was
+     * empty on startup); until then study eviction has to fall back to scanning the keys.
+     */
+    boolean isComplete(String cacheName);
+
+    /**
+     * Drops the index of a cache that has just been cleared, and marks it complete.
+     */
+    void reset(String cacheName);
+}
@@ -5,6 +5,7 @@ import org.cbioportal.security.token.oauth2.JwtTokenVerifierBuilder;
 import org.cbioportal.security.token.oauth2.OAuth2DataAccessTokenServiceImpl;
 import org.cbioportal.security.token.oauth2.OAuth2TokenAuthenticationProvider;
 import org.cbioportal.security.token.oauth2.OAuth2TokenRefreshRestTemplate;
+import org.cbioportal.security.token.uuid.UuidTokenAuthenticationCache;
 import org.cbioportal.security.token.uuid.UuidTokenAuthenticationProvider;
 import org.cbioportal.service.impl.UnauthDataAccessTokenServiceImpl;
 import org.cbioportal.utils.config.annotation.ConditionalOnProperty;
@@ -27,8 +28,8 @@ public class DataAccessTokenConfig {
     // TODO - implement jwt providers
     @Bean("tokenAuthenticationProvider")
     @ConditionalOnProperty(name = "dat.method", havingValue = "uuid")
-    public UuidTokenAuthenticationProvider uuidTokenAuthenticationProvider(SecurityRepository repository) {
-        return new UuidTokenAuthenticationProvider(repository);
+    public UuidTokenAuthenticationProvider uuidTokenAuthenticationProvider(SecurityRepository repository, UuidTokenAuthenticationCache authenticationCache) {
+        return new UuidTokenAuthenticationProvider(repository, authenticationCache);
     }
 
     // service
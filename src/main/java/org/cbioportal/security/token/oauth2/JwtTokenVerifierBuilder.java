@@ -1,60 +1,107 @@
-/*
- * Copyright (c) 2020 The Hyve B.V.
- *
- * This library is distributed in the hope that it will be useful, but WITHOUT
- * ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF MERCHANTABILITY OR FITNESS
- * FOR A PARTICULAR PURPOSE. The software and documentation provided hereunder
- * is on an "as is" basis, and Memorial Sloan-Kettering Cancer Center has no
- * obligations to provide maintenance, support, updates, enhancements or
- * modifications. In no event shall Memorial Sloan-Kettering Cancer Center be
- * liable to any party for direct, indirect, special, incidental or
- * consequential damages, including lost profits, arising out of the use of this
- * software and its documentation, even if Memorial Sloan-Kettering Cancer
- * Center has been advised of the possibility of such damage.
- */
-
-/*
- * This file is part of cBioPortal.
- *
- * cBioPortal is free software: you can redistribute it and/or modify
- * it under the terms of the GNU Affero General Public License as
- * published by the Free Software Foundation, either version 3 of the
- * License.
- *
- * This program is distributed in the hope that it will be useful,
- * but WITHOUT ANY WARRANTY; without even the implied warranty of
- * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
- * GNU Affero General Public License for more details.
- *
- * You should have received a copy of the GNU Affero General Public License
- * along with this program.  If not, see <http://www.gnu.org/licenses/>.
-*/
 package org.cbioportal.security.token.oauth2;
 
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.security.interfaces.RSAPublicKey;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import com.auth0.jwk.Jwk;
 import com.auth0.jwk.JwkException;
-import com.auth0.jwk.JwkProvider;
+import com.auth0.jwk.SigningKeyNotFoundException;
 import com.auth0.jwk.UrlJwkProvider;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.jwt.crypto.sign.RsaVerifier;
 import org.springframework.stereotype.Component;
 
+/**
+ * Builds the verifiers of the signing keys published at the JWKS url, by key id. The keys are downloaded once and
+ * kept: after <code>dat.oauth2.jwk_cache_ttl_seconds</code> they are refreshed in the background while the known keys
+ * are still used, and a key id that is not known (e.g. after the keys were rotated) downloads the keys again, at most
+ * once every <code>dat.oauth2.jwk_min_refresh_interval_seconds</code>.
+ */
 @Component
 public class JwtTokenVerifierBuilder {
 
+    private static final Logger LOG = LoggerFactory.getLogger(JwtTokenVerifierBuilder.class);
+
     @Value("${dat.oauth2.jwkUrl:}")
     private String jwkUrl;
 
+    @Value("${dat.oauth2.jwk_cache_ttl_seconds:3600}")
+    private long cacheTtlSeconds;
+
+    @Value("${dat.oauth2.jwk_min_refresh_interval_seconds:10}")
+    private long minRefreshIntervalSeconds;
+
+    private volatile Map<String, RsaVerifier> verifiers = Collections.emptyMap();
+    private volatile long fetchedAt = 0;
+    private volatile long lastRefreshAttempt = 0;
+    private final AtomicBoolean refreshing = new AtomicBoolean(false);
+
     public RsaVerifier build(final String kid) throws MalformedURLException, JwkException {
-        final JwkProvider provider = new UrlJwkProvider(new URL(jwkUrl));
-        final Jwk jwk = provider.get(kid);
-        final RSAPublicKey publicKey = (RSAPublicKey) jwk.getPublicKey();
-        return new RsaVerifier(publicKey, "SHA512withRSA");
+
+        RsaVerifier verifier = verifiers.get(kid);
+        if (verifier != null) {
+            if (isOlderThan(fetchedAt, cacheTtlSeconds) && isOlderThan(lastRefreshAttempt, minRefreshIntervalSeconds)) {
+                refreshInBackground();
+            }
+            return verifier;
+        }
+
+        synchronized (this) {
+            verifier = verifiers.get(kid);
+            if (verifier == null && isOlderThan(lastRefreshAttempt, minRefreshIntervalSeconds)) {
+                refresh();
+                verifier = verifiers.get(kid);
+            }
+        }
+        if (verifier == null) {
+            throw new SigningKeyNotFoundException("No key found in " + jwkUrl + " with kid " + kid, null);
+        }
+        return verifier;
+    }
+
+    private void refreshInBackground() {
+
+        if (!refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        CompletableFuture.runAsync(() -> {
+            try {
+                synchronized (this) {
+                    refresh();
+                }
+            } catch (Exception e) {
+                LOG.warn("Could not refresh the keys from " + jwkUrl + ", using the known keys", e);
+            } finally {
+                refreshing.set(false);
+            }
+        });
+    }
+
+    private void refresh() throws MalformedURLException, JwkException {
+
+        lastRefreshAttempt = System.currentTimeMillis();
+        Map<String, RsaVerifier> downloaded = new HashMap<>();
+        for (Jwk jwk : new UrlJwkProvider(new URL(jwkUrl)).getAll()) {
+            if (jwk.getId() != null && "RSA".equals(jwk.getType())) {
+                downloaded.put(jwk.getId(), new RsaVerifier((RSAPublicKey) jwk.getPublicKey(), "SHA512withRSA"));
+            }
+        }
+        verifiers = downloaded;
+        fetchedAt = System.currentTimeMillis();
+    }
+
+    private static boolean isOlderThan(long time, long seconds) {
+        return System.currentTimeMillis() - time >= TimeUnit.SECONDS.toMillis(seconds);
     }
 
-}
\ No newline at end of file
+}
@@ -45,16 +45,40 @@ import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.jwt.Jwt;
 import org.springframework.security.jwt.JwtHelper;
 
-import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Collection;
-
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Authenticates offline tokens by requesting an access token from the OAuth2 identity provider. The user name and
+ * authorities read from the access token are kept, by the hash of the offline token, until shortly before the access
+ * token expires. Concurrent requests with the same offline token share one request to the identity provider.
+ */
 public class OAuth2TokenAuthenticationProvider implements AuthenticationProvider {
 
     @Value("${dat.oauth2.jwtRolesPath:resource_access::cbioportal::roles}")
     private String jwtRolesPath;
 
+    @Value("${dat.oauth2.access_token_cache.max_entries:10000}")
+    private int cacheMaxEntries;
+
+    // access tokens are dropped from the cache this long before they expire
+    @Value("${dat.oauth2.access_token_cache.expiry_margin_seconds:30}")
+    private long cacheExpiryMarginSeconds;
+
     private final OAuth2TokenRefreshRestTemplate tokenRefreshRestTemplate;
 
+    private final Map<String, CachedAuthentication> cache = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, CompletableFuture<CachedAuthentication>> requests = new ConcurrentHashMap<>();
+
     public OAuth2TokenAuthenticationProvider(OAuth2TokenRefreshRestTemplate tokenRefreshRestTemplate) {
        this.tokenRefreshRestTemplate = tokenRefreshRestTemplate; 
     }
@@ -67,24 +91,69 @@ public class OAuth2TokenAuthenticationProvider implements AuthenticationProvider
     public Authentication authenticate(Authentication authentication) throws AuthenticationException {
 
         String offlineToken = (String) authentication.getCredentials();
+        if (offlineToken == null) {
+            throw new BadCredentialsException("No offline token found in request.");
+        }
+        String key = hash(offlineToken);
+
+        CachedAuthentication cached;
+        synchronized (cache) {
+            cached = cache.get(key);
+            if (cached != null && cached.isExpired()) {
+                cache.remove(key);
+                cached = null;
+            }
+        }
+        if (cached == null) {
+            cached = requestAuthentication(key, offlineToken);
+        }
 
-        // Note: validity of the offline token is not checked in cBioPortal
-        // backend, is handeled by the OAuth2 authentication server.
-
-        // request an access token from the OAuth2 identity provider
-        final String accessToken = tokenRefreshRestTemplate.getAccessToken(offlineToken);
-
-        Collection<GrantedAuthority> authorities = extractAuthorities(accessToken);
-        String username = getUsername(accessToken);
+        return new OAuth2BearerAuthenticationToken(cached.username, cached.authorities);
+    }
 
-        return new OAuth2BearerAuthenticationToken(username, authorities);
+    private CachedAuthentication requestAuthentication(String key, String offlineToken) {
+
+        // request every offline token only once, even when it is used concurrently
+        CompletableFuture<CachedAuthentication> future = new CompletableFuture<>();
+        CompletableFuture<CachedAuthentication> inFlight = requests.putIfAbsent(key, future);
+        if (inFlight != null) {
+            try {
+                return inFlight.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof AuthenticationException ? (AuthenticationException) e.getCause() : e;
+            }
+        }
+        try {
+            // Note: validity of the offline token is not checked in cBioPortal
+            // backend, is handeled by the OAuth2 authentication server.
+
+            // request an access token from the OAuth2 identity provider
+            final String accessToken = tokenRefreshRestTemplate.getAccessToken(offlineToken);
+
+            JsonNode claims = getClaims(accessToken);
+            CachedAuthentication authentication = new CachedAuthentication(getUsername(claims),
+                extractAuthorities(claims), getCacheExpiration(claims));
+            if (!authentication.isExpired()) {
+                synchronized (cache) {
+                    cache.put(key, authentication);
+                    if (cache.size() > cacheMaxEntries) {
+                        cache.remove(cache.keySet().iterator().next());
+                    }
+                }
+            }
+            future.complete(authentication);
+            return authentication;
+        } catch (RuntimeException | Error e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            requests.remove(key);
+        }
     }
 
     // Read roles/authorities from JWT token.
-    private Collection<GrantedAuthority> extractAuthorities(final String token) throws BadCredentialsException {
+    private Collection<GrantedAuthority> extractAuthorities(final JsonNode claims) throws BadCredentialsException {
         try {
-            final Jwt tokenDecoded = JwtHelper.decode(token);
-            final String claims = tokenDecoded.getClaims();
             return GrantedAuthorityUtil.generateGrantedAuthoritiesFromRoles(ClaimRoleExtractorUtil.extractClientRoles(claims, jwtRolesPath));
 
         } catch (Exception e) {
@@ -92,17 +161,17 @@ public class OAuth2TokenAuthenticationProvider implements AuthenticationProvider
         }
     }
 
-    private String getUsername(final String token) {
-
-        final Jwt tokenDecoded = JwtHelper.decode(token);
-
-        final String claims = tokenDecoded.getClaims();
-        JsonNode claimsMap;
+    private JsonNode getClaims(final String token) throws BadCredentialsException {
         try {
-            claimsMap = new ObjectMapper().readTree(claims);
-        } catch (IOException e) {
-            throw new BadCredentialsException("User name could not be found in access token.");
+            final Jwt tokenDecoded = JwtHelper.decode(token);
+            return new ObjectMapper().readTree(tokenDecoded.getClaims());
+
+        } catch (Exception e) {
+            throw new BadCredentialsException("Claims could not be read from access token.");
         }
+    }
+
+    private String getUsername(final JsonNode claimsMap) {
 
         if (! claimsMap.has("sub")) {
             throw new BadCredentialsException("User name could not be found in access token.");
@@ -111,4 +180,39 @@ public class OAuth2TokenAuthenticationProvider implements AuthenticationProvider
         return claimsMap.get("sub").asText();
     }
 
+    // access tokens without an expiration are not cached
+    private long getCacheExpiration(final JsonNode claimsMap) {
+
+        if (! claimsMap.has("exp")) {
+            return 0;
+        }
+        return TimeUnit.SECONDS.toMillis(claimsMap.get("exp").asLong() - cacheExpiryMarginSeconds);
+    }
+
+    private static String hash(final String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static class CachedAuthentication {
+
+        private final String username;
+        private final Collection<GrantedAuthority> authorities;
+        private final long expiresAt;
+
+        private CachedAuthentication(String username, Collection<GrantedAuthority> authorities, long expiresAt) {
+            this.username = username;
+            this.authorities = authorities;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isExpired() {
+            return System.currentTimeMillis() >= expiresAt;
+        }
+    }
+
 }
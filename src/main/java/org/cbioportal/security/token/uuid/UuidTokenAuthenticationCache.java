@@ -0,0 +1,197 @@
+package org.cbioportal.security.token.uuid;
+
+import jakarta.annotation.PostConstruct;
+import org.cbioportal.utils.config.annotation.ConditionalOnProperty;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the user name, expiration and authorities of validated UUID data access tokens, by the hash of the token, so
+ * that authenticating a request does not query the database. An entry is kept until the token expires, at most
+ * <code>dat.uuid.auth_cache.ttl_seconds</code>, and is evicted when the token is revoked. When the portal caches in
+ * Redis, revocations are published to the other portal instances on a Redis topic.
+ */
+@Component
+@ConditionalOnProperty(name = "dat.method", havingValue = "uuid")
+public class UuidTokenAuthenticationCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(UuidTokenAuthenticationCache.class);
+
+    private static final String TOKEN_REVOCATION = "token:";
+    private static final String USERNAME_REVOCATION = "username:";
+
+    @Value("${dat.uuid.auth_cache.max_entries:10000}")
+    private int maxEntries;
+
+    @Value("${dat.uuid.auth_cache.ttl_seconds:300}")
+    private long ttlSeconds;
+
+    @Value("${redis.name:cbioportal}")
+    private String redisName;
+
+    @Autowired(required = false)
+    private CacheManager cacheManager;
+
+    private final Map<String, CachedToken> cache = new LinkedHashMap<>(16, 0.75f, true);
+
+    // incremented on every revocation, so that tokens read from the database before a revocation are not cached
+    private final AtomicLong revision = new AtomicLong();
+
+    private RTopic revocations;
+
+    @PostConstruct
+    public void subscribeToRevocations() {
+        if (cacheManager == null) {
+            return;
+        }
+        Cache generalCache = cacheManager.getCache(redisName + "GeneralRepositoryCache");
+        if (generalCache != null && generalCache.getNativeCache() instanceof RedissonClient) {
+            revocations = ((RedissonClient) generalCache.getNativeCache())
+                .getTopic(redisName + "DataAccessTokenRevocations", StringCodec.INSTANCE);
+            revocations.addListener(String.class, (channel, revocation) -> evict(revocation));
+        }
+    }
+
+    public long getRevision() {
+        return revision.get();
+    }
+
+    /**
+     * @return the user name of the token, or null when the token is not cached
+     */
+    public String getUsername(String token) {
+        CachedToken cachedToken = get(token);
+        return cachedToken == null ? null : cachedToken.username;
+    }
+
+    /**
+     * @return the authorities of the user of the token, or null when they are not cached
+     */
+    public Set<GrantedAuthority> getAuthorities(String token, String username) {
+        CachedToken cachedToken = get(token);
+        return cachedToken == null || !cachedToken.username.equals(username) ? null : cachedToken.authorities;
+    }
+
+    /**
+     * Caches a valid token, unless a token was revoked since {@link #getRevision()} returned the given revision.
+     */
+    public void putUsername(String token, String username, Date expiration, long revision) {
+        if (maxEntries <= 0) {
+            return;
+        }
+        long cachedUntil = Math.min(expiration.getTime(),
+            System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(ttlSeconds));
+        String key = hash(token);
+        synchronized (cache) {
+            if (this.revision.get() != revision) {
+                return;
+            }
+            cache.put(key, new CachedToken(username, cachedUntil, null));
+            if (cache.size() > maxEntries) {
+                cache.remove(cache.keySet().iterator().next());
+            }
+        }
+    }
+
+    /**
+     * Adds the authorities to a cached token of the user.
+     */
+    public void putAuthorities(String token, String username, Set<GrantedAuthority> authorities) {
+        String key = hash(token);
+        synchronized (cache) {
+            CachedToken cachedToken = cache.get(key);
+            if (cachedToken != null && cachedToken.username.equals(username)) {
+                cache.put(key, new CachedToken(username, cachedToken.cachedUntil, authorities));
+            }
+        }
+    }
+
+    public void revokeToken(String token) {
+        revoke(TOKEN_REVOCATION + hash(token));
+    }
+
+    public void revokeAllTokens(String username) {
+        revoke(USERNAME_REVOCATION + username);
+    }
+
+    private void revoke(String revocation) {
+        evict(revocation);
+        if (revocations != null) {
+            try {
+                revocations.publish(revocation);
+            } catch (Exception e) {
+                LOG.error("Could not publish the revocation of a data access token to the other portal instances", e);
+            }
+        }
+    }
+
+    private void evict(String revocation) {
+        synchronized (cache) {
+            revision.incrementAndGet();
+            if (revocation.startsWith(TOKEN_REVOCATION)) {
+                cache.remove(revocation.substring(TOKEN_REVOCATION.length()));
+            } else if (revocation.startsWith(USERNAME_REVOCATION)) {
+                String username = revocation.substring(USERNAME_REVOCATION.length());
+                cache.values().removeIf(cachedToken -> cachedToken.username.equals(username));
+            }
+        }
+    }
+
+    private CachedToken get(String token) {
+        String key = hash(token);
+        synchronized (cache) {
+            CachedToken cachedToken = cache.get(key);
+            if (cachedToken != null && cachedToken.isExpired()) {
+                cache.remove(key);
+                return null;
+            }
+            return cachedToken;
+        }
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static class CachedToken {
+
+        private final String username;
+        private final long cachedUntil;
+        private final Set<GrantedAuthority> authorities;
+
+        private CachedToken(String username, long cachedUntil, Set<GrantedAuthority> authorities) {
+            this.username = username;
+            this.cachedUntil = cachedUntil;
+            this.authorities = authorities;
+        }
+
+        private boolean isExpired() {
+            return System.currentTimeMillis() >= cachedUntil;
+        }
+    }
+}
@@ -19,19 +19,31 @@ public class UuidTokenAuthenticationProvider implements AuthenticationProvider {
     private static final Logger log = LoggerFactory.getLogger(UuidTokenAuthenticationProvider.class);
 
     private final SecurityRepository securityRepository;
+
+    private final UuidTokenAuthenticationCache authenticationCache;
     
-    public UuidTokenAuthenticationProvider(final SecurityRepository securityRepository) {
+    public UuidTokenAuthenticationProvider(final SecurityRepository securityRepository,
+                                           final UuidTokenAuthenticationCache authenticationCache) {
         this.securityRepository = securityRepository;
+        this.authenticationCache = authenticationCache;
     }
     
     @Override
     public Authentication authenticate(Authentication authentication) throws AuthenticationException {
         String user = (String) authentication.getPrincipal();
-        log.debug("Attempt to grab user Authorities for user: {}", user);
-        UserAuthorities authorities = securityRepository.getPortalUserAuthorities(user);
-        Set<GrantedAuthority> mappedAuthorities = new HashSet<>();
-        if (!Objects.isNull(authorities)) {
-            mappedAuthorities.addAll(AuthorityUtils.createAuthorityList(authorities.getAuthorities()));
+        // the data access token is passed as details of the authentication request
+        String token = authentication.getDetails() instanceof String ? (String) authentication.getDetails() : null;
+        Set<GrantedAuthority> mappedAuthorities = token == null ? null : authenticationCache.getAuthorities(token, user);
+        if (mappedAuthorities == null) {
+            log.debug("Attempt to grab user Authorities for user: {}", user);
+            UserAuthorities authorities = securityRepository.getPortalUserAuthorities(user);
+            mappedAuthorities = new HashSet<>();
+            if (!Objects.isNull(authorities)) {
+                mappedAuthorities.addAll(AuthorityUtils.createAuthorityList(authorities.getAuthorities()));
+            }
+            if (token != null) {
+                authenticationCache.putAuthorities(token, user, mappedAuthorities);
+            }
         }
         return new UsernamePasswordAuthenticationToken(user, "does not match unused", mappedAuthorities);
     }
@@ -22,4 +22,8 @@ public interface CopyNumberSegmentService {
     BaseMeta fetchMetaCopyNumberSegments(List<String> studyIds, List<String> sampleIds, String chromosome);
 
     List<CopyNumberSeg> getCopyNumberSegmentsBySampleListId(String studyId, String sampleListId, String chromosome, String projection);
+
+    List<CopyNumberSeg> fetchCopyNumberSegmentsInRegion(List<String> studyIds, List<String> sampleIds, String chromosome,
+                                                        Integer start, Integer end, Integer resolution,
+                                                        String projection);
 }
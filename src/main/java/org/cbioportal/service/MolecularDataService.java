@@ -3,10 +3,12 @@ package org.cbioportal.service;
 import org.cbioportal.model.GeneFilterQuery;
 import org.cbioportal.model.GeneMolecularAlteration;
 import org.cbioportal.model.GeneMolecularData;
+import org.cbioportal.model.MolecularDataKey;
 import org.cbioportal.model.meta.BaseMeta;
 import org.cbioportal.service.exception.MolecularProfileNotFoundException;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface MolecularDataService {
 
@@ -34,6 +36,20 @@ public interface MolecularDataService {
                                                                         List<Integer> entrezGeneIds,
                                                                         String projection);
 
+    /**
+     * Passes the molecular data of a page of at most {@code pageSize} gene rows after the given key (from the start
+     * if null) to the consumer, as the rows are read from the database. A row holds the values of a gene in a
+     * molecular profile.
+     *
+     * @param sampleIds the samples, paired with the molecular profiles, or null for all samples of the profiles
+     * @return the key to pass to get the next page, or null if this was the last page
+     */
+    MolecularDataKey exportMolecularDataInMultipleMolecularProfiles(List<String> molecularProfileIds,
+                                                                    List<String> sampleIds,
+                                                                    List<Integer> entrezGeneIds, String projection,
+                                                                    MolecularDataKey after, int pageSize,
+                                                                    Consumer<GeneMolecularData> consumer);
+
     List<GeneMolecularData> getMolecularDataInMultipleMolecularProfilesByGeneQueries(List<String> molecularProfileIds,
                                                                                      List<String> sampleIds,
                                                                                      List<GeneFilterQuery> geneQueries,
@@ -4,10 +4,12 @@ import org.cbioportal.model.GeneFilterQuery;
 import org.cbioportal.model.GenomicDataCountItem;
 import org.cbioportal.model.Mutation;
 import org.cbioportal.model.MutationCountByPosition;
+import org.cbioportal.model.MutationKey;
 import org.cbioportal.model.meta.MutationMeta;
 import org.cbioportal.service.exception.MolecularProfileNotFoundException;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface MutationService {
 
@@ -26,6 +28,17 @@ public interface MutationService {
                                                            Integer pageSize, Integer pageNumber,
                                                            String sortBy, String direction);
 
+    /**
+     * Passes a page of at most {@code pageSize} mutations after the given key (from the start if null) to the
+     * consumer, as they are read from the database.
+     *
+     * @return the key to pass to get the next page, or null if this was the last page
+     */
+    MutationKey exportMutationsInMultipleMolecularProfiles(List<String> molecularProfileIds, List<String> sampleIds,
+                                                           List<Integer> entrezGeneIds, String projection,
+                                                           MutationKey after, int pageSize,
+                                                           Consumer<Mutation> consumer);
+
     List<Mutation> getMutationsInMultipleMolecularProfilesByGeneQueries(List<String> molecularProfileIds, List<String> sampleIds,
                                                                       List<GeneFilterQuery> geneQueries,
                                                                       String projection, Integer pageSize, Integer pageNumber,
@@ -0,0 +1,19 @@
+package org.cbioportal.service.exception;
+
+public class InvalidContinuationTokenException extends Exception {
+
+    private String continuationToken;
+
+    public InvalidContinuationTokenException(String continuationToken) {
+        super();
+        this.continuationToken = continuationToken;
+    }
+
+    public String getContinuationToken() {
+        return continuationToken;
+    }
+
+    public void setContinuationToken(String continuationToken) {
+        this.continuationToken = continuationToken;
+    }
+}
@@ -0,0 +1,19 @@
+package org.cbioportal.service.exception;
+
+public class UnsupportedProjectionException extends Exception {
+
+    private String projection;
+
+    public UnsupportedProjectionException(String projection) {
+        super();
+        this.projection = projection;
+    }
+
+    public String getProjection() {
+        return projection;
+    }
+
+    public void setProjection(String projection) {
+        this.projection = projection;
+    }
+}
@@ -1,5 +1,8 @@
 package org.cbioportal.service.impl;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.math3.util.Pair;
 import org.cbioportal.model.*;
@@ -9,10 +12,20 @@ import org.cbioportal.persistence.MolecularProfileRepository;
 import org.cbioportal.service.AlterationCountService;
 import org.cbioportal.service.util.AlterationEnrichmentUtil;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -30,6 +43,13 @@ public class AlterationCountServiceImpl implements AlterationCountService {
     private AlterationEnrichmentUtil<AlterationCountByStructuralVariant> alterationEnrichmentUtilStructVar;
     @Autowired
     private MolecularProfileRepository molecularProfileRepository;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${alteration_counts.study_parallelism:8}")
+    private int studyParallelism;
+
+    private ExecutorService studyExecutor;
 
     @Override
     public Pair<List<AlterationCountByGene>, Long> getSampleAlterationGeneCounts(List<MolecularProfileCaseIdentifier> molecularProfileCaseIdentifiers,
@@ -243,43 +263,107 @@ public class AlterationCountServiceImpl implements AlterationCountService {
                 .stream()
                 .collect(Collectors.toMap(MolecularProfile::getStableId, MolecularProfile::getCancerStudyIdentifier));
 
-            Map<String, S> totalResult = new HashMap<>();
-
-            molecularProfileCaseIdentifiers
+            Map<String, List<MolecularProfileCaseIdentifier>> identifiersByStudy = molecularProfileCaseIdentifiers
                 .stream()
                 .collect(Collectors
-                    .groupingBy(identifier -> molecularProfileIdStudyIdMap.get(identifier.getMolecularProfileId())))
-                .values()
-                .forEach(studyMolecularProfileCaseIdentifiers -> {
-                    List<S> studyAlterationCountByGenes = dataFetcher.apply(studyMolecularProfileCaseIdentifiers);
-                    if (includeFrequency) {
-                        Long studyProfiledCasesCount = includeFrequencyFunction.apply(studyMolecularProfileCaseIdentifiers, studyAlterationCountByGenes);
-                        profiledCasesCount.updateAndGet(v -> v + studyProfiledCasesCount);
-                    }
-                    studyAlterationCountByGenes.forEach(datum -> {
-                        String key = datum.getUniqueEventKey();
-                        if (totalResult.containsKey(key)) {
-                            S alterationCountByGene = totalResult.get(key);
-                            alterationCountByGene.setTotalCount(alterationCountByGene.getTotalCount() + datum.getTotalCount());
-                            alterationCountByGene.setNumberOfAlteredCases(alterationCountByGene.getNumberOfAlteredCases() + datum.getNumberOfAlteredCases());
-                            alterationCountByGene.setNumberOfProfiledCases(alterationCountByGene.getNumberOfProfiledCases() + datum.getNumberOfProfiledCases());
-                            Set<String> matchingGenePanelIds = new HashSet<>();
-                            if (!alterationCountByGene.getMatchingGenePanelIds().isEmpty()) {
-                                matchingGenePanelIds.addAll(alterationCountByGene.getMatchingGenePanelIds());
-                            }
-                            if (!datum.getMatchingGenePanelIds().isEmpty()) {
-                                matchingGenePanelIds.addAll(datum.getMatchingGenePanelIds());
-                            }
-                            alterationCountByGene.setMatchingGenePanelIds(matchingGenePanelIds);
-                            totalResult.put(key, alterationCountByGene);
-                        } else {
-                            totalResult.put(key, datum);
-                        }
-                    });
-                });
+                    .groupingBy(identifier -> molecularProfileIdStudyIdMap.get(identifier.getMolecularProfileId())));
+
+            // studies are fetched concurrently and merged per unique event key, merge() is atomic per key
+            Map<String, S> totalResult = new ConcurrentHashMap<>();
+            LongAdder totalProfiledCases = new LongAdder();
+
+            forEachStudy(identifiersByStudy, (studyId, studyMolecularProfileCaseIdentifiers) -> {
+                Timer.Sample sample = Timer.start(meterRegistry);
+                List<S> studyAlterationCountByGenes = dataFetcher.apply(studyMolecularProfileCaseIdentifiers);
+                if (includeFrequency) {
+                    Long studyProfiledCasesCount = includeFrequencyFunction.apply(studyMolecularProfileCaseIdentifiers, studyAlterationCountByGenes);
+                    totalProfiledCases.add(studyProfiledCasesCount);
+                }
+                studyAlterationCountByGenes.forEach(datum ->
+                    totalResult.merge(datum.getUniqueEventKey(), datum, AlterationCountServiceImpl::mergeAlterationCounts));
+                sample.stop(Timer.builder("cbioportal.alteration.counts.study")
+                    .tag("cases", bucketCaseCount(studyMolecularProfileCaseIdentifiers.size()))
+                    .description("Time to count the alterations of the cases of one study")
+                    .register(meterRegistry));
+            });
+            profiledCasesCount.set(totalProfiledCases.sum());
             alterationCountByGenes = new ArrayList<>(totalResult.values());
         }
         return new Pair<>(alterationCountByGenes, profiledCasesCount.get());
     }
 
+    /**
+     * Buckets the number of cases of a study by order of magnitude, so the study timer has a bounded number of series.
+     */
+    static String bucketCaseCount(int count) {
+        if (count < 100) {
+            return "<100";
+        } else if (count < 1000) {
+            return "100-999";
+        } else if (count < 10000) {
+            return "1000-9999";
+        }
+        return "10000+";
+    }
+
+    private static <S extends AlterationCountBase> S mergeAlterationCounts(S alterationCountByGene, S datum) {
+        alterationCountByGene.setTotalCount(alterationCountByGene.getTotalCount() + datum.getTotalCount());
+        alterationCountByGene.setNumberOfAlteredCases(alterationCountByGene.getNumberOfAlteredCases() + datum.getNumberOfAlteredCases());
+        alterationCountByGene.setNumberOfProfiledCases(alterationCountByGene.getNumberOfProfiledCases() + datum.getNumberOfProfiledCases());
+        Set<String> matchingGenePanelIds = new HashSet<>();
+        if (!alterationCountByGene.getMatchingGenePanelIds().isEmpty()) {
+            matchingGenePanelIds.addAll(alterationCountByGene.getMatchingGenePanelIds());
+        }
+        if (!datum.getMatchingGenePanelIds().isEmpty()) {
+            matchingGenePanelIds.addAll(datum.getMatchingGenePanelIds());
+        }
+        alterationCountByGene.setMatchingGenePanelIds(matchingGenePanelIds);
+        return alterationCountByGene;
+    }
+
+    /**
+     * Runs the task for every study, on the study executor when there is more than one study and
+     * alteration_counts.study_parallelism is larger than 1, otherwise in the calling thread.
+     */
+    private void forEachStudy(Map<String, List<MolecularProfileCaseIdentifier>> identifiersByStudy,
+                              BiConsumer<String, List<MolecularProfileCaseIdentifier>> task) {
+
+        if (studyParallelism <= 1 || identifiersByStudy.size() <= 1) {
+            identifiersByStudy.forEach(task);
+            return;
+        }
+        Executor executor = getStudyExecutor();
+        CompletableFuture<?>[] futures = identifiersByStudy.entrySet()
+            .stream()
+            .map(entry -> CompletableFuture.runAsync(() -> task.accept(entry.getKey(), entry.getValue()), executor))
+            .toArray(CompletableFuture[]::new);
+        try {
+            CompletableFuture.allOf(futures).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private synchronized Executor getStudyExecutor() {
+        if (studyExecutor == null) {
+            AtomicInteger threadNumber = new AtomicInteger();
+            studyExecutor = Executors.newFixedThreadPool(studyParallelism, runnable -> {
+                Thread thread = new Thread(runnable, "AlterationCountStudyExecutor-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return studyExecutor;
+    }
+
+    @PreDestroy
+    public synchronized void shutdownStudyExecutor() {
+        if (studyExecutor != null) {
+            studyExecutor.shutdown();
+        }
+    }
+
 }
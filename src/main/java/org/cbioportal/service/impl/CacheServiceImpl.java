@@ -6,8 +6,10 @@ import org.cbioportal.persistence.StudyRepository;
 import org.cbioportal.persistence.cachemaputil.CacheMapUtil;
 import org.cbioportal.persistence.cachemaputil.StaticRefCacheMapUtil;
 import org.cbioportal.persistence.util.CacheUtils;
+import org.cbioportal.persistence.util.CustomKeyGenerator;
 import org.cbioportal.service.CacheService;
 import org.cbioportal.service.exception.CacheOperationException;
+import org.cbioportal.service.util.InMemoryCacheInvalidator;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.CacheManager;
 import org.springframework.stereotype.Component;
@@ -31,17 +33,30 @@ public class CacheServiceImpl implements CacheService {
     @Autowired(required = false)
     private CacheUtils cacheUtils;
 
+    // When caching is disabled there is no CustomKeyGenerator bean either.
+    @Autowired(required = false)
+    private CustomKeyGenerator customKeyGenerator;
+
     @Autowired
     private StudyRepository studyRepository;
+
+    @Autowired
+    private InMemoryCacheInvalidator inMemoryCacheInvalidator;
     
     @Override
     public void clearCaches(boolean clearSpringManagedCache) throws CacheOperationException {
-        
+
+        // Flush the in-memory caches of decoded and indexed study data.
+        inMemoryCacheInvalidator.clearAll();
+
         // Flush Spring-managed caches (only when cache strategy has been defined).
         if (clearSpringManagedCache) {
-            attemptEvictSpringManagedCache(".*");
+            attemptEvictSpringManagedCache(CacheUtils.ALL_KEYS_PATTERN);
         }
 
+        // Tag the keys of studies loaded since the study list was last read with their study id.
+        resetStudyIdMatcher();
+
         // Flush cache used for user permission evaluation.
         // Only needed when using cache not managed by the Spring caches.
         if (cacheMapUtil instanceof StaticRefCacheMapUtil) {
@@ -57,16 +72,17 @@ public class CacheServiceImpl implements CacheService {
     // This evicts keys from the general and static caches when updating/adding/deleting a study.
     public void clearCachesForStudy(String studyId, boolean clearSpringManagedCache) throws CacheOperationException {
 
-        List<String> allStudyIds = studyRepository.getAllStudies(null, "SUMMARY", null, null, null, null)
-            .stream()
-            .map(study -> study.getCancerStudyIdentifier())
-            .collect(Collectors.toList());
-            
+        // Flush the in-memory caches of decoded and indexed study data.
+        inMemoryCacheInvalidator.clearStudy(studyId);
+
         // Flush Spring-managed caches (only when cache strategy has been defined).
         if (clearSpringManagedCache) {
-            attemptEvictSpringManagedCache(buildEvictionRegex(studyId, allStudyIds));
+            attemptEvictSpringManagedCacheForStudy(studyId);
         }
 
+        // Tag the keys of studies loaded since the study list was last read with their study id.
+        resetStudyIdMatcher();
+
         // Flush cache used for user permission evaluation.
         // Only needed when using cache not managed by the Spring caches.
         if (cacheMapUtil instanceof StaticRefCacheMapUtil) {
@@ -75,6 +91,12 @@ public class CacheServiceImpl implements CacheService {
         
     }
     
+    private void resetStudyIdMatcher() {
+        if (customKeyGenerator != null) {
+            customKeyGenerator.resetStudyIdMatcher();
+        }
+    }
+
     private void attemptEvictSpringManagedCache(String pattern) throws CacheOperationException {
         try {
             if (cacheManager != null) {
@@ -89,6 +111,35 @@ public class CacheServiceImpl implements CacheService {
             throw new CacheOperationException("Error while evicting cache.", e);
         }
     }
+
+    // Evicts the keys of the study through the study key index, and only scans all keys
+    // (with the regex below) for caches that the index does not cover yet.
+    private void attemptEvictSpringManagedCacheForStudy(String studyId) throws CacheOperationException {
+        try {
+            if (cacheManager != null) {
+                String evictionRegex = null;
+                for (String cacheName : cacheManager.getCacheNames()) {
+                    if (!cacheUtils.evictByStudy(cacheName, studyId)) {
+                        if (evictionRegex == null) {
+                            evictionRegex = buildEvictionRegex(studyId, getAllStudyIds());
+                        }
+                        cacheUtils.evictByPattern(cacheName, evictionRegex);
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+            LOG.error("Error while evicting cache." + e.getMessage());
+            throw new CacheOperationException("Error while evicting cache.", e);
+        }
+    }
+
+    private List<String> getAllStudyIds() {
+        return studyRepository.getAllStudies(null, "SUMMARY", null, null, null, null)
+            .stream()
+            .map(study -> study.getCancerStudyIdentifier())
+            .collect(Collectors.toList());
+    }
     
     // Regex that selects keys that match id of deleted study
     // or lacking any study id completely. For example:
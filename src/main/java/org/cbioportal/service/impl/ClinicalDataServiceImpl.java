@@ -8,6 +8,8 @@ import org.cbioportal.persistence.mybatis.util.PaginationCalculator;
 import org.cbioportal.service.*;
 import org.cbioportal.service.exception.*;
 import org.cbioportal.service.util.ClinicalAttributeUtil;
+import org.cbioportal.service.util.ClinicalTableIndex;
+import org.cbioportal.service.util.ClinicalTableIndexCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -33,6 +35,8 @@ public class ClinicalDataServiceImpl implements ClinicalDataService {
     private ClinicalAttributeService clinicalAttributeService;
     @Autowired
     private ClinicalAttributeUtil clinicalAttributeUtil;
+    @Autowired
+    private ClinicalTableIndexCache clinicalTableIndexCache;
 
     @Override
     public List<ClinicalData> getAllClinicalDataOfSampleInStudy(String studyId, String sampleId, String attributeId, 
@@ -237,12 +241,9 @@ public class ClinicalDataServiceImpl implements ClinicalDataService {
             return new ImmutablePair<>(SampleClinicalDataCollection.builder().build(), 0);
         }
 
-        // Request un-paginated data.
-        List<Integer> allSampleInternalIds = clinicalDataRepository.getVisibleSampleInternalIdsForClinicalTable(
-            studyIds, sampleIds,
-            null, null,
-            searchTerm, sortBy, direction
-        );
+        // Search and sort all samples; the page is sliced from these.
+        List<Integer> allSampleInternalIds = getVisibleSampleInternalIds(studyIds, sampleIds, searchTerm, sortBy,
+            direction);
         Integer offset = PaginationCalculator.offset(pageSize, pageNumber);
 
         if (allSampleInternalIds.isEmpty() || offset >= allSampleInternalIds.size()) {
@@ -252,6 +253,88 @@ public class ClinicalDataServiceImpl implements ClinicalDataService {
         return buildSampleClinicalDataCollection(allSampleInternalIds, offset, pageSize);
     }
 
+    private List<Integer> getVisibleSampleInternalIds(List<String> studyIds, List<String> sampleIds, String searchTerm,
+                                                      String sortBy, String direction) {
+
+        // the positions of the requested samples in the index of their study
+        Map<String, ClinicalTableIndex> indexes = new HashMap<>();
+        Map<ClinicalTableIndex, BitSet> visiblePositions = new LinkedHashMap<>();
+        for (int i = 0; i < studyIds.size(); i++) {
+            ClinicalTableIndex index = indexes.computeIfAbsent(studyIds.get(i), clinicalTableIndexCache::get);
+            Integer position = index.getPosition(sampleIds.get(i));
+            if (position != null) {
+                visiblePositions.computeIfAbsent(index, k -> new BitSet(index.getSampleCount())).set(position);
+            }
+        }
+        if (searchTerm != null && !searchTerm.isBlank()) {
+            visiblePositions.forEach((index, positions) -> positions.and(index.search(searchTerm)));
+        }
+
+        List<Integer> sampleInternalIds = new ArrayList<>();
+        if (sortBy != null) {
+            boolean descending = "DESC".equalsIgnoreCase(direction);
+            List<VisibleRanks> studyRanks = new ArrayList<>();
+            visiblePositions.forEach((index, positions) ->
+                studyRanks.add(new VisibleRanks(studyRanks.size(), index, index.getSortOrder(sortBy), positions,
+                    descending)));
+            // merge the sorted samples of the studies, samples without a value go last
+            PriorityQueue<VisibleRanks> queue = new PriorityQueue<>((ranks1, ranks2) -> {
+                int comparison = ranks1.sortOrder.compare(ranks1.currentRank(), ranks2.sortOrder,
+                    ranks2.currentRank());
+                comparison = descending ? -comparison : comparison;
+                return comparison != 0 ? comparison : Integer.compare(ranks1.study, ranks2.study);
+            });
+            studyRanks.stream().filter(VisibleRanks::hasNext).forEach(queue::add);
+            while (!queue.isEmpty()) {
+                VisibleRanks ranks = queue.poll();
+                sampleInternalIds.add(ranks.index.getSampleInternalId(ranks.sortOrder.getPosition(ranks.currentRank())));
+                ranks.next++;
+                if (ranks.hasNext()) {
+                    queue.add(ranks);
+                }
+            }
+        }
+        visiblePositions.forEach((index, positions) ->
+            positions.stream().forEach(position -> sampleInternalIds.add(index.getSampleInternalId(position))));
+        return sampleInternalIds;
+    }
+
+    private static class VisibleRanks {
+
+        private final int study;
+        private final ClinicalTableIndex index;
+        private final ClinicalTableIndex.SortOrder sortOrder;
+        private final int[] ranks;
+        private int next = 0;
+
+        // takes the sorted samples out of the visible positions
+        private VisibleRanks(int study, ClinicalTableIndex index, ClinicalTableIndex.SortOrder sortOrder,
+                             BitSet visiblePositions, boolean descending) {
+            this.study = study;
+            this.index = index;
+            this.sortOrder = sortOrder;
+            int[] visibleRanks = new int[Math.min(sortOrder.size(), visiblePositions.cardinality())];
+            int count = 0;
+            for (int i = 0; i < sortOrder.size(); i++) {
+                int rank = descending ? sortOrder.size() - 1 - i : i;
+                int position = sortOrder.getPosition(rank);
+                if (visiblePositions.get(position)) {
+                    visibleRanks[count++] = rank;
+                    visiblePositions.clear(position);
+                }
+            }
+            ranks = Arrays.copyOf(visibleRanks, count);
+        }
+
+        private boolean hasNext() {
+            return next < ranks.length;
+        }
+
+        private int currentRank() {
+            return ranks[next];
+        }
+    }
+
     private ImmutablePair<SampleClinicalDataCollection, Integer> buildSampleClinicalDataCollection(List<Integer> allSampleInternalIds, Integer offset, Integer pageSize) {
         
         // Apply pagination to the sampleId list.
@@ -1,16 +1,23 @@
 package org.cbioportal.service.impl;
 
+import org.apache.commons.lang3.StringUtils;
 import org.cbioportal.model.CopyNumberSeg;
 import org.cbioportal.model.meta.BaseMeta;
 import org.cbioportal.persistence.CopyNumberSegmentRepository;
+import org.cbioportal.persistence.PersistenceConstants;
 import org.cbioportal.service.CopyNumberSegmentService;
 import org.cbioportal.service.SampleService;
 import org.cbioportal.service.exception.SampleNotFoundException;
 import org.cbioportal.service.exception.StudyNotFoundException;
+import org.cbioportal.service.util.CopyNumberSegmentIndexCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 @Service
 public class CopyNumberSegmentServiceImpl implements CopyNumberSegmentService {
@@ -19,6 +26,8 @@ public class CopyNumberSegmentServiceImpl implements CopyNumberSegmentService {
     private CopyNumberSegmentRepository copyNumberSegmentRepository;
     @Autowired
     private SampleService sampleService;
+    @Autowired
+    private CopyNumberSegmentIndexCache copyNumberSegmentIndexCache;
 
     @Override
     public List<CopyNumberSeg> getCopyNumberSegmentsInSampleInStudy(String studyId, String sampleId, String chromosome,
@@ -65,4 +74,32 @@ public class CopyNumberSegmentServiceImpl implements CopyNumberSegmentService {
         
         return copyNumberSegmentRepository.getCopyNumberSegmentsBySampleListId(studyId, sampleListId, chromosome, projection);
     }
+
+    @Override
+    public List<CopyNumberSeg> fetchCopyNumberSegmentsInRegion(List<String> studyIds,
+                                                               List<String> sampleIds,
+                                                               String chromosome,
+                                                               Integer start,
+                                                               Integer end,
+                                                               Integer resolution,
+                                                               String projection) {
+
+        Map<String, List<String>> sampleIdsByStudyId = new LinkedHashMap<>();
+        for (int i = 0; i < studyIds.size(); i++) {
+            sampleIdsByStudyId.computeIfAbsent(studyIds.get(i), studyId -> new ArrayList<>()).add(sampleIds.get(i));
+        }
+
+        // a blank chromosome selects all of them, as in the queries of the repository
+        String chromosomeOrAll = StringUtils.isBlank(chromosome) ? null : chromosome;
+        List<CopyNumberSeg> copyNumberSegs = new ArrayList<>();
+        sampleIdsByStudyId.forEach((studyId, sampleIdsOfStudy) -> copyNumberSegs.addAll(
+            copyNumberSegmentIndexCache.get(studyId).query(sampleIdsOfStudy, chromosomeOrAll,
+                start == null ? Integer.MIN_VALUE : start, end == null ? Integer.MAX_VALUE : end,
+                resolution == null ? 1 : resolution)));
+        if (PersistenceConstants.ID_PROJECTION.equals(projection)) {
+            // ordered by chromosome like the ID projection of the repository, samples in the order of the request
+            copyNumberSegs.sort(Comparator.comparing(CopyNumberSeg::getChr));
+        }
+        return copyNumberSegs;
+    }
 }
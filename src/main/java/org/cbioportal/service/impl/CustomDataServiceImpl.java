@@ -1,47 +1,63 @@
 package org.cbioportal.service.impl;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
 import org.cbioportal.service.CustomDataService;
 import org.cbioportal.service.util.CustomDataSession;
 import org.cbioportal.service.util.SessionServiceRequestHandler;
 import org.cbioportal.utils.removeme.Session;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 @Service
 public class CustomDataServiceImpl implements CustomDataService {
     @Autowired
     private SessionServiceRequestHandler sessionServiceRequestHandler;
-    
+
     @Autowired
     private ObjectMapper sessionServiceObjectMapper;
 
+    // custom data sessions are not changed once saved, the time to live only bounds the memory they take
+    @Value("${session.service.custom_data.cache_ttl_seconds:600}")
+    private long cacheTtlSeconds;
+
+    @Value("${session.service.custom_data.cache_max_entries:1000}")
+    private int cacheMaxEntries;
+
+    @Value("${session.service.custom_data.fetch_threads:8}")
+    private int fetchThreads;
+
+    private final ConcurrentMap<String, CachedSession> cachedSessions = new ConcurrentHashMap<>();
+    private ExecutorService fetchExecutor;
+
     /**
-     * Retrieve CustomDataSession from session service for custom data attributes. 
+     * Retrieve CustomDataSession from session service for custom data attributes. Sessions are kept for
+     * session.service.custom_data.cache_ttl_seconds; concurrent requests for a session that is not kept share one
+     * fetch.
      * @param customAttributeIds - attribute id/hash of custom data used as session service key.
      * @return Map of custom data attribute id to the CustomDataSession
      */
     @Override
     public Map<String, CustomDataSession> getCustomDataSessions(List<String> customAttributeIds) {
         Map<String, CompletableFuture<CustomDataSession>> postFuturesMap = customAttributeIds.stream()
+            .distinct()
             .collect(Collectors.toMap(
                 attributeId -> attributeId,
-                attributeId -> CompletableFuture.supplyAsync(() -> {
-                    try {
-                        String customDataSessionJson = sessionServiceRequestHandler.getSessionDataJson(
-                            Session.SessionType.custom_data,
-                            attributeId
-                        );
-                        return sessionServiceObjectMapper.readValue(customDataSessionJson, CustomDataSession.class);
-                    } catch (Exception e) {
-                        return null;
-                    }
-                })
+                this::getCustomDataSession
             ));
 
         CompletableFuture.allOf(postFuturesMap.values().toArray(new CompletableFuture[postFuturesMap.size()])).join();
@@ -55,4 +71,94 @@ public class CustomDataServiceImpl implements CustomDataService {
 
         return customDataSessions;
     }
+
+    private CompletableFuture<CustomDataSession> getCustomDataSession(String attributeId) {
+        long now = System.nanoTime();
+        CachedSession[] started = new CachedSession[1];
+        CachedSession cached = cachedSessions.compute(attributeId, (id, current) -> {
+            if (current != null && !current.isExpired(now)) {
+                // kept, or being fetched by another request
+                return current;
+            }
+            started[0] = new CachedSession(now + TimeUnit.SECONDS.toNanos(cacheTtlSeconds));
+            return started[0];
+        });
+        if (started[0] == null) {
+            return cached.session;
+        }
+
+        CachedSession fetched = started[0];
+        CompletableFuture.supplyAsync(() -> fetchCustomDataSession(attributeId), getFetchExecutor())
+            .whenComplete((session, e) -> {
+                if (session == null || cacheTtlSeconds <= 0) {
+                    // failures are retried by the next request
+                    cachedSessions.remove(attributeId, fetched);
+                }
+                fetched.session.complete(session);
+            });
+        evictExpiredSessions(now);
+        return fetched.session;
+    }
+
+    private CustomDataSession fetchCustomDataSession(String attributeId) {
+        try {
+            String customDataSessionJson = sessionServiceRequestHandler.getSessionDataJson(
+                Session.SessionType.custom_data,
+                attributeId
+            );
+            CustomDataSession customDataSession = sessionServiceObjectMapper.readValue(customDataSessionJson,
+                CustomDataSession.class);
+            // computed here, not by the first filter that uses the session
+            customDataSession.getValuesBySample();
+            return customDataSession;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private void evictExpiredSessions(long now) {
+        if (cachedSessions.size() <= cacheMaxEntries) {
+            return;
+        }
+        cachedSessions.values().removeIf(cached -> cached.isExpired(now));
+        // the order of a hash map is as good as any, all sessions are equally cheap to fetch again
+        Iterator<CachedSession> iterator = cachedSessions.values().iterator();
+        while (cachedSessions.size() > cacheMaxEntries && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    private synchronized Executor getFetchExecutor() {
+        if (fetchExecutor == null) {
+            AtomicInteger threadNumber = new AtomicInteger();
+            fetchExecutor = Executors.newFixedThreadPool(Math.max(1, fetchThreads), runnable -> {
+                Thread thread = new Thread(runnable, "CustomDataFetchExecutor-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return fetchExecutor;
+    }
+
+    @PreDestroy
+    public synchronized void shutdownFetchExecutor() {
+        if (fetchExecutor != null) {
+            fetchExecutor.shutdown();
+        }
+    }
+
+    private static class CachedSession {
+
+        private final CompletableFuture<CustomDataSession> session = new CompletableFuture<>();
+        private final long expiresAtNanos;
+
+        private CachedSession(long expiresAtNanos) {
+            this.expiresAtNanos = expiresAtNanos;
+        }
+
+        private boolean isExpired(long now) {
+            return now - expiresAtNanos >= 0;
+        }
+    }
 }
@@ -17,7 +17,6 @@ import org.cbioportal.model.Sample;
 import org.cbioportal.model.GenericAssayEnrichment;
 import org.cbioportal.model.GenomicEnrichment;
 import org.cbioportal.model.Gene;
-import org.cbioportal.model.GeneMolecularAlteration;
 import org.cbioportal.persistence.MolecularDataRepository;
 import org.cbioportal.service.ExpressionEnrichmentService;
 import org.cbioportal.service.GeneService;
@@ -49,9 +48,6 @@ public class ExpressionEnrichmentServiceImpl implements ExpressionEnrichmentServ
     @Autowired
     private FisherExactTestCalculator fisherExactTestCalculator = new FisherExactTestCalculator();
     @Override
-    // transaction needs to be setup here in order to return Iterable from
-    // molecularDataService in fetchCoExpressions
-    @Transactional(readOnly = true)
     public List<GenomicEnrichment> getGenomicEnrichments(String molecularProfileId,
                                                          Map<String, List<MolecularProfileCaseIdentifier>> molecularProfileCaseSets, EnrichmentType enrichmentType)
         throws MolecularProfileNotFoundException {
@@ -64,10 +60,8 @@ public class ExpressionEnrichmentServiceImpl implements ExpressionEnrichmentServ
             MolecularAlterationType.PROTEIN_ARRAY_PROTEIN_LEVEL,
             MolecularAlterationType.PROTEIN_ARRAY_PHOSPHORYLATION);
         validateMolecularProfile(molecularProfile, validGenomicMolecularAlterationTypes);
-        Iterable<GeneMolecularAlteration> maItr = molecularDataRepository
-            .getGeneMolecularAlterationsIterableFast(molecularProfile.getStableId());
         List<GenomicEnrichment> expressionEnrichments = expressionEnrichmentUtil.getEnrichments(molecularProfile,
-            molecularProfileCaseSets, enrichmentType, maItr);
+            molecularProfileCaseSets, enrichmentType);
         List<Integer> entrezGeneIds = expressionEnrichments.stream().map(GenomicEnrichment::getEntrezGeneId)
             .collect(Collectors.toList());
         Map<Integer, List<Gene>> geneMapByEntrezId = geneService
@@ -86,16 +80,11 @@ public class ExpressionEnrichmentServiceImpl implements ExpressionEnrichmentServ
             }).collect(Collectors.toList());
     }
     @Override
-    // transaction needs to be setup here in order to return Iterable from
-    // molecularDataRepository in getGenericAssayMolecularAlterationsIterable
-    @Transactional(readOnly = true)
     public List<GenericAssayEnrichment> getGenericAssayNumericalEnrichments(String molecularProfileId,
                                                                    Map<String, List<MolecularProfileCaseIdentifier>> molecularProfileCaseSets, EnrichmentType enrichmentType)
         throws MolecularProfileNotFoundException {
         MolecularProfile molecularProfile = molecularProfileService.getMolecularProfile(molecularProfileId);
         validateMolecularProfile(molecularProfile, Arrays.asList(MolecularAlterationType.GENERIC_ASSAY));
-        Iterable<GenericAssayMolecularAlteration> maItr = molecularDataRepository
-            .getGenericAssayMolecularAlterationsIterable(molecularProfile.getStableId(), null, "SUMMARY");
         Map<String, List<MolecularProfileCaseIdentifier>> filteredMolecularProfileCaseSets;
         if (BooleanUtils.isTrue(molecularProfile.getPatientLevel())) {
             // Build sampleIdToPatientIdMap to quick find if a sample has shared patientId with other samples
@@ -120,7 +109,7 @@ public class ExpressionEnrichmentServiceImpl implements ExpressionEnrichmentServ
             filteredMolecularProfileCaseSets = molecularProfileCaseSets;
         }
         List<GenericAssayEnrichment> genericAssayEnrichments = expressionEnrichmentUtil.getEnrichments(molecularProfile,
-            filteredMolecularProfileCaseSets, enrichmentType, maItr);
+            filteredMolecularProfileCaseSets, enrichmentType);
         List<String> getGenericAssayStableIds = genericAssayEnrichments.stream()
             .map(GenericAssayEnrichment::getStableId).collect(Collectors.toList());
         Map<String, GenericAssayMeta> genericAssayMetaByStableId = genericAssayService
@@ -259,11 +248,12 @@ public class ExpressionEnrichmentServiceImpl implements ExpressionEnrichmentServ
     private <T extends GenericAssayEnrichment> void calcQValues(List<T> enrichments) {
         // Sort enrichments by pValue
         Collections.sort(enrichments, GenericAssayEnrichment::compare);
-        BigDecimal[] pValues = enrichments.stream().map(T::getpValue).toArray(BigDecimal[]::new);
-        BigDecimal[] qValues = fisherExactTestCalculator.calcqValue(pValues);
+        double[] pValues = enrichments.stream().mapToDouble(enrichment -> enrichment.getpValue().doubleValue())
+            .toArray();
+        double[] qValues = fisherExactTestCalculator.calcqValue(pValues);
         // Assign q-values to enrichments
         for (int i = 0; i < enrichments.size(); i++) {
-            enrichments.get(i).setqValue(qValues[i]);
+            enrichments.get(i).setqValue(BigDecimal.valueOf(qValues[i]));
         }
     }
     private void validateMolecularProfile(MolecularProfile molecularProfile,
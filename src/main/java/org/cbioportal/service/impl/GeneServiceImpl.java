@@ -8,11 +8,16 @@ import org.cbioportal.persistence.GeneRepository;
 import org.cbioportal.service.GeneService;
 import org.cbioportal.service.exception.GeneNotFoundException;
 import org.cbioportal.service.exception.GeneWithMultipleEntrezIdsException;
+import org.cbioportal.service.util.InMemoryCacheInvalidator;
+import org.cbioportal.service.util.InvalidatableCache;
+import org.cbioportal.service.util.KeywordIndex;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -20,29 +25,41 @@ import java.util.stream.Collectors;
 import static java.util.stream.Collectors.*;
 
 @Service
-public class GeneServiceImpl implements GeneService {
+public class GeneServiceImpl implements GeneService, InvalidatableCache {
 
     public static final String ENTREZ_GENE_ID_GENE_ID_TYPE = "ENTREZ_GENE_ID";
+    private static final List<String> GENE_TABLES = Arrays.asList("gene", "gene_alias");
     
     @Autowired
     private GeneRepository geneRepository;
+    @Autowired
+    private InMemoryCacheInvalidator inMemoryCacheInvalidator;
 
-    private Map<Integer, List<String>> geneAliasMap = new HashMap<>();
+    // lower case alias to the genes having it
+    private volatile Map<String, List<Integer>> entrezGeneIdsByAlias = new HashMap<>();
+    private volatile KeywordIndex<Gene> geneKeywordIndex;
 
     @PostConstruct
     public void init() {
         // query all genes so they would be cached
         getAllGenes(null, null, "SUMMARY", null, null, null, null);
 
-        geneAliasMap = geneRepository.getAllAliases().stream().collect(Collectors.groupingBy(
-            GeneAlias::getEntrezGeneId, Collectors.mapping(GeneAlias::getGeneAlias, Collectors.toList())));
+        inMemoryCacheInvalidator.register(this, GENE_TABLES);
+        getGeneKeywordIndex();
     }
 
 	@Override
     public List<Gene> getAllGenes(String keyword, String alias, String projection, Integer pageSize, Integer pageNumber, String sortBy,
                                   String direction) {
 
-        List<Gene> geneList = geneRepository.getAllGenes(keyword, alias, projection, pageSize, pageNumber, sortBy, direction);
+        List<Gene> geneList;
+        if (keyword != null && alias == null) {
+            geneList = KeywordIndex.page(getGeneKeywordIndex().search(keyword), pageSize, pageNumber).stream()
+                .map(gene -> copy(gene, projection))
+                .collect(Collectors.toList());
+        } else {
+            geneList = geneRepository.getAllGenes(keyword, alias, projection, pageSize, pageNumber, sortBy, direction);
+        }
 
         if (keyword != null && (pageSize == null || geneList.size() < pageSize)) {
             List<Gene> aliasMatchingGenes = findAliasMatchingGenes(keyword);
@@ -150,18 +167,68 @@ public class GeneServiceImpl implements GeneService {
 
         List<Gene> matchingGenes = new ArrayList<>();
 
-        List<String> matchingEntrezGeneIds = new ArrayList<>();
-        for (Map.Entry<Integer, List<String>> entry : geneAliasMap.entrySet()) {
-            if (entry.getValue().contains(keyword.toLowerCase())) {
-                matchingEntrezGeneIds.add(String.valueOf(entry.getKey()));
-            }
-        }
+        getGeneKeywordIndex();
+        List<String> matchingEntrezGeneIds = entrezGeneIdsByAlias
+            .getOrDefault(keyword.toLowerCase(), Collections.emptyList()).stream()
+            .map(String::valueOf)
+            .collect(Collectors.toList());
         if (!matchingEntrezGeneIds.isEmpty()) {
             matchingGenes = fetchGenes(matchingEntrezGeneIds, ENTREZ_GENE_ID_GENE_ID_TYPE, "SUMMARY");
         }
         return matchingGenes;
     }
     
+    /**
+     * Drops the alias map and the keyword index of the gene symbols, which are rebuilt on the next keyword search.
+     * Called when the gene tables change or the caches are cleared.
+     */
+    @Override
+    public synchronized void clear() {
+        geneKeywordIndex = null;
+    }
+
+    // the gene tables are not specific to a study
+    @Override
+    public void clearStudy(String studyId) {
+    }
+
+    /**
+     * @return the keyword index of the gene symbols, after building it and the alias map if they were dropped
+     */
+    private KeywordIndex<Gene> getGeneKeywordIndex() {
+
+        inMemoryCacheInvalidator.checkForTableChanges();
+        KeywordIndex<Gene> index = geneKeywordIndex;
+        return index != null ? index : buildGeneIndexes();
+    }
+
+    private synchronized KeywordIndex<Gene> buildGeneIndexes() {
+
+        if (geneKeywordIndex != null) {
+            return geneKeywordIndex;
+        }
+        entrezGeneIdsByAlias = geneRepository.getAllAliases().stream().collect(Collectors.groupingBy(
+            GeneAlias::getGeneAlias, Collectors.mapping(GeneAlias::getEntrezGeneId, Collectors.toList())));
+        KeywordIndex.Builder<Gene> builder = new KeywordIndex.Builder<>();
+        for (Gene gene : geneRepository.getAllGenes(null, null, "SUMMARY", null, null, null, null)) {
+            builder.add(gene, gene.getHugoGeneSymbol());
+        }
+        geneKeywordIndex = builder.build();
+        return geneKeywordIndex;
+    }
+
+    // the genes of the index are shared, and have the fields of the SUMMARY projection
+    private Gene copy(Gene gene, String projection) {
+
+        Gene copy = new Gene();
+        copy.setEntrezGeneId(gene.getEntrezGeneId());
+        copy.setHugoGeneSymbol(gene.getHugoGeneSymbol());
+        if (!"ID".equals(projection)) {
+            copy.setType(gene.getType());
+        }
+        return copy;
+    }
+
     private List<Gene> filterGenesWithMultipleEntrezIds(List<Gene> geneList) {
         return geneList
             .stream()
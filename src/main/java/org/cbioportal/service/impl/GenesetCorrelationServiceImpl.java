@@ -25,38 +25,38 @@ package org.cbioportal.service.impl;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
 import org.apache.commons.lang3.math.NumberUtils;
-import org.apache.commons.math3.stat.correlation.SpearmansCorrelation;
 import org.cbioportal.model.CancerStudy;
 import org.cbioportal.model.Gene;
 import org.cbioportal.model.GenesetCorrelation;
 import org.cbioportal.model.GenesetMolecularData;
-import org.cbioportal.model.GeneMolecularData;
 import org.cbioportal.model.MolecularProfile;
 import org.cbioportal.model.Sample;
 import org.cbioportal.service.SampleListService;
 import org.cbioportal.service.GenesetService;
 import org.cbioportal.service.GenesetCorrelationService;
 import org.cbioportal.service.GenesetDataService;
-import org.cbioportal.service.MolecularDataService;
 import org.cbioportal.service.MolecularProfileService;
 import org.cbioportal.service.SampleService;
 import org.cbioportal.service.exception.GenesetNotFoundException;
 import org.cbioportal.service.exception.MolecularProfileNotFoundException;
 import org.cbioportal.service.exception.SampleListNotFoundException;
+import org.cbioportal.service.util.CoExpressionCalculator;
+import org.cbioportal.service.util.MolecularProfileValues;
+import org.cbioportal.service.util.MolecularProfileValuesCache;
+import org.cbioportal.service.util.MolecularProfileValuesLoader;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 @Service
 public class GenesetCorrelationServiceImpl implements GenesetCorrelationService {
 
-	@Autowired
-	private MolecularDataService molecularDataService;
 	@Autowired
 	private GenesetDataService genesetDataService;
 	@Autowired
@@ -67,6 +67,12 @@ public class GenesetCorrelationServiceImpl implements GenesetCorrelationService
 	private SampleService sampleService;
 	@Autowired
 	private SampleListService sampleListService;
+	@Autowired
+	private MolecularProfileValuesCache molecularProfileValuesCache;
+	@Autowired
+	private MolecularProfileValuesLoader molecularProfileValuesLoader;
+	@Autowired
+	private CoExpressionCalculator coExpressionCalculator;
 
 
 	public List<GenesetCorrelation> fetchCorrelatedGenes(String genesetId, String molecularProfileId,
@@ -113,20 +119,24 @@ public class GenesetCorrelationServiceImpl implements GenesetCorrelationService
 		MolecularProfile expressionProfile = expressionProfilesReferredByGenesetProfile.get(0);
 		MolecularProfile zscoresProfile = getLinkedZscoreProfile(expressionProfile);
 
-		// TODO : if this turns out to take too long, we can always implement this loop in parallel to improve 
-        // performance. Multi-threading is easy in this scenario.
-		// get genetic data for each gene and calculate correlation
-		for (Gene gene : genes) {
-			Integer entrezGeneId = gene.getEntrezGeneId();
-			List<GeneMolecularData> geneData = molecularDataService.fetchMolecularData(expressionProfile.getStableId(), 
-                sampleIds, Arrays.asList(entrezGeneId), "SUMMARY");
-			double correlationValue = calculateCorrelation(sampleIds, geneData, genesetValues);
+		// Use the decoded values of the whole expression profile when they are already in memory (see
+		// MolecularProfileValuesCache); otherwise only the rows of the genes of the gene set are loaded.
+		MolecularProfileValues profileValues = molecularProfileValuesCache.getIfPresent(expressionProfile);
+		if (profileValues == null) {
+			List<Integer> memberEntrezIds = genes.stream().map(Gene::getEntrezGeneId).collect(Collectors.toList());
+			profileValues = molecularProfileValuesLoader.loadGenes(expressionProfile, memberEntrezIds);
+		}
+		double[] correlations = calculateCorrelations(profileValues, expressionProfile, genes, sampleIds,
+			genesetValues);
+		for (int i = 0; i < genes.size(); i++) {
+			Gene gene = genes.get(i);
+			double correlationValue = correlations[i];
 			// filter out the ones below correlationThreshold
 			if (correlationValue < correlationThreshold) {
 				continue;
 			}
 			GenesetCorrelation genesetCorrelationItem = new GenesetCorrelation();
-			genesetCorrelationItem.setEntrezGeneId(entrezGeneId);
+			genesetCorrelationItem.setEntrezGeneId(gene.getEntrezGeneId());
 			genesetCorrelationItem.setHugoGeneSymbol(gene.getHugoGeneSymbol());
 			genesetCorrelationItem.setCorrelationValue(correlationValue);
 			genesetCorrelationItem.setExpressionMolecularProfileId(expressionProfile.getStableId());
@@ -179,56 +189,60 @@ public class GenesetCorrelationServiceImpl implements GenesetCorrelationService
 
 
 	/**
-	 * Calculates the Spearman correlation between the genesetValues list and the list built up from  
-	 * geneGeneticDataItems for the given sampleIds.
+	 * Calculates the Spearman correlation between the gene set scores and the expression values of each gene for the
+	 * given sampleIds, skipping samples where the value is not present in either gene or gene set dimension.
 	 * 
-	 * Before calculating the correlation, this method prepares the gene values, filtering both them and genesetValues,
-	 * removing samples where the value is not present in either gene or gene set dimension.
-	 * 
-	 * @param sampleIds: samples over which to calculate correlation
-	 * @param geneGeneticDataItems: gene (expression) values for the set of samples
-	 * @param genesetValues: gene set scores for the set of samples
-	 * 
-	 * @return: Spearman's correlation value between values in geneGeneticDataItems and genesetValues.
+	 * @return: the correlation of every gene, in the order of genes; 0 for genes with values in less than 2 of the
+	 * samples with a gene set score
 	 */
-	private double calculateCorrelation(List<String> sampleIds, List<GeneMolecularData> geneGeneticDataItems, double[] genesetValues) {
-		
-		//index geneData values
-		Map<String, Double> sampleValues = new HashMap<String, Double>();
-		for (GeneMolecularData geneGeneticDataItem : geneGeneticDataItems) {
-			double value = Double.NaN;
-			if (NumberUtils.isNumber(geneGeneticDataItem.getValue())) {
-				value = Double.parseDouble(geneGeneticDataItem.getValue());
-			}
-			sampleValues.put(geneGeneticDataItem.getSampleId(), value);
+	private double[] calculateCorrelations(MolecularProfileValues profileValues, MolecularProfile expressionProfile,
+										   List<Gene> genes, List<String> sampleIds, double[] genesetValues) {
+
+		double[] correlations = new double[genes.size()];
+		if (profileValues == null) {
+			return correlations;
 		}
-		//get values
-		List<Double> geneValueList = new ArrayList<Double>();
-		List<Double> genesetValueList = new ArrayList<Double>();
+
+		// the columns of the samples (in the order of sampleIds) that are part of the expression profile
+		List<Sample> samples = sampleService.fetchSamples(
+			Collections.nCopies(sampleIds.size(), expressionProfile.getCancerStudyIdentifier()), sampleIds, "ID");
+		Map<String, Integer> internalIdBySampleId = new HashMap<>();
+		for (Sample sample : samples) {
+			internalIdBySampleId.put(sample.getStableId(), sample.getInternalId());
+		}
+		int[] columns = new int[sampleIds.size()];
+		double[] queryValues = new double[sampleIds.size()];
+		int includedColumns = 0;
 		for (int i = 0; i < sampleIds.size(); i++) {
-			String sampleId = sampleIds.get(i);
-			Double value = sampleValues.get(sampleId);
-			if (value == null) {
-				value = Double.NaN; //set to NaN when value is not available for this sample
+			Integer internalId = internalIdBySampleId.get(sampleIds.get(i));
+			int column = internalId == null ? -1 : profileValues.getColumn(internalId);
+			if (column >= 0) {
+				columns[includedColumns] = column;
+				queryValues[includedColumns] = genesetValues[i];
+				includedColumns++;
 			}
-			// if both this value and genesetValues[i] are NaN, then skip this item (since it will not be allowed by the correlation method):
-			if (!Double.isNaN(value) && !Double.isNaN(genesetValues[i])) {
-				geneValueList.add(value);
-				// build up genesetValues is same way:
-				genesetValueList.add(genesetValues[i]);
+		}
+
+		// genes without expression data keep a correlation of 0
+		int[] rows = new int[genes.size()];
+		int[] geneIndexes = new int[genes.size()];
+		int includedRows = 0;
+		for (int i = 0; i < genes.size(); i++) {
+			int row = profileValues.getRow(String.valueOf(genes.get(i).getEntrezGeneId()));
+			if (row >= 0) {
+				rows[includedRows] = row;
+				geneIndexes[includedRows] = i;
+				includedRows++;
 			}
 		}
-		// final filtered lists:
-		double[] geneValuesFiltered = geneValueList.stream().mapToDouble(d -> d).toArray();
-		double[] genesetValuesFiltered = genesetValueList.stream().mapToDouble(d -> d).toArray();
-		double correlationValue = 0;
-		// arrays need to be at least 2 long to calculate correlation: 
-		if (geneValuesFiltered.length >= 2) {
-			// calculate spearman correlation
-			SpearmansCorrelation spearmansCorrelation = new SpearmansCorrelation();
-			correlationValue = spearmansCorrelation.correlation(geneValuesFiltered, genesetValuesFiltered);
+
+		double[] rowCorrelations = coExpressionCalculator.computeCorrelations(profileValues,
+			Arrays.copyOf(rows, includedRows), Arrays.copyOf(columns, includedColumns),
+			Arrays.copyOf(queryValues, includedColumns));
+		for (int i = 0; i < includedRows; i++) {
+			correlations[geneIndexes[i]] = rowCorrelations[i];
 		}
-		return correlationValue;
+		return correlations;
 	}
 
 
@@ -14,8 +14,10 @@ import org.cbioportal.service.exception.MolecularProfileNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -229,6 +231,48 @@ public class MolecularDataServiceImpl implements MolecularDataService {
         return molecularDataList;
     }
 
+    @Override
+    // the cursor of the repository needs a transaction
+    @Transactional(readOnly = true)
+    public MolecularDataKey exportMolecularDataInMultipleMolecularProfiles(List<String> molecularProfileIds,
+                                                                           List<String> sampleIds,
+                                                                           List<Integer> entrezGeneIds,
+                                                                           String projection, MolecularDataKey after,
+                                                                           int pageSize,
+                                                                           Consumer<GeneMolecularData> consumer) {
+
+        Map<String, List<SampleColumn>> sampleColumnsMap = getSampleColumns(molecularProfileIds, sampleIds);
+        if (sampleColumnsMap.isEmpty()) {
+            return null;
+        }
+        // one more row than the page tells whether there is a next page
+        MolecularDataKey[] lastKey = new MolecularDataKey[1];
+        boolean[] hasNextPage = new boolean[1];
+        int[] count = new int[1];
+        molecularDataRepository.streamGeneMolecularAlterationsInMultipleMolecularProfiles(sampleColumnsMap.keySet(),
+            entrezGeneIds, projection, after, pageSize + 1, molecularAlteration -> {
+                if (count[0]++ >= pageSize) {
+                    hasNextPage[0] = true;
+                    return;
+                }
+                lastKey[0] = molecularAlteration.getKey();
+                String[] values = molecularAlteration.getSplitValues();
+                for (SampleColumn sampleColumn : sampleColumnsMap.get(molecularAlteration.getMolecularProfileId())) {
+                    GeneMolecularData molecularData = new GeneMolecularData();
+                    molecularData.setMolecularProfileId(molecularAlteration.getMolecularProfileId());
+                    molecularData.setSampleId(sampleColumn.sample.getStableId());
+                    molecularData.setPatientId(sampleColumn.sample.getPatientStableId());
+                    molecularData.setStudyId(sampleColumn.sample.getCancerStudyIdentifier());
+                    molecularData.setEntrezGeneId(molecularAlteration.getEntrezGeneId());
+                    molecularData.setValue(sampleColumn.index < values.length ? values[sampleColumn.index] : null);
+                    molecularData.setGene(molecularAlteration.getGene());
+                    consumer.accept(molecularData);
+                }
+            });
+
+        return hasNextPage[0] ? lastKey[0] : null;
+    }
+
     @Override
     public List<GeneMolecularData> getMolecularDataInMultipleMolecularProfilesByGeneQueries(List<String> molecularProfileIds,
                                                                                             List<String> sampleIds,
@@ -268,6 +312,76 @@ public class MolecularDataServiceImpl implements MolecularDataService {
         return baseMeta;
     }
 
+    // the samples of every molecular profile that has samples, with the index of their values in the rows of the
+    // profile, in the order of the rows
+    private Map<String, List<SampleColumn>> getSampleColumns(List<String> molecularProfileIds, List<String> sampleIds) {
+
+        Set<String> distinctMolecularProfileIds = new TreeSet<>(molecularProfileIds);
+        Map<String, Map<Integer, Integer>> internalSampleIdsMap = new HashMap<>();
+        for (MolecularProfileSamples molecularProfileSamples : molecularDataRepository
+            .commaSeparatedSampleIdsOfMolecularProfilesMap(distinctMolecularProfileIds).values()) {
+            String[] internalSampleIds = molecularProfileSamples.getSplitSampleIds();
+            Map<Integer, Integer> indexesOfSamples = new LinkedHashMap<>();
+            for (int lc = 0; lc < internalSampleIds.length; lc++) {
+                indexesOfSamples.put(Integer.parseInt(internalSampleIds[lc]), lc);
+            }
+            internalSampleIdsMap.put(molecularProfileSamples.getMolecularProfileId(), indexesOfSamples);
+        }
+
+        Map<String, List<SampleColumn>> sampleColumnsMap = new HashMap<>();
+        if (sampleIds == null) {
+            List<Integer> allInternalSampleIds = internalSampleIdsMap.values().stream()
+                .flatMap(indexesOfSamples -> indexesOfSamples.keySet().stream())
+                .distinct()
+                .collect(Collectors.toList());
+            Map<Integer, Sample> samplesByInternalId = sampleService.getSamplesByInternalIds(allInternalSampleIds)
+                .stream()
+                .collect(toMap(Sample::getInternalId, Function.identity()));
+            internalSampleIdsMap.forEach((molecularProfileId, indexesOfSamples) -> {
+                List<SampleColumn> sampleColumns = new ArrayList<>();
+                indexesOfSamples.forEach((internalSampleId, index) -> {
+                    Sample sample = samplesByInternalId.get(internalSampleId);
+                    if (sample != null) {
+                        sampleColumns.add(new SampleColumn(sample, index));
+                    }
+                });
+                sampleColumnsMap.put(molecularProfileId, sampleColumns);
+            });
+        } else {
+            Map<String, String> studyIdsByMolecularProfileId = molecularProfileService
+                .getMolecularProfiles(distinctMolecularProfileIds, "SUMMARY").stream()
+                .collect(toMap(MolecularProfile::getStableId, MolecularProfile::getCancerStudyIdentifier));
+            List<String> studyIds = new ArrayList<>();
+            List<String> studySampleIds = new ArrayList<>();
+            for (int lc = 0; lc < molecularProfileIds.size(); lc++) {
+                String studyId = studyIdsByMolecularProfileId.get(molecularProfileIds.get(lc));
+                if (studyId != null) {
+                    studyIds.add(studyId);
+                    studySampleIds.add(sampleIds.get(lc));
+                }
+            }
+            Map<List<String>, Sample> samplesByStudyAndSampleId = sampleService
+                .fetchSamples(studyIds, studySampleIds, "ID").stream()
+                .collect(toMap(sample -> Arrays.asList(sample.getCancerStudyIdentifier(), sample.getStableId()),
+                    Function.identity(), (sample, duplicate) -> sample));
+            Map<String, Set<Integer>> addedIndexesMap = new HashMap<>();
+            for (int lc = 0; lc < molecularProfileIds.size(); lc++) {
+                String molecularProfileId = molecularProfileIds.get(lc);
+                Map<Integer, Integer> indexesOfSamples = internalSampleIdsMap.get(molecularProfileId);
+                Sample sample = samplesByStudyAndSampleId.get(
+                    Arrays.asList(studyIdsByMolecularProfileId.get(molecularProfileId), sampleIds.get(lc)));
+                Integer index = indexesOfSamples == null || sample == null ? null :
+                    indexesOfSamples.get(sample.getInternalId());
+                if (index != null && addedIndexesMap.computeIfAbsent(molecularProfileId, k -> new HashSet<>())
+                    .add(index)) {
+                    sampleColumnsMap.computeIfAbsent(molecularProfileId, k -> new ArrayList<>())
+                        .add(new SampleColumn(sample, index));
+                }
+            }
+        }
+        return sampleColumnsMap;
+    }
+
     private void validateMolecularProfile(String molecularProfileId) throws MolecularProfileNotFoundException {
 
         MolecularProfile molecularProfile = molecularProfileService.getMolecularProfile(molecularProfileId);
@@ -297,4 +411,15 @@ public class MolecularDataServiceImpl implements MolecularDataService {
         stringJoiner.add(String.valueOf(cna.getValue()));
         return stringJoiner.toString();
     }
+
+    private static class SampleColumn {
+
+        private final Sample sample;
+        private final int index;
+
+        private SampleColumn(Sample sample, int index) {
+            this.sample = sample;
+            this.index = index;
+        }
+    }
 }
@@ -1,23 +1,28 @@
 package org.cbioportal.service.impl;
 
 import org.apache.commons.lang3.math.NumberUtils;
-import org.apache.commons.math3.stat.ranking.NaNStrategy;
-import org.apache.commons.math3.stat.ranking.NaturalRanking;
-import org.apache.commons.math3.stat.ranking.TiesStrategy;
 import org.cbioportal.model.GeneMolecularData;
 import org.cbioportal.model.MolecularProfile;
 import org.cbioportal.model.MrnaPercentile;
+import org.cbioportal.model.Sample;
 import org.cbioportal.service.MolecularDataService;
 import org.cbioportal.service.MolecularProfileService;
 import org.cbioportal.service.MrnaPercentileService;
+import org.cbioportal.service.SampleService;
 import org.cbioportal.service.exception.MolecularProfileNotFoundException;
+import org.cbioportal.service.util.EntityRankIndex;
+import org.cbioportal.service.util.EntityRankIndexCache;
+import org.cbioportal.service.util.MolecularProfileValues;
+import org.cbioportal.service.util.MolecularProfileValuesCache;
+import org.cbioportal.service.util.MolecularProfileValuesLoader;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 public class MrnaPercentileServiceImpl implements MrnaPercentileService {
@@ -26,25 +31,47 @@ public class MrnaPercentileServiceImpl implements MrnaPercentileService {
     private MolecularDataService molecularDataService;
     @Autowired
     private MolecularProfileService molecularProfileService;
-    
-    private NaturalRanking naturalRanking = new NaturalRanking(NaNStrategy.REMOVED, TiesStrategy.MAXIMUM);
+    @Autowired
+    private SampleService sampleService;
+    @Autowired
+    private MolecularProfileValuesCache molecularProfileValuesCache;
+    @Autowired
+    private MolecularProfileValuesLoader molecularProfileValuesLoader;
+    @Autowired
+    private EntityRankIndexCache entityRankIndexCache;
 
     @Override
     public List<MrnaPercentile> fetchMrnaPercentile(String molecularProfileId, String sampleId,
                                                     List<Integer> entrezGeneIds)
         throws MolecularProfileNotFoundException {
 
-        validateMolecularProfile(molecularProfileId);
+        MolecularProfile molecularProfile = validateMolecularProfile(molecularProfileId);
 
-        List<GeneMolecularData> allMolecularDataList = molecularDataService.fetchMolecularData(molecularProfileId, null, 
-            entrezGeneIds, "SUMMARY");
+        List<GeneMolecularData> molecularDataList = molecularDataService.fetchMolecularData(molecularProfileId,
+            Collections.singletonList(sampleId), entrezGeneIds, "SUMMARY");
+        if (molecularDataList.isEmpty()) {
+            return Collections.emptyList();
+        }
 
-        List<GeneMolecularData> molecularDataList = allMolecularDataList.stream().filter(g -> g.getSampleId()
-            .equals(sampleId)).collect(Collectors.toList());
+        // The decoded values of the whole profile are used when they are cached (see MolecularProfileValuesCache),
+        // otherwise only the requested genes are decoded. Either way the ranks are computed once per gene and kept
+        // (see EntityRankIndexCache).
+        MolecularProfileValues profileValues = molecularProfileValuesCache.getIfPresent(molecularProfile);
+        if (profileValues == null) {
+            profileValues = molecularProfileValuesLoader.loadGenes(molecularProfile, entrezGeneIds);
+        }
+        if (profileValues == null) {
+            return Collections.emptyList();
+        }
+        List<Sample> samples = sampleService.fetchSamples(
+            Collections.singletonList(molecularProfile.getCancerStudyIdentifier()),
+            Collections.singletonList(sampleId), "ID");
+        int column = samples.isEmpty() ? -1 : profileValues.getColumn(samples.get(0).getInternalId());
 
         List<MrnaPercentile> mrnaPercentileList = new ArrayList<>();
         for (GeneMolecularData molecularData : molecularDataList) {
-            if (NumberUtils.isNumber(molecularData.getValue())) {
+            int row = profileValues.getRow(molecularData.getStableId());
+            if (NumberUtils.isNumber(molecularData.getValue()) && row >= 0) {
                 MrnaPercentile mrnaPercentile = new MrnaPercentile();
                 mrnaPercentile.setEntrezGeneId(molecularData.getEntrezGeneId());
                 mrnaPercentile.setSampleId(sampleId);
@@ -53,16 +80,11 @@ public class MrnaPercentileServiceImpl implements MrnaPercentileService {
                 mrnaPercentile.setMolecularProfileId(molecularProfileId);
                 mrnaPercentile.setzScore(new BigDecimal(molecularData.getValue()));
 
-                List<GeneMolecularData> molecularDataListOfGene = allMolecularDataList.stream().filter(g ->
-                    g.getEntrezGeneId().equals(molecularData.getEntrezGeneId()) && NumberUtils.isNumber(g.getValue()))
-                    .collect(Collectors.toList());
-
-                double[] values = molecularDataListOfGene.stream().mapToDouble(g -> Double.parseDouble(g.getValue()))
-                    .toArray();
-                double[] ranks = naturalRanking.rank(values);
-                double rank = ranks[molecularDataListOfGene.indexOf(molecularData)];
-                double percentile = (rank / ranks.length) * 100;
-                mrnaPercentile.setPercentile(BigDecimal.valueOf(percentile).setScale(2, BigDecimal.ROUND_HALF_UP));
+                EntityRankIndex rankIndex = entityRankIndexCache.get(profileValues, row);
+                double rank = column >= 0 && rankIndex.getRank(column) > 0 ? rankIndex.getRank(column) :
+                    rankIndex.rankOf(Double.parseDouble(molecularData.getValue()));
+                double percentile = (rank / rankIndex.getNumberOfValues()) * 100;
+                mrnaPercentile.setPercentile(BigDecimal.valueOf(percentile).setScale(2, RoundingMode.HALF_UP));
                 mrnaPercentileList.add(mrnaPercentile);
             }
         }
@@ -70,7 +92,8 @@ public class MrnaPercentileServiceImpl implements MrnaPercentileService {
         return mrnaPercentileList;
     }
 
-    private void validateMolecularProfile(String molecularProfileId) throws MolecularProfileNotFoundException {
+    private MolecularProfile validateMolecularProfile(String molecularProfileId)
+        throws MolecularProfileNotFoundException {
         
         MolecularProfile molecularProfile = molecularProfileService.getMolecularProfile(molecularProfileId);
 
@@ -79,5 +102,6 @@ public class MrnaPercentileServiceImpl implements MrnaPercentileService {
 
             throw new MolecularProfileNotFoundException(molecularProfileId);
         }
+        return molecularProfile;
     }
 }
@@ -5,6 +5,7 @@ import org.cbioportal.model.GenomicDataCountItem;
 import org.cbioportal.model.MolecularProfile;
 import org.cbioportal.model.Mutation;
 import org.cbioportal.model.MutationCountByPosition;
+import org.cbioportal.model.MutationKey;
 import org.cbioportal.model.meta.MutationMeta;
 import org.cbioportal.persistence.MutationRepository;
 import org.cbioportal.service.MolecularProfileService;
@@ -12,9 +13,11 @@ import org.cbioportal.service.MutationService;
 import org.cbioportal.service.exception.MolecularProfileNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 @Service
 public class MutationServiceImpl implements MutationService {
@@ -74,6 +77,35 @@ public class MutationServiceImpl implements MutationService {
         return mutationList;
     }
 
+    @Override
+    // the cursor of the repository needs a transaction
+    @Transactional(readOnly = true)
+    public MutationKey exportMutationsInMultipleMolecularProfiles(List<String> molecularProfileIds,
+                                                                  List<String> sampleIds,
+                                                                  List<Integer> entrezGeneIds, String projection,
+                                                                  MutationKey after, int pageSize,
+                                                                  Consumer<Mutation> consumer) {
+
+        if (molecularProfileIds.isEmpty()) {
+            return null;
+        }
+        // one more row than the page tells whether there is a next page
+        MutationKey[] lastKey = new MutationKey[1];
+        boolean[] hasNextPage = new boolean[1];
+        int[] count = new int[1];
+        mutationRepository.streamMutationsInMultipleMolecularProfiles(molecularProfileIds, sampleIds, entrezGeneIds,
+            projection, after, pageSize + 1, mutation -> {
+                if (count[0]++ < pageSize) {
+                    lastKey[0] = mutation.getKey();
+                    consumer.accept(mutation);
+                } else {
+                    hasNextPage[0] = true;
+                }
+            });
+
+        return hasNextPage[0] ? lastKey[0] : null;
+    }
+
     @Override
     public MutationMeta getMetaMutationsInMultipleMolecularProfiles(List<String> molecularProfileIds, 
                                                                     List<String> sampleIds, 
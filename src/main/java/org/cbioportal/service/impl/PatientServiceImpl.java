@@ -1,19 +1,27 @@
 package org.cbioportal.service.impl;
 
 import org.cbioportal.model.Patient;
+import org.cbioportal.model.Sample;
 import org.cbioportal.model.meta.BaseMeta;
 import org.cbioportal.persistence.PatientRepository;
 import org.cbioportal.service.PatientService;
 import org.cbioportal.service.StudyService;
 import org.cbioportal.service.exception.PatientNotFoundException;
 import org.cbioportal.service.exception.StudyNotFoundException;
+import org.cbioportal.service.util.KeywordIndex;
+import org.cbioportal.service.util.StudyKeywordIndex;
+import org.cbioportal.service.util.StudyKeywordIndexCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.access.prepost.PostFilter;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
 
 @Service
 public class PatientServiceImpl implements PatientService {
@@ -22,6 +30,8 @@ public class PatientServiceImpl implements PatientService {
     private PatientRepository patientRepository;
     @Autowired
     private StudyService studyService;
+    @Autowired
+    private StudyKeywordIndexCache studyKeywordIndexCache;
     @Value("${authenticate:false}")
     private String AUTHENTICATE;
 
@@ -30,7 +40,10 @@ public class PatientServiceImpl implements PatientService {
     public List<Patient> getAllPatients(String keyword, String projection, Integer pageSize, Integer pageNumber,
             String sortBy, String direction) {
         
-        List<Patient> patients = patientRepository.getAllPatients(keyword, projection, pageSize, pageNumber, sortBy, direction);
+        List<Sample> matches = keyword == null ? null : searchPatients(keyword);
+        List<Patient> patients = matches == null ?
+            patientRepository.getAllPatients(keyword, projection, pageSize, pageNumber, sortBy, direction) :
+            fetchPatientsInOrder(KeywordIndex.page(matches, pageSize, pageNumber), projection);
         // copy the list before returning so @PostFilter doesn't taint the list stored in the persistence layer cache
         return (AUTHENTICATE.equals("false")) ? patients : new ArrayList<Patient>(patients);
     }
@@ -38,6 +51,12 @@ public class PatientServiceImpl implements PatientService {
     @Override
     public BaseMeta getMetaPatients(String keyword) {
 
+        List<Sample> matches = keyword == null ? null : searchPatients(keyword);
+        if (matches != null) {
+            BaseMeta baseMeta = new BaseMeta();
+            baseMeta.setTotalCount(matches.size());
+            return baseMeta;
+        }
         return patientRepository.getMetaPatients(keyword);
     }
     
@@ -90,4 +109,27 @@ public class PatientServiceImpl implements PatientService {
         
         return patientRepository.getPatientsOfSamples(studyIds, sampleIds);
 	}
+
+    // one sample of every matching patient, null if the samples of all studies are too many to be searched in memory
+    private List<Sample> searchPatients(String keyword) {
+
+        StudyKeywordIndex allStudies = studyKeywordIndexCache.getAllStudies();
+        return allStudies == null ? null : allStudies.searchPatients(keyword);
+    }
+
+    private List<Patient> fetchPatientsInOrder(List<Sample> matches, String projection) {
+
+        if (matches.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<List<String>, Patient> patients = patientRepository.fetchPatients(
+            matches.stream().map(Sample::getCancerStudyIdentifier).collect(Collectors.toList()),
+            matches.stream().map(Sample::getPatientStableId).collect(Collectors.toList()), projection).stream()
+            .collect(Collectors.toMap(p -> Arrays.asList(p.getCancerStudyIdentifier(), p.getStableId()), p -> p,
+                (p1, p2) -> p1));
+        return matches.stream()
+            .map(s -> patients.get(Arrays.asList(s.getCancerStudyIdentifier(), s.getPatientStableId())))
+            .filter(Objects::nonNull)
+            .collect(Collectors.toList());
+    }
 }
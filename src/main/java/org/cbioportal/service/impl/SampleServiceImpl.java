@@ -12,6 +12,9 @@ import org.cbioportal.service.StudyService;
 import org.cbioportal.service.exception.PatientNotFoundException;
 import org.cbioportal.service.exception.SampleNotFoundException;
 import org.cbioportal.service.exception.StudyNotFoundException;
+import org.cbioportal.service.util.KeywordIndex;
+import org.cbioportal.service.util.StudyKeywordIndex;
+import org.cbioportal.service.util.StudyKeywordIndexCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
@@ -37,17 +40,31 @@ public class SampleServiceImpl implements SampleService {
     private CopyNumberSegmentRepository copyNumberSegmentRepository;
     @Autowired
     private MolecularProfileRepository molecularProfileRepository;
+    @Autowired
+    private StudyKeywordIndexCache studyKeywordIndexCache;
 
     @Override
     public List<Sample> getAllSamples(String keyword, List<String> studyIds, String projection,
                                       Integer pageSize, Integer pageNumber, String sort, String direction) {
-        List<Sample> samples = sampleRepository.getAllSamples(keyword, studyIds, projection, pageSize, pageNumber, sort, direction);
+        List<Sample> samples;
+        List<Sample> matches = keyword != null && sort == null ? searchSamples(keyword, studyIds) : null;
+        if (matches != null) {
+            samples = fetchSamplesInOrder(KeywordIndex.page(matches, pageSize, pageNumber), projection);
+        } else {
+            samples = sampleRepository.getAllSamples(keyword, studyIds, projection, pageSize, pageNumber, sort, direction);
+        }
         processSamples(samples, projection);
         return samples;
     }
 
     @Override
     public BaseMeta getMetaSamples(String keyword, List<String> studyIds) {
+        List<Sample> matches = keyword != null ? searchSamples(keyword, studyIds) : null;
+        if (matches != null) {
+            BaseMeta baseMeta = new BaseMeta();
+            baseMeta.setTotalCount(matches.size());
+            return baseMeta;
+        }
         return sampleRepository.getMetaSamples(keyword, studyIds);
     }
 
@@ -174,6 +191,35 @@ public class SampleServiceImpl implements SampleService {
         return sampleRepository.getSamplesByInternalIds(internalIds);
     }
 
+    // null if the samples of all studies are too many to be searched in memory
+    private List<Sample> searchSamples(String keyword, List<String> studyIds) {
+
+        if (studyIds == null) {
+            StudyKeywordIndex allStudies = studyKeywordIndexCache.getAllStudies();
+            return allStudies == null ? null : allStudies.searchSamples(keyword);
+        }
+        List<List<Sample>> results = studyKeywordIndexCache.getAll(studyIds).stream()
+            .map(studyKeywordIndex -> studyKeywordIndex.searchSamples(keyword))
+            .collect(Collectors.toList());
+        return KeywordIndex.merge(keyword, results, Sample::getStableId);
+    }
+
+    private List<Sample> fetchSamplesInOrder(List<Sample> matches, String projection) {
+
+        if (matches.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<List<String>, Sample> samples = sampleRepository.fetchSamples(
+            matches.stream().map(Sample::getCancerStudyIdentifier).collect(Collectors.toList()),
+            matches.stream().map(Sample::getStableId).collect(Collectors.toList()), projection).stream()
+            .collect(Collectors.toMap(s -> Arrays.asList(s.getCancerStudyIdentifier(), s.getStableId()), s -> s,
+                (s1, s2) -> s1));
+        return matches.stream()
+            .map(s -> samples.get(Arrays.asList(s.getCancerStudyIdentifier(), s.getStableId())))
+            .filter(Objects::nonNull)
+            .collect(Collectors.toList());
+    }
+
     private void processSamples(List<Sample> samples, String projection) {
         if (projection.equals("DETAILED")) {
             Map<String, Set<String>> sequencedSampleIdsMap = new HashMap<>();
@@ -36,6 +36,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.cbioportal.model.DataAccessToken;
 import org.cbioportal.persistence.DataAccessTokenRepository;
+import org.cbioportal.security.token.uuid.UuidTokenAuthenticationCache;
 import org.cbioportal.service.DataAccessTokenService;
 import org.cbioportal.service.exception.TokenNotFoundException;
 import org.cbioportal.utils.config.annotation.ConditionalOnProperty;
@@ -58,6 +59,9 @@ public class UuidDataAccessTokenServiceImpl implements DataAccessTokenService {
     @Autowired
     private DataAccessTokenRepository dataAccessTokenRepository;
 
+    @Autowired
+    private UuidTokenAuthenticationCache authenticationCache;
+
     @Value("${dat.ttl_seconds:-1}")
     private int datTtlSeconds;
 
@@ -116,6 +120,7 @@ public class UuidDataAccessTokenServiceImpl implements DataAccessTokenService {
     @Override
     public void revokeAllDataAccessTokens(String username) {
         dataAccessTokenRepository.removeAllDataAccessTokensForUsername(username);
+        authenticationCache.revokeAllTokens(username);
     }
 
     @Override
@@ -125,6 +130,7 @@ public class UuidDataAccessTokenServiceImpl implements DataAccessTokenService {
             throw new TokenNotFoundException("Specified token " + token + " does not exist");
         }
         dataAccessTokenRepository.removeDataAccessToken(token);
+        authenticationCache.revokeToken(token);
     }
 
     @Override
@@ -141,19 +147,24 @@ public class UuidDataAccessTokenServiceImpl implements DataAccessTokenService {
 
     @Override
     public Boolean isValid(String dataAccessToken) {
+        return getValidDataAccessToken(dataAccessToken) != null;
+    }
+
+    // returns the stored token, or null when it does not exist or has expired
+    private DataAccessToken getValidDataAccessToken(String dataAccessToken) {
         DataAccessToken storedDataAccessToken = null;
         try {
             storedDataAccessToken = dataAccessTokenRepository.getDataAccessToken(dataAccessToken);
         } catch (Exception e) {
             log.error("Error retrieving data access token, " + dataAccessToken + " from token store");
-            return Boolean.FALSE;
+            return null;
         }
         Calendar calendar = Calendar.getInstance();
         Date currentDate = calendar.getTime();
         if (storedDataAccessToken == null || storedDataAccessToken.getExpiration().before(currentDate)) {
-            return Boolean.FALSE;
+            return null;
         }
-        return Boolean.TRUE;
+        return storedDataAccessToken;
     }
 
     private int getNumberOfTokensForUsername(String username) {
@@ -166,21 +177,32 @@ public class UuidDataAccessTokenServiceImpl implements DataAccessTokenService {
         List<DataAccessToken> allDataAccessTokens = dataAccessTokenRepository.getAllDataAccessTokensForUsername(username);
         DataAccessToken oldestDataAccessToken = allDataAccessTokens.get(0);
         dataAccessTokenRepository.removeDataAccessToken(oldestDataAccessToken.getToken());
+        authenticationCache.revokeToken(oldestDataAccessToken.getToken());
     }
 
     @Override
     public Authentication createAuthenticationRequest(String token) {
 
-        if (!isValid(token)) {
-            log.error("invalid token = " + token);
-            throw new BadCredentialsException("Invalid access token");
+        String userName = authenticationCache.getUsername(token);
+        if (userName == null) {
+            long revision = authenticationCache.getRevision();
+            DataAccessToken dataAccessToken = getValidDataAccessToken(token);
+            if (dataAccessToken == null) {
+                log.error("invalid token = " + token);
+                throw new BadCredentialsException("Invalid access token");
+            }
+            userName = dataAccessToken.getUsername();
+            authenticationCache.putUsername(token, userName, dataAccessToken.getExpiration(), revision);
         }
-        String userName = getUsername(token);
 
         // when DaoAuthenticationProvider does authentication on user returned by PortalUserDetailsService
         // which has password "unused", this password won't match, and then there is a BadCredentials exception thrown
         // this is a good way to catch that the wrong authetication provider is being used
-        return new UsernamePasswordAuthenticationToken(userName, "does not match unused");
+        UsernamePasswordAuthenticationToken authenticationRequest =
+            new UsernamePasswordAuthenticationToken(userName, "does not match unused");
+        // lets UuidTokenAuthenticationProvider find the cached authorities of the token
+        authenticationRequest.setDetails(token);
+        return authenticationRequest;
 
     }
 }
@@ -75,7 +75,9 @@ public class AlterationEnrichmentUtil<T extends AlterationCountBase> {
                 .collect(Collectors.toList()),
             "ENTREZ_GENE_ID",
             "SUMMARY");
-        return genes
+        // the Fisher exact tests of all genes are done at once after the counting
+        List<AlterationEnrichment> fisherExactTestEnrichments = new ArrayList<>();
+        List<AlterationEnrichment> alterationEnrichments = genes
             .stream()
             .filter(gene -> {
                 // filter genes where number of altered cases in all groups is 0
@@ -124,17 +126,9 @@ public class AlterationEnrichmentUtil<T extends AlterationCountBase> {
                 // calculate p-value only if more than one group have profile cases count
                 // greater than 0
                 if (filteredCounts.size() > 1 && invalidDataGroups == 0) {
-                    double pValue;
                     // if groups size is two do Fisher Exact test else do Chi-Square test
                     if (groups.size() == 2) {
-
-                        int alteredInNoneCount = counts.get(1).getProfiledCount() - counts.get(1).getAlteredCount();
-                        int alteredOnlyInQueryGenesCount = counts.get(0).getProfiledCount()
-                            - counts.get(0).getAlteredCount();
-
-                        pValue = fisherExactTestCalculator.getTwoTailedPValue(alteredInNoneCount,
-                            counts.get(1).getAlteredCount(), alteredOnlyInQueryGenesCount,
-                            counts.get(0).getAlteredCount());
+                        fisherExactTestEnrichments.add(alterationEnrichment);
                     } else {
 
                         long[][] array = counts.stream().map(count -> {
@@ -143,20 +137,47 @@ public class AlterationEnrichmentUtil<T extends AlterationCountBase> {
                         }).toArray(long[][]::new);
 
                         ChiSquareTest chiSquareTest = new ChiSquareTest();
-                        pValue = chiSquareTest.chiSquareTest(array);
+                        double pValue = chiSquareTest.chiSquareTest(array);
 
                         // set p-value to 1 when the cases in all groups are altered
                         if (Double.isNaN(pValue)) {
                             pValue = 1;
                         }
+                        alterationEnrichment.setpValue(BigDecimal.valueOf(pValue));
                     }
-                    alterationEnrichment.setpValue(BigDecimal.valueOf(pValue));
                 }
 
                 alterationEnrichment.setCounts(counts);
                 return alterationEnrichment;
             }).collect(Collectors.toList());
 
+        setFisherExactTestPValues(fisherExactTestEnrichments);
+        return alterationEnrichments;
+    }
+
+    private void setFisherExactTestPValues(List<AlterationEnrichment> alterationEnrichments) {
+
+        if (alterationEnrichments.isEmpty()) {
+            return;
+        }
+        int size = alterationEnrichments.size();
+        int[] unalteredInSecondGroupCounts = new int[size];
+        int[] alteredInSecondGroupCounts = new int[size];
+        int[] unalteredInFirstGroupCounts = new int[size];
+        int[] alteredInFirstGroupCounts = new int[size];
+        for (int i = 0; i < size; i++) {
+            List<CountSummary> counts = alterationEnrichments.get(i).getCounts();
+            unalteredInSecondGroupCounts[i] = counts.get(1).getProfiledCount() - counts.get(1).getAlteredCount();
+            alteredInSecondGroupCounts[i] = counts.get(1).getAlteredCount();
+            unalteredInFirstGroupCounts[i] = counts.get(0).getProfiledCount() - counts.get(0).getAlteredCount();
+            alteredInFirstGroupCounts[i] = counts.get(0).getAlteredCount();
+        }
+
+        double[] pValues = fisherExactTestCalculator.getTwoTailedPValues(unalteredInSecondGroupCounts,
+            alteredInSecondGroupCounts, unalteredInFirstGroupCounts, alteredInFirstGroupCounts);
+        for (int i = 0; i < size; i++) {
+            alterationEnrichments.get(i).setpValue(BigDecimal.valueOf(pValues[i]));
+        }
     }
     
     public long includeFrequencyForSamples(
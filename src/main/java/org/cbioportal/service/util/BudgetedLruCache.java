@@ -0,0 +1,190 @@
+package org.cbioportal.service.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+
+/**
+ * Keeps loaded values in memory, least recently used first out, within a memory budget. A value is loaded only once
+ * when it is requested concurrently, and values larger than the whole budget are not kept. Values that were being
+ * loaded while the cache was invalidated are returned to their callers but not kept, as they may be stale.
+ *
+ * This is the storage of the in-memory caches of decoded and indexed study data (e.g.
+ * {@link CopyNumberSegmentIndexCache}), which register with {@link InMemoryCacheInvalidator} to be cleared.
+ */
+public class BudgetedLruCache<V> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BudgetedLruCache.class);
+
+    private final String name;
+    private final ToLongFunction<V> sizeInBytesFunction;
+    private final LongSupplier budgetInBytes;
+
+    private final LinkedHashMap<String, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, CompletableFuture<V>> loading = new ConcurrentHashMap<>();
+    private long sizeInBytes = 0;
+    // incremented on every invalidation, so that values loaded before it are not kept
+    private long generation = 0;
+
+    /**
+     * @param name what is cached, for logging
+     * @param sizeInBytesFunction an estimate of the heap taken by a value
+     * @param budgetInBytes the budget, read on every put so that it can be configured after construction
+     */
+    public BudgetedLruCache(String name, ToLongFunction<V> sizeInBytesFunction, LongSupplier budgetInBytes) {
+        this.name = name;
+        this.sizeInBytesFunction = sizeInBytesFunction;
+        this.budgetInBytes = budgetInBytes;
+    }
+
+    /**
+     * @return the cached value of the key, or the value returned by the loader, which may be null (null values are
+     * not cached)
+     */
+    public V get(String key, Function<String, V> loader) {
+
+        long loadGeneration;
+        synchronized (entries) {
+            Entry<V> cached = entries.get(key);
+            if (cached != null) {
+                return cached.value;
+            }
+            loadGeneration = generation;
+        }
+
+        // load every key only once, even when it is requested concurrently
+        CompletableFuture<V> future = new CompletableFuture<>();
+        CompletableFuture<V> inFlight = loading.putIfAbsent(key, future);
+        if (inFlight != null) {
+            return inFlight.join();
+        }
+        try {
+            V value = loader.apply(key);
+            if (value != null) {
+                put(key, value, loadGeneration);
+            }
+            future.complete(value);
+            return value;
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(key);
+        }
+    }
+
+    /**
+     * @return the cached value of the key, or null if it is not cached
+     */
+    public V getIfPresent(String key) {
+        synchronized (entries) {
+            Entry<V> cached = entries.get(key);
+            return cached == null ? null : cached.value;
+        }
+    }
+
+    /**
+     * Recomputes the size of a value that grew after it was cached (e.g. by an index built lazily), evicting least
+     * recently used values to stay within the budget. Does nothing if the value is no longer cached.
+     */
+    public void updateSize(String key, V value) {
+        synchronized (entries) {
+            Entry<V> cached = entries.get(key);
+            if (cached == null || cached.value != value) {
+                return;
+            }
+            long entrySize = sizeInBytesFunction.applyAsLong(value);
+            sizeInBytes += entrySize - cached.sizeInBytes;
+            cached.sizeInBytes = entrySize;
+            evictLeastRecentlyUsed(budgetInBytes.getAsLong());
+        }
+    }
+
+    public void invalidate(String key) {
+        synchronized (entries) {
+            generation++;
+            Entry<V> removed = entries.remove(key);
+            if (removed != null) {
+                sizeInBytes -= removed.sizeInBytes;
+            }
+        }
+    }
+
+    public void invalidateIf(Predicate<String> keyPredicate) {
+        synchronized (entries) {
+            generation++;
+            Iterator<Map.Entry<String, Entry<V>>> iterator = entries.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<String, Entry<V>> entry = iterator.next();
+                if (keyPredicate.test(entry.getKey())) {
+                    sizeInBytes -= entry.getValue().sizeInBytes;
+                    iterator.remove();
+                }
+            }
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            generation++;
+            entries.clear();
+            sizeInBytes = 0;
+        }
+    }
+
+    public long getSizeInBytes() {
+        synchronized (entries) {
+            return sizeInBytes;
+        }
+    }
+
+    private void put(String key, V value, long loadGeneration) {
+        long budget = budgetInBytes.getAsLong();
+        long entrySize = sizeInBytesFunction.applyAsLong(value);
+        if (entrySize > budget) {
+            LOG.debug("Not caching " + name + " of " + key + ", " + entrySize + " bytes exceed the budget of "
+                + budget + " bytes");
+            return;
+        }
+        synchronized (entries) {
+            if (generation != loadGeneration) {
+                return;
+            }
+            Entry<V> replaced = entries.put(key, new Entry<>(value, entrySize));
+            if (replaced != null) {
+                sizeInBytes -= replaced.sizeInBytes;
+            }
+            sizeInBytes += entrySize;
+            evictLeastRecentlyUsed(budget);
+        }
+    }
+
+    private void evictLeastRecentlyUsed(long budget) {
+        Iterator<Entry<V>> leastRecentlyUsed = entries.values().iterator();
+        while (sizeInBytes > budget && leastRecentlyUsed.hasNext()) {
+            sizeInBytes -= leastRecentlyUsed.next().sizeInBytes;
+            leastRecentlyUsed.remove();
+        }
+    }
+
+    private static class Entry<V> {
+
+        private final V value;
+        // the size when the value was cached or last updated, so that evictions subtract what was added
+        private long sizeInBytes;
+
+        private Entry(V value, long sizeInBytes) {
+            this.value = value;
+            this.sizeInBytes = sizeInBytes;
+        }
+    }
+}
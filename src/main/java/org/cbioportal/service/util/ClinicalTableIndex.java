@@ -0,0 +1,386 @@
+package org.cbioportal.service.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The sample and patient clinical data of one study as shown in the study view clinical data table, indexed for
+ * searching and sorting. Samples are identified by their position in the study.
+ * <ul>
+ * <li>Every distinct value (including the sample and patient ids) is stored once, with the positions of the samples
+ * that have it. A trigram index over the lower case values finds the values that contain a search term.</li>
+ * <li>The order of the samples by an attribute is computed once per attribute and kept. Its size is added to
+ * {@link #getSizeInBytes()} and reported to the listener set by {@link #setSizeChangeListener(Runnable)}.</li>
+ * </ul>
+ */
+public class ClinicalTableIndex {
+
+    public static final String SAMPLE_ID = "sampleId";
+    public static final String PATIENT_ID = "patientId";
+
+    private static final int NO_VALUE = -1;
+    private static final int[] EMPTY = new int[0];
+
+    private final String studyId;
+    private final int[] sampleInternalIds;
+    private final Map<String, Integer> positions;
+    private final String[] values;
+    private final String[] lowerCaseValues;
+    private final int[][] valuePositions;
+    private final Map<Long, int[]> valuesByTrigram;
+    private final Map<String, int[]> attributeValues;
+    private final Set<String> numericAttributes;
+    private final Map<String, SortOrder> sortOrders = new ConcurrentHashMap<>();
+    private final long sizeInBytes;
+    private final AtomicLong sortOrdersSizeInBytes = new AtomicLong();
+    private volatile Runnable sizeChangeListener;
+
+    private ClinicalTableIndex(String studyId, int[] sampleInternalIds, Map<String, Integer> positions,
+                               String[] values, int[][] valuePositions, Map<String, int[]> attributeValues,
+                               Set<String> numericAttributes) {
+        this.studyId = studyId;
+        this.sampleInternalIds = sampleInternalIds;
+        this.positions = positions;
+        this.values = values;
+        this.valuePositions = valuePositions;
+        this.attributeValues = attributeValues;
+        this.numericAttributes = numericAttributes;
+        lowerCaseValues = new String[values.length];
+        Map<Long, IntList> trigrams = new HashMap<>();
+        long size = 0;
+        for (int value = 0; value < values.length; value++) {
+            lowerCaseValues[value] = values[value].toLowerCase(Locale.ROOT);
+            size += 2L * (40 + 2L * values[value].length()) + 16 + 4L * valuePositions[value].length;
+            for (long trigram : getTrigrams(lowerCaseValues[value])) {
+                // values are added in order, so the lists are sorted
+                trigrams.computeIfAbsent(trigram, t -> new IntList()).add(value);
+            }
+        }
+        valuesByTrigram = new HashMap<>();
+        for (Map.Entry<Long, IntList> trigram : trigrams.entrySet()) {
+            valuesByTrigram.put(trigram.getKey(), trigram.getValue().toArray());
+            size += 64 + 4L * trigram.getValue().size;
+        }
+        size += 64L * sampleInternalIds.length;
+        size += attributeValues.size() * 4L * sampleInternalIds.length;
+        sizeInBytes = size;
+    }
+
+    public String getStudyId() {
+        return studyId;
+    }
+
+    public int getSampleCount() {
+        return sampleInternalIds.length;
+    }
+
+    public int getSampleInternalId(int position) {
+        return sampleInternalIds[position];
+    }
+
+    /**
+     * @return the position of the sample, or null if the study has no such sample
+     */
+    public Integer getPosition(String sampleId) {
+        return positions.get(sampleId);
+    }
+
+    /**
+     * Finds the samples that have an attribute value, sample id or patient id that contains the search term,
+     * ignoring case.
+     */
+    public BitSet search(String searchTerm) {
+
+        String term = searchTerm.toLowerCase(Locale.ROOT);
+        BitSet result = new BitSet(sampleInternalIds.length);
+        for (int value : getCandidateValues(term)) {
+            if (lowerCaseValues[value].contains(term)) {
+                for (int position : valuePositions[value]) {
+                    result.set(position);
+                }
+            }
+        }
+        return result;
+    }
+
+    private int[] getCandidateValues(String term) {
+
+        Set<Long> trigrams = getTrigrams(term);
+        if (trigrams.isEmpty()) {
+            // too short for a trigram, check every value
+            int[] all = new int[values.length];
+            Arrays.setAll(all, i -> i);
+            return all;
+        }
+        int[] candidates = null;
+        for (long trigram : trigrams) {
+            int[] trigramValues = valuesByTrigram.getOrDefault(trigram, EMPTY);
+            candidates = candidates == null ? trigramValues : intersect(candidates, trigramValues);
+            if (candidates.length == 0) {
+                break;
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * Returns the order of the samples by the attribute (or by {@link #SAMPLE_ID} or {@link #PATIENT_ID}). Values of
+     * numeric attributes are compared as numbers, other values as strings ignoring case. Samples without a value,
+     * or with a non numeric value of a numeric attribute, are not part of the order.
+     */
+    public SortOrder getSortOrder(String attributeId) {
+
+        SortOrder sortOrder = sortOrders.get(attributeId);
+        if (sortOrder != null) {
+            return sortOrder;
+        }
+        sortOrder = sortOrders.computeIfAbsent(attributeId, id -> {
+            SortOrder created = createSortOrder(id);
+            sortOrdersSizeInBytes.addAndGet(created.getSizeInBytes());
+            return created;
+        });
+        Runnable listener = sizeChangeListener;
+        if (listener != null) {
+            listener.run();
+        }
+        return sortOrder;
+    }
+
+    /**
+     * Sets a listener that is called after a sort order has been added, e.g. to count it against a cache budget.
+     */
+    public void setSizeChangeListener(Runnable sizeChangeListener) {
+        this.sizeChangeListener = sizeChangeListener;
+    }
+
+    public long getSizeInBytes() {
+        return sizeInBytes + sortOrdersSizeInBytes.get();
+    }
+
+    private SortOrder createSortOrder(String attributeId) {
+
+        int[] sampleValues = attributeValues.get(attributeId);
+        if (sampleValues == null) {
+            return new SortOrder(EMPTY, null, new String[0]);
+        }
+        List<Integer> sorted = new ArrayList<>();
+        Map<Integer, Double> numbers = new HashMap<>();
+        boolean numeric = numericAttributes.contains(attributeId);
+        for (int position = 0; position < sampleValues.length; position++) {
+            if (sampleValues[position] == NO_VALUE) {
+                continue;
+            }
+            if (numeric) {
+                try {
+                    numbers.put(position, Double.parseDouble(values[sampleValues[position]]));
+                } catch (NumberFormatException e) {
+                    continue;
+                }
+            }
+            sorted.add(position);
+        }
+        Comparator<Integer> comparator = numeric ? Comparator.comparing(numbers::get)
+            : Comparator.comparing(position -> values[sampleValues[position]], String.CASE_INSENSITIVE_ORDER);
+        // stable, so that equal values keep the order of the samples in the study
+        sorted.sort(comparator);
+
+        int[] order = sorted.stream().mapToInt(Integer::intValue).toArray();
+        double[] sortedNumbers = numeric ? sorted.stream().mapToDouble(numbers::get).toArray() : null;
+        String[] sortedValues = sorted.stream().map(position -> values[sampleValues[position]]).toArray(String[]::new);
+        return new SortOrder(order, sortedNumbers, sortedValues);
+    }
+
+    private static Set<Long> getTrigrams(String value) {
+
+        Set<Long> trigrams = new HashSet<>();
+        for (int i = 0; i + 3 <= value.length(); i++) {
+            trigrams.add((long) value.charAt(i) << 32 | (long) value.charAt(i + 1) << 16 | value.charAt(i + 2));
+        }
+        return trigrams;
+    }
+
+    private static int[] intersect(int[] sorted1, int[] sorted2) {
+
+        int[] result = new int[Math.min(sorted1.length, sorted2.length)];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < sorted1.length && j < sorted2.length) {
+            if (sorted1[i] < sorted2[j]) {
+                i++;
+            } else if (sorted1[i] > sorted2[j]) {
+                j++;
+            } else {
+                result[count++] = sorted1[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    /**
+     * The positions of the samples that have a value, in ascending order of the value.
+     */
+    public static class SortOrder {
+
+        private final int[] positions;
+        private final double[] numbers;
+        private final String[] values;
+
+        private SortOrder(int[] positions, double[] numbers, String[] values) {
+            this.positions = positions;
+            this.numbers = numbers;
+            this.values = values;
+        }
+
+        public int size() {
+            return positions.length;
+        }
+
+        private long getSizeInBytes() {
+            // the values are shared with the index
+            return 4L * positions.length + (numbers == null ? 0 : 8L * numbers.length) + 8L * values.length + 64;
+        }
+
+        public int getPosition(int rank) {
+            return positions[rank];
+        }
+
+        /**
+         * Compares the values at the ranks of two orders, e.g. of the same attribute in different studies.
+         */
+        public int compare(int rank, SortOrder other, int otherRank) {
+            if (numbers != null && other.numbers != null) {
+                return Double.compare(numbers[rank], other.numbers[otherRank]);
+            }
+            return String.CASE_INSENSITIVE_ORDER.compare(values[rank], other.values[otherRank]);
+        }
+    }
+
+    /**
+     * Collects the samples and clinical data of a study. Samples must be added before their data.
+     */
+    public static class Builder {
+
+        private final String studyId;
+        private final IntList sampleInternalIds = new IntList();
+        private final Map<String, Integer> positions = new HashMap<>();
+        private final Map<Integer, Integer> positionsByInternalId = new HashMap<>();
+        private final Map<Integer, IntList> positionsByPatient = new HashMap<>();
+        private final Map<String, Integer> valueIds = new HashMap<>();
+        private final List<IntList> valuePositions = new ArrayList<>();
+        private final Map<String, int[]> attributeValues = new HashMap<>();
+        private final Set<String> numericAttributes = new HashSet<>();
+
+        public Builder(String studyId) {
+            this.studyId = studyId;
+        }
+
+        public void addSample(int sampleInternalId, String sampleId, int patientInternalId, String patientId) {
+
+            int position = sampleInternalIds.size;
+            sampleInternalIds.add(sampleInternalId);
+            positions.put(sampleId, position);
+            positionsByInternalId.put(sampleInternalId, position);
+            positionsByPatient.computeIfAbsent(patientInternalId, p -> new IntList()).add(position);
+            addValue(position, SAMPLE_ID, sampleId);
+            addValue(position, PATIENT_ID, patientId);
+        }
+
+        public void addSampleValue(int sampleInternalId, String attributeId, String value) {
+
+            Integer position = positionsByInternalId.get(sampleInternalId);
+            if (position != null) {
+                addValue(position, attributeId, value);
+            }
+        }
+
+        public void addPatientValue(int patientInternalId, String attributeId, String value) {
+
+            IntList patientPositions = positionsByPatient.get(patientInternalId);
+            if (patientPositions != null) {
+                for (int i = 0; i < patientPositions.size; i++) {
+                    addValue(patientPositions.values[i], attributeId, value);
+                }
+            }
+        }
+
+        public void setNumeric(String attributeId) {
+            numericAttributes.add(attributeId);
+        }
+
+        public ClinicalTableIndex build() {
+
+            String[] values = new String[valueIds.size()];
+            valueIds.forEach((value, id) -> values[id] = value);
+            int[][] sortedValuePositions = new int[values.length][];
+            for (int value = 0; value < values.length; value++) {
+                sortedValuePositions[value] = Arrays.stream(valuePositions.get(value).toArray())
+                    .sorted()
+                    .distinct()
+                    .toArray();
+            }
+            Map<String, int[]> sampleValues = new HashMap<>();
+            attributeValues.forEach((attributeId, ids) -> {
+                int[] all = new int[sampleInternalIds.size];
+                Arrays.fill(all, NO_VALUE);
+                System.arraycopy(ids, 0, all, 0, Math.min(ids.length, all.length));
+                sampleValues.put(attributeId, all);
+            });
+            return new ClinicalTableIndex(studyId, sampleInternalIds.toArray(), positions, values,
+                sortedValuePositions, sampleValues, numericAttributes);
+        }
+
+        private void addValue(int position, String attributeId, String value) {
+
+            if (value == null) {
+                return;
+            }
+            Integer id = valueIds.get(value);
+            if (id == null) {
+                id = valuePositions.size();
+                valueIds.put(value, id);
+                valuePositions.add(new IntList());
+            }
+            valuePositions.get(id).add(position);
+
+            int[] ids = attributeValues.get(attributeId);
+            if (ids == null || ids.length <= position) {
+                int[] grown = Arrays.copyOf(ids == null ? EMPTY : ids, Math.max(position + 1,
+                    sampleInternalIds.size * 2));
+                Arrays.fill(grown, ids == null ? 0 : ids.length, grown.length, NO_VALUE);
+                ids = grown;
+                attributeValues.put(attributeId, ids);
+            }
+            ids[position] = id;
+        }
+    }
+
+    private static class IntList {
+
+        private int[] values = new int[4];
+        private int size = 0;
+
+        private void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        private int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
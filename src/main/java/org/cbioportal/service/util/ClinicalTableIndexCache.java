@@ -0,0 +1,64 @@
+package org.cbioportal.service.util;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Keeps the {@link ClinicalTableIndex} of recently used studies in memory, least recently used first out, within
+ * a fixed memory budget. The sort orders that an index builds on demand count towards the budget. All entries are
+ * dropped when the sample, clinical_sample or clinical_patient tables change (e.g. after a study has been
+ * (re)loaded), and the entry of a study when it is cleared through the cache API.
+ */
+@Component
+public class ClinicalTableIndexCache implements InvalidatableCache {
+
+    private static final List<String> TABLES = Arrays.asList("sample", "clinical_sample", "clinical_patient");
+    private static final long BYTES_PER_MEGA_BYTE = 1024L * 1024L;
+
+    @Autowired
+    private ClinicalTableIndexLoader clinicalTableIndexLoader;
+    @Autowired
+    private InMemoryCacheInvalidator inMemoryCacheInvalidator;
+
+    @Value("${cache.clinical_table_index.max_mega_bytes:256}")
+    private long maxMegaBytes;
+
+    private final BudgetedLruCache<ClinicalTableIndex> entries = new BudgetedLruCache<>("clinical data",
+        ClinicalTableIndex::getSizeInBytes, () -> maxMegaBytes * BYTES_PER_MEGA_BYTE);
+
+    @PostConstruct
+    public void registerForInvalidation() {
+        inMemoryCacheInvalidator.register(this, TABLES);
+    }
+
+    public ClinicalTableIndex get(String studyId) {
+
+        inMemoryCacheInvalidator.checkForTableChanges();
+        return entries.get(studyId, this::load);
+    }
+
+    @Override
+    public void clear() {
+        entries.clear();
+    }
+
+    @Override
+    public void clearStudy(String studyId) {
+        entries.invalidate(studyId);
+    }
+
+    public long getSizeInBytes() {
+        return entries.getSizeInBytes();
+    }
+
+    private ClinicalTableIndex load(String studyId) {
+        ClinicalTableIndex index = clinicalTableIndexLoader.load(studyId);
+        index.setSizeChangeListener(() -> entries.updateSize(studyId, index));
+        return index;
+    }
+}
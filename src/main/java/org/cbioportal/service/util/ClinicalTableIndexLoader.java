@@ -0,0 +1,50 @@
+package org.cbioportal.service.util;
+
+import org.cbioportal.model.ClinicalAttribute;
+import org.cbioportal.model.ClinicalData;
+import org.cbioportal.model.Sample;
+import org.cbioportal.persistence.ClinicalAttributeRepository;
+import org.cbioportal.persistence.ClinicalDataRepository;
+import org.cbioportal.persistence.SampleRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Comparator;
+import java.util.List;
+
+@Component
+public class ClinicalTableIndexLoader {
+
+    @Autowired
+    private SampleRepository sampleRepository;
+    @Autowired
+    private ClinicalAttributeRepository clinicalAttributeRepository;
+    @Autowired
+    private ClinicalDataRepository clinicalDataRepository;
+
+    // A transaction is needed to stream the clinical_sample and clinical_patient records through a cursor.
+    @Transactional(readOnly = true)
+    public ClinicalTableIndex load(String studyId) {
+
+        ClinicalTableIndex.Builder builder = new ClinicalTableIndex.Builder(studyId);
+        List<Sample> samples = sampleRepository.getAllSamplesInStudy(studyId, "SUMMARY", null, null, null, null);
+        samples.stream()
+            .sorted(Comparator.comparing(Sample::getInternalId))
+            .forEach(sample -> builder.addSample(sample.getInternalId(), sample.getStableId(), sample.getPatientId(),
+                sample.getPatientStableId()));
+        for (ClinicalAttribute clinicalAttribute : clinicalAttributeRepository.getAllClinicalAttributesInStudy(studyId,
+            "SUMMARY", null, null, null, null)) {
+            if ("NUMBER".equals(clinicalAttribute.getDatatype())) {
+                builder.setNumeric(clinicalAttribute.getAttrId());
+            }
+        }
+        for (ClinicalData clinicalData : clinicalDataRepository.getPatientClinicalDataInStudyIterable(studyId)) {
+            builder.addPatientValue(clinicalData.getInternalId(), clinicalData.getAttrId(), clinicalData.getAttrValue());
+        }
+        for (ClinicalData clinicalData : clinicalDataRepository.getSampleClinicalDataInStudyIterable(studyId)) {
+            builder.addSampleValue(clinicalData.getInternalId(), clinicalData.getAttrId(), clinicalData.getAttrValue());
+        }
+        return builder.build();
+    }
+}
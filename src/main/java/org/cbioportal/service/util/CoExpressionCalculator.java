@@ -0,0 +1,379 @@
+package org.cbioportal.service.util;
+
+import jakarta.annotation.PreDestroy;
+import org.cbioportal.model.CoExpression;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Computes the Spearman correlation of one row of a molecular profile with all other rows, or of the rows of a
+ * profile with a vector of values from elsewhere (e.g. a row of another profile).
+ *
+ * The query row is gathered and ranked once. The other rows are split into chunks that are processed on a
+ * fork-join pool; every chunk reuses the same primitive buffers for all of its rows and only allocates for
+ * results that pass the threshold. When a maximum number of results is given, every chunk keeps the strongest
+ * correlations in a bounded heap.
+ */
+@Component
+public class CoExpressionCalculator {
+
+    private static final int MIN_ROWS_PER_CHUNK = 256;
+    private static final int CHUNKS_PER_THREAD = 4;
+    // correlating with a vector is done for few rows (e.g. the genes of a gene set), split them into smaller chunks
+    private static final int MIN_VECTOR_ROWS_PER_CHUNK = 16;
+    private static final Comparator<Correlation> BY_STRENGTH =
+        Comparator.comparingDouble((Correlation correlation) -> Math.abs(correlation.correlation))
+            .thenComparing(correlation -> -correlation.row);
+
+    @Value("${multithread.core_pool_size:#{T(java.lang.Runtime).getRuntime().availableProcessors()}}")
+    private int parallelism;
+
+    private ForkJoinPool forkJoinPool;
+
+    /**
+     * @param columns    the columns of the samples to include
+     * @param threshold  the minimum absolute correlation of a result
+     * @param maxResults the maximum number of results to return, or 0 for all results above the threshold
+     * @return the correlations of all rows but the query row, in row order
+     */
+    public List<CoExpression> computeCoExpressions(MolecularProfileValues values, int queryRow, int[] columns,
+                                                   double threshold, int maxResults) {
+
+        return computeCoExpressions(new Query(values, queryRow, columns,
+            values.gatherValues(queryRow, columns, new double[columns.length]), threshold, maxResults));
+    }
+
+    /**
+     * Computes the correlations of the rows of a profile with a vector of values from outside the profile, e.g. a
+     * row of another profile of the same samples.
+     *
+     * @param excludedRow a row that is not correlated (e.g. the query entity in this profile), or -1
+     * @param columns     the columns of the samples to include
+     * @param queryValues the values of the vector in these samples, NaN where missing
+     * @return the correlations of all rows but the excluded row, in row order
+     */
+    public List<CoExpression> computeCoExpressions(MolecularProfileValues values, int excludedRow, int[] columns,
+                                                   double[] queryValues, double threshold, int maxResults) {
+
+        return computeCoExpressions(new Query(values, excludedRow, columns, queryValues, threshold, maxResults));
+    }
+
+    private List<CoExpression> computeCoExpressions(Query query) {
+
+        MolecularProfileValues values = query.values;
+        int rowsPerChunk = Math.max(MIN_ROWS_PER_CHUNK,
+            values.getNumberOfRows() / (Math.max(1, parallelism) * CHUNKS_PER_THREAD) + 1);
+        List<Correlation> correlations = getForkJoinPool()
+            .invoke(new ChunkTask(query, 0, values.getNumberOfRows(), rowsPerChunk));
+
+        correlations.sort(Comparator.comparingInt(correlation -> correlation.row));
+        List<CoExpression> coExpressions = new ArrayList<>(correlations.size());
+        for (Correlation correlation : correlations) {
+            CoExpression coExpression = new CoExpression();
+            coExpression.setGeneticEntityId(values.getStableId(correlation.row));
+            coExpression.setSpearmansCorrelation(BigDecimal.valueOf(correlation.correlation));
+            coExpression.setpValue(BigDecimal.valueOf(correlation.pValue));
+            coExpressions.add(coExpression);
+        }
+        return coExpressions;
+    }
+
+    private synchronized ForkJoinPool getForkJoinPool() {
+        if (forkJoinPool == null) {
+            forkJoinPool = new ForkJoinPool(Math.max(1, parallelism));
+        }
+        return forkJoinPool;
+    }
+
+    @PreDestroy
+    public synchronized void shutdownForkJoinPool() {
+        if (forkJoinPool != null) {
+            forkJoinPool.shutdown();
+        }
+    }
+
+    /**
+     * Computes the Spearman correlation of the given rows with a vector of values from outside the profile, e.g. the
+     * scores of a gene set in the same samples. The vector is ranked once if it has a value in every column.
+     *
+     * @param columns     the columns of the samples to include
+     * @param queryValues the values of the vector in these samples, NaN where missing
+     * @return the correlation of every row in the order of {@code rows}: 0 if the row and the vector have fewer than
+     * two values in common, NaN if either of them is constant
+     */
+    public double[] computeCorrelations(MolecularProfileValues values, int[] rows, int[] columns,
+                                        double[] queryValues) {
+
+        double[] correlations = new double[rows.length];
+        VectorQuery query = new VectorQuery(values, rows, columns, queryValues, correlations);
+        int rowsPerChunk = Math.max(MIN_VECTOR_ROWS_PER_CHUNK,
+            rows.length / (Math.max(1, parallelism) * CHUNKS_PER_THREAD) + 1);
+        getForkJoinPool().invoke(new VectorChunkTask(query, 0, rows.length, rowsPerChunk));
+        return correlations;
+    }
+
+    private static List<Correlation> computeChunk(Query query, int fromRow, int toRow) {
+
+        double[] rowValues = new double[query.columns.length];
+        Correlator correlator = new Correlator(query.queryValues, query.queryRanks);
+        Results results = new Results(query.maxResults);
+
+        for (int row = fromRow; row < toRow; row++) {
+            if (row == query.row) {
+                continue;
+            }
+            query.values.gatherValues(row, query.columns, rowValues);
+            double correlation = correlator.correlate(rowValues, 3);
+            if (Double.isNaN(correlation) || Math.abs(correlation) < query.threshold) {
+                continue;
+            }
+            results.add(new Correlation(row, correlation,
+                SpearmanCorrelation.pValue(correlation, correlator.pairs)));
+        }
+        return results.toList();
+    }
+
+    private static void computeVectorChunk(VectorQuery query, int from, int to) {
+
+        double[] rowValues = new double[query.columns.length];
+        Correlator correlator = new Correlator(query.queryValues, query.queryRanks);
+
+        for (int i = from; i < to; i++) {
+            query.values.gatherValues(query.rows[i], query.columns, rowValues);
+            double correlation = correlator.correlate(rowValues, 2);
+            query.correlations[i] = correlator.pairs < 2 ? 0 : correlation;
+        }
+    }
+
+    private static double[] rankIfComplete(double[] values) {
+        for (double value : values) {
+            if (Double.isNaN(value)) {
+                return null;
+            }
+        }
+        return SpearmanCorrelation.rank(values, values.length, new double[values.length], new double[values.length]);
+    }
+
+    /**
+     * Correlates rows with one query vector, reusing the same primitive buffers for all rows of a chunk.
+     */
+    private static class Correlator {
+
+        private final double[] queryValues;
+        // the ranks of the query values if none of them is missing, null otherwise
+        private final double[] completeQueryRanks;
+        private final double[] pairedQueryValues;
+        private final double[] pairedValues;
+        private final double[] queryRanks;
+        private final double[] rowRanks;
+        private final double[] sortBuffer;
+        // the number of samples in which both the query and the last correlated row have a value
+        private int pairs;
+
+        private Correlator(double[] queryValues, double[] completeQueryRanks) {
+            int length = queryValues.length;
+            this.queryValues = queryValues;
+            this.completeQueryRanks = completeQueryRanks;
+            pairedQueryValues = new double[length];
+            pairedValues = new double[length];
+            queryRanks = new double[length];
+            rowRanks = new double[length];
+            sortBuffer = new double[length];
+        }
+
+        /**
+         * @return the correlation over the samples in which both values are present, NaN if there are fewer than
+         * {@code minPairs} of them
+         */
+        private double correlate(double[] rowValues, int minPairs) {
+            int length = queryValues.length;
+            pairs = 0;
+            for (int i = 0; i < length; i++) {
+                if (!Double.isNaN(queryValues[i]) && !Double.isNaN(rowValues[i])) {
+                    pairs++;
+                }
+            }
+            if (pairs < minPairs) {
+                return Double.NaN;
+            }
+
+            double[] ranksOfQuery;
+            if (pairs == length) {
+                ranksOfQuery = completeQueryRanks;
+                SpearmanCorrelation.rank(rowValues, length, sortBuffer, rowRanks);
+            } else {
+                // drop the samples in which either value is missing and rank the remaining pairs
+                int pair = 0;
+                for (int i = 0; i < length; i++) {
+                    if (!Double.isNaN(queryValues[i]) && !Double.isNaN(rowValues[i])) {
+                        pairedQueryValues[pair] = queryValues[i];
+                        pairedValues[pair] = rowValues[i];
+                        pair++;
+                    }
+                }
+                ranksOfQuery = SpearmanCorrelation.rank(pairedQueryValues, pairs, sortBuffer, queryRanks);
+                SpearmanCorrelation.rank(pairedValues, pairs, sortBuffer, rowRanks);
+            }
+            return SpearmanCorrelation.correlationOfRanks(ranksOfQuery, rowRanks, pairs);
+        }
+    }
+
+    private static class Query {
+
+        private final MolecularProfileValues values;
+        // the row that is not correlated, or -1
+        private final int row;
+        private final int[] columns;
+        private final double threshold;
+        private final int maxResults;
+        private final double[] queryValues;
+        // only set when the query has a value for every column
+        private final double[] queryRanks;
+
+        private Query(MolecularProfileValues values, int row, int[] columns, double[] queryValues, double threshold,
+                      int maxResults) {
+            this.values = values;
+            this.row = row;
+            this.columns = columns;
+            this.threshold = threshold;
+            this.maxResults = maxResults;
+            this.queryValues = queryValues;
+            queryRanks = rankIfComplete(queryValues);
+        }
+    }
+
+    private static class VectorQuery {
+
+        private final MolecularProfileValues values;
+        private final int[] rows;
+        private final int[] columns;
+        private final double[] queryValues;
+        private final double[] queryRanks;
+        private final double[] correlations;
+
+        private VectorQuery(MolecularProfileValues values, int[] rows, int[] columns, double[] queryValues,
+                            double[] correlations) {
+            this.values = values;
+            this.rows = rows;
+            this.columns = columns;
+            this.queryValues = queryValues;
+            this.queryRanks = rankIfComplete(queryValues);
+            this.correlations = correlations;
+        }
+    }
+
+    private static class ChunkTask extends RecursiveTask<List<Correlation>> {
+
+        private final Query query;
+        private final int fromRow;
+        private final int toRow;
+        private final int rowsPerChunk;
+
+        private ChunkTask(Query query, int fromRow, int toRow, int rowsPerChunk) {
+            this.query = query;
+            this.fromRow = fromRow;
+            this.toRow = toRow;
+            this.rowsPerChunk = rowsPerChunk;
+        }
+
+        @Override
+        protected List<Correlation> compute() {
+            if (toRow - fromRow <= rowsPerChunk) {
+                return computeChunk(query, fromRow, toRow);
+            }
+            int middle = (fromRow + toRow) >>> 1;
+            ChunkTask left = new ChunkTask(query, fromRow, middle, rowsPerChunk);
+            left.fork();
+            List<Correlation> right = new ChunkTask(query, middle, toRow, rowsPerChunk).compute();
+            Results results = new Results(query.maxResults);
+            results.addAll(left.join());
+            results.addAll(right);
+            return results.toList();
+        }
+    }
+
+    private static class VectorChunkTask extends RecursiveAction {
+
+        private final VectorQuery query;
+        private final int from;
+        private final int to;
+        private final int rowsPerChunk;
+
+        private VectorChunkTask(VectorQuery query, int from, int to, int rowsPerChunk) {
+            this.query = query;
+            this.from = from;
+            this.to = to;
+            this.rowsPerChunk = rowsPerChunk;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= rowsPerChunk) {
+                computeVectorChunk(query, from, to);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new VectorChunkTask(query, from, middle, rowsPerChunk),
+                new VectorChunkTask(query, middle, to, rowsPerChunk));
+        }
+    }
+
+    /**
+     * All results, or only the strongest {@code maxResults} when that is positive.
+     */
+    private static class Results {
+
+        private final int maxResults;
+        private final List<Correlation> all;
+        private final PriorityQueue<Correlation> strongest;
+
+        private Results(int maxResults) {
+            this.maxResults = maxResults;
+            all = maxResults > 0 ? null : new ArrayList<>();
+            strongest = maxResults > 0 ? new PriorityQueue<>(maxResults + 1, BY_STRENGTH) : null;
+        }
+
+        private void add(Correlation correlation) {
+            if (all != null) {
+                all.add(correlation);
+            } else if (strongest.size() < maxResults) {
+                strongest.add(correlation);
+            } else if (BY_STRENGTH.compare(correlation, strongest.peek()) > 0) {
+                strongest.poll();
+                strongest.add(correlation);
+            }
+        }
+
+        private void addAll(List<Correlation> correlations) {
+            for (Correlation correlation : correlations) {
+                add(correlation);
+            }
+        }
+
+        private List<Correlation> toList() {
+            return all != null ? all : new ArrayList<>(strongest);
+        }
+    }
+
+    private static class Correlation {
+
+        private final int row;
+        private final double correlation;
+        private final double pValue;
+
+        private Correlation(int row, double correlation, double pValue) {
+            this.row = row;
+            this.correlation = correlation;
+            this.pValue = pValue;
+        }
+    }
+}
@@ -0,0 +1,346 @@
+package org.cbioportal.service.util;
+
+import org.cbioportal.model.CopyNumberSeg;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The copy number segments of one study in primitive arrays: per chromosome grouped by sample and sorted by start.
+ * Next to the ends, the running maximum of the ends within a sample is kept, so that the segments of a sample that
+ * overlap a region are found with two binary searches, also when segments of a sample overlap each other.
+ */
+public class CopyNumberSegmentIndex {
+
+    private static final long BYTES_PER_SEGMENT = 4 * Integer.BYTES + Double.BYTES + Long.BYTES;
+    private static final long BYTES_PER_SAMPLE = 128;
+
+    private final String studyId;
+    private final Integer cancerStudyId;
+    private final int[] sampleInternalIds;
+    private final String[] sampleStableIds;
+    private final String[] patientIds;
+    private final Map<String, Integer> sampleIndexes;
+    private final Map<String, Chromosome> chromosomes;
+    private final long sizeInBytes;
+
+    private CopyNumberSegmentIndex(String studyId, Integer cancerStudyId, int[] sampleInternalIds,
+                                   String[] sampleStableIds, String[] patientIds, Map<String, Chromosome> chromosomes) {
+        this.studyId = studyId;
+        this.cancerStudyId = cancerStudyId;
+        this.sampleInternalIds = sampleInternalIds;
+        this.sampleStableIds = sampleStableIds;
+        this.patientIds = patientIds;
+        this.chromosomes = chromosomes;
+        sampleIndexes = new HashMap<>();
+        for (int i = 0; i < sampleStableIds.length; i++) {
+            sampleIndexes.put(sampleStableIds[i], i);
+        }
+        long size = sampleStableIds.length * BYTES_PER_SAMPLE;
+        for (Chromosome chromosome : chromosomes.values()) {
+            size += chromosome.starts.length * BYTES_PER_SEGMENT + chromosome.sampleOffsets.length * Integer.BYTES;
+        }
+        sizeInBytes = size;
+    }
+
+    public String getStudyId() {
+        return studyId;
+    }
+
+    public long getSizeInBytes() {
+        return sizeInBytes;
+    }
+
+    /**
+     * Returns the segments that overlap [start, end] (both inclusive, as stored in copy_number_seg). If resolution is
+     * greater than one, adjacent segments of a sample are merged until they span at least resolution bases: the
+     * merged segment mean is weighted by segment length and the number of probes is summed. Segments further apart
+     * than resolution are not merged.
+     *
+     * @param sampleStableIds samples to return the segments of, or null for all samples of the study
+     * @param chromosome chromosome to return the segments of, or null for all chromosomes
+     */
+    public List<CopyNumberSeg> query(Collection<String> sampleStableIds, String chromosome, int start, int end,
+                                     int resolution) {
+
+        int[] samples = getSampleIndexes(sampleStableIds);
+        List<CopyNumberSeg> result = new ArrayList<>();
+        if (chromosome != null) {
+            Chromosome segments = chromosomes.get(chromosome);
+            if (segments != null) {
+                for (int sample : samples) {
+                    query(segments, sample, start, end, resolution, result);
+                }
+            }
+        } else {
+            for (int sample : samples) {
+                for (Chromosome segments : chromosomes.values()) {
+                    query(segments, sample, start, end, resolution, result);
+                }
+            }
+        }
+        return result;
+    }
+
+    private int[] getSampleIndexes(Collection<String> sampleStableIds) {
+
+        if (sampleStableIds == null) {
+            int[] all = new int[this.sampleStableIds.length];
+            Arrays.setAll(all, i -> i);
+            return all;
+        }
+        boolean[] requested = new boolean[this.sampleStableIds.length];
+        int[] samples = new int[this.sampleStableIds.length];
+        int count = 0;
+        for (String sampleStableId : sampleStableIds) {
+            Integer sample = sampleIndexes.get(sampleStableId);
+            if (sample != null && !requested[sample]) {
+                requested[sample] = true;
+                samples[count++] = sample;
+            }
+        }
+        return Arrays.copyOf(samples, count);
+    }
+
+    private void query(Chromosome segments, int sample, int start, int end, int resolution,
+                       List<CopyNumberSeg> result) {
+
+        int from = segments.sampleOffsets[sample];
+        int to = segments.sampleOffsets[sample + 1];
+        // both the starts and the running maximum of the ends are sorted within a sample
+        int first = firstIndexAbove(segments.maxEnds, from, to, start - 1L);
+        int last = firstIndexAbove(segments.starts, first, to, end);
+
+        Merged merged = null;
+        for (int i = first; i < last; i++) {
+            if (segments.ends[i] < start) {
+                continue;
+            }
+            if (merged != null && merged.end - merged.start + 1L < resolution
+                && segments.starts[i] - (long) merged.end <= resolution) {
+                merged.add(segments, i);
+            } else {
+                if (merged != null) {
+                    result.add(toCopyNumberSeg(segments, sample, merged));
+                }
+                merged = new Merged(segments, i);
+            }
+        }
+        if (merged != null) {
+            result.add(toCopyNumberSeg(segments, sample, merged));
+        }
+    }
+
+    private static int firstIndexAbove(int[] sorted, int from, int to, long value) {
+
+        int low = from;
+        int high = to;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (sorted[middle] > value) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return low;
+    }
+
+    private CopyNumberSeg toCopyNumberSeg(Chromosome segments, int sample, Merged merged) {
+
+        CopyNumberSeg copyNumberSeg = new CopyNumberSeg();
+        copyNumberSeg.setSegId(merged.count == 1 ? segments.segIds[merged.first] : null);
+        copyNumberSeg.setCancerStudyId(cancerStudyId);
+        copyNumberSeg.setCancerStudyIdentifier(studyId);
+        copyNumberSeg.setSampleId(sampleInternalIds[sample]);
+        copyNumberSeg.setSampleStableId(sampleStableIds[sample]);
+        copyNumberSeg.setPatientId(patientIds[sample]);
+        copyNumberSeg.setChr(segments.name);
+        copyNumberSeg.setStart(merged.start);
+        copyNumberSeg.setEnd(merged.end);
+        copyNumberSeg.setNumProbes(merged.numProbes);
+        copyNumberSeg.setSegmentMean(BigDecimal.valueOf(merged.count == 1 ? segments.segmentMeans[merged.first]
+            : merged.weightedMeanSum / merged.length));
+        return copyNumberSeg;
+    }
+
+    private static class Chromosome {
+
+        private final String name;
+        // the segments of sample i are at [sampleOffsets[i], sampleOffsets[i + 1])
+        private final int[] sampleOffsets;
+        private final int[] starts;
+        private final int[] ends;
+        private final int[] maxEnds;
+        private final int[] numProbes;
+        private final double[] segmentMeans;
+        private final long[] segIds;
+
+        private Chromosome(String name, int[] sampleOffsets, int[] starts, int[] ends, int[] maxEnds,
+                           int[] numProbes, double[] segmentMeans, long[] segIds) {
+            this.name = name;
+            this.sampleOffsets = sampleOffsets;
+            this.starts = starts;
+            this.ends = ends;
+            this.maxEnds = maxEnds;
+            this.numProbes = numProbes;
+            this.segmentMeans = segmentMeans;
+            this.segIds = segIds;
+        }
+    }
+
+    private static class Merged {
+
+        private final int first;
+        private final int start;
+        private int end;
+        private int numProbes;
+        private int count = 1;
+        private double weightedMeanSum;
+        private double length;
+
+        private Merged(Chromosome segments, int i) {
+            first = i;
+            start = segments.starts[i];
+            end = segments.ends[i];
+            numProbes = segments.numProbes[i];
+            weightedMeanSum = getLength(segments, i) * segments.segmentMeans[i];
+            length = getLength(segments, i);
+        }
+
+        private void add(Chromosome segments, int i) {
+            end = Math.max(end, segments.ends[i]);
+            numProbes += segments.numProbes[i];
+            count++;
+            weightedMeanSum += getLength(segments, i) * segments.segmentMeans[i];
+            length += getLength(segments, i);
+        }
+
+        private static double getLength(Chromosome segments, int i) {
+            return segments.ends[i] - (double) segments.starts[i] + 1;
+        }
+    }
+
+    /**
+     * Collects the segments of a study in any order.
+     */
+    public static class Builder {
+
+        private final String studyId;
+        private Integer cancerStudyId;
+        private final Map<Integer, Integer> sampleIndexes = new HashMap<>();
+        private final List<CopyNumberSeg> samples = new ArrayList<>();
+        private final Map<String, Segments> chromosomes = new HashMap<>();
+
+        public Builder(String studyId) {
+            this.studyId = studyId;
+        }
+
+        public void add(CopyNumberSeg copyNumberSeg) {
+
+            cancerStudyId = copyNumberSeg.getCancerStudyId();
+            Integer sample = sampleIndexes.get(copyNumberSeg.getSampleId());
+            if (sample == null) {
+                sample = samples.size();
+                sampleIndexes.put(copyNumberSeg.getSampleId(), sample);
+                samples.add(copyNumberSeg);
+            }
+            chromosomes.computeIfAbsent(copyNumberSeg.getChr(), chr -> new Segments()).add(sample, copyNumberSeg);
+        }
+
+        public CopyNumberSegmentIndex build() {
+
+            int[] sampleInternalIds = new int[samples.size()];
+            String[] sampleStableIds = new String[samples.size()];
+            String[] patientIds = new String[samples.size()];
+            for (int i = 0; i < samples.size(); i++) {
+                sampleInternalIds[i] = samples.get(i).getSampleId();
+                sampleStableIds[i] = samples.get(i).getSampleStableId();
+                patientIds[i] = samples.get(i).getPatientId();
+            }
+            Map<String, Chromosome> sortedChromosomes = new TreeMap<>();
+            chromosomes.forEach((name, segments) -> sortedChromosomes.put(name, segments.sort(name, samples.size())));
+            return new CopyNumberSegmentIndex(studyId, cancerStudyId, sampleInternalIds, sampleStableIds, patientIds,
+                sortedChromosomes);
+        }
+    }
+
+    private static class Segments {
+
+        private int size = 0;
+        private int[] samples = new int[16];
+        private int[] starts = new int[16];
+        private int[] ends = new int[16];
+        private int[] numProbes = new int[16];
+        private double[] segmentMeans = new double[16];
+        private long[] segIds = new long[16];
+
+        private void add(int sample, CopyNumberSeg copyNumberSeg) {
+
+            if (size == starts.length) {
+                int capacity = size * 2;
+                samples = Arrays.copyOf(samples, capacity);
+                starts = Arrays.copyOf(starts, capacity);
+                ends = Arrays.copyOf(ends, capacity);
+                numProbes = Arrays.copyOf(numProbes, capacity);
+                segmentMeans = Arrays.copyOf(segmentMeans, capacity);
+                segIds = Arrays.copyOf(segIds, capacity);
+            }
+            samples[size] = sample;
+            starts[size] = copyNumberSeg.getStart();
+            ends[size] = copyNumberSeg.getEnd();
+            numProbes[size] = copyNumberSeg.getNumProbes();
+            segmentMeans[size] = copyNumberSeg.getSegmentMean().doubleValue();
+            segIds[size] = copyNumberSeg.getSegId();
+            size++;
+        }
+
+        private Chromosome sort(String name, int sampleCount) {
+
+            // counting sort by sample, then by start within each sample
+            int[] sampleOffsets = new int[sampleCount + 1];
+            for (int i = 0; i < size; i++) {
+                sampleOffsets[samples[i] + 1]++;
+            }
+            for (int sample = 0; sample < sampleCount; sample++) {
+                sampleOffsets[sample + 1] += sampleOffsets[sample];
+            }
+            int[] next = Arrays.copyOf(sampleOffsets, sampleCount);
+            long[] keys = new long[size];
+            for (int i = 0; i < size; i++) {
+                keys[next[samples[i]]++] = (long) starts[i] << 32 | i;
+            }
+            for (int sample = 0; sample < sampleCount; sample++) {
+                Arrays.sort(keys, sampleOffsets[sample], sampleOffsets[sample + 1]);
+            }
+
+            int[] sortedStarts = new int[size];
+            int[] sortedEnds = new int[size];
+            int[] maxEnds = new int[size];
+            int[] sortedNumProbes = new int[size];
+            double[] sortedSegmentMeans = new double[size];
+            long[] sortedSegIds = new long[size];
+            for (int sample = 0; sample < sampleCount; sample++) {
+                int maxEnd = Integer.MIN_VALUE;
+                for (int j = sampleOffsets[sample]; j < sampleOffsets[sample + 1]; j++) {
+                    int i = (int) keys[j];
+                    sortedStarts[j] = starts[i];
+                    sortedEnds[j] = ends[i];
+                    maxEnd = Math.max(maxEnd, ends[i]);
+                    maxEnds[j] = maxEnd;
+                    sortedNumProbes[j] = numProbes[i];
+                    sortedSegmentMeans[j] = segmentMeans[i];
+                    sortedSegIds[j] = segIds[i];
+                }
+            }
+            return new Chromosome(name, sampleOffsets, sortedStarts, sortedEnds, maxEnds, sortedNumProbes,
+                sortedSegmentMeans, sortedSegIds);
+        }
+    }
+}
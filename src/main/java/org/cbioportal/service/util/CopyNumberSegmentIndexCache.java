@@ -0,0 +1,57 @@
+package org.cbioportal.service.util;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Keeps the {@link CopyNumberSegmentIndex} of recently used studies in memory, least recently used first out, within
+ * a fixed memory budget. All entries are dropped when the copy_number_seg table changes (e.g. after a study has been
+ * (re)loaded), and the entry of a study when it is cleared through the cache API.
+ */
+@Component
+public class CopyNumberSegmentIndexCache implements InvalidatableCache {
+
+    private static final List<String> TABLES = Collections.singletonList("copy_number_seg");
+    private static final long BYTES_PER_MEGA_BYTE = 1024L * 1024L;
+
+    @Autowired
+    private CopyNumberSegmentIndexLoader copyNumberSegmentIndexLoader;
+    @Autowired
+    private InMemoryCacheInvalidator inMemoryCacheInvalidator;
+
+    @Value("${cache.copy_number_segment_index.max_mega_bytes:512}")
+    private long maxMegaBytes;
+
+    private final BudgetedLruCache<CopyNumberSegmentIndex> entries = new BudgetedLruCache<>("segments",
+        CopyNumberSegmentIndex::getSizeInBytes, () -> maxMegaBytes * BYTES_PER_MEGA_BYTE);
+
+    @PostConstruct
+    public void registerForInvalidation() {
+        inMemoryCacheInvalidator.register(this, TABLES);
+    }
+
+    public CopyNumberSegmentIndex get(String studyId) {
+
+        inMemoryCacheInvalidator.checkForTableChanges();
+        return entries.get(studyId, copyNumberSegmentIndexLoader::load);
+    }
+
+    @Override
+    public void clear() {
+        entries.clear();
+    }
+
+    @Override
+    public void clearStudy(String studyId) {
+        entries.invalidate(studyId);
+    }
+
+    public long getSizeInBytes() {
+        return entries.getSizeInBytes();
+    }
+}
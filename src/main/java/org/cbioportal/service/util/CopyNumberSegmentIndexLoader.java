@@ -0,0 +1,25 @@
+package org.cbioportal.service.util;
+
+import org.cbioportal.model.CopyNumberSeg;
+import org.cbioportal.persistence.CopyNumberSegmentRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+@Component
+public class CopyNumberSegmentIndexLoader {
+
+    @Autowired
+    private CopyNumberSegmentRepository copyNumberSegmentRepository;
+
+    // A transaction is needed to stream the copy_number_seg records through a cursor.
+    @Transactional(readOnly = true)
+    public CopyNumberSegmentIndex load(String studyId) {
+
+        CopyNumberSegmentIndex.Builder builder = new CopyNumberSegmentIndex.Builder(studyId);
+        for (CopyNumberSeg copyNumberSeg : copyNumberSegmentRepository.getCopyNumberSegmentsInStudyIterable(studyId)) {
+            builder.add(copyNumberSeg);
+        }
+        return builder.build();
+    }
+}
@@ -2,6 +2,7 @@ package org.cbioportal.service.util;
 
 import java.io.IOException;
 
+import org.apache.commons.collections4.map.MultiKeyMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.cbioportal.utils.removeme.Session;
@@ -14,6 +15,7 @@ public class CustomDataSession extends Session {
 
     private static final Logger LOG = LoggerFactory.getLogger(CustomDataSession.class);
     private CustomAttributeWithData data;
+    private transient volatile MultiKeyMap<String, String> valuesBySample;
 
     @Override
     public void setData(Object data) {
@@ -30,6 +32,29 @@ public class CustomDataSession extends Session {
         return data;
     }
 
+    /**
+     * @return the values of the data by study id and sample id, in upper case with NaN and N/A as NA. Computed once,
+     * so that sessions kept by {@link org.cbioportal.service.CustomDataService} are not rescanned for every filter.
+     */
+    @JsonIgnore
+    public MultiKeyMap<String, String> getValuesBySample() {
+        MultiKeyMap<String, String> values = valuesBySample;
+        if (values == null) {
+            values = new MultiKeyMap<>();
+            if (data != null && data.getData() != null) {
+                for (CustomDataValue datum : data.getData()) {
+                    String value = datum.getValue().toUpperCase();
+                    if (value.equals("NAN") || value.equals("N/A")) {
+                        value = "NA";
+                    }
+                    values.put(datum.getStudyId(), datum.getSampleId(), value);
+                }
+            }
+            valuesBySample = values;
+        }
+        return values;
+    }
+
     @JsonIgnore
     @Override
     public String getSource() {
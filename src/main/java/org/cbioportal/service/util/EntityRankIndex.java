@@ -0,0 +1,65 @@
+package org.cbioportal.service.util;
+
+import java.util.Arrays;
+
+/**
+ * The ranks of the values of one genetic entity (a row of {@link MolecularProfileValues}) among all samples of the
+ * profile. Missing values are left out and ties get the maximum rank, as with commons-math's NaturalRanking
+ * (NaNStrategy.REMOVED, TiesStrategy.MAXIMUM): the rank of a value is the number of values less than or equal to it.
+ */
+public class EntityRankIndex {
+
+    private static final int NO_RANK = 0;
+
+    private final double[] sortedValues;
+    // rank of the value of every column, NO_RANK for missing values
+    private final int[] ranksByColumn;
+
+    public EntityRankIndex(double[] rowValues) {
+        sortedValues = Arrays.stream(rowValues).filter(value -> !Double.isNaN(value)).sorted().toArray();
+        ranksByColumn = new int[rowValues.length];
+        for (int column = 0; column < rowValues.length; column++) {
+            ranksByColumn[column] = Double.isNaN(rowValues[column]) ? NO_RANK : rankOf(rowValues[column]);
+        }
+    }
+
+    public int getNumberOfValues() {
+        return sortedValues.length;
+    }
+
+    /**
+     * @return the rank of the value of the column, or 0 if the column has no value
+     */
+    public int getRank(int column) {
+        return ranksByColumn[column];
+    }
+
+    /**
+     * @return the number of values less than or equal to the given value
+     */
+    public int rankOf(double value) {
+        int from = 0;
+        int to = sortedValues.length;
+        while (from < to) {
+            int middle = (from + to) >>> 1;
+            if (sortedValues[middle] <= value) {
+                from = middle + 1;
+            } else {
+                to = middle;
+            }
+        }
+        return from;
+    }
+
+    /**
+     * @return the percentage of values less than or equal to the value of the column, NaN if it has no value
+     */
+    public double getPercentile(int column) {
+        int rank = ranksByColumn[column];
+        return rank == NO_RANK ? Double.NaN : ((double) rank / sortedValues.length) * 100;
+    }
+
+    public long getSizeInBytes() {
+        return 8L * sortedValues.length + 4L * ranksByColumn.length + 48;
+    }
+}
@@ -0,0 +1,60 @@
+package org.cbioportal.service.util;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Keeps the {@link EntityRankIndex} of recently used (profile, genetic entity) pairs, least recently used first out,
+ * within a fixed memory budget. An index is built from the values of a whole profile (see
+ * {@link MolecularProfileValuesCache}) or of some of its genes (see {@link MolecularProfileValuesLoader#loadGenes});
+ * both have the same samples, so the index of an entity is shared by them. All indexes are dropped when the
+ * genetic_alteration or genetic_profile_samples tables change, and the indexes of a study when it is cleared through
+ * the cache API.
+ */
+@Component
+public class EntityRankIndexCache implements InvalidatableCache {
+
+    private static final List<String> TABLES = Arrays.asList("genetic_alteration", "genetic_profile_samples");
+    private static final long BYTES_PER_MEGA_BYTE = 1024L * 1024L;
+
+    @Autowired
+    private InMemoryCacheInvalidator inMemoryCacheInvalidator;
+
+    @Value("${cache.entity_rank_index.max_mega_bytes:128}")
+    private long maxMegaBytes;
+
+    private final BudgetedLruCache<EntityRankIndex> entries = new BudgetedLruCache<>("ranks",
+        EntityRankIndex::getSizeInBytes, () -> maxMegaBytes * BYTES_PER_MEGA_BYTE);
+
+    @PostConstruct
+    public void registerForInvalidation() {
+        inMemoryCacheInvalidator.register(this, TABLES);
+    }
+
+    public EntityRankIndex get(MolecularProfileValues values, int row) {
+
+        inMemoryCacheInvalidator.checkForTableChanges();
+        return entries.get(values.getMolecularProfileId() + ":" + values.getStableId(row),
+            key -> new EntityRankIndex(values.getRowValues(row)));
+    }
+
+    @Override
+    public void clear() {
+        entries.clear();
+    }
+
+    // molecular profile ids start with the id of their study
+    @Override
+    public void clearStudy(String studyId) {
+        entries.invalidateIf(key -> key.startsWith(studyId + "_"));
+    }
+
+    public long getSizeInBytes() {
+        return entries.getSizeInBytes();
+    }
+}
@@ -0,0 +1,269 @@
+package org.cbioportal.service.util;
+
+import jakarta.annotation.PreDestroy;
+import org.apache.commons.math3.distribution.FDistribution;
+import org.apache.commons.math3.distribution.TDistribution;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Computes the per group mean and standard deviation of every row of a molecular profile, and the p-value of the
+ * difference between the groups (Welch's t-test for two groups, one-way ANOVA for more).
+ *
+ * The rows are split into chunks that are processed on a fork-join pool. Every chunk gathers the values of a group
+ * into a reused primitive buffer and computes the statistics in closed form, in the same order of operations as
+ * commons-math (StatUtils, TestUtils.tTest and OneWayAnova), so that the results are identical to it.
+ */
+@Component
+public class ExpressionEnrichmentCalculator {
+
+    private static final int MIN_ROWS_PER_CHUNK = 256;
+    private static final int CHUNKS_PER_THREAD = 4;
+    private static final double LOG2 = Math.log(2);
+
+    @Value("${multithread.core_pool_size:#{T(java.lang.Runtime).getRuntime().availableProcessors()}}")
+    private int parallelism;
+
+    private ForkJoinPool forkJoinPool;
+
+    /**
+     * @param groupColumns the columns of the samples in each group
+     * @param logTransform whether to transform values to log2(value + 1), with negative values set to 0 (RNA-seq)
+     * @return the statistics of all rows in which at least two groups have two or more values and the p-value is a
+     * number, in row order
+     */
+    public List<RowStatistics> computeStatistics(MolecularProfileValues values, int[][] groupColumns,
+                                                 boolean logTransform) {
+
+        Query query = new Query(values, groupColumns, logTransform);
+        int rowsPerChunk = Math.max(MIN_ROWS_PER_CHUNK,
+            values.getNumberOfRows() / (Math.max(1, parallelism) * CHUNKS_PER_THREAD) + 1);
+        return getForkJoinPool().invoke(new ChunkTask(query, 0, values.getNumberOfRows(), rowsPerChunk));
+    }
+
+    private synchronized ForkJoinPool getForkJoinPool() {
+        if (forkJoinPool == null) {
+            forkJoinPool = new ForkJoinPool(Math.max(1, parallelism));
+        }
+        return forkJoinPool;
+    }
+
+    @PreDestroy
+    public synchronized void shutdownForkJoinPool() {
+        if (forkJoinPool != null) {
+            forkJoinPool.shutdown();
+        }
+    }
+
+    private static List<RowStatistics> computeChunk(Query query, int fromRow, int toRow) {
+
+        int[][] groupColumns = query.groupColumns;
+        int numberOfGroups = groupColumns.length;
+        double[][] buffers = new double[numberOfGroups][];
+        for (int group = 0; group < numberOfGroups; group++) {
+            buffers[group] = new double[groupColumns[group].length];
+        }
+        int[] groups = new int[numberOfGroups];
+        int[] counts = new int[numberOfGroups];
+        double[] means = new double[numberOfGroups];
+        double[] variances = new double[numberOfGroups];
+        double[] standardDeviations = new double[numberOfGroups];
+        List<RowStatistics> results = new ArrayList<>();
+
+        for (int row = fromRow; row < toRow; row++) {
+            double[] rowValues = query.values.isDiscrete() ? null : query.values.getRowValues(row);
+            int included = 0;
+            for (int group = 0; group < numberOfGroups; group++) {
+                double[] buffer = buffers[group];
+                int count = 0;
+                for (int column : groupColumns[group]) {
+                    double value = rowValues != null ? rowValues[column] : query.values.getValue(row, column);
+                    if (!Double.isNaN(value)) {
+                        buffer[count++] = query.logTransform ? Math.log1p(value < 0 ? 0 : value) / LOG2 : value;
+                    }
+                }
+                // ignore group if there are less than 2 values
+                if (count < 2) {
+                    continue;
+                }
+                double mean = mean(buffer, count);
+                double variance = variance(buffer, count, mean);
+                double standardDeviation = Math.sqrt(variance);
+                // ignore if mean or standard deviation are not numbers
+                if (Double.isNaN(mean) || Double.isNaN(standardDeviation)) {
+                    continue;
+                }
+                groups[included] = group;
+                counts[included] = count;
+                means[included] = mean;
+                variances[included] = variance;
+                standardDeviations[included] = standardDeviation;
+                included++;
+            }
+            if (included < 2) {
+                continue;
+            }
+            double pValue = included == 2
+                ? tTest(means[0], means[1], variances[0], variances[1], counts[0], counts[1])
+                : anovaPValue(buffers, groups, counts, included);
+            if (Double.isNaN(pValue)) {
+                continue;
+            }
+            results.add(new RowStatistics(row, Arrays.copyOf(groups, included),
+                Arrays.copyOf(means, included), Arrays.copyOf(standardDeviations, included),
+                pValue));
+        }
+        return results;
+    }
+
+    // StatUtils.mean: the sum divided by n, corrected by the mean deviation
+    private static double mean(double[] values, int length) {
+        double sum = 0;
+        for (int i = 0; i < length; i++) {
+            sum += values[i];
+        }
+        double mean = sum / length;
+        double correction = 0;
+        for (int i = 0; i < length; i++) {
+            correction += values[i] - mean;
+        }
+        return mean + correction / length;
+    }
+
+    // StatUtils.variance: the bias corrected two-pass variance
+    private static double variance(double[] values, int length, double mean) {
+        double accum = 0;
+        double accum2 = 0;
+        for (int i = 0; i < length; i++) {
+            double deviation = values[i] - mean;
+            accum += deviation * deviation;
+            accum2 += deviation;
+        }
+        return (accum - (accum2 * accum2 / length)) / (length - 1);
+    }
+
+    // TTest.tTest(double[], double[]): Welch's t-test
+    private static double tTest(double m1, double m2, double v1, double v2, double n1, double n2) {
+        double t = Math.abs((m1 - m2) / Math.sqrt((v1 / n1) + (v2 / n2)));
+        double degreesOfFreedom = (((v1 / n1) + (v2 / n2)) * ((v1 / n1) + (v2 / n2))) /
+            ((v1 * v1) / (n1 * n1 * (n1 - 1d)) + (v2 * v2) / (n2 * n2 * (n2 - 1d)));
+        return 2.0 * new TDistribution(null, degreesOfFreedom).cumulativeProbability(-t);
+    }
+
+    // OneWayAnova.anovaPValue(Collection<double[]>)
+    private static double anovaPValue(double[][] buffers, int[] groups, int[] counts, int included) {
+        int dfwg = 0;
+        double sswg = 0;
+        double totsum = 0;
+        double totsumsq = 0;
+        int totnum = 0;
+        for (int i = 0; i < included; i++) {
+            double[] values = buffers[groups[i]];
+            double sum = 0;
+            double sumsq = 0;
+            for (int j = 0; j < counts[i]; j++) {
+                sum += values[j];
+                sumsq += values[j] * values[j];
+            }
+            int num = counts[i];
+            totnum += num;
+            totsum += sum;
+            totsumsq += sumsq;
+            dfwg += num - 1;
+            sswg += sumsq - ((sum * sum) / num);
+        }
+        double sst = totsumsq - ((totsum * totsum) / totnum);
+        double ssbg = sst - sswg;
+        int dfbg = included - 1;
+        double f = (ssbg / dfbg) / (sswg / dfwg);
+        return 1.0 - new FDistribution(null, dfbg, dfwg).cumulativeProbability(f);
+    }
+
+    public static class RowStatistics {
+
+        private final int row;
+        private final int[] groups;
+        private final double[] means;
+        private final double[] standardDeviations;
+        private final double pValue;
+
+        private RowStatistics(int row, int[] groups, double[] means, double[] standardDeviations, double pValue) {
+            this.row = row;
+            this.groups = groups;
+            this.means = means;
+            this.standardDeviations = standardDeviations;
+            this.pValue = pValue;
+        }
+
+        public int getRow() {
+            return row;
+        }
+
+        /**
+         * @return the indexes of the groups with statistics, in the order of the groupColumns
+         */
+        public int[] getGroups() {
+            return groups;
+        }
+
+        public double[] getMeans() {
+            return means;
+        }
+
+        public double[] getStandardDeviations() {
+            return standardDeviations;
+        }
+
+        public double getPValue() {
+            return pValue;
+        }
+    }
+
+    private static class Query {
+
+        private final MolecularProfileValues values;
+        private final int[][] groupColumns;
+        private final boolean logTransform;
+
+        private Query(MolecularProfileValues values, int[][] groupColumns, boolean logTransform) {
+            this.values = values;
+            this.groupColumns = groupColumns;
+            this.logTransform = logTransform;
+        }
+    }
+
+    private static class ChunkTask extends RecursiveTask<List<RowStatistics>> {
+
+        private final Query query;
+        private final int fromRow;
+        private final int toRow;
+        private final int rowsPerChunk;
+
+        private ChunkTask(Query query, int fromRow, int toRow, int rowsPerChunk) {
+            this.query = query;
+            this.fromRow = fromRow;
+            this.toRow = toRow;
+            this.rowsPerChunk = rowsPerChunk;
+        }
+
+        @Override
+        protected List<RowStatistics> compute() {
+            if (toRow - fromRow <= rowsPerChunk) {
+                return computeChunk(query, fromRow, toRow);
+            }
+            int middle = (fromRow + toRow) >>> 1;
+            ChunkTask left = new ChunkTask(query, fromRow, middle, rowsPerChunk);
+            left.fork();
+            List<RowStatistics> right = new ChunkTask(query, middle, toRow, rowsPerChunk).compute();
+            List<RowStatistics> results = left.join();
+            results.addAll(right);
+            return results;
+        }
+    }
+}
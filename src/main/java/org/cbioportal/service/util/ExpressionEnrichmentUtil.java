@@ -9,6 +9,7 @@ import java.util.Set;
 import java.util.List;
 import java.util.Map.Entry;
 import java.util.function.Function;
+import java.util.function.ToIntFunction;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -17,17 +18,16 @@ import org.cbioportal.model.ExpressionEnrichment;
 import org.cbioportal.model.GenericAssayEnrichment;
 import org.cbioportal.model.GenericAssayBinaryEnrichment;
 import org.cbioportal.model.GenericAssayCategoricalEnrichment;
-import org.cbioportal.model.GenericAssayMolecularAlteration;
 import org.cbioportal.model.GenomicEnrichment;
 import org.cbioportal.model.GroupStatistics;
 import org.cbioportal.model.GenericAssayCountSummary;
 import org.cbioportal.model.MolecularAlteration;
 import org.cbioportal.model.MolecularProfile;
+import org.cbioportal.model.MolecularProfile.MolecularAlterationType;
 import org.cbioportal.model.MolecularProfileCaseIdentifier;
 import org.cbioportal.model.MolecularProfileSamples;
 import org.cbioportal.model.Sample;
 import org.apache.commons.lang3.StringUtils;
-import org.apache.commons.lang3.math.NumberUtils;
 import org.apache.commons.math3.stat.StatUtils;
 import org.apache.commons.math3.stat.descriptive.DescriptiveStatistics;
 import org.apache.commons.math3.stat.inference.ChiSquareTest;
@@ -45,6 +45,10 @@ public class ExpressionEnrichmentUtil {
     private SampleService sampleService;
     @Autowired
     private MolecularDataRepository molecularDataRepository;
+    @Autowired
+    private MolecularProfileValuesCache molecularProfileValuesCache;
+    @Autowired
+    private ExpressionEnrichmentCalculator expressionEnrichmentCalculator;
 
     private static final double LOG2 = Math.log(2);
     private static final String RNA_SEQ = "rna_seq";
@@ -52,70 +56,54 @@ public class ExpressionEnrichmentUtil {
     private static final List<String> negTypeList = Arrays.asList("false", "no");
     private static final String ALTERED = "1";
     private static final String UNALTERED = "0";
-    public <T extends MolecularAlteration, S extends ExpressionEnrichment> List<S> getEnrichments(
-        MolecularProfile molecularProfile,
-        Map<String, List<MolecularProfileCaseIdentifier>> molecularProfileCaseSets, EnrichmentType enrichmentType,
-        Iterable<T> maItr) {
-        List<S> expressionEnrichments = new ArrayList<>();
-
-        Map<String, List<Integer>> groupIndicesMap = getGroupIndicesMap(molecularProfileCaseSets, enrichmentType,
-            molecularProfile);
-        for (MolecularAlteration ma : maItr) {
-            List<GroupStatistics> groupsStatistics = new ArrayList<GroupStatistics>();
-            // used for p-value calculation
-            List<double[]> groupedValues = new ArrayList<double[]>();
-
-            for (Entry<String, List<Integer>> group : groupIndicesMap.entrySet()) {
-
-                // get expression values to all the indices in the group
-                List<String> molecularDataValues = group.getValue().stream()
-                    .map(sampleIndex -> ma.getSplitValues()[sampleIndex])
-                    .filter(a -> NumberUtils.isNumber(a))
-                    .collect(Collectors.toList());
-
-                // ignore group if there are less than 2 values
-                if (molecularDataValues.size() < 2) {
-                    continue;
-                }
+    /**
+     * Computes the enrichments of a numerical profile from its decoded values (see MolecularProfileValuesCache),
+     * all genes/generic assay entities at once on primitive arrays (see ExpressionEnrichmentCalculator).
+     */
+    public <S extends ExpressionEnrichment> List<S> getEnrichments(MolecularProfile molecularProfile,
+        Map<String, List<MolecularProfileCaseIdentifier>> molecularProfileCaseSets, EnrichmentType enrichmentType) {
 
-                double[] values = getAlterationValues(molecularDataValues, molecularProfile.getStableId());
+        MolecularProfileValues profileValues = molecularProfileValuesCache.get(molecularProfile);
+        if (profileValues == null) {
+            return new ArrayList<>();
+        }
 
+        // the columns of the profile values follow genetic_profile_samples.ORDERED_SAMPLE_LIST
+        Map<String, List<Integer>> groupIndicesMap = getGroupIndicesMap(molecularProfileCaseSets, enrichmentType,
+            molecularProfile, profileValues::getColumn);
+        List<String> groupNames = new ArrayList<>(groupIndicesMap.keySet());
+        int[][] groupColumns = groupNames.stream()
+            .map(groupName -> groupIndicesMap.get(groupName).stream().mapToInt(Integer::intValue).toArray())
+            .toArray(int[][]::new);
+
+        List<ExpressionEnrichmentCalculator.RowStatistics> rowsStatistics = expressionEnrichmentCalculator
+            .computeStatistics(profileValues, groupColumns, molecularProfile.getStableId().contains(RNA_SEQ));
+
+        boolean genericAssay = molecularProfile.getMolecularAlterationType() == MolecularAlterationType.GENERIC_ASSAY;
+        List<S> expressionEnrichments = new ArrayList<>(rowsStatistics.size());
+        for (ExpressionEnrichmentCalculator.RowStatistics rowStatistics : rowsStatistics) {
+            List<GroupStatistics> groupsStatistics = new ArrayList<>(rowStatistics.getGroups().length);
+            for (int i = 0; i < rowStatistics.getGroups().length; i++) {
                 GroupStatistics groupStatistics = new GroupStatistics();
-                double alteredMean = StatUtils.mean(values);
-                double alteredStandardDeviation = calculateStandardDeviation(values);
-
-                // ignore if mean or standard deviation are not numbers
-                if (Double.isNaN(alteredMean) || Double.isNaN(alteredStandardDeviation)) {
-                    continue;
-                }
-
-                groupedValues.add(values);
-                groupStatistics.setName(group.getKey());
-                groupStatistics.setMeanExpression(BigDecimal.valueOf(alteredMean));
-                groupStatistics.setStandardDeviation(BigDecimal.valueOf(alteredStandardDeviation));
+                groupStatistics.setName(groupNames.get(rowStatistics.getGroups()[i]));
+                groupStatistics.setMeanExpression(BigDecimal.valueOf(rowStatistics.getMeans()[i]));
+                groupStatistics.setStandardDeviation(BigDecimal.valueOf(rowStatistics.getStandardDeviations()[i]));
                 groupsStatistics.add(groupStatistics);
             }
-
-            // calculate p-value and add enrichment if atleast 2 groups have data
-            if (groupsStatistics.size() > 1) {
-                double pValue = calculatePValue(groupedValues);
-                if (Double.isNaN(pValue)) {
-                    continue;
-                }
-                S expressionEnrichment = null;
-                if (ma instanceof GenericAssayMolecularAlteration) {
-                    GenericAssayEnrichment genericAssayEnrichment = new GenericAssayEnrichment();
-                    genericAssayEnrichment.setStableId(ma.getStableId());
-                    expressionEnrichment = (S) genericAssayEnrichment;
-                } else {
-                    GenomicEnrichment genomicEnrichment = new GenomicEnrichment();
-                    genomicEnrichment.setEntrezGeneId(Integer.valueOf(ma.getStableId()));
-                    expressionEnrichment = (S) genomicEnrichment;
-                }
-                expressionEnrichment.setpValue(BigDecimal.valueOf(pValue));
-                expressionEnrichment.setGroupsStatistics(groupsStatistics);
-                expressionEnrichments.add(expressionEnrichment);
+            String stableId = profileValues.getStableId(rowStatistics.getRow());
+            S expressionEnrichment = null;
+            if (genericAssay) {
+                GenericAssayEnrichment genericAssayEnrichment = new GenericAssayEnrichment();
+                genericAssayEnrichment.setStableId(stableId);
+                expressionEnrichment = (S) genericAssayEnrichment;
+            } else {
+                GenomicEnrichment genomicEnrichment = new GenomicEnrichment();
+                genomicEnrichment.setEntrezGeneId(Integer.valueOf(stableId));
+                expressionEnrichment = (S) genomicEnrichment;
             }
+            expressionEnrichment.setpValue(BigDecimal.valueOf(rowStatistics.getPValue()));
+            expressionEnrichment.setGroupsStatistics(groupsStatistics);
+            expressionEnrichments.add(expressionEnrichment);
         }
         return expressionEnrichments;
     }
@@ -353,6 +341,18 @@ public class ExpressionEnrichmentUtil {
         Map<Integer, Integer> internalSampleIdToIndexMap = IntStream.range(0, internalSampleIds.size()).boxed()
             .collect(Collectors.toMap(internalSampleIds::get, Function.identity()));
 
+        return getGroupIndicesMap(molecularProfileCaseSets, enrichmentType, molecularProfile,
+            internalSampleId -> internalSampleIdToIndexMap.getOrDefault(internalSampleId, -1));
+    }
+
+    /**
+     * @param internalSampleIdToIndex returns the index of a sample in the ORDERED_SAMPLE_LIST, or -1 if the sample
+     *                                is not profiled
+     */
+    private Map<String, List<Integer>> getGroupIndicesMap(
+        Map<String, List<MolecularProfileCaseIdentifier>> molecularProfileCaseSets, EnrichmentType enrichmentType,
+        MolecularProfile molecularProfile, ToIntFunction<Integer> internalSampleIdToIndex) {
+
         Map<String, List<Integer>> selectedCaseIdToInternalIdsMap = getCaseIdToInternalIdsMap(molecularProfileCaseSets,
             enrichmentType, molecularProfile);
 
@@ -370,8 +370,9 @@ public class ExpressionEnrichmentUtil {
 
                         // only consider samples which are profiled for the give molecular profile id
                         sampleInternalIds.forEach(sampleInternalId -> {
-                            if (internalSampleIdToIndexMap.containsKey(sampleInternalId)) {
-                                sampleIndices.add(internalSampleIdToIndexMap.get(sampleInternalId));
+                            int sampleIndex = internalSampleIdToIndex.applyAsInt(sampleInternalId);
+                            if (sampleIndex >= 0) {
+                                sampleIndices.add(sampleIndex);
                             }
                         });
                     }
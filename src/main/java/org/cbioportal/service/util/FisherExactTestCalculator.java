@@ -2,11 +2,34 @@ package org.cbioportal.service.util;
 
 import org.springframework.stereotype.Component;
 
-import java.math.BigDecimal;
+import java.util.Arrays;
 
 @Component
 public class FisherExactTestCalculator {
 
+    // log(n!) for n = 0 .. length - 1, shared by all tests and grown when a test needs a larger n
+    private static volatile double[] logFactorials = new double[] {0.0};
+
+    private static double[] getLogFactorials(int n) {
+
+        double[] f = logFactorials;
+        if (f.length > n) {
+            return f;
+        }
+        synchronized (FisherExactTestCalculator.class) {
+            f = logFactorials;
+            if (f.length <= n) {
+                double[] grown = Arrays.copyOf(f, Math.max(n + 1, f.length * 2));
+                for (int j = f.length; j < grown.length; j++) {
+                    grown[j] = grown[j - 1] + Math.log(j);
+                }
+                logFactorials = grown;
+                f = grown;
+            }
+        }
+        return f;
+    }
+
     private double getPValue(int a, int b, int c, int d, double[] f) {
         
         int n = a + b + c + d;
@@ -17,14 +40,8 @@ public class FisherExactTestCalculator {
     public double getCumulativePValue(int a, int b, int c, int d) {
         
         int min, i;
-        int n = a + b + c + d;
         double p = 0;
-        double[] f = new double[n + 1];
-        f[0] = 0.0;
-        
-        for (int j = 1; j <= n; j++) {
-            f[j] = f[j - 1] + Math.log(j);
-        }
+        double[] f = getLogFactorials(a + b + c + d);
 
         p += getPValue(a, b, c, d, f);
         if ((a * d) >= (b * c)) {
@@ -45,15 +62,30 @@ public class FisherExactTestCalculator {
     
     public double getTwoTailedPValue(int a, int b, int c, int d) {
 
-        int min, i;
-        int n = a + b + c + d;
-        double p = 0;
-        double[] f = new double[n + 1];
-        f[0] = 0.0;
+        return getTwoTailedPValue(a, b, c, d, getLogFactorials(a + b + c + d));
+    }
 
-        for (int j = 1; j <= n; j++) {
-            f[j] = f[j - 1] + Math.log(j);
+    /**
+     * Two-tailed p-values of many 2x2 tables at once, table i being (a[i], b[i], c[i], d[i]).
+     */
+    public double[] getTwoTailedPValues(int[] a, int[] b, int[] c, int[] d) {
+
+        int maxN = 0;
+        for (int i = 0; i < a.length; i++) {
+            maxN = Math.max(maxN, a[i] + b[i] + c[i] + d[i]);
+        }
+        double[] f = getLogFactorials(maxN);
+        double[] pValues = new double[a.length];
+        for (int i = 0; i < a.length; i++) {
+            pValues[i] = getTwoTailedPValue(a[i], b[i], c[i], d[i], f);
         }
+        return pValues;
+    }
+
+    private double getTwoTailedPValue(int a, int b, int c, int d, double[] f) {
+
+        int min, i;
+        double p = 0;
 
         double baseP = getPValue(a, b, c, d, f);
 //         in order for a table under consideration to have its p-value included
@@ -89,36 +121,22 @@ public class FisherExactTestCalculator {
         }
         return p;
     }
-    public BigDecimal[] calcqValue(BigDecimal[] pValuesInIncreasingOrder) {
-        BigDecimal cachedElement = BigDecimal.valueOf(0.0);
+
+    /**
+     * Benjamini-Hochberg adjusted p-values: q[i] = min over j >= i of p[j] * n / (j + 1).
+     */
+    public double[] calcqValue(double[] pValuesInIncreasingOrder) {
         int dataLength = pValuesInIncreasingOrder.length;
-        BigDecimal[]  reversedQValues = new BigDecimal[dataLength];
-
-        reverseValues(dataLength, pValuesInIncreasingOrder);
-
-        for (int i = 0; i < dataLength; i++) {
-            if (i > 0) {
-                BigDecimal calculatedValue = cachedElement.min(
-                    (pValuesInIncreasingOrder[i].multiply(new BigDecimal(dataLength))).divide(new BigDecimal(dataLength - i), BigDecimal.ROUND_HALF_UP)
-                );
-                cachedElement = calculatedValue;
-                reversedQValues[i] = calculatedValue;
-            } else {
-                cachedElement = pValuesInIncreasingOrder[i];
-                reversedQValues[i] = pValuesInIncreasingOrder[i];
-            }
+        double[] qValues = new double[dataLength];
+        if (dataLength == 0) {
+            return qValues;
         }
-
-        reverseValues(dataLength, reversedQValues);
-
-        return reversedQValues;
-    }
-
-    private void reverseValues(int dataLength, BigDecimal[]  reversedQValues) {
-        for (int i = 0; i < dataLength / 2; i++) {
-            BigDecimal temp = reversedQValues[i];
-            reversedQValues[i] = reversedQValues[dataLength - i - 1];
-            reversedQValues[dataLength - i - 1] = temp;
+        double cachedElement = pValuesInIncreasingOrder[dataLength - 1];
+        qValues[dataLength - 1] = cachedElement;
+        for (int i = dataLength - 2; i >= 0; i--) {
+            cachedElement = Math.min(cachedElement, pValuesInIncreasingOrder[i] * dataLength / (i + 1));
+            qValues[i] = cachedElement;
         }
+        return qValues;
     }
 }
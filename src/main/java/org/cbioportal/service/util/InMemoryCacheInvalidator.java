@@ -0,0 +1,129 @@
+package org.cbioportal.service.util;
+
+import org.cbioportal.model.TableTimestampPair;
+import org.cbioportal.persistence.StaticDataTimeStampRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Clears the registered {@link InvalidatableCache}s when the tables they are built from change, and when the portal
+ * caches are cleared through {@link org.cbioportal.service.CacheService} (e.g. by the importer or /api/cache).
+ *
+ * The update times of the tables are read from information_schema, for all caches in one query and at most once
+ * every <code>cache.in_memory.table_check_interval_seconds</code>, so a change is noticed with that delay.
+ */
+@Component
+public class InMemoryCacheInvalidator {
+
+    private static final Logger LOG = LoggerFactory.getLogger(InMemoryCacheInvalidator.class);
+
+    @Autowired
+    private StaticDataTimeStampRepository staticDataTimeStampRepository;
+
+    @Value("${cache.in_memory.table_check_interval_seconds:60}")
+    private long tableCheckIntervalSeconds;
+
+    private final List<Registration> registrations = new CopyOnWriteArrayList<>();
+    private final AtomicLong lastTableCheck = new AtomicLong(Long.MIN_VALUE);
+    private volatile boolean warnedAboutMissingTimestamps = false;
+
+    /**
+     * Clears the cache when one of the tables changes.
+     */
+    public void register(InvalidatableCache cache, List<String> tables) {
+        registrations.add(new Registration(cache, tables));
+    }
+
+    /**
+     * Clears the caches whose tables changed since the last check, unless the last check was less than
+     * <code>cache.in_memory.table_check_interval_seconds</code> ago. Only one thread checks at a time, concurrent
+     * callers return right away.
+     */
+    public void checkForTableChanges() {
+
+        long now = System.currentTimeMillis();
+        long lastCheck = lastTableCheck.get();
+        if ((lastCheck != Long.MIN_VALUE && now - lastCheck < TimeUnit.SECONDS.toMillis(tableCheckIntervalSeconds))
+            || !lastTableCheck.compareAndSet(lastCheck, now)) {
+            return;
+        }
+
+        Set<String> tables = new LinkedHashSet<>();
+        for (Registration registration : registrations) {
+            tables.addAll(registration.tables);
+        }
+        if (tables.isEmpty()) {
+            return;
+        }
+        Map<String, String> timestamps = new HashMap<>();
+        try {
+            for (TableTimestampPair tableTimestampPair : staticDataTimeStampRepository.getTimestamps(
+                new ArrayList<>(tables))) {
+                timestamps.put(tableTimestampPair.getTableName(), tableTimestampPair.getUpdateTime());
+            }
+        } catch (RuntimeException e) {
+            LOG.warn("Could not read the update times of " + tables + ", in-memory caches are not cleared", e);
+            return;
+        }
+        if (timestamps.isEmpty()) {
+            if (!warnedAboutMissingTimestamps) {
+                warnedAboutMissingTimestamps = true;
+                LOG.warn("The update times of " + tables + " are not available in information_schema (is "
+                    + "db.portal_db_name the name of the portal database?), in-memory caches are only cleared "
+                    + "through the cache API");
+            }
+            return;
+        }
+
+        for (Registration registration : registrations) {
+            Map<String, String> registrationTimestamps = new HashMap<>();
+            for (String table : registration.tables) {
+                registrationTimestamps.put(table, timestamps.get(table));
+            }
+            synchronized (registration) {
+                if (registration.timestamps != null && !registration.timestamps.equals(registrationTimestamps)) {
+                    LOG.debug("Tables " + registration.tables + " changed, clearing " + registration.cache);
+                    registration.cache.clear();
+                }
+                registration.timestamps = registrationTimestamps;
+            }
+        }
+    }
+
+    public void clearAll() {
+        for (Registration registration : registrations) {
+            registration.cache.clear();
+        }
+    }
+
+    public void clearStudy(String studyId) {
+        for (Registration registration : registrations) {
+            registration.cache.clearStudy(studyId);
+        }
+    }
+
+    private static class Registration {
+
+        private final InvalidatableCache cache;
+        private final List<String> tables;
+        private Map<String, String> timestamps;
+
+        private Registration(InvalidatableCache cache, List<String> tables) {
+            this.cache = cache;
+            this.tables = tables;
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package org.cbioportal.service.util;
+
+/**
+ * An in-memory cache of data read from the portal database, cleared by {@link InMemoryCacheInvalidator}.
+ */
+public interface InvalidatableCache {
+
+    void clear();
+
+    /**
+     * Drops the entries built from data of the study. Implementations may drop more entries than that.
+     */
+    void clearStudy(String studyId);
+}
@@ -0,0 +1,286 @@
+package org.cbioportal.service.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Answers keyword queries over items with a few short keys (gene symbols, sample and patient ids) the way the
+ * <code>LIKE '%term%'</code> queries of the mappers do: an item matches if, for every space separated term of the
+ * keyword, one of its keys contains the term, ignoring case. Matches are ranked like
+ * <code>ORDER BY CASE WHEN key LIKE 'keyword%' THEN 0 ELSE 1 END, key</code>, by their first key.
+ * <p>
+ * Items are kept sorted by their first key, so the items starting with the keyword form one range that is found by
+ * binary search. All n-grams of up to three characters of the keys point to the items, so terms of up to three
+ * characters are answered from the n-gram lists alone and longer terms are only checked against the items that have
+ * all of their trigrams.
+ */
+public class KeywordIndex<T> {
+
+    private static final int MAX_GRAM_LENGTH = 3;
+    private static final int[] EMPTY = new int[0];
+
+    private final List<T> items;
+    private final String[] lowerCaseRankingKeys;
+    private final String[][] lowerCaseKeys;
+    private final Map<Long, int[]> itemsByGram;
+    private final long sizeInBytes;
+
+    private KeywordIndex(List<T> items, String[][] keys) {
+        this.items = items;
+        lowerCaseRankingKeys = new String[items.size()];
+        lowerCaseKeys = new String[items.size()][];
+        Map<Long, List<Integer>> grams = new HashMap<>();
+        long size = 0;
+        for (int item = 0; item < items.size(); item++) {
+            lowerCaseRankingKeys[item] = keys[item][0].toLowerCase(Locale.ROOT);
+            lowerCaseKeys[item] = new String[keys[item].length];
+            Set<Long> itemGrams = new HashSet<>();
+            for (int key = 0; key < keys[item].length; key++) {
+                lowerCaseKeys[item][key] = keys[item][key].toLowerCase(Locale.ROOT);
+                itemGrams.addAll(getGrams(lowerCaseKeys[item][key], 1, MAX_GRAM_LENGTH));
+                size += 2L * (40 + 2L * keys[item][key].length());
+            }
+            for (long gram : itemGrams) {
+                // items are added in order, so the lists are sorted
+                grams.computeIfAbsent(gram, g -> new ArrayList<>()).add(item);
+            }
+        }
+        itemsByGram = new HashMap<>();
+        for (Map.Entry<Long, List<Integer>> gram : grams.entrySet()) {
+            itemsByGram.put(gram.getKey(), gram.getValue().stream().mapToInt(Integer::intValue).toArray());
+            size += 64 + 4L * gram.getValue().size();
+        }
+        sizeInBytes = size + 64L * items.size();
+    }
+
+    public int size() {
+        return items.size();
+    }
+
+    /**
+     * @return the matching items, in the order of the SQL query
+     */
+    public List<T> search(String keyword) {
+
+        int[] matches = null;
+        for (String term : keyword.toLowerCase(Locale.ROOT).split(" ")) {
+            if (term.isEmpty()) {
+                continue;
+            }
+            int[] termMatches = getItemsContaining(term);
+            matches = matches == null ? termMatches : intersect(matches, termMatches);
+            if (matches.length == 0) {
+                break;
+            }
+        }
+        if (matches == null) {
+            matches = new int[items.size()];
+            Arrays.setAll(matches, i -> i);
+        }
+
+        // items that start with the keyword come first, they are a range of the sorted items
+        String prefix = keyword.toLowerCase(Locale.ROOT);
+        int prefixStart = lowerBound(prefix);
+        int prefixEnd = prefixStart;
+        while (prefixEnd < items.size() && lowerCaseRankingKeys[prefixEnd].startsWith(prefix)) {
+            prefixEnd++;
+        }
+        List<T> result = new ArrayList<>(matches.length);
+        for (int item : matches) {
+            if (item >= prefixStart && item < prefixEnd) {
+                result.add(items.get(item));
+            }
+        }
+        for (int item : matches) {
+            if (item < prefixStart || item >= prefixEnd) {
+                result.add(items.get(item));
+            }
+        }
+        return result;
+    }
+
+    public long getSizeInBytes() {
+        return sizeInBytes;
+    }
+
+    /**
+     * The order of {@link #search(String)}, for merging the results of several indexes.
+     */
+    public static <T> Comparator<T> getRankingOrder(String keyword, Function<T, String> rankingKey) {
+
+        String prefix = keyword.toLowerCase(Locale.ROOT);
+        Comparator<String> order = Comparator
+            .<String>comparingInt(key -> key.toLowerCase(Locale.ROOT).startsWith(prefix) ? 0 : 1)
+            .thenComparing(key -> key.toLowerCase(Locale.ROOT))
+            .thenComparing(Comparator.naturalOrder());
+        return Comparator.comparing(rankingKey, order);
+    }
+
+    /**
+     * Merges the results of {@link #search(String)} of several indexes into one ranked list.
+     */
+    public static <T> List<T> merge(String keyword, List<List<T>> results, Function<T, String> rankingKey) {
+
+        if (results.size() == 1) {
+            return results.get(0);
+        }
+        Comparator<T> order = getRankingOrder(keyword, rankingKey);
+        // heads of the results, as {result, position}
+        PriorityQueue<int[]> heads = new PriorityQueue<>((head1, head2) -> {
+            int compare = order.compare(results.get(head1[0]).get(head1[1]), results.get(head2[0]).get(head2[1]));
+            return compare != 0 ? compare : Integer.compare(head1[0], head2[0]);
+        });
+        int total = 0;
+        for (int result = 0; result < results.size(); result++) {
+            total += results.get(result).size();
+            if (!results.get(result).isEmpty()) {
+                heads.add(new int[]{result, 0});
+            }
+        }
+        List<T> merged = new ArrayList<>(total);
+        while (!heads.isEmpty()) {
+            int[] head = heads.poll();
+            List<T> result = results.get(head[0]);
+            merged.add(result.get(head[1]));
+            if (++head[1] < result.size()) {
+                heads.add(head);
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * Applies the paging of the SQL query (<code>LIMIT pageSize OFFSET pageSize * pageNumber</code>) to a result.
+     */
+    public static <T> List<T> page(List<T> result, Integer pageSize, Integer pageNumber) {
+
+        if (pageSize == null || pageSize == 0) {
+            return result;
+        }
+        long offset = pageNumber == null ? 0 : (long) pageSize * pageNumber;
+        return result.subList((int) Math.min(offset, result.size()), (int) Math.min(offset + pageSize, result.size()));
+    }
+
+    private int[] getItemsContaining(String term) {
+
+        if (term.length() <= MAX_GRAM_LENGTH) {
+            return itemsByGram.getOrDefault(encode(term, 0, term.length()), EMPTY);
+        }
+        int[] candidates = null;
+        for (long trigram : getGrams(term, MAX_GRAM_LENGTH, MAX_GRAM_LENGTH)) {
+            int[] trigramItems = itemsByGram.getOrDefault(trigram, EMPTY);
+            candidates = candidates == null ? trigramItems : intersect(candidates, trigramItems);
+            if (candidates.length == 0) {
+                return candidates;
+            }
+        }
+        int[] result = new int[candidates.length];
+        int count = 0;
+        for (int item : candidates) {
+            for (String key : lowerCaseKeys[item]) {
+                if (key.contains(term)) {
+                    result[count++] = item;
+                    break;
+                }
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    private int lowerBound(String prefix) {
+
+        int low = 0;
+        int high = items.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (lowerCaseRankingKeys[middle].compareTo(prefix) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static Set<Long> getGrams(String value, int minLength, int maxLength) {
+
+        Set<Long> grams = new HashSet<>();
+        for (int length = minLength; length <= maxLength; length++) {
+            for (int i = 0; i + length <= value.length(); i++) {
+                grams.add(encode(value, i, length));
+            }
+        }
+        return grams;
+    }
+
+    private static long encode(String value, int start, int length) {
+
+        long gram = length;
+        for (int i = start; i < start + length; i++) {
+            gram = gram << 16 | value.charAt(i);
+        }
+        return gram;
+    }
+
+    private static int[] intersect(int[] sorted1, int[] sorted2) {
+
+        int[] result = new int[Math.min(sorted1.length, sorted2.length)];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < sorted1.length && j < sorted2.length) {
+            if (sorted1[i] < sorted2[j]) {
+                i++;
+            } else if (sorted1[i] > sorted2[j]) {
+                j++;
+            } else {
+                result[count++] = sorted1[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    /**
+     * Collects the items with their keys. The first key of an item ranks it.
+     */
+    public static class Builder<T> {
+
+        private final List<T> items = new ArrayList<>();
+        private final List<String[]> keys = new ArrayList<>();
+
+        public Builder<T> add(T item, String rankingKey, String... otherKeys) {
+
+            String[] itemKeys = new String[otherKeys.length + 1];
+            itemKeys[0] = rankingKey;
+            System.arraycopy(otherKeys, 0, itemKeys, 1, otherKeys.length);
+            items.add(item);
+            keys.add(itemKeys);
+            return this;
+        }
+
+        public KeywordIndex<T> build() {
+
+            Integer[] order = new Integer[items.size()];
+            Arrays.setAll(order, i -> i);
+            Arrays.sort(order, getRankingOrder("", (Integer item) -> keys.get(item)[0]));
+            List<T> sortedItems = new ArrayList<>(items.size());
+            String[][] sortedKeys = new String[items.size()][];
+            for (int i = 0; i < order.length; i++) {
+                sortedItems.add(items.get(order[i]));
+                sortedKeys[i] = keys.get(order[i]);
+            }
+            return new KeywordIndex<>(sortedItems, sortedKeys);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package org.cbioportal.service.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Decodes the comma separated genetic_alteration.VALUES column into primitive arrays without splitting it into
+ * a String[] first.
+ */
+public class MolecularAlterationDecoder {
+
+    public static final int MAX_DICTIONARY_SIZE = 256;
+
+    private MolecularAlterationDecoder() {}
+
+    /**
+     * Parses a single value. Empty, non-numeric (e.g. NA) and infinite values are returned as NaN, which matches
+     * the values that are skipped by NumberUtils.isCreatable based filtering.
+     */
+    public static double parseValue(String value) {
+        return parseValue(value, 0, value.length());
+    }
+
+    private static double parseValue(String values, int start, int end) {
+        // trim
+        while (start < end && values.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && values.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        if (start == end) {
+            return Double.NaN;
+        }
+        char first = values.charAt(start);
+        if (!(Character.isDigit(first) || first == '-' || first == '+' || first == '.')) {
+            return Double.NaN;
+        }
+        try {
+            double value = Double.parseDouble(values.substring(start, end));
+            return Double.isInfinite(value) ? Double.NaN : value;
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    /**
+     * Decodes the first {@code length} values. Missing trailing values are returned as NaN and any values
+     * beyond {@code length} (e.g. after a trailing comma) are ignored.
+     */
+    public static double[] decodeContinuous(String values, int length) {
+        double[] decoded = new double[length];
+        int start = 0;
+        int column = 0;
+        int valuesLength = values == null ? 0 : values.length();
+        while (column < length && start <= valuesLength) {
+            int end = values == null ? -1 : values.indexOf(',', start);
+            if (end < 0) {
+                end = valuesLength;
+            }
+            decoded[column++] = values == null ? Double.NaN : parseValue(values, start, end);
+            start = end + 1;
+        }
+        while (column < length) {
+            decoded[column++] = Double.NaN;
+        }
+        return decoded;
+    }
+
+    /**
+     * Dictionary encoder for discrete profiles. All rows of a profile share one dictionary of at most
+     * {@link #MAX_DICTIONARY_SIZE} distinct values.
+     */
+    public static class Dictionary {
+
+        private final Map<String, Byte> codes = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+
+        /**
+         * @return the encoded row, or null if the profile holds too many distinct values to be encoded
+         */
+        public byte[] encode(String commaSeparatedValues, int length) {
+            byte[] encoded = new byte[length];
+            int start = 0;
+            int column = 0;
+            int valuesLength = commaSeparatedValues == null ? 0 : commaSeparatedValues.length();
+            while (column < length) {
+                String value;
+                if (commaSeparatedValues == null || start > valuesLength) {
+                    value = "";
+                } else {
+                    int end = commaSeparatedValues.indexOf(',', start);
+                    if (end < 0) {
+                        end = valuesLength;
+                    }
+                    value = commaSeparatedValues.substring(start, end).trim();
+                    start = end + 1;
+                }
+                Byte code = codes.get(value);
+                if (code == null) {
+                    if (values.size() == MAX_DICTIONARY_SIZE) {
+                        return null;
+                    }
+                    code = (byte) values.size();
+                    codes.put(value, code);
+                    values.add(value);
+                }
+                encoded[column++] = code;
+            }
+            return encoded;
+        }
+
+        public List<String> getValues() {
+            return values;
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package org.cbioportal.service.util;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The genetic_alteration.VALUES of one molecular profile, decoded once into primitive arrays.
+ *
+ * Each row holds the values of one genetic entity (gene, gene set or generic assay entity) and each column
+ * corresponds to a sample, in the order of genetic_profile_samples.ORDERED_SAMPLE_LIST. Continuous profiles
+ * are stored as double[] rows in which NaN marks a missing or non-numeric value. Discrete profiles are
+ * dictionary-encoded into byte[] rows; {@link #getDictionary()} maps a code back to the original string.
+ */
+public class MolecularProfileValues {
+
+    private final String molecularProfileId;
+    private final int[] internalSampleIds;
+    private final Map<Integer, Integer> columnByInternalSampleId;
+    private final String[] stableIds;
+    private final Map<String, Integer> rowByStableId;
+    private final double[][] continuousRows;
+    private final byte[][] discreteRows;
+    private final String[] dictionary;
+    private final double[] dictionaryValues;
+
+    private MolecularProfileValues(String molecularProfileId, int[] internalSampleIds, String[] stableIds,
+                                   double[][] continuousRows, byte[][] discreteRows, String[] dictionary) {
+        this.molecularProfileId = molecularProfileId;
+        this.internalSampleIds = internalSampleIds;
+        this.stableIds = stableIds;
+        this.continuousRows = continuousRows;
+        this.discreteRows = discreteRows;
+        this.dictionary = dictionary;
+
+        columnByInternalSampleId = new HashMap<>(internalSampleIds.length * 2);
+        for (int column = 0; column < internalSampleIds.length; column++) {
+            columnByInternalSampleId.put(internalSampleIds[column], column);
+        }
+        rowByStableId = new HashMap<>(stableIds.length * 2);
+        for (int row = 0; row < stableIds.length; row++) {
+            rowByStableId.put(stableIds[row], row);
+        }
+        if (dictionary != null) {
+            dictionaryValues = new double[dictionary.length];
+            for (int code = 0; code < dictionary.length; code++) {
+                dictionaryValues[code] = MolecularAlterationDecoder.parseValue(dictionary[code]);
+            }
+        } else {
+            dictionaryValues = null;
+        }
+    }
+
+    public static MolecularProfileValues continuous(String molecularProfileId, int[] internalSampleIds,
+                                                    List<String> stableIds, List<double[]> rows) {
+        return new MolecularProfileValues(molecularProfileId, internalSampleIds, stableIds.toArray(new String[0]),
+            rows.toArray(new double[0][]), null, null);
+    }
+
+    public static MolecularProfileValues discrete(String molecularProfileId, int[] internalSampleIds,
+                                                  List<String> stableIds, List<byte[]> rows, List<String> dictionary) {
+        return new MolecularProfileValues(molecularProfileId, internalSampleIds, stableIds.toArray(new String[0]),
+            null, rows.toArray(new byte[0][]), dictionary.toArray(new String[0]));
+    }
+
+    public String getMolecularProfileId() {
+        return molecularProfileId;
+    }
+
+    public boolean isDiscrete() {
+        return discreteRows != null;
+    }
+
+    public int getNumberOfRows() {
+        return stableIds.length;
+    }
+
+    public int getNumberOfColumns() {
+        return internalSampleIds.length;
+    }
+
+    public int[] getInternalSampleIds() {
+        return internalSampleIds;
+    }
+
+    /**
+     * @return the column of the sample, or -1 if the sample is not part of the profile
+     */
+    public int getColumn(Integer internalSampleId) {
+        return columnByInternalSampleId.getOrDefault(internalSampleId, -1);
+    }
+
+    public String getStableId(int row) {
+        return stableIds[row];
+    }
+
+    /**
+     * @return the row of the genetic entity, or -1 if the profile has no values for it
+     */
+    public int getRow(String stableId) {
+        return rowByStableId.getOrDefault(stableId, -1);
+    }
+
+    public double getValue(int row, int column) {
+        if (continuousRows != null) {
+            return continuousRows[row][column];
+        }
+        return dictionaryValues[discreteRows[row][column] & 0xFF];
+    }
+
+    /**
+     * Returns the row as stored for continuous profiles, without copying it, and a decoded copy for discrete
+     * profiles. The returned array must not be modified.
+     */
+    public double[] getRowValues(int row) {
+        if (continuousRows != null) {
+            return continuousRows[row];
+        }
+        double[] values = new double[internalSampleIds.length];
+        byte[] codes = discreteRows[row];
+        for (int column = 0; column < codes.length; column++) {
+            values[column] = dictionaryValues[codes[column] & 0xFF];
+        }
+        return values;
+    }
+
+    /**
+     * Copies the values of a row at the given columns into {@code target}, which must be at least as long as
+     * {@code columns}.
+     */
+    public double[] gatherValues(int row, int[] columns, double[] target) {
+        for (int i = 0; i < columns.length; i++) {
+            target[i] = getValue(row, columns[i]);
+        }
+        return target;
+    }
+
+    public byte[] getCodes(int row) {
+        return discreteRows[row];
+    }
+
+    public List<String> getDictionary() {
+        return dictionary == null ? List.of() : Arrays.asList(dictionary);
+    }
+
+    /**
+     * @return an estimate of the heap taken by the decoded values
+     */
+    public long getSizeInBytes() {
+        long size = 4L * internalSampleIds.length;
+        if (continuousRows != null) {
+            size += (8L * internalSampleIds.length + 16) * continuousRows.length;
+        } else {
+            size += ((long) internalSampleIds.length + 16) * discreteRows.length;
+        }
+        // row and column lookup maps
+        size += 64L * (stableIds.length + internalSampleIds.length);
+        return size;
+    }
+}
@@ -0,0 +1,76 @@
+package org.cbioportal.service.util;
+
+import jakarta.annotation.PostConstruct;
+import org.cbioportal.model.MolecularProfile;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Keeps the decoded values of recently used molecular profiles in memory, least recently used first out, within
+ * a fixed memory budget. All entries are dropped when the genetic_alteration or genetic_profile_samples tables
+ * change (e.g. after a study has been (re)loaded), and the entries of a study when it is cleared through the cache API.
+ */
+@Component
+public class MolecularProfileValuesCache implements InvalidatableCache {
+
+    private static final List<String> TABLES = Arrays.asList("genetic_alteration", "genetic_profile_samples");
+    private static final long BYTES_PER_MEGA_BYTE = 1024L * 1024L;
+
+    @Autowired
+    private MolecularProfileValuesLoader molecularProfileValuesLoader;
+    @Autowired
+    private InMemoryCacheInvalidator inMemoryCacheInvalidator;
+
+    @Value("${cache.molecular_profile_values.max_mega_bytes:1024}")
+    private long maxMegaBytes;
+
+    private final BudgetedLruCache<MolecularProfileValues> entries = new BudgetedLruCache<>("values",
+        MolecularProfileValues::getSizeInBytes, () -> maxMegaBytes * BYTES_PER_MEGA_BYTE);
+
+    @PostConstruct
+    public void registerForInvalidation() {
+        inMemoryCacheInvalidator.register(this, TABLES);
+    }
+
+    /**
+     * @return the decoded values of the profile, or null if the profile has no samples
+     */
+    public MolecularProfileValues get(MolecularProfile molecularProfile) {
+
+        inMemoryCacheInvalidator.checkForTableChanges();
+        return entries.get(molecularProfile.getStableId(),
+            molecularProfileId -> molecularProfileValuesLoader.load(molecularProfile));
+    }
+
+    /**
+     * @return the decoded values of the profile if they are cached, without loading them otherwise
+     */
+    public MolecularProfileValues getIfPresent(MolecularProfile molecularProfile) {
+
+        inMemoryCacheInvalidator.checkForTableChanges();
+        return entries.getIfPresent(molecularProfile.getStableId());
+    }
+
+    public void invalidate(String molecularProfileId) {
+        entries.invalidate(molecularProfileId);
+    }
+
+    @Override
+    public void clear() {
+        entries.clear();
+    }
+
+    // molecular profile ids start with the id of their study
+    @Override
+    public void clearStudy(String studyId) {
+        entries.invalidateIf(molecularProfileId -> molecularProfileId.startsWith(studyId + "_"));
+    }
+
+    public long getSizeInBytes() {
+        return entries.getSizeInBytes();
+    }
+}
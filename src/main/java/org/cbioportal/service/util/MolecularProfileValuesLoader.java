@@ -0,0 +1,120 @@
+package org.cbioportal.service.util;
+
+import org.cbioportal.model.GeneMolecularAlteration;
+import org.cbioportal.model.MolecularAlteration;
+import org.cbioportal.model.MolecularProfile;
+import org.cbioportal.model.MolecularProfile.MolecularAlterationType;
+import org.cbioportal.model.MolecularProfileSamples;
+import org.cbioportal.persistence.MolecularDataRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+@Component
+public class MolecularProfileValuesLoader {
+
+    private static final Set<String> DICTIONARY_ENCODED_DATATYPES = Set.of("DISCRETE", "CATEGORICAL", "BINARY");
+
+    @Autowired
+    private MolecularDataRepository molecularDataRepository;
+
+    // A transaction is needed to stream the genetic_alteration records through a cursor.
+    @Transactional(readOnly = true)
+    public MolecularProfileValues load(MolecularProfile molecularProfile) {
+
+        String molecularProfileId = molecularProfile.getStableId();
+        MolecularProfileSamples molecularProfileSamples = molecularDataRepository
+            .getCommaSeparatedSampleIdsOfMolecularProfile(molecularProfileId);
+        if (molecularProfileSamples == null) {
+            return null;
+        }
+        int[] internalSampleIds = Arrays.stream(molecularProfileSamples.getSplitSampleIds())
+            .mapToInt(Integer::parseInt)
+            .toArray();
+
+        String datatype = molecularProfile.getDatatype();
+        if (datatype != null && DICTIONARY_ENCODED_DATATYPES.contains(datatype)) {
+            MolecularProfileValues discreteValues = loadDiscrete(molecularProfile, internalSampleIds);
+            if (discreteValues != null) {
+                return discreteValues;
+            }
+        }
+        return loadContinuous(molecularProfile, internalSampleIds);
+    }
+
+    /**
+     * Loads the values of the given genes only, as continuous values, for requests that need a few genes of a profile
+     * that is not cached.
+     *
+     * @return the decoded values of the genes, or null if the profile has no samples
+     */
+    public MolecularProfileValues loadGenes(MolecularProfile molecularProfile, List<Integer> entrezGeneIds) {
+
+        String molecularProfileId = molecularProfile.getStableId();
+        MolecularProfileSamples molecularProfileSamples = molecularDataRepository
+            .getCommaSeparatedSampleIdsOfMolecularProfile(molecularProfileId);
+        if (molecularProfileSamples == null) {
+            return null;
+        }
+        int[] internalSampleIds = Arrays.stream(molecularProfileSamples.getSplitSampleIds())
+            .mapToInt(Integer::parseInt)
+            .toArray();
+
+        List<String> stableIds = new ArrayList<>();
+        List<double[]> rows = new ArrayList<>();
+        for (GeneMolecularAlteration molecularAlteration : molecularDataRepository.getGeneMolecularAlterations(
+            molecularProfileId, entrezGeneIds, "SUMMARY")) {
+            stableIds.add(molecularAlteration.getStableId());
+            rows.add(MolecularAlterationDecoder.decodeContinuous(molecularAlteration.getValues(),
+                internalSampleIds.length));
+        }
+        return MolecularProfileValues.continuous(molecularProfileId, internalSampleIds, stableIds, rows);
+    }
+
+    private MolecularProfileValues loadContinuous(MolecularProfile molecularProfile, int[] internalSampleIds) {
+
+        List<String> stableIds = new ArrayList<>();
+        List<double[]> rows = new ArrayList<>();
+        for (MolecularAlteration molecularAlteration : getMolecularAlterations(molecularProfile)) {
+            stableIds.add(molecularAlteration.getStableId());
+            rows.add(MolecularAlterationDecoder.decodeContinuous(molecularAlteration.getValues(),
+                internalSampleIds.length));
+        }
+        return MolecularProfileValues.continuous(molecularProfile.getStableId(), internalSampleIds, stableIds, rows);
+    }
+
+    private MolecularProfileValues loadDiscrete(MolecularProfile molecularProfile, int[] internalSampleIds) {
+
+        MolecularAlterationDecoder.Dictionary dictionary = new MolecularAlterationDecoder.Dictionary();
+        List<String> stableIds = new ArrayList<>();
+        List<byte[]> rows = new ArrayList<>();
+        for (MolecularAlteration molecularAlteration : getMolecularAlterations(molecularProfile)) {
+            byte[] codes = dictionary.encode(molecularAlteration.getValues(), internalSampleIds.length);
+            if (codes == null) {
+                // too many distinct values, store as continuous instead
+                return null;
+            }
+            stableIds.add(molecularAlteration.getStableId());
+            rows.add(codes);
+        }
+        return MolecularProfileValues.discrete(molecularProfile.getStableId(), internalSampleIds, stableIds, rows,
+            dictionary.getValues());
+    }
+
+    private Iterable<? extends MolecularAlteration> getMolecularAlterations(MolecularProfile molecularProfile) {
+
+        String molecularProfileId = molecularProfile.getStableId();
+        if (molecularProfile.getMolecularAlterationType() == MolecularAlterationType.GENERIC_ASSAY) {
+            return molecularDataRepository.getGenericAssayMolecularAlterationsIterable(molecularProfileId, null,
+                "SUMMARY");
+        } else if (molecularProfile.getMolecularAlterationType() == MolecularAlterationType.GENESET_SCORE) {
+            return molecularDataRepository.getGenesetMolecularAlterations(molecularProfileId, null, "SUMMARY");
+        }
+        return molecularDataRepository.getGeneMolecularAlterationsIterableFast(molecularProfileId);
+    }
+}
@@ -10,6 +10,12 @@ import java.util.List;
 import com.mongodb.BasicDBObject;
 import org.apache.commons.codec.binary.Base64;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
 import org.cbioportal.web.parameter.VirtualStudy;
 import org.cbioportal.web.parameter.VirtualStudyData;
 import org.slf4j.Logger;
@@ -21,6 +27,7 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatusCode;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestTemplate;
 
@@ -38,6 +45,14 @@ public class SessionServiceRequestHandler {
     @Value("${session.service.password:}")
     private String sessionServicePassword;
 
+    @Value("${session.service.max_connections:20}")
+    private int maxConnections;
+
+    @Value("${session.service.timeout_ms:10000}")
+    private int timeoutMs;
+
+    private RestTemplate restTemplate;
+
     private Boolean isBasicAuthEnabled() {
         return isSessionServiceEnabled() && sessionServicePassword != null && !sessionServicePassword.equals("");
     }
@@ -63,11 +78,9 @@ public class SessionServiceRequestHandler {
 
     public String getSessionDataJson(SessionType type, String id) throws Exception {
 
-        RestTemplate restTemplate = new RestTemplate();
-
         // add basic authentication in header
         HttpEntity<String> headers = new HttpEntity<>(getHttpHeaders());
-        ResponseEntity<String> responseEntity = restTemplate.exchange(sessionServiceURL + type + "/" + id,
+        ResponseEntity<String> responseEntity = getRestTemplate().exchange(sessionServiceURL + type + "/" + id,
                 HttpMethod.GET, headers, String.class);
 
         return responseEntity.getBody();
@@ -79,7 +92,7 @@ public class SessionServiceRequestHandler {
      * @return virtual study
      */
     public VirtualStudy getVirtualStudyById(String id) {
-        ResponseEntity<VirtualStudy> responseEntity = new RestTemplate()
+        ResponseEntity<VirtualStudy> responseEntity = getRestTemplate()
             .exchange(sessionServiceURL + "/virtual_study/" + id,
                 HttpMethod.GET,
                 new HttpEntity<>(getHttpHeaders()),
@@ -103,7 +116,7 @@ public class SessionServiceRequestHandler {
     public List<VirtualStudy> getVirtualStudiesAccessibleToUser(String username) {
         BasicDBObject basicDBObject = new BasicDBObject();
         basicDBObject.put("data.users", username);
-        ResponseEntity<List<VirtualStudy>> responseEntity = new RestTemplate().exchange(
+        ResponseEntity<List<VirtualStudy>> responseEntity = getRestTemplate().exchange(
             sessionServiceURL + "/virtual_study/query/fetch",
             HttpMethod.POST,
             new HttpEntity<>(basicDBObject.toString(), getHttpHeaders()),
@@ -119,7 +132,7 @@ public class SessionServiceRequestHandler {
      * @return virtual study object with id and the virtualStudyData
      */
     public VirtualStudy createVirtualStudy(VirtualStudyData virtualStudyData) {
-        ResponseEntity<VirtualStudy> responseEntity = new RestTemplate().exchange(
+        ResponseEntity<VirtualStudy> responseEntity = getRestTemplate().exchange(
             sessionServiceURL + "/virtual_study",
             HttpMethod.POST,
             new HttpEntity<>(virtualStudyData, getHttpHeaders()),
@@ -146,8 +159,33 @@ public class SessionServiceRequestHandler {
      * @param virtualStudy - virtual study to update
      */
     public void updateVirtualStudy(VirtualStudy virtualStudy) {
-        new RestTemplate()
+        getRestTemplate()
             .put(sessionServiceURL + "/virtual_study/" + virtualStudy.getId(),
                 new HttpEntity<>(virtualStudy.getData(), getHttpHeaders()));
     }
+
+    /**
+     * @return a client that keeps up to session.service.max_connections connections to the session service alive,
+     * rather than connecting for every request
+     */
+    private synchronized RestTemplate getRestTemplate() {
+        if (restTemplate == null) {
+            Timeout timeout = Timeout.ofMilliseconds(timeoutMs);
+            HttpComponentsClientHttpRequestFactory requestFactory = new HttpComponentsClientHttpRequestFactory(
+                HttpClients.custom()
+                    .setConnectionManager(PoolingHttpClientConnectionManagerBuilder.create()
+                        .setMaxConnTotal(maxConnections)
+                        .setMaxConnPerRoute(maxConnections)
+                        .setDefaultConnectionConfig(ConnectionConfig.custom().setConnectTimeout(timeout).build())
+                        .build())
+                    .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(timeout)
+                        .setResponseTimeout(timeout)
+                        .build())
+                    .evictIdleConnections(TimeValue.ofMinutes(1))
+                    .build());
+            restTemplate = new RestTemplate(requestFactory);
+        }
+        return restTemplate;
+    }
 }
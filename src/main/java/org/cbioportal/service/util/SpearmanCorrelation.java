@@ -0,0 +1,104 @@
+package org.cbioportal.service.util;
+
+import org.apache.commons.math3.distribution.TDistribution;
+
+import java.util.Arrays;
+
+/**
+ * Spearman's rank correlation on primitive arrays. Gives the same results as commons-math
+ * SpearmansCorrelation (average ranks for ties) and the p-values of its rank correlation matrix, without
+ * building a RealMatrix for every pair of vectors.
+ */
+public class SpearmanCorrelation {
+
+    private SpearmanCorrelation() {}
+
+    /**
+     * Writes the average ranks (1-based) of the first {@code length} values into {@code ranks}.
+     * {@code sortBuffer} is scratch space of at least {@code length} elements; values must not be NaN.
+     */
+    public static double[] rank(double[] values, int length, double[] sortBuffer, double[] ranks) {
+        System.arraycopy(values, 0, sortBuffer, 0, length);
+        Arrays.sort(sortBuffer, 0, length);
+        for (int i = 0; i < length; i++) {
+            int first = lowerBound(sortBuffer, length, values[i]);
+            int last = upperBound(sortBuffer, first, length, values[i]);
+            // ranks first + 1 .. last are tied, each gets their average
+            ranks[i] = (first + 1 + last) / 2.0;
+        }
+        return ranks;
+    }
+
+    /**
+     * Pearson correlation of two rank vectors as produced by {@link #rank}, or NaN if one of them is constant.
+     */
+    public static double correlationOfRanks(double[] ranksX, double[] ranksY, int length) {
+        // the mean of 1..n is (n + 1) / 2, averaging tied ranks does not change it
+        double mean = (length + 1) / 2.0;
+        double sumXY = 0;
+        double sumXX = 0;
+        double sumYY = 0;
+        for (int i = 0; i < length; i++) {
+            double dx = ranksX[i] - mean;
+            double dy = ranksY[i] - mean;
+            sumXY += dx * dy;
+            sumXX += dx * dx;
+            sumYY += dy * dy;
+        }
+        if (sumXX == 0 || sumYY == 0) {
+            return Double.NaN;
+        }
+        double correlation = sumXY / Math.sqrt(sumXX * sumYY);
+        return Math.max(-1.0, Math.min(1.0, correlation));
+    }
+
+    /**
+     * Convenience method for two complete vectors of equal length without NaN values.
+     */
+    public static double correlation(double[] x, double[] y) {
+        int length = x.length;
+        double[] sortBuffer = new double[length];
+        double[] ranksX = rank(x, length, sortBuffer, new double[length]);
+        double[] ranksY = rank(y, length, sortBuffer, new double[length]);
+        return correlationOfRanks(ranksX, ranksY, length);
+    }
+
+    /**
+     * Two-sided p-value of a correlation over {@code length} observations, using the t distribution with
+     * {@code length - 2} degrees of freedom like PearsonsCorrelation.getCorrelationPValues does.
+     */
+    public static double pValue(double correlation, int length) {
+        double t = Math.abs(correlation * Math.sqrt((length - 2) / (1 - correlation * correlation)));
+        // no random generator needed, only the cumulative probability is used
+        TDistribution tDistribution = new TDistribution(null, length - 2);
+        return 2 * tDistribution.cumulativeProbability(-t);
+    }
+
+    private static int lowerBound(double[] sorted, int length, double value) {
+        int low = 0;
+        int high = length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (sorted[middle] < value) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static int upperBound(double[] sorted, int from, int length, double value) {
+        int low = from;
+        int high = length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (sorted[middle] <= value) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,86 @@
+package org.cbioportal.service.util;
+
+import org.cbioportal.model.Sample;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Keyword indexes over the sample and patient ids of one study, or of all studies. Both hold the samples (as loaded
+ * with the ID projection): the sample index is keyed by the sample id, the patient index by the patient id and then
+ * the sample id, as the patient keyword query also matches patients by the ids of their samples.
+ */
+public class StudyKeywordIndex {
+
+    private final String studyId;
+    private final KeywordIndex<Sample> samples;
+    private final KeywordIndex<Sample> patients;
+    private final long samplesSizeInBytes;
+
+    /**
+     * @param studyId the study of the samples, or null if they are the samples of all studies
+     */
+    public StudyKeywordIndex(String studyId, List<Sample> samples) {
+
+        this.studyId = studyId;
+        KeywordIndex.Builder<Sample> sampleIndex = new KeywordIndex.Builder<>();
+        KeywordIndex.Builder<Sample> patientIndex = new KeywordIndex.Builder<>();
+        long size = 0;
+        for (Sample sample : samples) {
+            sampleIndex.add(sample, sample.getStableId());
+            patientIndex.add(sample, sample.getPatientStableId(), sample.getStableId());
+            size += getSizeInBytes(sample);
+        }
+        this.samplesSizeInBytes = size;
+        this.samples = sampleIndex.build();
+        this.patients = patientIndex.build();
+    }
+
+    public String getStudyId() {
+        return studyId;
+    }
+
+    /**
+     * @return the samples whose id matches the keyword, ranked by sample id
+     */
+    public List<Sample> searchSamples(String keyword) {
+        return samples.search(keyword);
+    }
+
+    /**
+     * @return one sample per patient whose id, or the id of one of its samples, matches the keyword, ranked by
+     * patient id
+     */
+    public List<Sample> searchPatients(String keyword) {
+
+        List<Sample> result = new ArrayList<>();
+        // patients of different studies may have the same id
+        Set<List<String>> patientKeys = new HashSet<>();
+        for (Sample sample : patients.search(keyword)) {
+            if (patientKeys.add(Arrays.asList(sample.getCancerStudyIdentifier(), sample.getPatientStableId()))) {
+                result.add(sample);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return an estimate of the heap taken by the indexes and the samples they hold
+     */
+    public long getSizeInBytes() {
+        return samples.getSizeInBytes() + patients.getSizeInBytes() + samplesSizeInBytes;
+    }
+
+    // the object and the strings of the ID projection
+    private static long getSizeInBytes(Sample sample) {
+        return 64 + getSizeInBytes(sample.getStableId()) + getSizeInBytes(sample.getPatientStableId())
+            + getSizeInBytes(sample.getCancerStudyIdentifier());
+    }
+
+    private static long getSizeInBytes(String value) {
+        return value == null ? 0 : 40 + 2L * value.length();
+    }
+}
@@ -0,0 +1,97 @@
+package org.cbioportal.service.util;
+
+import jakarta.annotation.PostConstruct;
+import org.cbioportal.persistence.SampleRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the {@link StudyKeywordIndex} of recently used studies in memory, least recently used first out, within
+ * a fixed memory budget. Searches across all studies use one index of the samples of all studies, loaded with a single
+ * query, rather than the indexes of every study. All entries are dropped when the patient or sample tables change
+ * (e.g. after a study has been (re)loaded), and the entries of a study when it is cleared through the cache API.
+ */
+@Component
+public class StudyKeywordIndexCache implements InvalidatableCache {
+
+    private static final List<String> TABLES = Arrays.asList("patient", "sample");
+    private static final long BYTES_PER_MEGA_BYTE = 1024L * 1024L;
+    // study ids do not contain '*'
+    private static final String ALL_STUDIES = "*";
+
+    @Autowired
+    private SampleRepository sampleRepository;
+    @Autowired
+    private InMemoryCacheInvalidator inMemoryCacheInvalidator;
+
+    @Value("${cache.study_keyword_index.max_mega_bytes:128}")
+    private long maxMegaBytes;
+
+    private final BudgetedLruCache<StudyKeywordIndex> entries = new BudgetedLruCache<>("sample and patient ids",
+        StudyKeywordIndex::getSizeInBytes, () -> maxMegaBytes * BYTES_PER_MEGA_BYTE);
+    // set when the index of all studies was too large to be kept, until the tables change
+    private volatile boolean allStudiesExceedBudget = false;
+
+    @PostConstruct
+    public void registerForInvalidation() {
+        inMemoryCacheInvalidator.register(this, TABLES);
+    }
+
+    /**
+     * @return the indexes of the studies, in the order of the study ids
+     */
+    public List<StudyKeywordIndex> getAll(List<String> studyIds) {
+
+        inMemoryCacheInvalidator.checkForTableChanges();
+        List<StudyKeywordIndex> indexes = new ArrayList<>();
+        for (String studyId : studyIds.stream().distinct().collect(Collectors.toList())) {
+            indexes.add(entries.get(studyId, this::load));
+        }
+        return indexes;
+    }
+
+    /**
+     * @return the index of the samples of all studies, or null if it does not fit in the memory budget, in which case
+     * the search should be left to the database
+     */
+    public StudyKeywordIndex getAllStudies() {
+
+        inMemoryCacheInvalidator.checkForTableChanges();
+        if (allStudiesExceedBudget) {
+            return null;
+        }
+        StudyKeywordIndex index = entries.get(ALL_STUDIES, key -> new StudyKeywordIndex(null,
+            sampleRepository.getAllSamples(null, null, "ID", null, null, null, null)));
+        if (index.getSizeInBytes() > maxMegaBytes * BYTES_PER_MEGA_BYTE) {
+            // not kept by the cache, do not load it again for every search
+            allStudiesExceedBudget = true;
+        }
+        return index;
+    }
+
+    @Override
+    public void clear() {
+        allStudiesExceedBudget = false;
+        entries.clear();
+    }
+
+    @Override
+    public void clearStudy(String studyId) {
+        entries.invalidateIf(key -> key.equals(studyId) || key.equals(ALL_STUDIES));
+    }
+
+    public long getSizeInBytes() {
+        return entries.getSizeInBytes();
+    }
+
+    private StudyKeywordIndex load(String studyId) {
+        return new StudyKeywordIndex(studyId,
+            sampleRepository.getAllSamplesInStudy(studyId, "ID", null, null, null, null));
+    }
+}
@@ -111,6 +111,13 @@ public class CopyNumberSegmentController {
         @RequestBody(required = false) List<SampleIdentifier> sampleIdentifiers,
         @Parameter(description = "Chromosome")
         @RequestParam(required = false) String chromosome,
+        @Parameter(description = "Start position of the region that the segments overlap")
+        @RequestParam(required = false) Integer start,
+        @Parameter(description = "End position of the region that the segments overlap")
+        @RequestParam(required = false) Integer end,
+        @Parameter(description = "Adjacent segments of a sample are merged until they span this many bases")
+        @Min(1)
+        @RequestParam(required = false) Integer resolution,
         @Parameter(description = "Level of detail of the response")
         @RequestParam(defaultValue = "SUMMARY") Projection projection) {
 
@@ -122,7 +129,17 @@ public class CopyNumberSegmentController {
             sampleIds.add(sampleIdentifier.getSampleId());
         }
 
-        if (projection == Projection.META) {
+        if (start != null || end != null || resolution != null) {
+            // served from the in-memory segment index of each study
+            List<CopyNumberSeg> copyNumberSegs = copyNumberSegmentService.fetchCopyNumberSegmentsInRegion(studyIds,
+                sampleIds, chromosome, start, end, resolution, projection.name());
+            if (projection == Projection.META) {
+                HttpHeaders responseHeaders = new HttpHeaders();
+                responseHeaders.add(HeaderKeyConstants.TOTAL_COUNT, String.valueOf(copyNumberSegs.size()));
+                return new ResponseEntity<>(responseHeaders, HttpStatus.OK);
+            }
+            return new ResponseEntity<>(copyNumberSegs, HttpStatus.OK);
+        } else if (projection == Projection.META) {
             HttpHeaders responseHeaders = new HttpHeaders();
             responseHeaders.add(HeaderKeyConstants.TOTAL_COUNT, copyNumberSegmentService
                 .fetchMetaCopyNumberSegments(studyIds, sampleIds, chromosome).getTotalCount().toString());
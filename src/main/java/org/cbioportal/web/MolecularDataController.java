@@ -7,19 +7,28 @@ import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import org.apache.commons.lang3.math.NumberUtils;
 import org.cbioportal.model.GeneMolecularData;
+import org.cbioportal.model.MolecularDataKey;
 import org.cbioportal.model.NumericGeneMolecularData;
 import org.cbioportal.service.MolecularDataService;
+import org.cbioportal.service.exception.InvalidContinuationTokenException;
 import org.cbioportal.service.exception.MolecularProfileNotFoundException;
+import org.cbioportal.service.exception.UnsupportedProjectionException;
 import org.cbioportal.web.config.PublicApiTags;
 import org.cbioportal.web.config.annotation.PublicApi;
 import org.cbioportal.web.parameter.HeaderKeyConstants;
 import org.cbioportal.web.parameter.MolecularDataFilter;
 import org.cbioportal.web.parameter.MolecularDataMultipleStudyFilter;
+import org.cbioportal.web.parameter.PagingConstants;
 import org.cbioportal.web.parameter.Projection;
 import org.cbioportal.web.parameter.SampleMolecularIdentifier;
+import org.cbioportal.web.util.ContinuationTokenUtil;
+import org.cbioportal.web.util.ExportStreamingUtil;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
@@ -30,10 +39,12 @@ import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestAttribute;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
@@ -41,6 +52,8 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 
+import static org.cbioportal.utils.Encoder.calculateBase64;
+
 @PublicApi
 @RestController()
 @RequestMapping("/api")
@@ -50,6 +63,8 @@ public class MolecularDataController {
 
     @Autowired
     private MolecularDataService molecularDataService;
+    @Autowired
+    private ObjectMapper objectMapper;
 
     @PreAuthorize("hasPermission(#molecularProfileId, 'MolecularProfileId', T(org.cbioportal.utils.security.AccessLevel).READ)")
     @RequestMapping(value = "/molecular-profiles/{molecularProfileId}/molecular-data", method = RequestMethod.GET,
@@ -152,6 +167,74 @@ public class MolecularDataController {
         }
     }
 
+    @PreAuthorize("hasPermission(#involvedCancerStudies, 'Collection<CancerStudyId>', T(org.cbioportal.utils.security.AccessLevel).READ)")
+    @RequestMapping(value = "/molecular-data/export", method = RequestMethod.POST,
+        consumes = MediaType.APPLICATION_JSON_VALUE,
+        produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    @Operation(description = "Export molecular data in multiple molecular profiles, in pages of genes that are " +
+        "streamed as newline delimited JSON (one value per line, then the continuation token, if any) or as JSON")
+    @ApiResponse(responseCode = "200", description = "OK",
+        content = @Content(array = @ArraySchema(schema = @Schema(implementation = NumericGeneMolecularData.class))))
+    public ResponseEntity<StreamingResponseBody> exportMolecularDataInMultipleMolecularProfiles(
+        @Parameter(hidden = true) // prevent reference to this attribute in the swagger-ui interface
+        @RequestAttribute(required = false, value = "involvedCancerStudies") Collection<String> involvedCancerStudies,
+        @Parameter(hidden = true) // prevent reference to this attribute in the swagger-ui interface. this attribute is needed for the @PreAuthorize tag above.
+        @Valid @RequestAttribute(required = false, value = "interceptedMolecularDataMultipleStudyFilter") MolecularDataMultipleStudyFilter interceptedMolecularDataMultipleStudyFilter,
+        @Parameter(required = true, description = "List of Molecular Profile ID and Sample ID pairs or List of Molecular" +
+            "Profile IDs and Entrez Gene IDs")
+        @Valid @RequestBody(required = false) MolecularDataMultipleStudyFilter molecularDataMultipleStudyFilter,
+        @Parameter(description = "Level of detail of the response, ID, SUMMARY or DETAILED")
+        @RequestParam(defaultValue = "SUMMARY") Projection projection,
+        @Parameter(description = "Number of gene rows per page, a row being the values of a gene in a molecular profile")
+        @Max(PagingConstants.MAX_PAGE_SIZE)
+        @Min(PagingConstants.MIN_PAGE_SIZE)
+        @RequestParam(defaultValue = PagingConstants.DEFAULT_MOLECULAR_DATA_EXPORT_PAGE_SIZE) Integer pageSize,
+        @Parameter(description = "Continuation token of the previous page, to get the page after it")
+        @RequestParam(required = false) String continuationToken,
+        @Parameter(hidden = true)
+        @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept)
+        throws InvalidContinuationTokenException, UnsupportedProjectionException {
+
+        // an export has no total, the count of /molecular-data/fetch with projection META is the count of all its pages
+        if (projection == Projection.META) {
+            throw new UnsupportedProjectionException(projection.name());
+        }
+        MolecularDataKey after = continuationToken == null ? null :
+            ContinuationTokenUtil.decodeMolecularDataKey(continuationToken);
+        List<String> molecularProfileIds = new ArrayList<>();
+        List<String> sampleIds = null;
+        if (interceptedMolecularDataMultipleStudyFilter.getMolecularProfileIds() != null) {
+            molecularProfileIds.addAll(interceptedMolecularDataMultipleStudyFilter.getMolecularProfileIds());
+        } else {
+            sampleIds = new ArrayList<>();
+            extractMolecularProfileAndSampleIds(interceptedMolecularDataMultipleStudyFilter, molecularProfileIds, sampleIds);
+        }
+        List<Integer> entrezGeneIds = interceptedMolecularDataMultipleStudyFilter.getEntrezGeneIds();
+        List<String> finalSampleIds = sampleIds;
+        boolean ndjson = ExportStreamingUtil.acceptsNdjson(accept);
+
+        StreamingResponseBody body = ExportStreamingUtil.stream(objectMapper, NumericGeneMolecularData.class,
+            "molecularData", ndjson, consumer -> {
+                MolecularDataKey next = molecularDataService.exportMolecularDataInMultipleMolecularProfiles(
+                    molecularProfileIds, finalSampleIds, entrezGeneIds, projection.name(), after, pageSize,
+                    molecularData -> {
+                        NumericGeneMolecularData numericMolecularData = toNumericMolecularData(molecularData);
+                        if (numericMolecularData != null) {
+                            numericMolecularData.setUniqueSampleKey(calculateBase64(
+                                numericMolecularData.getSampleId(), numericMolecularData.getStudyId()));
+                            numericMolecularData.setUniquePatientKey(calculateBase64(
+                                numericMolecularData.getPatientId(), numericMolecularData.getStudyId()));
+                            consumer.accept(numericMolecularData);
+                        }
+                    });
+                return next == null ? null : ContinuationTokenUtil.encode(next);
+            });
+
+        return ResponseEntity.ok()
+            .contentType(ndjson ? MediaType.APPLICATION_NDJSON : MediaType.APPLICATION_JSON)
+            .body(body);
+    }
+
     private void extractMolecularProfileAndSampleIds(MolecularDataMultipleStudyFilter molecularDataMultipleStudyFilter,
                                                      List<String> molecularProfileIds, List<String> sampleIds) {
 
@@ -167,20 +250,30 @@ public class MolecularDataController {
 
         List<NumericGeneMolecularData> result = new ArrayList<>();
         geneMolecularDataList.forEach(g -> {
-            String value = g.getValue();
-            if (NumberUtils.isNumber(value)) {
-                NumericGeneMolecularData data = new NumericGeneMolecularData();
-                data.setEntrezGeneId(g.getEntrezGeneId());
-                data.setGene(g.getGene());
-                data.setMolecularProfileId(g.getMolecularProfileId());
-                data.setPatientId(g.getPatientId());
-                data.setSampleId(g.getSampleId());
-                data.setStudyId(g.getStudyId());
-                data.setValue(new BigDecimal(g.getValue()));
+            NumericGeneMolecularData data = toNumericMolecularData(g);
+            if (data != null) {
                 result.add(data);
             }
         });
 
         return result;
     }
+
+    // null if the value is not a number
+    private NumericGeneMolecularData toNumericMolecularData(GeneMolecularData g) {
+
+        String value = g.getValue();
+        if (!NumberUtils.isNumber(value)) {
+            return null;
+        }
+        NumericGeneMolecularData data = new NumericGeneMolecularData();
+        data.setEntrezGeneId(g.getEntrezGeneId());
+        data.setGene(g.getGene());
+        data.setMolecularProfileId(g.getMolecularProfileId());
+        data.setPatientId(g.getPatientId());
+        data.setSampleId(g.getSampleId());
+        data.setStudyId(g.getStudyId());
+        data.setValue(new BigDecimal(g.getValue()));
+        return data;
+    }
 }
@@ -1,5 +1,6 @@
 package org.cbioportal.web;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.ArraySchema;
@@ -11,9 +12,12 @@ import jakarta.validation.Valid;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import org.cbioportal.model.Mutation;
+import org.cbioportal.model.MutationKey;
 import org.cbioportal.model.meta.MutationMeta;
 import org.cbioportal.service.MutationService;
+import org.cbioportal.service.exception.InvalidContinuationTokenException;
 import org.cbioportal.service.exception.MolecularProfileNotFoundException;
+import org.cbioportal.service.exception.UnsupportedProjectionException;
 import org.cbioportal.web.config.PublicApiTags;
 import org.cbioportal.web.config.annotation.PublicApi;
 import org.cbioportal.web.parameter.Direction;
@@ -24,6 +28,8 @@ import org.cbioportal.web.parameter.PagingConstants;
 import org.cbioportal.web.parameter.Projection;
 import org.cbioportal.web.parameter.SampleMolecularIdentifier;
 import org.cbioportal.web.parameter.sort.MutationSortBy;
+import org.cbioportal.web.util.ContinuationTokenUtil;
+import org.cbioportal.web.util.ExportStreamingUtil;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
@@ -34,16 +40,20 @@ import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestAttribute;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 
+import static org.cbioportal.utils.Encoder.calculateBase64;
+
 @PublicApi
 @RestController()
 @RequestMapping("/api")
@@ -53,6 +63,8 @@ public class MutationController {
 
     @Autowired
     private MutationService mutationService;
+    @Autowired
+    private ObjectMapper objectMapper;
 
     @PreAuthorize("hasPermission(#molecularProfileId, 'MolecularProfileId', T(org.cbioportal.utils.security.AccessLevel).READ)")
     @RequestMapping(value = "/molecular-profiles/{molecularProfileId}/mutations", method = RequestMethod.GET,
@@ -219,6 +231,68 @@ public class MutationController {
         }
     }
 
+    @PreAuthorize("hasPermission(#involvedCancerStudies, 'Collection<CancerStudyId>', T(org.cbioportal.utils.security.AccessLevel).READ)")
+    @RequestMapping(value = "/mutations/export", method = RequestMethod.POST,
+        consumes = MediaType.APPLICATION_JSON_VALUE,
+        produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    @Operation(description = "Export mutations in multiple molecular profiles by sample IDs, in pages that are " +
+        "streamed as newline delimited JSON (one mutation per line, then the continuation token, if any) or as JSON")
+    @ApiResponse(responseCode = "200", description = "OK",
+        content = @Content(array = @ArraySchema(schema = @Schema(implementation = Mutation.class))))
+    public ResponseEntity<StreamingResponseBody> exportMutationsInMultipleMolecularProfiles(
+        @Parameter(hidden = true) // prevent reference to this attribute in the swagger-ui interface
+        @RequestAttribute(required = false, value = "involvedCancerStudies") Collection<String> involvedCancerStudies,
+        @Parameter(hidden = true) // prevent reference to this attribute in the swagger-ui interface. this attribute is needed for the @PreAuthorize tag above.
+        @Valid @RequestAttribute(required = false, value = "interceptedMutationMultipleStudyFilter") MutationMultipleStudyFilter interceptedMutationMultipleStudyFilter,
+        @Parameter(required = true, description = "List of Molecular Profile IDs or List of Molecular Profile ID / Sample ID pairs," +
+            " and List of Entrez Gene IDs")
+        @Valid @RequestBody(required = false) MutationMultipleStudyFilter mutationMultipleStudyFilter,
+        @Parameter(description = "Level of detail of the response, ID, SUMMARY or DETAILED")
+        @RequestParam(defaultValue = "SUMMARY") Projection projection,
+        @Parameter(description = "Number of mutations per page")
+        @Max(PagingConstants.MAX_PAGE_SIZE)
+        @Min(PagingConstants.MIN_PAGE_SIZE)
+        @RequestParam(defaultValue = PagingConstants.DEFAULT_EXPORT_PAGE_SIZE) Integer pageSize,
+        @Parameter(description = "Continuation token of the previous page, to get the page after it")
+        @RequestParam(required = false) String continuationToken,
+        @Parameter(hidden = true)
+        @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept)
+        throws InvalidContinuationTokenException, UnsupportedProjectionException {
+
+        // an export has no total, the count of /mutations/fetch with projection META is the count of all its pages
+        if (projection == Projection.META) {
+            throw new UnsupportedProjectionException(projection.name());
+        }
+        MutationKey after = continuationToken == null ? null :
+            ContinuationTokenUtil.decodeMutationKey(continuationToken);
+        List<String> molecularProfileIds = new ArrayList<>();
+        List<String> sampleIds = null;
+        if (interceptedMutationMultipleStudyFilter.getMolecularProfileIds() != null) {
+            molecularProfileIds.addAll(interceptedMutationMultipleStudyFilter.getMolecularProfileIds());
+        } else {
+            sampleIds = new ArrayList<>();
+            extractMolecularProfileAndSampleIds(interceptedMutationMultipleStudyFilter, molecularProfileIds, sampleIds);
+        }
+        List<Integer> entrezGeneIds = interceptedMutationMultipleStudyFilter.getEntrezGeneIds();
+        List<String> finalSampleIds = sampleIds;
+        boolean ndjson = ExportStreamingUtil.acceptsNdjson(accept);
+
+        StreamingResponseBody body = ExportStreamingUtil.stream(objectMapper, Mutation.class, "mutations", ndjson,
+            consumer -> {
+                MutationKey next = mutationService.exportMutationsInMultipleMolecularProfiles(molecularProfileIds,
+                    finalSampleIds, entrezGeneIds, projection.name(), after, pageSize, mutation -> {
+                        mutation.setUniqueSampleKey(calculateBase64(mutation.getSampleId(), mutation.getStudyId()));
+                        mutation.setUniquePatientKey(calculateBase64(mutation.getPatientId(), mutation.getStudyId()));
+                        consumer.accept(mutation);
+                    });
+                return next == null ? null : ContinuationTokenUtil.encode(next);
+            });
+
+        return ResponseEntity.ok()
+            .contentType(ndjson ? MediaType.APPLICATION_NDJSON : MediaType.APPLICATION_JSON)
+            .body(body);
+    }
+
     private void extractMolecularProfileAndSampleIds(MutationMultipleStudyFilter mutationMultipleStudyFilter,
                                                      List<String> molecularProfileIds, List<String> sampleIds) {
 
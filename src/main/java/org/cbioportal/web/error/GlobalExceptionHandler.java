@@ -101,6 +101,18 @@ public class GlobalExceptionHandler {
             HttpStatus.NOT_FOUND);
     }
 
+    @ExceptionHandler(InvalidContinuationTokenException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidContinuationToken(InvalidContinuationTokenException ex) {
+        return new ResponseEntity<>(new ErrorResponse("Invalid continuation token: " + ex.getContinuationToken()),
+            HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(UnsupportedProjectionException.class)
+    public ResponseEntity<ErrorResponse> handleUnsupportedProjection(UnsupportedProjectionException ex) {
+        return new ResponseEntity<>(new ErrorResponse("Projection is not supported: " + ex.getProjection()),
+            HttpStatus.BAD_REQUEST);
+    }
+
     @ExceptionHandler(MissingServletRequestParameterException.class)
     public ResponseEntity<ErrorResponse> handleMissingServletRequestParameter(
             MissingServletRequestParameterException ex) {
@@ -5,6 +5,10 @@ public class PagingConstants {
     public static final String DEFAULT_PAGE_SIZE = "10000000";
     public static final int MAX_PAGE_SIZE = 10000000;
     public static final int MIN_PAGE_SIZE = 1;
+
+    public static final String DEFAULT_EXPORT_PAGE_SIZE = "100000";
+    // in gene rows, each of which holds the values of all samples of a molecular profile
+    public static final String DEFAULT_MOLECULAR_DATA_EXPORT_PAGE_SIZE = "100";
     
     public static final String DEFAULT_NO_PAGING_PAGE_SIZE = "0";
     public static final int NO_PAGING_PAGE_SIZE = 0;
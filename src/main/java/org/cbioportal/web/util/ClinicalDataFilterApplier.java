@@ -11,7 +11,6 @@ import org.cbioportal.service.ClinicalDataService;
 import org.cbioportal.service.PatientService;
 import org.cbioportal.web.parameter.ClinicalDataFilter;
 import org.cbioportal.web.parameter.Projection;
-import org.cbioportal.web.parameter.SampleIdentifier;
 
 public abstract class ClinicalDataFilterApplier implements DataFilterApplier<ClinicalDataFilter> {
     private PatientService patientService;
@@ -29,16 +28,16 @@ public abstract class ClinicalDataFilterApplier implements DataFilterApplier<Cli
     }
 
     @Override
-    public List<SampleIdentifier> apply(
-        List<SampleIdentifier> sampleIdentifiers,
+    public SampleBitSet apply(
+        SampleBitSet samples,
         List<ClinicalDataFilter> clinicalDataFilters,
         boolean negateFilters
     ) {
-        if (!clinicalDataFilters.isEmpty() && !sampleIdentifiers.isEmpty()) {
+        if (!clinicalDataFilters.isEmpty() && !samples.isEmpty()) {
             List<String> studyIds = new ArrayList<>();
             List<String> sampleIds = new ArrayList<>();
             
-            studyViewFilterUtil.extractStudyAndSampleIds(sampleIdentifiers, studyIds, sampleIds);
+            studyViewFilterUtil.extractStudyAndSampleIds(samples, studyIds, sampleIds);
 
             List<Patient> patients = patientService.getPatientsOfSamples(studyIds, sampleIds);
             List<String> patientIds = patients.stream().map(Patient::getStableId).collect(Collectors.toList());
@@ -70,19 +69,10 @@ public abstract class ClinicalDataFilterApplier implements DataFilterApplier<Cli
                         clinicalData.getAttrValue());
             }
 
-            List<SampleIdentifier> newSampleIdentifiers = new ArrayList<>();
-            sampleIdentifiers.forEach(sampleIdentifier -> {
-                int count = apply(clinicalDataFilters, clinicalDataMap, sampleIdentifier.getSampleId(),
-                        sampleIdentifier.getStudyId(), negateFilters);
-
-                if (count == clinicalDataFilters.size()) {
-                    newSampleIdentifiers.add(sampleIdentifier);
-                }
-            });
-
-            return newSampleIdentifiers;
+            samples.retainIf(sampleIdentifier -> apply(clinicalDataFilters, clinicalDataMap,
+                sampleIdentifier.getSampleId(), sampleIdentifier.getStudyId(), negateFilters) == clinicalDataFilters.size());
         }
-        return sampleIdentifiers;
+        return samples;
     }
 
     // Must be overridden by child classes
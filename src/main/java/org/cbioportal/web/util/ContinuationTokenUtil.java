@@ -0,0 +1,69 @@
+package org.cbioportal.web.util;
+
+import org.cbioportal.model.MolecularDataKey;
+import org.cbioportal.model.MutationKey;
+import org.cbioportal.service.exception.InvalidContinuationTokenException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Encodes the key of the last exported row into the opaque token that clients pass back to resume an export.
+ */
+public class ContinuationTokenUtil {
+
+    // the version changes with the fields of the key, so that tokens of an older key are rejected
+    private static final String MUTATION_KEY_VERSION = "m2";
+    private static final String MOLECULAR_DATA_KEY_VERSION = "d1";
+    private static final String DELIMITER = ":";
+
+    private ContinuationTokenUtil() {}
+
+    public static String encode(MutationKey key) {
+        return encode(MUTATION_KEY_VERSION, key.getMolecularProfileInternalId(), key.getSampleInternalId(),
+            key.getMutationEventId());
+    }
+
+    public static String encode(MolecularDataKey key) {
+        return encode(MOLECULAR_DATA_KEY_VERSION, key.getMolecularProfileInternalId(), key.getGeneticEntityId());
+    }
+
+    public static MutationKey decodeMutationKey(String continuationToken) throws InvalidContinuationTokenException {
+        Integer[] ids = decode(continuationToken, MUTATION_KEY_VERSION, 3);
+        return new MutationKey(ids[0], ids[1], ids[2]);
+    }
+
+    public static MolecularDataKey decodeMolecularDataKey(String continuationToken)
+        throws InvalidContinuationTokenException {
+        Integer[] ids = decode(continuationToken, MOLECULAR_DATA_KEY_VERSION, 2);
+        return new MolecularDataKey(ids[0], ids[1]);
+    }
+
+    private static String encode(String version, Integer... ids) {
+        StringBuilder text = new StringBuilder(version);
+        for (Integer id : ids) {
+            text.append(DELIMITER).append(id);
+        }
+        return Base64.getUrlEncoder().withoutPadding()
+            .encodeToString(text.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Integer[] decode(String continuationToken, String version, int numberOfIds)
+        throws InvalidContinuationTokenException {
+        try {
+            String text = new String(Base64.getUrlDecoder().decode(continuationToken), StandardCharsets.UTF_8);
+            String[] parts = text.split(DELIMITER);
+            if (parts.length != numberOfIds + 1 || !parts[0].equals(version)) {
+                throw new InvalidContinuationTokenException(continuationToken);
+            }
+            Integer[] ids = new Integer[numberOfIds];
+            for (int i = 0; i < numberOfIds; i++) {
+                ids[i] = Integer.valueOf(parts[i + 1]);
+            }
+            return ids;
+        } catch (IllegalArgumentException e) {
+            // also thrown for numbers that do not parse
+            throw new InvalidContinuationTokenException(continuationToken);
+        }
+    }
+}
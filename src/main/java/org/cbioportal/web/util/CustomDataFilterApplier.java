@@ -4,7 +4,6 @@ import org.apache.commons.collections4.map.MultiKeyMap;
 import org.cbioportal.service.CustomDataService;
 import org.cbioportal.service.util.CustomDataSession;
 import org.cbioportal.web.parameter.ClinicalDataFilter;
-import org.cbioportal.web.parameter.SampleIdentifier;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
@@ -34,13 +33,13 @@ public class CustomDataFilterApplier implements DataFilterApplier<ClinicalDataFi
     }
 
     @Override
-    public List<SampleIdentifier> apply(
-        List<SampleIdentifier> sampleIdentifiers,
+    public SampleBitSet apply(
+        SampleBitSet samples,
         List<ClinicalDataFilter> dataFilters,
         boolean negateFilters
     ) {
-        if (dataFilters.isEmpty() || sampleIdentifiers.isEmpty()) {
-            return sampleIdentifiers;
+        if (dataFilters.isEmpty() || samples.isEmpty()) {
+            return samples;
         }
 
         final List<String> attributeIds = dataFilters.stream()
@@ -62,34 +61,34 @@ public class CustomDataFilterApplier implements DataFilterApplier<ClinicalDataFi
         - key1: studyId; 
         - key2: sampleId; 
         - key3: sessionId.
+        Only the samples to filter are looked up in the values that the sessions keep by sample.
         */
         MultiKeyMap<String, String> customDataByStudySampleSession = new MultiKeyMap<>();
 
-        customDataSessionById.values().forEach(customDataSession -> customDataSession
-            .getData()
-            .getData()
-            .forEach(datum -> {
-                String value = datum.getValue().toUpperCase();
-                if (value.equals("NAN") || value.equals("N/A")) {
-                    value = "NA";
+        customDataSessionById.values().forEach(customDataSession -> {
+            MultiKeyMap<String, String> valuesBySample = customDataSession.getValuesBySample();
+            samples.stream().forEach(sampleIdentifier -> {
+                String value = valuesBySample.get(sampleIdentifier.getStudyId(), sampleIdentifier.getSampleId());
+                if (value != null) {
+                    customDataByStudySampleSession.put(sampleIdentifier.getStudyId(), sampleIdentifier.getSampleId(),
+                        customDataSession.getId(), value);
                 }
-                customDataByStudySampleSession.put(datum.getStudyId(), datum.getSampleId(), customDataSession.getId(), value);
-            })
-        );
+            });
+        });
 
         return filterCustomData(
             dataFilters, 
             negateFilters, 
-            sampleIdentifiers, 
+            samples, 
             customDataSessionById,
             customDataByStudySampleSession
         );
     }
     
-    private List<SampleIdentifier> filterCustomData(
+    private SampleBitSet filterCustomData(
         List<ClinicalDataFilter> customDataFilters,
         boolean negateFilters,
-        List<SampleIdentifier> sampleIdentifiers,
+        SampleBitSet samples,
         Map<String, CustomDataSession> customDataSessionById,
         MultiKeyMap<String, String> clinicalDataMap
     ) {
@@ -113,20 +112,14 @@ public class CustomDataFilterApplier implements DataFilterApplier<ClinicalDataFi
             }
         });
 
-        List<SampleIdentifier> filtered = new ArrayList<>();
-        sampleIdentifiers.forEach(sampleIdentifier -> {
+        return samples.retainIf(sampleIdentifier -> {
             int equalityFilterCount = equalityFilterApplier.apply(equalityFilters, clinicalDataMap,
                 sampleIdentifier.getSampleId(), sampleIdentifier.getStudyId(), negateFilters);
             int intervalFilterCount = intervalFilterApplier.apply(intervalFilters, clinicalDataMap,
                 sampleIdentifier.getSampleId(), sampleIdentifier.getStudyId(), negateFilters);
-            if (equalityFilterCount == equalityFilters.size() 
-                && intervalFilterCount == intervalFilters.size()
-            ) {
-                filtered.add(sampleIdentifier);
-            }
+            return equalityFilterCount == equalityFilters.size() 
+                && intervalFilterCount == intervalFilters.size();
         });
-        
-        return filtered;
     }
     
 }
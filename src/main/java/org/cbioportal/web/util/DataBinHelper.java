@@ -286,17 +286,12 @@ public class DataBinHelper {
     }
 
     public void calcCounts(List<DataBin> dataBins, List<BigDecimal> values) {
-        Map<Range<BigDecimal>, DataBin> rangeMap = dataBins.stream().collect(Collectors.toMap(this::calcRange, b -> b));
-
-        // TODO complexity here is O(n x m), find a better way to do this
-        for (Range<BigDecimal> range : rangeMap.keySet()) {
-            for (BigDecimal value: values) {
-                // check if the value falls within the data bin range
-                if (range != null && range.contains(value)) {
-                    DataBin dataBin = rangeMap.get(range);
-                    dataBin.setCount(dataBin.getCount() + 1);
-                }
-            }
+        calcCounts(dataBins, new SortedBinValues(values));
+    }
+
+    public void calcCounts(List<DataBin> dataBins, SortedBinValues values) {
+        for (DataBin dataBin : dataBins) {
+            dataBin.setCount(dataBin.getCount() + values.count(dataBin));
         }
     }
 
@@ -413,14 +408,17 @@ public class DataBinHelper {
         List<BigDecimal> numericalValues,
         List<Range<BigDecimal>> rangeValues
     ) {
+        return convertToDistinctBins(dataBins, new SortedBinValues(numericalValues, rangeValues, Collections.emptyList()));
+    }
+
+    public List<DataBin> convertToDistinctBins(List<DataBin> dataBins, SortedBinValues values) {
         List<DataBin> distinctBins = new ArrayList<>();
         
         for (DataBin bin: dataBins) {
-            Set<BigDecimal> distinctValues = this.findDistinctValues(bin, numericalValues);
-            Set<Range<BigDecimal>> distinctRanges = this.findDistinctSpecialRanges(bin, rangeValues);
+            Set<BigDecimal> distinctValues = values.findDistinctValues(bin);
             
             // if the bin contains only one distinct value and no range value then create a distinct bin
-            if (distinctRanges.size() == 0 && distinctValues.size() == 1 && this.areAllIntegers(distinctValues)) {
+            if (values.countSpecialRanges(bin) == 0 && distinctValues.size() == 1 && this.areAllIntegers(distinctValues)) {
                 BigDecimal distinctValue = distinctValues.iterator().next();
                 
                 DataBin distinctBin = new DataBin();
@@ -13,7 +13,6 @@ import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
 import java.util.*;
-import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 @Component
@@ -49,41 +48,18 @@ public class DataBinner {
                                         ClinicalDataType clinicalDataType,
                                         List<Binnable> clinicalData,
                                         List<String> ids) {
-        List<BigDecimal> numericalValues = clinicalData == null ?
-            Collections.emptyList() : filterNumericalValues(clinicalData);
-        List<String> nonNumericalValues = clinicalData == null ?
-            Collections.emptyList() : filterNonNumericalValues(clinicalData);
-        List<Range<BigDecimal>> ranges = clinicalData == null ?
-            Collections.emptyList() : filterSpecialRanges(clinicalData);
+        SortedBinValues values = clinicalData == null ?
+            new SortedBinValues(Collections.emptyList()) : parseValues(clinicalData);
+        Integer naCount = null;
 
         for (DataBin dataBin : dataBins) {
-            // reset count
-            dataBin.setCount(0);
-
-            // calculate range
-            Range<BigDecimal> range = dataBinHelper.calcRange(dataBin);
-
-            if (range != null) {
-                for (BigDecimal value : numericalValues) {
-                    if (range.contains(value)) {
-                        dataBin.setCount(dataBin.getCount() + 1);
-                    }
-                }
-
-                for (Range<BigDecimal> r : ranges) {
-                    if (range.encloses(r)) {
-                        dataBin.setCount(dataBin.getCount() + 1);
-                    }
-                }
-            } else { // if no range then it means non numerical data bin
-                for (String value : nonNumericalValues) {
-                    if (value.equalsIgnoreCase(dataBin.getSpecialValue())) {
-                        dataBin.setCount(dataBin.getCount() + 1);
-                    }
-                }
-            }
             if ("NA".equalsIgnoreCase(dataBin.getSpecialValue())) {
-                dataBin.setCount(countNAs(clinicalData, clinicalDataType, ids).intValue());
+                if (naCount == null) {
+                    naCount = countNAs(clinicalData, clinicalDataType, ids).intValue();
+                }
+                dataBin.setCount(naCount);
+            } else {
+                dataBin.setCount(values.count(dataBin));
             }
         }
 
@@ -127,11 +103,12 @@ public class DataBinner {
             numericalOnly = true;
         }
 
+        SortedBinValues values = parseValues(clinicalData);
         DataBin upperOutlierBin = calcUpperOutlierBin(clinicalData);
         DataBin lowerOutlierBin = calcLowerOutlierBin(clinicalData);
-        Collection<DataBin> numericalBins = calcNumericalClinicalDataBins(
+        Collection<DataBin> numericalBins = calcNumericalDataBins(
             dataBinFilter,
-            clinicalData,
+            values,
             dataBinFilter.getCustomBins(),
             dataBinFilter.getBinMethod(),
             dataBinFilter.getBinsGeneratorConfig(),
@@ -158,9 +135,7 @@ public class DataBinner {
 
         // in some cases every numerical bin actually contains only a single discrete value
         // convert interval bins to distinct (single value) bins in these cases
-        dataBins = dataBinHelper.convertToDistinctBins(
-            dataBins, filterNumericalValues(clinicalData), filterSpecialRanges(clinicalData)
-        );
+        dataBins = dataBinHelper.convertToDistinctBins(dataBins, values);
 
         if (!numericalOnly) {
             // add non numerical and NA data bins
@@ -176,6 +151,38 @@ public class DataBinner {
         return dataBins;
     }
 
+    /**
+     * Parses the numerical values, special ranges and non-numerical values in one pass, with the same rules as
+     * filterNumericalValues, filterSpecialRanges and filterNonNumericalValues.
+     */
+    public SortedBinValues parseValues(List<Binnable> clinicalData) {
+        List<BigDecimal> numericalValues = new ArrayList<>(clinicalData.size());
+        List<Range<BigDecimal>> specialRanges = new ArrayList<>();
+        List<String> nonNumericalValues = new ArrayList<>();
+
+        for (Binnable binnable : clinicalData) {
+            String value = binnable.getAttrValue();
+            if (NumberUtils.isCreatable(value)) {
+                numericalValues.add(new BigDecimal(value));
+                continue;
+            }
+            String strippedValue = dataBinHelper.stripOperator(value);
+            // invalid special values such as >10PY, <20%, etc. are non-numerical
+            if (NumberUtils.isCreatable(strippedValue)) {
+                if (value.contains(">") || value.contains("<")) {
+                    specialRanges.add(dataBinHelper.calcRange(
+                        // only use "<" or ">" to make sure that we only generate open ranges
+                        dataBinHelper.extractOperator(value).substring(0, 1),
+                        new BigDecimal(strippedValue)));
+                }
+            } else if (!dataBinHelper.isNA(value)) {
+                nonNumericalValues.add(value);
+            }
+        }
+
+        return new SortedBinValues(numericalValues, specialRanges, nonNumericalValues);
+    }
+
     public List<Range<BigDecimal>> filterSpecialRanges(List<Binnable> clinicalData) {
         return clinicalData.stream()
             .map(Binnable::getAttrValue)
@@ -261,31 +268,38 @@ public class DataBinner {
         Boolean disableLogScale,
         Integer distinctValueThreshold
     ) {
-
-        Predicate<BigDecimal> isLowerOutlier = d -> (
-            lowerOutlierBin != null &&
-                lowerOutlierBin.getEnd() != null &&
-                (lowerOutlierBin.getSpecialValue() != null && lowerOutlierBin.getSpecialValue().contains("=") ?
-                    d.compareTo(lowerOutlierBin.getEnd()) != 1 : d.compareTo(lowerOutlierBin.getEnd()) == -1)
-        );
-
-        Predicate<BigDecimal> isUpperOutlier = d -> (
-            upperOutlierBin != null &&
-                upperOutlierBin.getStart() != null &&
-                (upperOutlierBin.getSpecialValue() != null && upperOutlierBin.getSpecialValue().contains("=") ?
-                    d.compareTo(upperOutlierBin.getStart()) != -1 : d.compareTo(upperOutlierBin.getStart()) == 1)
+        return calcNumericalDataBins(
+            dataBinFilter,
+            new SortedBinValues(numericalValues),
+            customBins,
+            binMethod,
+            binsGeneratorConfig,
+            lowerOutlierBin,
+            upperOutlierBin,
+            disableLogScale,
+            distinctValueThreshold
         );
+    }
 
-        Predicate<BigDecimal> isNotOutlier =
-            d -> !isUpperOutlier.test(d) && !isLowerOutlier.test(d);
-
-        List<BigDecimal> sortedNumericalValues = new ArrayList<>(numericalValues);
-        Collections.sort(sortedNumericalValues);
+    private Collection<DataBin> calcNumericalDataBins(
+        DataBinFilter dataBinFilter,
+        SortedBinValues values,
+        List<BigDecimal> customBins,
+        DataBinFilter.BinMethod binMethod,
+        BinsGeneratorConfig binsGeneratorConfig,
+        DataBin lowerOutlierBin,
+        DataBin upperOutlierBin,
+        Boolean disableLogScale,
+        Integer distinctValueThreshold
+    ) {
+        List<BigDecimal> sortedNumericalValues = values.getSortedValues();
 
         Range<BigDecimal> boxRange = dataBinHelper.calcBoxRange(sortedNumericalValues);
 
         // remove initial outliers
-        List<BigDecimal> withoutOutliers = sortedNumericalValues.stream().filter(isNotOutlier).collect(Collectors.toList());
+        List<BigDecimal> withoutOutliers = values.subList(
+            lowerOutlierBin == null ? null : lowerOutlierBin.getEnd(), !isInclusive(lowerOutlierBin),
+            upperOutlierBin == null ? null : upperOutlierBin.getStart(), !isInclusive(upperOutlierBin));
 
         // calculate data bins for the rest of the values
         List<DataBin> dataBins = null;
@@ -301,15 +315,15 @@ public class DataBinner {
             if (DataBinFilter.BinMethod.CUSTOM == binMethod && customBins != null) {
                 // adjust custom bins w.r.t. outliers (if any)
                 customBins = this.adjustCustomBins(customBins, lowerOutlierBin, upperOutlierBin);
-                dataBins = linearDataBinner.calculateDataBins(customBins, numericalValues);
+                dataBins = linearDataBinner.calculateDataBins(customBins, sortedNumericalValues);
             } else if (DataBinFilter.BinMethod.GENERATE == binMethod && binsGeneratorConfig != null) {
                 List<BigDecimal> bins = this.dataBinHelper.generateBins(sortedNumericalValues, binsGeneratorConfig.getBinSize(), binsGeneratorConfig.getAnchorValue());
-                dataBins = linearDataBinner.calculateDataBins(bins, numericalValues);
+                dataBins = linearDataBinner.calculateDataBins(bins, sortedNumericalValues);
             } else if (DataBinFilter.BinMethod.MEDIAN == binMethod) {
                 // NOOP - handled later
             } else if (DataBinFilter.BinMethod.QUARTILE == binMethod) {
                 List<BigDecimal> boundaries = this.dataBinHelper.calcQuartileBoundaries(sortedNumericalValues);
-                dataBins = linearDataBinner.calculateDataBins(boundaries, numericalValues);
+                dataBins = linearDataBinner.calculateDataBins(boundaries, sortedNumericalValues);
             } else if (boxRange.upperEndpoint().subtract(boxRange.lowerEndpoint()).compareTo(new BigDecimal(1000)) == 1 &&
                 (disableLogScale == null || !disableLogScale)) {
                 dataBins = logScaleDataBinner.calculateDataBins(
@@ -401,16 +415,18 @@ public class DataBinner {
             }
         }
 
-        // update upper and lower outlier counts
-        List<BigDecimal> upperOutliers = sortedNumericalValues.stream().filter(isUpperOutlier).collect(Collectors.toList());
-        List<BigDecimal> lowerOutliers = sortedNumericalValues.stream().filter(isLowerOutlier).collect(Collectors.toList());
+        // update upper and lower outlier counts (w.r.t. the adjusted outlier limits)
+        int upperOutliers = upperOutlierBin == null || upperOutlierBin.getStart() == null ? 0 :
+            values.countAbove(upperOutlierBin.getStart(), !isInclusive(upperOutlierBin));
+        int lowerOutliers = lowerOutlierBin == null || lowerOutlierBin.getEnd() == null ? 0 :
+            values.countBelow(lowerOutlierBin.getEnd(), !isInclusive(lowerOutlierBin));
 
-        if (upperOutliers.size() > 0) {
-            upperOutlierBin.setCount(upperOutlierBin.getCount() + upperOutliers.size());
+        if (upperOutliers > 0) {
+            upperOutlierBin.setCount(upperOutlierBin.getCount() + upperOutliers);
         }
 
-        if (lowerOutliers.size() > 0) {
-            lowerOutlierBin.setCount(lowerOutlierBin.getCount() + lowerOutliers.size());
+        if (lowerOutliers > 0) {
+            lowerOutlierBin.setCount(lowerOutlierBin.getCount() + lowerOutliers);
         }
 
         if (dataBins == null) {
@@ -420,6 +436,11 @@ public class DataBinner {
         return dataBins;
     }
 
+    // outlier bins with ">=" or "<=" include their limit
+    private boolean isInclusive(DataBin outlierBin) {
+        return outlierBin != null && outlierBin.getSpecialValue() != null && outlierBin.getSpecialValue().contains("=");
+    }
+
     public List<BigDecimal> doubleValuesForSpecialOutliers(List<Binnable> clinicalData, String operator) {
         return (
             // find the ones starting with the operator
@@ -1,14 +1,16 @@
 package org.cbioportal.web.util;
 
 import org.cbioportal.web.parameter.DataFilter;
-import org.cbioportal.web.parameter.SampleIdentifier;
 
 import java.util.List;
 
 public interface DataFilterApplier<T extends DataFilter> {
 
-    List<SampleIdentifier> apply(
-        List<SampleIdentifier> sampleIdentifiers,
+    /**
+     * Removes the samples that do not pass the filters from {@code samples} and returns it.
+     */
+    SampleBitSet apply(
+        SampleBitSet samples,
         List<T> dataFilters,
         boolean negateFilters
     );
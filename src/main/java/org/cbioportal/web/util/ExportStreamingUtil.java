@@ -0,0 +1,74 @@
+package org.cbioportal.web.util;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Writes a page of an export as it is read, without buffering it: as newline delimited JSON (one item per line, then
+ * the continuation token, if any) or as a JSON object with the items in an array field and the continuation token.
+ */
+public class ExportStreamingUtil {
+
+    private ExportStreamingUtil() {}
+
+    public static boolean acceptsNdjson(String accept) {
+        return accept != null && accept.contains(MediaType.APPLICATION_NDJSON_VALUE);
+    }
+
+    /**
+     * @param writePage writes the items of the page to the given consumer and returns the continuation token of the
+     * next page, or null if it is the last page
+     */
+    public static <T> StreamingResponseBody stream(ObjectMapper objectMapper, Class<T> type, String arrayFieldName,
+                                                   boolean ndjson, Function<Consumer<T>, String> writePage) {
+
+        return outputStream -> {
+            ObjectWriter writer = objectMapper.writerFor(type).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                // a failed export must not look complete, and the stream is closed by the container
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT);
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                generator.setRootValueSeparator(null);
+                if (!ndjson) {
+                    generator.writeStartObject();
+                    generator.writeArrayFieldStart(arrayFieldName);
+                }
+                String continuationToken = writePage.apply(item -> {
+                    try {
+                        writer.writeValue(generator, item);
+                        if (ndjson) {
+                            generator.writeRaw('\n');
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                if (ndjson) {
+                    if (continuationToken != null) {
+                        generator.writeStartObject();
+                        generator.writeStringField("continuationToken", continuationToken);
+                        generator.writeEndObject();
+                        generator.writeRaw('\n');
+                    }
+                } else {
+                    generator.writeEndArray();
+                    if (continuationToken != null) {
+                        generator.writeStringField("continuationToken", continuationToken);
+                    }
+                    generator.writeEndObject();
+                }
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        };
+    }
+}
@@ -0,0 +1,137 @@
+package org.cbioportal.web.util;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.cbioportal.web.parameter.ClinicalDataCountFilter;
+import org.cbioportal.web.parameter.DataBinCountFilter;
+import org.cbioportal.web.parameter.GenericAssayDataCountFilter;
+import org.cbioportal.web.parameter.GenomicDataCountFilter;
+import org.cbioportal.web.parameter.SampleIdentifier;
+import org.cbioportal.web.parameter.StudyViewFilter;
+import org.cbioportal.web.parameter.filter.AndedPatientTreatmentFilters;
+import org.cbioportal.web.parameter.filter.AndedSampleTreatmentFilters;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times the POST requests whose filters {@link InvolvedCancerStudyExtractorInterceptor} has read (study view, group
+ * comparison and multiple study fetch endpoints) as cbioportal.requests.filtered, tagged with the endpoint, the
+ * response status and the complexity of the study view filter, if any: the number of its clauses and the number of
+ * its studies, both bucketed as 0, 1, 2-3, 4-7 or 8+.
+ */
+public class FilterComplexityMetricsInterceptor implements HandlerInterceptor {
+
+    private static final String START_ATTRIBUTE = FilterComplexityMetricsInterceptor.class.getName() + ".start";
+    private static final String NONE = "none";
+    private static final List<String> FILTER_ATTRIBUTES = List.of("interceptedStudyViewFilter",
+        "interceptedClinicalDataBinCountFilter", "interceptedGenomicDataBinCountFilter",
+        "interceptedGenericAssayDataBinCountFilter", "interceptedGenomicDataCountFilter",
+        "interceptedGenericAssayDataCountFilter", "interceptedClinicalDataCountFilter");
+
+    private final MeterRegistry meterRegistry;
+
+    public FilterComplexityMetricsInterceptor(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (InvolvedCancerStudyExtractorInterceptor.readsRequestBody(request)) {
+            request.setAttribute(START_ATTRIBUTE, System.nanoTime());
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        Object start = request.getAttribute(START_ATTRIBUTE);
+        Object uri = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        if (start == null || uri == null) {
+            return;
+        }
+        StudyViewFilter studyViewFilter = getStudyViewFilter(request);
+        Timer.builder("cbioportal.requests.filtered")
+            .tag("uri", uri.toString())
+            .tag("status", String.valueOf(response.getStatus()))
+            .tag("clauses", studyViewFilter == null ? NONE : bucket(countClauses(studyViewFilter)))
+            .tag("studies", studyViewFilter == null ? NONE : bucket(countStudies(studyViewFilter)))
+            .description("Time to handle a filtered request, by the complexity of its study view filter")
+            .publishPercentileHistogram()
+            .register(meterRegistry)
+            .record(System.nanoTime() - (Long) start, TimeUnit.NANOSECONDS);
+    }
+
+    public static int countClauses(StudyViewFilter studyViewFilter) {
+        return size(studyViewFilter.getClinicalDataFilters()) + size(studyViewFilter.getGeneFilters())
+            + size(studyViewFilter.getStructuralVariantFilters()) + size(studyViewFilter.getGenomicProfiles())
+            + size(studyViewFilter.getGenomicDataFilters()) + size(studyViewFilter.getCaseLists())
+            + size(studyViewFilter.getGenericAssayDataFilters()) + size(studyViewFilter.getCustomDataFilters())
+            + size(studyViewFilter.getClinicalEventFilters()) + size(studyViewFilter.getMutationDataFilters())
+            + size(studyViewFilter.getSampleTreatmentFilters()) + size(studyViewFilter.getSampleTreatmentGroupFilters())
+            + size(studyViewFilter.getSampleTreatmentTargetFilters())
+            + size(studyViewFilter.getPatientTreatmentFilters())
+            + size(studyViewFilter.getPatientTreatmentGroupFilters())
+            + size(studyViewFilter.getPatientTreatmentTargetFilters());
+    }
+
+    public static int countStudies(StudyViewFilter studyViewFilter) {
+        if (studyViewFilter.getStudyIds() != null) {
+            return studyViewFilter.getStudyIds().size();
+        }
+        if (studyViewFilter.getSampleIdentifiers() != null) {
+            return (int) studyViewFilter.getSampleIdentifiers().stream()
+                .map(SampleIdentifier::getStudyId)
+                .distinct()
+                .count();
+        }
+        return 0;
+    }
+
+    public static String bucket(int count) {
+        if (count <= 1) {
+            return String.valueOf(count);
+        } else if (count <= 3) {
+            return "2-3";
+        } else if (count <= 7) {
+            return "4-7";
+        }
+        return "8+";
+    }
+
+    private static StudyViewFilter getStudyViewFilter(HttpServletRequest request) {
+        for (String attribute : FILTER_ATTRIBUTES) {
+            Object filter = request.getAttribute(attribute);
+            if (filter instanceof StudyViewFilter) {
+                return (StudyViewFilter) filter;
+            } else if (filter instanceof DataBinCountFilter) {
+                return ((DataBinCountFilter) filter).getStudyViewFilter();
+            } else if (filter instanceof GenomicDataCountFilter) {
+                return ((GenomicDataCountFilter) filter).getStudyViewFilter();
+            } else if (filter instanceof GenericAssayDataCountFilter) {
+                return ((GenericAssayDataCountFilter) filter).getStudyViewFilter();
+            } else if (filter instanceof ClinicalDataCountFilter) {
+                return ((ClinicalDataCountFilter) filter).getStudyViewFilter();
+            }
+        }
+        return null;
+    }
+
+    private static int size(Collection<?> collection) {
+        return collection == null ? 0 : collection.size();
+    }
+
+    private static int size(AndedSampleTreatmentFilters filters) {
+        return filters == null ? 0 : size(filters.getFilters());
+    }
+
+    private static int size(AndedPatientTreatmentFilters filters) {
+        return filters == null ? 0 : size(filters.getFilters());
+    }
+}
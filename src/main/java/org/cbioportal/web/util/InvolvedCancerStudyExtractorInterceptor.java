@@ -75,8 +75,10 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -95,7 +97,9 @@ public class InvolvedCancerStudyExtractorInterceptor implements HandlerIntercept
     public static final String CLINICAL_DATA_FETCH_PATH = "/clinical-data/fetch";
     public static final String GENE_PANEL_DATA_FETCH_PATH = "/gene-panel-data/fetch";
     public static final String MOLECULAR_DATA_MULTIPLE_STUDY_FETCH_PATH = "/molecular-data/fetch";
+    public static final String MOLECULAR_DATA_MULTIPLE_STUDY_EXPORT_PATH = "/molecular-data/export";
     public static final String MUTATION_MULTIPLE_STUDY_FETCH_PATH = "/mutations/fetch";
+    public static final String MUTATION_MULTIPLE_STUDY_EXPORT_PATH = "/mutations/export";
     public static final String COPY_NUMBER_SEG_FETCH_PATH = "/copy-number-segments/fetch";
     public static final String STUDY_VIEW_CLINICAL_DATA_BIN_COUNTS_PATH = "/clinical-data-bin-counts/fetch";
     public static final String STUDY_VIEW_CUSTOM_DATA_BIN_COUNTS_PATH = "/custom-data-bin-counts/fetch";
@@ -134,72 +138,98 @@ public class InvolvedCancerStudyExtractorInterceptor implements HandlerIntercept
     public static final String SURVIVAL_DATA_FETCH_PATH = "/survival-data/fetch";
     public static final String CLINICAL_EVENT_META_FETCH_PATH = "/clinical-events-meta/fetch";
 
-    @Override public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
-        if (!request.getMethod().equals("POST")) {
-            return true; // no attribute extraction needed because all user supplied filter objects are in POST requests
-        }
+    // reads the filter in the request body and sets the request attributes, returns false if it is not valid
+    private interface BodyExtractor {
+        boolean extract(InvolvedCancerStudyExtractorInterceptor interceptor, HttpServletRequest request);
+    }
+
+    // the extractors of the paths for which preHandle reads the request body
+    private static final Map<String, BodyExtractor> EXTRACTORS = createExtractors();
+
+    private static Map<String, BodyExtractor> createExtractors() {
+        Map<String, BodyExtractor> extractors = new HashMap<>();
+        extractors.put(PATIENT_FETCH_PATH, InvolvedCancerStudyExtractorInterceptor::extractAttributesFromPatientFilter);
+        extractors.put(SAMPLE_FETCH_PATH, InvolvedCancerStudyExtractorInterceptor::extractAttributesFromSampleFilter);
+        extractors.put(MOLECULAR_PROFILE_FETCH_PATH,
+            InvolvedCancerStudyExtractorInterceptor::extractAttributesFromMolecularProfileFilter);
+        extractors.put(CLINICAL_ATTRIBUTE_COUNT_FETCH_PATH,
+            InvolvedCancerStudyExtractorInterceptor::extractAttributesFromClinicalAttributeCountFilter);
+        extractors.put(CLINICAL_DATA_FETCH_PATH,
+            InvolvedCancerStudyExtractorInterceptor::extractAttributesFromClinicalDataMultiStudyFilter);
+        extractors.put(GENE_PANEL_DATA_FETCH_PATH,
+            InvolvedCancerStudyExtractorInterceptor::extractAttributesFromGenePanelDataMultipleStudyFilter);
+        for (String path : Arrays.asList(MOLECULAR_DATA_MULTIPLE_STUDY_FETCH_PATH,
+            MOLECULAR_DATA_MULTIPLE_STUDY_EXPORT_PATH)) {
+            extractors.put(path, InvolvedCancerStudyExtractorInterceptor::extractAttributesFromMolecularDataMultipleStudyFilter);
+        }
+        for (String path : Arrays.asList(MUTATION_MULTIPLE_STUDY_FETCH_PATH, MUTATION_MULTIPLE_STUDY_EXPORT_PATH)) {
+            extractors.put(path, InvolvedCancerStudyExtractorInterceptor::extractAttributesFromMutationMultipleStudyFilter);
+        }
+        extractors.put(COPY_NUMBER_SEG_FETCH_PATH,
+            InvolvedCancerStudyExtractorInterceptor::extractAttributesFromSampleIdentifiers);
+        for (String path : Arrays.asList(STUDY_VIEW_CLINICAL_DATA_BIN_COUNTS_PATH, STUDY_VIEW_CUSTOM_DATA_BIN_COUNTS_PATH)) {
+            extractors.put(path, InvolvedCancerStudyExtractorInterceptor::extractAttributesFromClinicalDataBinCountFilter);
+        }
+        extractors.put(STUDY_VIEW_GENOMICL_DATA_BIN_COUNTS_PATH,
+            InvolvedCancerStudyExtractorInterceptor::extractAttributesFromGenomicDataBinCountFilter);
+        for (String path : Arrays.asList(STUDY_VIEW_GENOMICL_DATA_COUNTS_PATH, STUDY_VIEW_MUTATION_DATA_COUNTS_PATH)) {
+            extractors.put(path, InvolvedCancerStudyExtractorInterceptor::extractAttributesFromGenomicDataCountFilter);
+        }
+        extractors.put(STUDY_VIEW_GENERIC_ASSAY_DATA_BIN_COUNTS_PATH,
+            InvolvedCancerStudyExtractorInterceptor::extractAttributesFromGenericAssayDataBinCountFilter);
+        extractors.put(STUDY_VIEW_GENERIC_ASSAY_DATA_COUNTS_PATH,
+            InvolvedCancerStudyExtractorInterceptor::extractAttributesFromGenericAssayDataCountFilter);
+        for (String path : Arrays.asList(STUDY_VIEW_CLINICAL_DATA_COUNTS_PATH, STUDY_VIEW_CUSTOM_DATA_COUNTS_PATH)) {
+            extractors.put(path, InvolvedCancerStudyExtractorInterceptor::extractAttributesFromClinicalDataCountFilter);
+        }
+        for (String path : Arrays.asList(STUDY_VIEW_CLINICAL_DATA_DENSITY_PATH, STUDY_VIEW_CLINICAL_DATA_VIOLIN_PATH,
+            STUDY_VIEW_CNA_GENES, STUDY_VIEW_FILTERED_SAMPLES, STUDY_VIEW_MUTATED_GENES,
+            STUDY_VIEW_STRUCTURAL_VARIANT_GENES, STUDY_VIEW_STRUCTURAL_VARIANT_COUNTS, STUDY_VIEW_SAMPLE_COUNTS,
+            STUDY_VIEW_SAMPLE_LIST_COUNTS_PATH, STUDY_VIEW_CLINICAL_TABLE_DATA_FETCH_PATH, TREATMENTS_PATIENT_PATH,
+            TREATMENTS_SAMPLE_PATH, STUDY_VIEW_PROFILE_SAMPLE_COUNTS_PATH, CLINICAL_EVENT_TYPE_COUNT_FETCH_PATH)) {
+            extractors.put(path, InvolvedCancerStudyExtractorInterceptor::extractAttributesFromStudyViewFilter);
+        }
+        extractors.put(CLINICAL_DATA_ENRICHMENT_FETCH_PATH,
+            InvolvedCancerStudyExtractorInterceptor::extractAttributesFromGroupFilter);
+        for (String path : Arrays.asList(MUTATION_ENRICHMENT_FETCH_PATH, COPY_NUMBER_ENRICHMENT_FETCH_PATH,
+            EXPRESSION_ENRICHMENT_FETCH_PATH, GENERIC_ASSAY_ENRICHMENT_FETCH_PATH,
+            GENERIC_ASSAY_CATEGORICAL_ENRICHMENT_FETCH_PATH, GENERIC_ASSAY_BINARY_ENRICHMENT_FETCH_PATH)) {
+            extractors.put(path, InvolvedCancerStudyExtractorInterceptor::extractAttributesFromMolecularProfileCasesGroups);
+        }
+        extractors.put(ALTERATION_ENRICHMENT_FETCH_PATH,
+            InvolvedCancerStudyExtractorInterceptor::extractAttributesFromMolecularProfileCasesGroupsAndAlterationTypes);
+        extractors.put(STRUCTURAL_VARIANT_FETCH_PATH,
+            InvolvedCancerStudyExtractorInterceptor::extractAttributesFromStructuralVariantFilter);
+        extractors.put(GENERIC_ASSAY_DATA_MULTIPLE_STUDY_FETCH_PATH,
+            InvolvedCancerStudyExtractorInterceptor::extractAttributesFromGenericAssayDataMultipleStudyFilter);
+        extractors.put(SURVIVAL_DATA_FETCH_PATH,
+            InvolvedCancerStudyExtractorInterceptor::extractCancerStudyIdsFromSurvivalRequest);
+        extractors.put(CLINICAL_EVENT_META_FETCH_PATH,
+            InvolvedCancerStudyExtractorInterceptor::extractCancerStudyIdsFromClinicalEventAttributeRequest);
+        return Collections.unmodifiableMap(extractors);
+    }
+
+    /**
+     * @return whether preHandle will read the body of the request, i.e. whether it has to be cached by
+     * {@link ResettableHttpServletRequestFilter}
+     */
+    public static boolean readsRequestBody(HttpServletRequest request) {
+        return request.getMethod().equals("POST") && EXTRACTORS.containsKey(getRequestPathInfo(request));
+    }
+
+    public static String getRequestPathInfo(HttpServletRequest request) {
         // TODO when reimplemeting different dispatcherservlets with different context roots
         // reset this to  'String requestPathInfo = request.getPathInfo();'
         String requestPathInfo = request.getPathInfo() == null? request.getServletPath() : request.getPathInfo();
-        requestPathInfo = requestPathInfo.replaceFirst("^/api", "");
-        if (requestPathInfo.equals(PATIENT_FETCH_PATH)) {
-            return extractAttributesFromPatientFilter(request);
-        } else if (requestPathInfo.equals(SAMPLE_FETCH_PATH)) {
-            return extractAttributesFromSampleFilter(request);
-        } else if (requestPathInfo.equals(MOLECULAR_PROFILE_FETCH_PATH)) {
-            return extractAttributesFromMolecularProfileFilter(request);
-        } else if (requestPathInfo.equals(CLINICAL_ATTRIBUTE_COUNT_FETCH_PATH)) {
-            return extractAttributesFromClinicalAttributeCountFilter(request);
-        } else if (requestPathInfo.equals(CLINICAL_DATA_FETCH_PATH)) {
-            return extractAttributesFromClinicalDataMultiStudyFilter(request);
-        } else if (requestPathInfo.equals(GENE_PANEL_DATA_FETCH_PATH)) {
-            return extractAttributesFromGenePanelDataMultipleStudyFilter(request);
-        } else if (requestPathInfo.equals(MOLECULAR_DATA_MULTIPLE_STUDY_FETCH_PATH)) {
-            return extractAttributesFromMolecularDataMultipleStudyFilter(request);
-        } else if (requestPathInfo.equals(MUTATION_MULTIPLE_STUDY_FETCH_PATH)) {
-            return extractAttributesFromMutationMultipleStudyFilter(request);
-        } else if (requestPathInfo.equals(COPY_NUMBER_SEG_FETCH_PATH)) {
-            return extractAttributesFromSampleIdentifiers(request);
-        } else if (Arrays.asList(STUDY_VIEW_CLINICAL_DATA_BIN_COUNTS_PATH, STUDY_VIEW_CUSTOM_DATA_BIN_COUNTS_PATH).contains(requestPathInfo)) {
-            return extractAttributesFromClinicalDataBinCountFilter(request);
-        } else if (requestPathInfo.equals(STUDY_VIEW_GENOMICL_DATA_BIN_COUNTS_PATH)) {
-            return extractAttributesFromGenomicDataBinCountFilter(request);
-        } else if (Arrays.asList(STUDY_VIEW_GENOMICL_DATA_COUNTS_PATH, STUDY_VIEW_MUTATION_DATA_COUNTS_PATH).contains(requestPathInfo)) {
-            return extractAttributesFromGenomicDataCountFilter(request);
-        } else if (requestPathInfo.equals(STUDY_VIEW_GENERIC_ASSAY_DATA_BIN_COUNTS_PATH)) {
-            return extractAttributesFromGenericAssayDataBinCountFilter(request);
-        } else if (requestPathInfo.equals(STUDY_VIEW_GENERIC_ASSAY_DATA_COUNTS_PATH)) {
-            return extractAttributesFromGenericAssayDataCountFilter(request);
-        } else if (Arrays.asList(STUDY_VIEW_CLINICAL_DATA_COUNTS_PATH, STUDY_VIEW_CUSTOM_DATA_COUNTS_PATH)
-                .contains(requestPathInfo)) {
-            return extractAttributesFromClinicalDataCountFilter(request);
-        } else if (Arrays.asList(STUDY_VIEW_CLINICAL_DATA_DENSITY_PATH, STUDY_VIEW_CLINICAL_DATA_VIOLIN_PATH, STUDY_VIEW_CNA_GENES, 
-                STUDY_VIEW_FILTERED_SAMPLES, STUDY_VIEW_MUTATED_GENES, STUDY_VIEW_STRUCTURAL_VARIANT_GENES,
-                STUDY_VIEW_STRUCTURAL_VARIANT_COUNTS, STUDY_VIEW_SAMPLE_COUNTS, STUDY_VIEW_SAMPLE_LIST_COUNTS_PATH, STUDY_VIEW_CLINICAL_TABLE_DATA_FETCH_PATH,
-                TREATMENTS_PATIENT_PATH, TREATMENTS_SAMPLE_PATH, STUDY_VIEW_PROFILE_SAMPLE_COUNTS_PATH, CLINICAL_EVENT_TYPE_COUNT_FETCH_PATH
-        ).contains(requestPathInfo)) {
-            return extractAttributesFromStudyViewFilter(request);
-        } else if (requestPathInfo.equals(CLINICAL_DATA_ENRICHMENT_FETCH_PATH)) {
-            return extractAttributesFromGroupFilter(request);
-        } else if (requestPathInfo.equals(MUTATION_ENRICHMENT_FETCH_PATH) ||
-        		requestPathInfo.equals(COPY_NUMBER_ENRICHMENT_FETCH_PATH) ||
-        		requestPathInfo.equals(EXPRESSION_ENRICHMENT_FETCH_PATH) ||
-        		requestPathInfo.equals(GENERIC_ASSAY_ENRICHMENT_FETCH_PATH) ||
-                requestPathInfo.equals(GENERIC_ASSAY_CATEGORICAL_ENRICHMENT_FETCH_PATH) ||
-                requestPathInfo.equals(GENERIC_ASSAY_BINARY_ENRICHMENT_FETCH_PATH)) {
-            return extractAttributesFromMolecularProfileCasesGroups(request);
-        } else if (requestPathInfo.equals(ALTERATION_ENRICHMENT_FETCH_PATH)) {
-            return extractAttributesFromMolecularProfileCasesGroupsAndAlterationTypes(request);
-        } else if (requestPathInfo.equals(STRUCTURAL_VARIANT_FETCH_PATH)) {
-            return extractAttributesFromStructuralVariantFilter(request);
-        } else if (requestPathInfo.equals(GENERIC_ASSAY_DATA_MULTIPLE_STUDY_FETCH_PATH)) {
-            return extractAttributesFromGenericAssayDataMultipleStudyFilter(request);
-        } else if (requestPathInfo.equals(SURVIVAL_DATA_FETCH_PATH)) {
-            return extractCancerStudyIdsFromSurvivalRequest(request);
-        } else if (requestPathInfo.equals(CLINICAL_EVENT_META_FETCH_PATH)) {
-            return extractCancerStudyIdsFromClinicalEventAttributeRequest(request);
+        return requestPathInfo.replaceFirst("^/api", "");
+    }
+
+    @Override public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!request.getMethod().equals("POST")) {
+            return true; // no attribute extraction needed because all user supplied filter objects are in POST requests
         }
-        return true;
+        BodyExtractor extractor = EXTRACTORS.get(getRequestPathInfo(request));
+        return extractor == null || extractor.extract(this, request);
     }
 
     private boolean extractAttributesFromPatientFilter(HttpServletRequest request) {
@@ -7,20 +7,35 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.LoggerFactory;
 import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
 import org.springframework.web.util.ContentCachingRequestWrapper;
 import org.springframework.web.util.ContentCachingResponseWrapper;
 
 
 /**
+ * Caches the body of the requests that are read by {@link InvolvedCancerStudyExtractorInterceptor}, and buffers
+ * responses so that they can still be reset when the handler fails. Responses of the endpoints that return large
+ * collections (web.streaming_response.paths) are not buffered: the JSON message converter writes them straight
+ * to the servlet output stream.
  *
  * @author ochoaa
- * 
+ *
  */
 @Component
 public class ResettableHttpServletRequestFilter implements Filter {
     private Logger LOG = LoggerFactory.getLogger(ResettableHttpServletRequestFilter.class);
 
+    private static final String DEFAULT_STREAMING_RESPONSE_PATHS = "/**/mutations,/**/mutations/fetch,/**/mutations/export,"
+        + "/**/molecular-data,/**/molecular-data/fetch,/**/molecular-data/export,"
+        + "/**/clinical-data,/**/clinical-data/fetch,/**/generic_assay_data/**,/**/copy-number-segments,/**/copy-number-segments/fetch";
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    @Value("${web.streaming_response.paths:" + DEFAULT_STREAMING_RESPONSE_PATHS + "}")
+    private String[] streamingResponsePaths;
+
     @Override
     public void init(FilterConfig aChain) throws ServletException {
         // do nothing
@@ -28,12 +43,31 @@ public class ResettableHttpServletRequestFilter implements Filter {
 
     @Override
     public void doFilter(ServletRequest request, ServletResponse response, FilterChain filterChain) throws IOException, ServletException {
-        ContentCachingRequestWrapper wrappedRequest = new ContentCachingRequestWrapper((HttpServletRequest) request);
+        HttpServletRequest httpServletRequest = (HttpServletRequest) request;
+        ServletRequest filteredRequest = InvolvedCancerStudyExtractorInterceptor.readsRequestBody(httpServletRequest)
+            ? new ContentCachingRequestWrapper(httpServletRequest) : httpServletRequest;
+        if (isStreamingResponse(httpServletRequest)) {
+            filterChain.doFilter(filteredRequest, response);
+            return;
+        }
         ContentCachingResponseWrapper wrappedResponse = new ContentCachingResponseWrapper((HttpServletResponse) response);
-        filterChain.doFilter(wrappedRequest, wrappedResponse);
+        filterChain.doFilter(filteredRequest, wrappedResponse);
         wrappedResponse.copyBodyToResponse();
     }
 
+    private boolean isStreamingResponse(HttpServletRequest request) {
+        if (streamingResponsePaths == null) {
+            return false;
+        }
+        String requestPathInfo = InvolvedCancerStudyExtractorInterceptor.getRequestPathInfo(request);
+        for (String streamingResponsePath : streamingResponsePaths) {
+            if (!streamingResponsePath.isBlank() && pathMatcher.match(streamingResponsePath.trim(), requestPathInfo)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     @Override
     public void destroy() {
         // do nothing
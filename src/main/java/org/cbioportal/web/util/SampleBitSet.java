@@ -0,0 +1,108 @@
+package org.cbioportal.web.util;
+
+import org.cbioportal.web.parameter.SampleIdentifier;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * A set of samples backed by a {@link BitSet} over the ordinals of a {@link SampleOrdinalIndex}.
+ * Composition (and/or/andNot) is word-parallel and never allocates SampleIdentifier objects; the filter stages narrow
+ * one set in place and the result is turned back into identifiers with {@link #toSampleIdentifiers()} at the end.
+ */
+public class SampleBitSet {
+
+    private final SampleOrdinalIndex index;
+    private final BitSet bits;
+
+    SampleBitSet(SampleOrdinalIndex index) {
+        this(index, new BitSet(index.size()));
+    }
+
+    private SampleBitSet(SampleOrdinalIndex index, BitSet bits) {
+        this.index = index;
+        this.bits = bits;
+    }
+
+    public SampleOrdinalIndex getIndex() {
+        return index;
+    }
+
+    /**
+     * Adds a sample of the index; samples that are not part of the index are ignored.
+     */
+    public SampleBitSet add(String studyId, String sampleId) {
+        int ordinal = index.lookup(studyId, sampleId);
+        if (ordinal >= 0) {
+            bits.set(ordinal);
+        }
+        return this;
+    }
+
+    SampleBitSet addAll() {
+        bits.set(0, index.size());
+        return this;
+    }
+
+    public boolean contains(String studyId, String sampleId) {
+        int ordinal = index.lookup(studyId, sampleId);
+        return ordinal >= 0 && bits.get(ordinal);
+    }
+
+    public boolean contains(SampleIdentifier sampleIdentifier) {
+        return contains(sampleIdentifier.getStudyId(), sampleIdentifier.getSampleId());
+    }
+
+    public SampleBitSet and(SampleBitSet other) {
+        bits.and(other.bits);
+        return this;
+    }
+
+    public SampleBitSet or(SampleBitSet other) {
+        bits.or(other.bits);
+        return this;
+    }
+
+    public SampleBitSet andNot(SampleBitSet other) {
+        bits.andNot(other.bits);
+        return this;
+    }
+
+    /**
+     * Removes the samples that do not match the predicate.
+     */
+    public SampleBitSet retainIf(Predicate<SampleIdentifier> predicate) {
+        for (int ordinal = bits.nextSetBit(0); ordinal >= 0; ordinal = bits.nextSetBit(ordinal + 1)) {
+            if (!predicate.test(index.get(ordinal))) {
+                bits.clear(ordinal);
+            }
+        }
+        return this;
+    }
+
+    public SampleBitSet copy() {
+        return new SampleBitSet(index, (BitSet) bits.clone());
+    }
+
+    public int cardinality() {
+        return bits.cardinality();
+    }
+
+    public boolean isEmpty() {
+        return bits.isEmpty();
+    }
+
+    /**
+     * Streams the identifiers of the samples in the order in which they were indexed.
+     */
+    public Stream<SampleIdentifier> stream() {
+        return bits.stream().mapToObj(index::get);
+    }
+
+    public List<SampleIdentifier> toSampleIdentifiers() {
+        return stream().collect(Collectors.toList());
+    }
+}
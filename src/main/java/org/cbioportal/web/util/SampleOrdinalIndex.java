@@ -0,0 +1,75 @@
+package org.cbioportal.web.util;
+
+import org.cbioportal.web.parameter.SampleIdentifier;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Assigns every sample of one study set a dense integer ordinal so that the stages of a study view filter can pass
+ * {@link SampleBitSet}s to each other instead of lists of {@link SampleIdentifier}. The index is built once from the
+ * samples a filter starts with and never grows afterwards: samples outside of it are ignored, since no filter stage
+ * can add samples. Only bit sets of the same index can be combined.
+ */
+public class SampleOrdinalIndex {
+
+    private final Map<String, Map<String, Integer>> ordinalsByStudy = new HashMap<>();
+    private final List<SampleIdentifier> sampleIdentifiers;
+
+    /**
+     * Indexes the given samples in their order. A sample listed more than once keeps its first ordinal.
+     */
+    public SampleOrdinalIndex(List<SampleIdentifier> sampleIdentifiers) {
+        this.sampleIdentifiers = new ArrayList<>(sampleIdentifiers.size());
+        for (SampleIdentifier sampleIdentifier : sampleIdentifiers) {
+            Map<String, Integer> ordinals = ordinalsByStudy
+                .computeIfAbsent(sampleIdentifier.getStudyId(), k -> new HashMap<>());
+            if (!ordinals.containsKey(sampleIdentifier.getSampleId())) {
+                ordinals.put(sampleIdentifier.getSampleId(), this.sampleIdentifiers.size());
+                this.sampleIdentifiers.add(sampleIdentifier);
+            }
+        }
+    }
+
+    /**
+     * Returns the ordinal of an indexed sample, or -1 if the sample is not part of this index.
+     */
+    public int lookup(String studyId, String sampleId) {
+        Map<String, Integer> ordinals = ordinalsByStudy.get(studyId);
+        if (ordinals == null) {
+            return -1;
+        }
+        Integer ordinal = ordinals.get(sampleId);
+        return ordinal == null ? -1 : ordinal;
+    }
+
+    public SampleIdentifier get(int ordinal) {
+        return sampleIdentifiers.get(ordinal);
+    }
+
+    /**
+     * Returns a set of the given samples, leaving out the ones that are not part of this index.
+     */
+    public SampleBitSet toBitSet(Collection<SampleIdentifier> sampleIdentifiers) {
+        SampleBitSet sampleBitSet = new SampleBitSet(this);
+        for (SampleIdentifier sampleIdentifier : sampleIdentifiers) {
+            sampleBitSet.add(sampleIdentifier.getStudyId(), sampleIdentifier.getSampleId());
+        }
+        return sampleBitSet;
+    }
+
+    public SampleBitSet allSamples() {
+        return new SampleBitSet(this).addAll();
+    }
+
+    public SampleBitSet emptyBitSet() {
+        return new SampleBitSet(this);
+    }
+
+    public int size() {
+        return sampleIdentifiers.size();
+    }
+}
@@ -0,0 +1,302 @@
+package org.cbioportal.web.util;
+
+import com.google.common.collect.Range;
+import org.cbioportal.model.DataBin;
+
+import java.math.BigDecimal;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * The values of a binned attribute, parsed once: numerical values sorted into a primitive double[] (with the exact
+ * BigDecimals alongside), the endpoints of the special values and the counts of the non-numerical values. A bin is
+ * counted with two binary searches instead of a scan over all values. Special values are open ranges ("&gt;x" and
+ * "&lt;x"), as {@link DataBinner#parseValues} generates them also for "&gt;=x" and "&lt;=x".
+ *
+ * The doubles only narrow the search; values whose double is equal to the one of a bin boundary are compared as
+ * BigDecimals, so that the counts are exactly those of {@link DataBinHelper#calcRange(DataBin)}.
+ */
+public class SortedBinValues {
+
+    private static final BigDecimal[] NO_VALUES = new BigDecimal[0];
+
+    private final BigDecimal[] values;
+    private final double[] doubleValues;
+    // endpoints of the unbounded ranges (x, +inf) and (-inf, x), sorted
+    private final BigDecimal[] greaterThanValues;
+    private final BigDecimal[] lessThanValues;
+    private final Map<String, Integer> nonNumericalCounts = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+
+    public SortedBinValues(List<BigDecimal> numericalValues) {
+        this(numericalValues, Collections.emptyList(), Collections.emptyList());
+    }
+
+    public SortedBinValues(List<BigDecimal> numericalValues,
+                           List<Range<BigDecimal>> specialRanges,
+                           List<String> nonNumericalValues) {
+        this.values = sort(numericalValues.toArray(NO_VALUES));
+        this.doubleValues = new double[values.length];
+        for (int i = 0; i < values.length; i++) {
+            doubleValues[i] = values[i].doubleValue();
+        }
+        this.greaterThanValues = specialEndpoints(specialRanges, true);
+        this.lessThanValues = specialEndpoints(specialRanges, false);
+        for (String value : nonNumericalValues) {
+            nonNumericalCounts.merge(value, 1, Integer::sum);
+        }
+    }
+
+    // endpoints of the ranges unbounded above (lower) or below
+    private static BigDecimal[] specialEndpoints(List<Range<BigDecimal>> specialRanges, boolean lower) {
+        return sort(specialRanges.stream()
+            .filter(range -> lower ?
+                range.hasLowerBound() && !range.hasUpperBound() :
+                range.hasUpperBound() && !range.hasLowerBound())
+            .map(range -> lower ? range.lowerEndpoint() : range.upperEndpoint())
+            .toArray(BigDecimal[]::new));
+    }
+
+    private static BigDecimal[] sort(BigDecimal[] values) {
+        for (int i = 1; i < values.length; i++) {
+            if (values[i - 1].compareTo(values[i]) > 0) {
+                // stable, so that equal values keep their scale order
+                Arrays.sort(values);
+                break;
+            }
+        }
+        return values;
+    }
+
+    /**
+     * @return the numerical values in ascending order
+     */
+    public List<BigDecimal> getSortedValues() {
+        return new SortedList(0, values.length);
+    }
+
+    public int size() {
+        return values.length;
+    }
+
+    /**
+     * @return the number of numerical values and special ranges within the range of the bin, or the number of
+     * non-numerical values equal (ignoring case) to its special value if it has no start and end
+     */
+    public int count(DataBin dataBin) {
+        BigDecimal start = dataBin.getStart();
+        BigDecimal end = dataBin.getEnd();
+        if (start == null && end == null) {
+            Integer count = dataBin.getSpecialValue() == null ? null : nonNumericalCounts.get(dataBin.getSpecialValue());
+            return count == null ? 0 : count;
+        }
+        boolean startInclusive = ">=".equals(dataBin.getSpecialValue());
+        boolean endInclusive = !"<".equals(dataBin.getSpecialValue());
+        // special condition (start == end)
+        if (start != null && end != null && start.compareTo(end) == 0) {
+            startInclusive = endInclusive = true;
+        }
+
+        return Math.max(0, toIndex(end, endInclusive) - fromIndex(start, startInclusive)) + countSpecialRanges(dataBin);
+    }
+
+    /**
+     * @return the number of special ranges enclosed by the range of the bin
+     */
+    public int countSpecialRanges(DataBin dataBin) {
+        BigDecimal start = dataBin.getStart();
+        BigDecimal end = dataBin.getEnd();
+        if (start != null && end == null) {
+            // ">x" is enclosed by [s, +inf) and (s, +inf) with s <= x
+            return greaterThanValues.length - lowerBound(greaterThanValues, start);
+        }
+        if (start == null && end != null) {
+            // "<x" is enclosed by (-inf, e] and (-inf, e) with x <= e
+            return upperBound(lessThanValues, end);
+        }
+        return 0;
+    }
+
+    /**
+     * @return the distinct numerical values (by equals, so 1 and 1.0 are distinct) within the range of the bin
+     */
+    public Set<BigDecimal> findDistinctValues(DataBin dataBin) {
+        BigDecimal start = dataBin.getStart();
+        BigDecimal end = dataBin.getEnd();
+        if (start == null && end == null) {
+            return Collections.emptySet();
+        }
+        boolean startInclusive = ">=".equals(dataBin.getSpecialValue());
+        boolean endInclusive = !"<".equals(dataBin.getSpecialValue());
+        if (start != null && end != null && start.compareTo(end) == 0) {
+            startInclusive = endInclusive = true;
+        }
+        int fromIndex = fromIndex(start, startInclusive);
+        int toIndex = toIndex(end, endInclusive);
+        return fromIndex < toIndex ? new HashSet<>(new SortedList(fromIndex, toIndex)) : Collections.emptySet();
+    }
+
+    /**
+     * @return the number of values below the start of a range: less than it, or at most it if it is exclusive
+     */
+    public int countBelow(BigDecimal start, boolean startInclusive) {
+        return fromIndex(start, startInclusive);
+    }
+
+    /**
+     * @return the number of values above the end of a range: greater than it, or at least it if it is exclusive
+     */
+    public int countAbove(BigDecimal end, boolean endInclusive) {
+        return values.length - toIndex(end, endInclusive);
+    }
+
+    /**
+     * @return the values within a range, either end of which may be null (unbounded)
+     */
+    public List<BigDecimal> subList(BigDecimal start, boolean startInclusive, BigDecimal end, boolean endInclusive) {
+        int fromIndex = fromIndex(start, startInclusive);
+        return new SortedList(fromIndex, Math.max(fromIndex, toIndex(end, endInclusive)));
+    }
+
+    // index of the first value within a range starting at start
+    private int fromIndex(BigDecimal start, boolean startInclusive) {
+        if (start == null) {
+            return 0;
+        }
+        return startInclusive ? lowerBound(start) : upperBound(start);
+    }
+
+    // index after the last value within a range ending at end
+    private int toIndex(BigDecimal end, boolean endInclusive) {
+        if (end == null) {
+            return values.length;
+        }
+        return endInclusive ? upperBound(end) : lowerBound(end);
+    }
+
+    // index of the first value >= key
+    private int lowerBound(BigDecimal key) {
+        double doubleKey = key.doubleValue();
+        int from = lowerBound(doubleValues, doubleKey);
+        int to = upperBound(doubleValues, doubleKey, from);
+        // values with the same double may still be less than key
+        while (from < to) {
+            int middle = (from + to) >>> 1;
+            if (values[middle].compareTo(key) < 0) {
+                from = middle + 1;
+            } else {
+                to = middle;
+            }
+        }
+        return from;
+    }
+
+    // index of the first value > key
+    private int upperBound(BigDecimal key) {
+        double doubleKey = key.doubleValue();
+        int from = lowerBound(doubleValues, doubleKey);
+        int to = upperBound(doubleValues, doubleKey, from);
+        while (from < to) {
+            int middle = (from + to) >>> 1;
+            if (values[middle].compareTo(key) <= 0) {
+                from = middle + 1;
+            } else {
+                to = middle;
+            }
+        }
+        return from;
+    }
+
+    private static int lowerBound(double[] values, double key) {
+        int from = 0;
+        int to = values.length;
+        while (from < to) {
+            int middle = (from + to) >>> 1;
+            if (values[middle] < key) {
+                from = middle + 1;
+            } else {
+                to = middle;
+            }
+        }
+        return from;
+    }
+
+    private static int upperBound(double[] values, double key, int from) {
+        int to = values.length;
+        while (from < to) {
+            int middle = (from + to) >>> 1;
+            if (values[middle] <= key) {
+                from = middle + 1;
+            } else {
+                to = middle;
+            }
+        }
+        return from;
+    }
+
+    // number of values <= key (or all of them if key is null)
+    private static int upperBound(BigDecimal[] values, BigDecimal key) {
+        if (key == null) {
+            return values.length;
+        }
+        int from = 0;
+        int to = values.length;
+        while (from < to) {
+            int middle = (from + to) >>> 1;
+            if (values[middle].compareTo(key) <= 0) {
+                from = middle + 1;
+            } else {
+                to = middle;
+            }
+        }
+        return from;
+    }
+
+    // number of values < key (or none of them if key is null)
+    private static int lowerBound(BigDecimal[] values, BigDecimal key) {
+        if (key == null) {
+            return 0;
+        }
+        int from = 0;
+        int to = values.length;
+        while (from < to) {
+            int middle = (from + to) >>> 1;
+            if (values[middle].compareTo(key) < 0) {
+                from = middle + 1;
+            } else {
+                to = middle;
+            }
+        }
+        return from;
+    }
+
+    private class SortedList extends AbstractList<BigDecimal> implements RandomAccess {
+
+        private final int fromIndex;
+        private final int toIndex;
+
+        private SortedList(int fromIndex, int toIndex) {
+            this.fromIndex = fromIndex;
+            this.toIndex = toIndex;
+        }
+
+        @Override
+        public BigDecimal get(int index) {
+            if (index < 0 || index >= size()) {
+                throw new IndexOutOfBoundsException(index);
+            }
+            return values[fromIndex + index];
+        }
+
+        @Override
+        public int size() {
+            return toIndex - fromIndex;
+        }
+    }
+}
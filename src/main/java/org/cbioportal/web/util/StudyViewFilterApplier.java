@@ -24,6 +24,7 @@ import org.cbioportal.model.MutationFilterOption;
 import org.cbioportal.model.Sample;
 import org.cbioportal.model.SampleList;
 import org.cbioportal.model.UniqueKeyBase;
+import org.cbioportal.persistence.CacheEnabledConfig;
 import org.cbioportal.service.ClinicalAttributeService;
 import org.cbioportal.service.DiscreteCopyNumberService;
 import org.cbioportal.service.GenePanelService;
@@ -59,6 +60,7 @@ import org.cbioportal.web.parameter.SampleIdentifier;
 import org.cbioportal.web.parameter.StudyViewFilter;
 import org.cbioportal.web.util.appliers.StudyViewSubFilterApplier;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.context.ApplicationContext;
 import org.springframework.stereotype.Component;
@@ -122,6 +124,11 @@ public class StudyViewFilterApplier {
     private StructuralVariantService structuralVariantService;
     @Autowired
     private MolecularProfileUtil molecularProfileUtil;
+    @Autowired
+    private CacheEnabledConfig cacheEnabledConfig;
+
+    @Value("${cache.study_view.clause_caching:true}")
+    private boolean clauseCachingEnabled;
 
 
     private StudyViewFilterApplier getInstance() {
@@ -147,9 +154,30 @@ public class StudyViewFilterApplier {
         condition = "@cacheEnabledConfig.getEnabled()"
     )
     public List<SampleIdentifier> cachedApply(StudyViewFilter studyViewFilter) {
+        if (clauseCachingEnabled && cacheEnabledConfig.isEnabled() && studyViewFilter != null) {
+            List<StudyViewFilter> clauseFilters = studyViewFilterUtil.splitIntoClauseFilters(studyViewFilter);
+            if (clauseFilters.size() > 1) {
+                return applyClauseFilters(clauseFilters);
+            }
+        }
         return this.apply(studyViewFilter, false);
     }
 
+    // Chart requests of one study view differ from each other in a single clause (see removeSelfFromFilter),
+    // so resolving every clause through the cache lets them share the results of all the other clauses.
+    private List<SampleIdentifier> applyClauseFilters(List<StudyViewFilter> clauseFilters) {
+        // Every clause is resolved on the same study set, so the result of the first clause indexes all the others.
+        SampleOrdinalIndex sampleOrdinalIndex = new SampleOrdinalIndex(this.getInstance().cachedApply(clauseFilters.get(0)));
+        SampleBitSet filteredSamples = sampleOrdinalIndex.allSamples();
+        for (StudyViewFilter clauseFilter : clauseFilters.subList(1, clauseFilters.size())) {
+            if (filteredSamples.isEmpty()) {
+                break;
+            }
+            filteredSamples.and(sampleOrdinalIndex.toBitSet(this.getInstance().cachedApply(clauseFilter)));
+        }
+        return filteredSamples.toSampleIdentifiers();
+    }
+
     public List<SampleIdentifier> apply(StudyViewFilter studyViewFilter, boolean negateFilters) {
 
         List<SampleIdentifier> sampleIdentifiers = new ArrayList<>();
@@ -171,6 +199,9 @@ public class StudyViewFilterApplier {
         List<String> studyIds = sampleIdentifiers.stream().map(SampleIdentifier::getStudyId).distinct()
             .collect(Collectors.toList());
 
+        // All stages narrow one set of the samples indexed here; identifiers are only listed again at the end.
+        SampleBitSet samples = new SampleOrdinalIndex(sampleIdentifiers).allSamples();
+
         List<ClinicalDataFilter> clinicalDataEqualityFilters = new ArrayList<>();
         List<ClinicalDataFilter> clinicalDataIntervalFilters = new ArrayList<>();
 
@@ -200,16 +231,15 @@ public class StudyViewFilterApplier {
         }
 
         if (!CollectionUtils.isEmpty(clinicalDataEqualityFilters)) {
-            sampleIdentifiers = equalityFilterClinicalData(sampleIdentifiers, clinicalDataEqualityFilters, negateFilters);
+            clinicalDataEqualityFilterApplier.apply(samples, clinicalDataEqualityFilters, negateFilters);
         }
 
         if (!CollectionUtils.isEmpty(clinicalDataIntervalFilters)) {
-            sampleIdentifiers = intervalFilterClinicalData(sampleIdentifiers, clinicalDataIntervalFilters, negateFilters);
+            clinicalDataIntervalFilterApplier.apply(samples, clinicalDataIntervalFilters, negateFilters);
         }
 
         if (!CollectionUtils.isEmpty(studyViewFilter.getCustomDataFilters())) {
-            sampleIdentifiers = customDataFilterApplier.apply(sampleIdentifiers, studyViewFilter.getCustomDataFilters(),
-                negateFilters);
+            customDataFilterApplier.apply(samples, studyViewFilter.getCustomDataFilters(), negateFilters);
         }
 
         List<MolecularProfile> molecularProfiles = null;
@@ -247,17 +277,15 @@ public class StudyViewFilterApplier {
         }
 
         if (!CollectionUtils.isEmpty(genomicDataEqualityFilters)) {
-            sampleIdentifiers = equalityFilterExpressionData(sampleIdentifiers, molecularProfiles,
-                genomicDataEqualityFilters, negateFilters);
+            equalityFilterExpressionData(samples, molecularProfiles, genomicDataEqualityFilters, negateFilters);
         }
 
         if (!CollectionUtils.isEmpty(genomicDataIntervalFilters)) {
-            sampleIdentifiers = intervalFilterExpressionData(sampleIdentifiers, molecularProfiles,
-                genomicDataIntervalFilters, negateFilters);
+            intervalFilterExpressionData(samples, molecularProfiles, genomicDataIntervalFilters, negateFilters);
         }
 
-        sampleIdentifiers = intervalFilterExpressionData(sampleIdentifiers, molecularProfiles,
-            studyViewFilter.getGenericAssayDataFilters(), negateFilters);
+        intervalFilterExpressionData(samples, molecularProfiles, studyViewFilter.getGenericAssayDataFilters(),
+            negateFilters);
 
         if (!CollectionUtils.isEmpty(studyViewFilter.getGeneFilters())) {
             Map<String, MolecularProfile> molecularProfileMap = molecularProfiles.stream()
@@ -272,14 +300,13 @@ public class StudyViewFilterApplier {
             if ((mutatedGeneFilters.size() + structuralVariantGeneFilters.size() + cnaGeneFilters.size()) == studyViewFilter
                 .getGeneFilters().size()) {
                 if (!mutatedGeneFilters.isEmpty()) {
-                    sampleIdentifiers = filterMutatedGenes(mutatedGeneFilters, molecularProfileMap, sampleIdentifiers);
+                    filterMutatedGenes(mutatedGeneFilters, molecularProfileMap, samples);
                 }
                 if (!structuralVariantGeneFilters.isEmpty()) {
-                    sampleIdentifiers = filterStructuralVariantGenes(structuralVariantGeneFilters, molecularProfileMap,
-                        sampleIdentifiers);
+                    filterStructuralVariantGenes(structuralVariantGeneFilters, molecularProfileMap, samples);
                 }
                 if (!cnaGeneFilters.isEmpty()) {
-                    sampleIdentifiers = filterCNAGenes(cnaGeneFilters, molecularProfileMap, sampleIdentifiers);
+                    filterCNAGenes(cnaGeneFilters, molecularProfileMap, samples);
                 }
 
             } else {
@@ -288,7 +315,7 @@ public class StudyViewFilterApplier {
         }
 
         if (!CollectionUtils.isEmpty(studyViewFilter.getGenomicProfiles())) {
-            Map<String, List<SampleIdentifier>> groupStudySampleIdentifiers = sampleIdentifiers.stream()
+            Map<String, List<SampleIdentifier>> groupStudySampleIdentifiers = samples.stream()
                 .collect(Collectors.groupingBy(SampleIdentifier::getStudyId));
 
             Map<String, List<MolecularProfile>> molecularProfileSet = molecularProfileUtil
@@ -319,15 +346,13 @@ public class StudyViewFilterApplier {
                         profileValue -> molecularProfileSet.getOrDefault(profileValue, new ArrayList<>()).stream())
                     .collect(Collectors.toMap(MolecularProfile::getStableId, Function.identity()));
 
-                Set<SampleIdentifier> filteredSampleIdentifiers = new HashSet<>();
+                SampleBitSet filteredSamples = samples.getIndex().emptyBitSet();
                 genePanelData.forEach(datum -> {
                     if (datum.getProfiled() && profileMap.containsKey(datum.getMolecularProfileId())) {
-                        SampleIdentifier sampleIdentifier =
-                            studyViewFilterUtil.buildSampleIdentifier(datum.getStudyId(), datum.getSampleId());
-                        filteredSampleIdentifiers.add(sampleIdentifier);
+                        filteredSamples.add(datum.getStudyId(), datum.getSampleId());
                     }
                 });
-                sampleIdentifiers.retainAll(filteredSampleIdentifiers);
+                samples.and(filteredSamples);
             }
         }
 
@@ -338,17 +363,13 @@ public class StudyViewFilterApplier {
                 .categorizeSampleLists(sampleLists);
 
             for (List<String> sampleListTypes : studyViewFilter.getCaseLists()) {
-                List<SampleIdentifier> filteredSampleIdentifiers = sampleListTypes.stream()
-                    .flatMap(sampleListType -> groupedSampleListByListType
-                        .getOrDefault(sampleListType, new ArrayList<>()).stream().flatMap(sampleList -> {
-                            return sampleList.getSampleIds().stream().map(sampleId ->
-                                studyViewFilterUtil.buildSampleIdentifier(
-                                    sampleList.getCancerStudyIdentifier(),
-                                    sampleId));
-                        }))
-                    .toList();
+                SampleBitSet filteredSamples = samples.getIndex().emptyBitSet();
+                sampleListTypes.forEach(sampleListType -> groupedSampleListByListType
+                    .getOrDefault(sampleListType, new ArrayList<>())
+                    .forEach(sampleList -> sampleList.getSampleIds().forEach(sampleId ->
+                        filteredSamples.add(sampleList.getCancerStudyIdentifier(), sampleId))));
 
-                sampleIdentifiers.retainAll(filteredSampleIdentifiers);
+                samples.and(filteredSamples);
             }
         }
 
@@ -368,45 +389,33 @@ public class StudyViewFilterApplier {
         }
 
         if (!CollectionUtils.isEmpty(mutationOptionDataFilters)) {
-            sampleIdentifiers = filterMutationData(sampleIdentifiers, molecularProfiles,
-                mutationOptionDataFilters, negateFilters, clinicalDataEqualityFilterApplier);
+            filterMutationData(samples, molecularProfiles, mutationOptionDataFilters, negateFilters,
+                clinicalDataEqualityFilterApplier);
         }
 
         if (!CollectionUtils.isEmpty(mutationTypeDataFilters)) {
-            sampleIdentifiers = filterMutationData(sampleIdentifiers, molecularProfiles,
-                mutationTypeDataFilters, negateFilters, clinicalDataEqualityFilterApplier);
+            filterMutationData(samples, molecularProfiles, mutationTypeDataFilters, negateFilters,
+                clinicalDataEqualityFilterApplier);
         }
 
-        return chainSubFilters(studyViewFilter, sampleIdentifiers);
+        return chainSubFilters(studyViewFilter, samples).toSampleIdentifiers();
     }
 
-    private List<SampleIdentifier> chainSubFilters(StudyViewFilter studyViewFilter, List<SampleIdentifier> sampleIdentifiers) {
+    private SampleBitSet chainSubFilters(StudyViewFilter studyViewFilter, SampleBitSet samples) {
         for (StudyViewSubFilterApplier subFilterApplier : subFilterAppliers) {
-            if (!sampleIdentifiers.isEmpty() && subFilterApplier.shouldApplyFilter(studyViewFilter)) {
-                sampleIdentifiers = subFilterApplier.filter(sampleIdentifiers, studyViewFilter);
+            if (!samples.isEmpty() && subFilterApplier.shouldApplyFilter(studyViewFilter)) {
+                samples = subFilterApplier.filter(samples, studyViewFilter);
             }
         }
 
-        return sampleIdentifiers;
-    }
-
-    private List<SampleIdentifier> intervalFilterClinicalData(List<SampleIdentifier> sampleIdentifiers,
-                                                              List<ClinicalDataFilter> clinicalDataIntervalFilters,
-                                                              boolean negateFilters) {
-        return clinicalDataIntervalFilterApplier.apply(sampleIdentifiers, clinicalDataIntervalFilters, negateFilters);
-    }
-
-    private List<SampleIdentifier> equalityFilterClinicalData(List<SampleIdentifier> sampleIdentifiers,
-                                                              List<ClinicalDataFilter> clinicalDataEqualityFilters,
-                                                              boolean negateFilters) {
-        return clinicalDataEqualityFilterApplier.apply(sampleIdentifiers, clinicalDataEqualityFilters, negateFilters);
+        return samples;
     }
 
-    private List<SampleIdentifier> filterMutatedGenes(List<GeneFilter> mutatedGenefilters,
-                                                      Map<String, MolecularProfile> molecularProfileMap, List<SampleIdentifier> sampleIdentifiers) {
+    private void filterMutatedGenes(List<GeneFilter> mutatedGenefilters,
+                                    Map<String, MolecularProfile> molecularProfileMap, SampleBitSet samples) {
 
-        if (sampleIdentifiers == null || sampleIdentifiers.isEmpty()) {
-            return new ArrayList<>();
+        if (samples.isEmpty()) {
+            return;
         }
 
         for (GeneFilter genefilter : mutatedGenefilters) {
@@ -443,7 +452,7 @@ public class StudyViewFilterApplier {
                 geneQueries.stream().forEach(
                     q -> q.setEntrezGeneId(symbolToEntrezGeneId.get(q.getHugoGeneSymbol()))
                 );
-                studyViewFilterUtil.extractStudyAndSampleIds(sampleIdentifiers, studyIds, sampleIds);
+                studyViewFilterUtil.extractStudyAndSampleIds(samples, studyIds, sampleIds);
 
                 List<String> molecularProfileIds = new ArrayList<>();
                 int removedSampleCount = 0;
@@ -457,24 +466,22 @@ public class StudyViewFilterApplier {
                     }
                 }
 
-                sampleIdentifiers = mutationService
+                SampleBitSet mutatedSamples = samples.getIndex().emptyBitSet();
+                mutationService
                     .getMutationsInMultipleMolecularProfilesByGeneQueries(molecularProfileIds, sampleIds, geneQueries,
                         Projection.ID.name(), null, null, null, null)
-                    .stream()
-                    .map(m -> studyViewFilterUtil.buildSampleIdentifier(m.getStudyId(), m.getSampleId()))
-                    .distinct()
-                    .collect(Collectors.toList());
+                    .forEach(m -> mutatedSamples.add(m.getStudyId(), m.getSampleId()));
+                samples.and(mutatedSamples);
             }
 
         }
-        return sampleIdentifiers;
     }
 
-    private List<SampleIdentifier> filterStructuralVariantGenes(List<GeneFilter> svGenefilters,
-                                                                Map<String, MolecularProfile> molecularProfileMap, List<SampleIdentifier> sampleIdentifiers) {
+    private void filterStructuralVariantGenes(List<GeneFilter> svGenefilters,
+                                              Map<String, MolecularProfile> molecularProfileMap, SampleBitSet samples) {
 
-        if (sampleIdentifiers == null || sampleIdentifiers.isEmpty()) {
-            return new ArrayList<>();
+        if (samples.isEmpty()) {
+            return;
         }
 
         for (GeneFilter genefilter : svGenefilters) {
@@ -512,7 +519,7 @@ public class StudyViewFilterApplier {
                     q -> q.setEntrezGeneId(symbolToEntrezGeneId.get(q.getHugoGeneSymbol()))
                 );
 
-                studyViewFilterUtil.extractStudyAndSampleIds(sampleIdentifiers, studyIds, sampleIds);
+                studyViewFilterUtil.extractStudyAndSampleIds(samples, studyIds, sampleIds);
 
                 List<String> molecularProfileIds = new ArrayList<>();
                 int removedSampleCount = 0;
@@ -526,23 +533,21 @@ public class StudyViewFilterApplier {
                     }
                 }
 
-                sampleIdentifiers = structuralVariantService
+                SampleBitSet structuralVariantSamples = samples.getIndex().emptyBitSet();
+                structuralVariantService
                     .fetchStructuralVariantsByGeneQueries(molecularProfileIds, sampleIds, geneQueries)
-                    .stream()
-                    .map(m -> studyViewFilterUtil.buildSampleIdentifier(m.getStudyId(), m.getSampleId()))
-                    .distinct()
-                    .collect(Collectors.toList());
+                    .forEach(m -> structuralVariantSamples.add(m.getStudyId(), m.getSampleId()));
+                samples.and(structuralVariantSamples);
             }
 
         }
-        return sampleIdentifiers;
     }
 
-    private List<SampleIdentifier> filterCNAGenes(List<GeneFilter> cnaGeneFilters,
-                                                  Map<String, MolecularProfile> molecularProfileMap, List<SampleIdentifier> sampleIdentifiers) {
+    private void filterCNAGenes(List<GeneFilter> cnaGeneFilters,
+                                Map<String, MolecularProfile> molecularProfileMap, SampleBitSet samples) {
 
-        if (sampleIdentifiers == null || sampleIdentifiers.isEmpty()) {
-            return new ArrayList<>();
+        if (samples.isEmpty()) {
+            return;
         }
 
         for (GeneFilter geneFilter : cnaGeneFilters) {
@@ -555,7 +560,7 @@ public class StudyViewFilterApplier {
 
                 List<String> studyIds = new ArrayList<>();
                 List<String> sampleIds = new ArrayList<>();
-                studyViewFilterUtil.extractStudyAndSampleIds(sampleIdentifiers, studyIds, sampleIds);
+                studyViewFilterUtil.extractStudyAndSampleIds(samples, studyIds, sampleIds);
 
                 List<String> molecularProfileIds = new ArrayList<>();
                 Map<String, List<MolecularProfile>> mapByStudyId = filteredMolecularProfiles.stream()
@@ -606,21 +611,19 @@ public class StudyViewFilterApplier {
                         return copyNumberDatas.stream();
                     }).toList();
 
-                sampleIdentifiers = resultList.stream().map(
-                    d -> studyViewFilterUtil.buildSampleIdentifier(d.getStudyId(), d.getSampleId())
-                ).distinct().collect(Collectors.toList());
+                SampleBitSet cnaSamples = samples.getIndex().emptyBitSet();
+                resultList.forEach(d -> cnaSamples.add(d.getStudyId(), d.getSampleId()));
+                samples.and(cnaSamples);
             }
         }
-
-        return sampleIdentifiers;
     }
 
-    private List<SampleIdentifier> filterMutationData(List<SampleIdentifier> sampleIdentifiers,
-                                                      List<MolecularProfile> molecularProfiles, List<MutationDataFilter> mutationDataFilters,
-                                                      boolean negateFilters, ClinicalDataFilterApplier clinicalDataFilterApplier) {
-        if (CollectionUtils.isNotEmpty(mutationDataFilters) && CollectionUtils.isNotEmpty(sampleIdentifiers)) {
+    private void filterMutationData(SampleBitSet samples,
+                                    List<MolecularProfile> molecularProfiles, List<MutationDataFilter> mutationDataFilters,
+                                    boolean negateFilters, ClinicalDataFilterApplier clinicalDataFilterApplier) {
+        if (CollectionUtils.isNotEmpty(mutationDataFilters) && !samples.isEmpty()) {
             List<ClinicalData> clinicalDatas =
-                fetchMutationDataAndTransformToClinicalDataList(sampleIdentifiers, molecularProfiles, mutationDataFilters);
+                fetchMutationDataAndTransformToClinicalDataList(samples, molecularProfiles, mutationDataFilters);
 
 
             MultiKeyMap<String, ?> clinicalDataMap;
@@ -630,7 +633,7 @@ public class StudyViewFilterApplier {
                 clinicalDataMap = ClinicalDataIntervalFilterApplier.buildClinicalDataMap(clinicalDatas);
             }
 
-            List<SampleIdentifier> newSampleIdentifiers = new ArrayList<>();
+            SampleBitSet newSamples = null;
 
             // loop through each mutationDataFilter and filter data
             for (MutationDataFilter mutationDataFilter : mutationDataFilters) {
@@ -643,23 +646,21 @@ public class StudyViewFilterApplier {
                     List<ClinicalDataFilter> attributes = Collections.singletonList(clinicalDataFilter);
 
                     // union selection: filter all samples that have at least one value from a list of DataFilterValue, e.g. Missense_Mutation, In_Shift_Del, ...
-                    List<SampleIdentifier> filteredSampleIdentifiers = filterSampleIdentifiers(
-                        sampleIdentifiers, attributes, clinicalDataMap, clinicalDataFilterApplier, negateFilters
+                    SampleBitSet filteredSamples = filterSamples(
+                        samples.copy(), attributes, clinicalDataMap, clinicalDataFilterApplier, negateFilters
                     );
 
-                    if (newSampleIdentifiers.isEmpty()) {
-                        newSampleIdentifiers = filteredSampleIdentifiers;
+                    if (newSamples == null || newSamples.isEmpty()) {
+                        newSamples = filteredSamples;
                     } else {
                         // intersection selection: retain shared samples from each selection for all mutationDataFilter
-                        newSampleIdentifiers.retainAll(filteredSampleIdentifiers);
+                        newSamples.and(filteredSamples);
                     }
                 }
             }
 
-            return newSampleIdentifiers.stream().distinct().toList();
+            samples.and(newSamples == null ? samples.getIndex().emptyBitSet() : newSamples);
         }
-
-        return sampleIdentifiers;
     }
 
     private void splitGeneFiltersByMolecularAlterationType(List<GeneFilter> genefilters,
@@ -973,27 +974,27 @@ public class StudyViewFilterApplier {
         return genericAssayDataBin;
     }
 
-    public <S extends DataFilter> List<SampleIdentifier> intervalFilterExpressionData(
-        List<SampleIdentifier> sampleIdentifiers, List<MolecularProfile> molecularProfiles, List<S> dataFilters,
+    public <S extends DataFilter> SampleBitSet intervalFilterExpressionData(
+        SampleBitSet samples, List<MolecularProfile> molecularProfiles, List<S> dataFilters,
         boolean negateFilters) {
 
-        return filterExpressionData(sampleIdentifiers, molecularProfiles, dataFilters, negateFilters, clinicalDataIntervalFilterApplier);
+        return filterExpressionData(samples, molecularProfiles, dataFilters, negateFilters, clinicalDataIntervalFilterApplier);
     }
 
-    public <S extends DataFilter> List<SampleIdentifier> equalityFilterExpressionData(
-        List<SampleIdentifier> sampleIdentifiers, List<MolecularProfile> molecularProfiles, List<S> dataFilters,
+    public <S extends DataFilter> SampleBitSet equalityFilterExpressionData(
+        SampleBitSet samples, List<MolecularProfile> molecularProfiles, List<S> dataFilters,
         boolean negateFilters) {
 
-        return filterExpressionData(sampleIdentifiers, molecularProfiles, dataFilters, negateFilters, clinicalDataEqualityFilterApplier);
+        return filterExpressionData(samples, molecularProfiles, dataFilters, negateFilters, clinicalDataEqualityFilterApplier);
     }
 
 
-    public <S extends DataFilter> List<SampleIdentifier> filterExpressionData(
-        List<SampleIdentifier> sampleIdentifiers, List<MolecularProfile> molecularProfiles, List<S> dataFilters,
+    public <S extends DataFilter> SampleBitSet filterExpressionData(
+        SampleBitSet samples, List<MolecularProfile> molecularProfiles, List<S> dataFilters,
         boolean negateFilters, ClinicalDataFilterApplier clinicalDataFilterApplier) {
-        if (!CollectionUtils.isEmpty(dataFilters) && !CollectionUtils.isEmpty(sampleIdentifiers)) {
+        if (!CollectionUtils.isEmpty(dataFilters) && !samples.isEmpty()) {
             List<ClinicalData> clinicalDatas =
-                fetchDataAndTransformToClinicalDataList(sampleIdentifiers, molecularProfiles, dataFilters);
+                fetchDataAndTransformToClinicalDataList(samples, molecularProfiles, dataFilters);
             List<ClinicalDataFilter> attributes = transformToClinicalDataFilter(dataFilters);
 
             MultiKeyMap<String, ?> clinicalDataMap;
@@ -1003,20 +1004,20 @@ public class StudyViewFilterApplier {
                 clinicalDataMap = ClinicalDataIntervalFilterApplier.buildClinicalDataMap(clinicalDatas);
             }
 
-            return filterSampleIdentifiers(sampleIdentifiers, attributes, clinicalDataMap, clinicalDataFilterApplier, negateFilters).stream().distinct().toList();
+            return filterSamples(samples, attributes, clinicalDataMap, clinicalDataFilterApplier, negateFilters);
         }
 
-        return sampleIdentifiers;
+        return samples;
     }
 
     private <S extends DataFilter> List<ClinicalData> fetchDataAndTransformToClinicalDataList(
-        List<SampleIdentifier> sampleIdentifiers, List<MolecularProfile> molecularProfiles, List<S> dataFilters) {
+        SampleBitSet samples, List<MolecularProfile> molecularProfiles, List<S> dataFilters) {
         Map<String, List<MolecularProfile>> molecularProfileMap = molecularProfileUtil
             .categorizeMolecularProfilesByStableIdSuffixes(molecularProfiles);
 
         List<String> studyIds = new ArrayList<>();
         List<String> sampleIds = new ArrayList<>();
-        studyViewFilterUtil.extractStudyAndSampleIds(sampleIdentifiers, studyIds, sampleIds);
+        studyViewFilterUtil.extractStudyAndSampleIds(samples, studyIds, sampleIds);
 
         if (dataFilters.getFirst() instanceof GenomicDataFilter) {
             List<GenomicDataFilter> genomicDataIntervalFilters = (List<GenomicDataFilter>) dataFilters;
@@ -1065,14 +1066,14 @@ public class StudyViewFilterApplier {
     }
 
     private List<ClinicalData> fetchMutationDataAndTransformToClinicalDataList(
-        List<SampleIdentifier> sampleIdentifiers, List<MolecularProfile> molecularProfiles, List<MutationDataFilter> mutationDataFilters
+        SampleBitSet samples, List<MolecularProfile> molecularProfiles, List<MutationDataFilter> mutationDataFilters
     ) {
         Map<String, List<MolecularProfile>> molecularProfileMap = molecularProfileUtil
             .categorizeMolecularProfilesByStableIdSuffixes(molecularProfiles);
 
         List<String> studyIds = new ArrayList<>();
         List<String> sampleIds = new ArrayList<>();
-        studyViewFilterUtil.extractStudyAndSampleIds(sampleIdentifiers, studyIds, sampleIds);
+        studyViewFilterUtil.extractStudyAndSampleIds(samples, studyIds, sampleIds);
 
         Set<String> hugoGeneSymbols = mutationDataFilters.stream()
             .map(MutationDataFilter::getHugoGeneSymbol).collect(Collectors.toSet());
@@ -1090,7 +1091,7 @@ public class StudyViewFilterApplier {
 
             if (mutationDataFilter.getCategorization() == MutationOption.MUTATED) {
                 return fetchMutatedAndWildTypeData(
-                    sampleIdentifiers, geneNameIdMap, mutationDataFilter,
+                    samples, geneNameIdMap, mutationDataFilter,
                     studyIdToMolecularProfileIdMap);
             } else {
                 // fetch mutation type data
@@ -1201,11 +1202,11 @@ public class StudyViewFilterApplier {
     }
 
     private Stream<ClinicalData> fetchMutatedAndWildTypeData(
-        List<SampleIdentifier> sampleIdentifiers, Map<String, Integer> geneNameIdMap, MutationDataFilter mutationDataFilter,
+        SampleBitSet samples, Map<String, Integer> geneNameIdMap, MutationDataFilter mutationDataFilter,
         Map<String, String> studyIdToMolecularProfileIdMap) {
         List<String> studyIds = new ArrayList<>();
         List<String> sampleIds = new ArrayList<>();
-        studyViewFilterUtil.extractStudyAndSampleIds(sampleIdentifiers, studyIds, sampleIds);
+        studyViewFilterUtil.extractStudyAndSampleIds(samples, studyIds, sampleIds);
 
         // mutated
         List<ClinicalData> mutatedClinicalDatas = invokeDataFunc(sampleIds, studyIds,
@@ -1213,21 +1214,16 @@ public class StudyViewFilterApplier {
             studyIdToMolecularProfileIdMap, studyViewFilterUtil.getMutationDataFilterUniqueKey(mutationDataFilter),
             fetchMutatedData).toList();
 
-        List<SampleIdentifier> mutatedSampleIdentifiers = mutatedClinicalDatas
-            .stream()
-            .map(datum -> studyViewFilterUtil.buildSampleIdentifier(datum.getStudyId(), datum.getSampleId())
-            ).toList();
+        SampleBitSet mutatedSamples = samples.getIndex().emptyBitSet();
+        mutatedClinicalDatas.forEach(datum -> mutatedSamples.add(datum.getStudyId(), datum.getSampleId()));
 
         List<ClinicalData> clinicalDatas = new ArrayList<>(mutatedClinicalDatas);
 
         // not profiled
-        List<SampleIdentifier> profiledSampleIdentifiers = fetchProfiledMutationDataByGene(
-            studyIds, sampleIds, geneNameIdMap.get(mutationDataFilter.getHugoGeneSymbol()));
+        SampleBitSet profiledSamples = samples.getIndex().toBitSet(fetchProfiledMutationDataByGene(
+            studyIds, sampleIds, geneNameIdMap.get(mutationDataFilter.getHugoGeneSymbol())));
 
-        List<SampleIdentifier> notProfiledSampleIdentifiers = sampleIdentifiers
-            .stream()
-            .filter(s -> profiledSampleIdentifiers.stream().noneMatch(p -> p.equals(s)))
-            .toList();
+        List<SampleIdentifier> notProfiledSampleIdentifiers = samples.copy().andNot(profiledSamples).toSampleIdentifiers();
 
         List<ClinicalData> notProfiledClinicalDatas = studyViewFilterUtil.transformSampleIdentifiersToClinicalData(
             notProfiledSampleIdentifiers,
@@ -1238,10 +1234,7 @@ public class StudyViewFilterApplier {
         clinicalDatas.addAll(notProfiledClinicalDatas);
 
         // not mutated
-        List<SampleIdentifier> notMutatedSampleIdentifiers = profiledSampleIdentifiers
-            .stream()
-            .filter(p -> mutatedSampleIdentifiers.stream().noneMatch(m -> m.equals(p)))
-            .toList();
+        List<SampleIdentifier> notMutatedSampleIdentifiers = profiledSamples.andNot(mutatedSamples).toSampleIdentifiers();
 
         List<ClinicalData> notMutatedClinicalDatas = studyViewFilterUtil.transformSampleIdentifiersToClinicalData(
             notMutatedSampleIdentifiers,
@@ -1275,24 +1268,22 @@ public class StudyViewFilterApplier {
         return clinicalData;
     }
 
-    private List<SampleIdentifier> filterSampleIdentifiers(
-        List<SampleIdentifier> sampleIdentifiers,
+    private SampleBitSet filterSamples(
+        SampleBitSet samples,
         List<ClinicalDataFilter> attributes,
         MultiKeyMap<String, ?> clinicalDataMap,
         ClinicalDataFilterApplier clinicalDataFilterApplier,
         boolean negateFilters
     ) {
-        return sampleIdentifiers.stream()
-            .filter(sampleIdentifier -> {
-                int count = clinicalDataFilterApplier.apply(
-                    attributes,
-                    clinicalDataMap,
-                    sampleIdentifier.getSampleId(),
-                    sampleIdentifier.getStudyId(),
-                    negateFilters
-                );
-                return count == attributes.size();
-            })
-            .collect(Collectors.toList());
+        return samples.retainIf(sampleIdentifier -> {
+            int count = clinicalDataFilterApplier.apply(
+                attributes,
+                clinicalDataMap,
+                sampleIdentifier.getSampleId(),
+                sampleIdentifier.getStudyId(),
+                negateFilters
+            );
+            return count == attributes.size();
+        });
     }
 }
@@ -9,6 +9,7 @@ import org.cbioportal.model.ClinicalDataCount;
 import org.cbioportal.model.ClinicalDataCountItem;
 import org.cbioportal.model.DataBin;
 import org.cbioportal.model.Gene;
+import org.cbioportal.model.GeneFilter;
 import org.cbioportal.model.GeneFilterQuery;
 import org.cbioportal.model.Patient;
 import org.cbioportal.model.SampleList;
@@ -63,6 +64,13 @@ public class StudyViewFilterUtil {
         }
     }
 
+    public void extractStudyAndSampleIds(SampleBitSet samples, List<String> studyIds, List<String> sampleIds) {
+        samples.stream().forEach(sampleIdentifier -> {
+            studyIds.add(sampleIdentifier.getStudyId());
+            sampleIds.add(sampleIdentifier.getSampleId());
+        });
+    }
+
     public void removeSelfFromFilter(String attributeId, StudyViewFilter studyViewFilter) {
         if (studyViewFilter != null && studyViewFilter.getClinicalDataFilters() != null) {
             studyViewFilter.getClinicalDataFilters().removeIf(f -> f.getAttributeId().equals(attributeId));
@@ -99,6 +107,81 @@ public class StudyViewFilterUtil {
         }
     }
 
+    /**
+     * Splits a study view filter into independently cacheable parts: one filter per clinical data filter, one
+     * per gene filter and one per case list group, each restricted to the same studies/samples as the original.
+     * Any remaining filters are kept together in the first part. Every part selects samples independently of
+     * the others, so the original filter selects the intersection of the parts.
+     */
+    public List<StudyViewFilter> splitIntoClauseFilters(StudyViewFilter studyViewFilter) {
+        List<StudyViewFilter> clauseFilters = new ArrayList<>();
+
+        StudyViewFilter remainingFilter = copyWithoutClauses(studyViewFilter);
+        remainingFilter.setAlterationFilter(studyViewFilter.getAlterationFilter());
+        remainingFilter.setStructuralVariantFilters(studyViewFilter.getStructuralVariantFilters());
+        remainingFilter.setSampleTreatmentFilters(studyViewFilter.getSampleTreatmentFilters());
+        remainingFilter.setSampleTreatmentGroupFilters(studyViewFilter.getSampleTreatmentGroupFilters());
+        remainingFilter.setSampleTreatmentTargetFilters(studyViewFilter.getSampleTreatmentTargetFilters());
+        remainingFilter.setPatientTreatmentFilters(studyViewFilter.getPatientTreatmentFilters());
+        remainingFilter.setPatientTreatmentGroupFilters(studyViewFilter.getPatientTreatmentGroupFilters());
+        remainingFilter.setPatientTreatmentTargetFilters(studyViewFilter.getPatientTreatmentTargetFilters());
+        remainingFilter.setGenomicProfiles(studyViewFilter.getGenomicProfiles());
+        remainingFilter.setGenomicDataFilters(studyViewFilter.getGenomicDataFilters());
+        remainingFilter.setGenericAssayDataFilters(studyViewFilter.getGenericAssayDataFilters());
+        remainingFilter.setCustomDataFilters(studyViewFilter.getCustomDataFilters());
+        remainingFilter.setClinicalEventFilters(studyViewFilter.getClinicalEventFilters());
+        remainingFilter.setMutationDataFilters(studyViewFilter.getMutationDataFilters());
+        if (hasRemainingFilters(remainingFilter)) {
+            clauseFilters.add(remainingFilter);
+        }
+
+        if (studyViewFilter.getClinicalDataFilters() != null) {
+            for (ClinicalDataFilter clinicalDataFilter : studyViewFilter.getClinicalDataFilters()) {
+                StudyViewFilter clauseFilter = copyWithoutClauses(studyViewFilter);
+                clauseFilter.setClinicalDataFilters(List.of(clinicalDataFilter));
+                clauseFilters.add(clauseFilter);
+            }
+        }
+        if (studyViewFilter.getGeneFilters() != null) {
+            for (GeneFilter geneFilter : studyViewFilter.getGeneFilters()) {
+                StudyViewFilter clauseFilter = copyWithoutClauses(studyViewFilter);
+                clauseFilter.setGeneFilters(List.of(geneFilter));
+                clauseFilters.add(clauseFilter);
+            }
+        }
+        if (studyViewFilter.getCaseLists() != null) {
+            for (List<String> caseListGroup : studyViewFilter.getCaseLists()) {
+                StudyViewFilter clauseFilter = copyWithoutClauses(studyViewFilter);
+                clauseFilter.setCaseLists(List.of(caseListGroup));
+                clauseFilters.add(clauseFilter);
+            }
+        }
+        return clauseFilters;
+    }
+
+    private boolean hasRemainingFilters(StudyViewFilter filter) {
+        return CollectionUtils.isNotEmpty(filter.getStructuralVariantFilters())
+            || filter.getSampleTreatmentFilters() != null
+            || filter.getSampleTreatmentGroupFilters() != null
+            || filter.getSampleTreatmentTargetFilters() != null
+            || filter.getPatientTreatmentFilters() != null
+            || filter.getPatientTreatmentGroupFilters() != null
+            || filter.getPatientTreatmentTargetFilters() != null
+            || CollectionUtils.isNotEmpty(filter.getGenomicProfiles())
+            || CollectionUtils.isNotEmpty(filter.getGenomicDataFilters())
+            || CollectionUtils.isNotEmpty(filter.getGenericAssayDataFilters())
+            || CollectionUtils.isNotEmpty(filter.getCustomDataFilters())
+            || CollectionUtils.isNotEmpty(filter.getClinicalEventFilters())
+            || CollectionUtils.isNotEmpty(filter.getMutationDataFilters());
+    }
+
+    private StudyViewFilter copyWithoutClauses(StudyViewFilter studyViewFilter) {
+        StudyViewFilter copy = new StudyViewFilter();
+        copy.setStudyIds(studyViewFilter.getStudyIds());
+        copy.setSampleIdentifiers(studyViewFilter.getSampleIdentifiers());
+        return copy;
+    }
+
     public String getCaseUniqueKey(String studyId, String caseId) {
         return studyId + caseId;
     }
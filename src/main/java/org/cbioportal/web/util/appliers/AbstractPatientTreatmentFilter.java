@@ -3,9 +3,9 @@ package org.cbioportal.web.util.appliers;
 import org.cbioportal.model.ClinicalEventKeyCode;
 import org.cbioportal.model.PatientTreatmentRow;
 import org.cbioportal.service.TreatmentService;
-import org.cbioportal.web.parameter.SampleIdentifier;
 import org.cbioportal.web.parameter.StudyViewFilter;
 import org.cbioportal.web.parameter.filter.AndedPatientTreatmentFilters;
+import org.cbioportal.web.util.SampleBitSet;
 import org.springframework.beans.factory.annotation.Autowired;
 
 import java.util.ArrayList;
@@ -22,33 +22,30 @@ public abstract class AbstractPatientTreatmentFilter implements StudyViewSubFilt
     TreatmentRowExtractor treatmentRowExtractor;
 
     @Override
-    public List<SampleIdentifier> filter(
-        List<SampleIdentifier> identifiers,
+    public SampleBitSet filter(
+        SampleBitSet identifiers,
         StudyViewFilter filter
     ) {
 
-        if (identifiers == null || identifiers.isEmpty()) {
-            return new ArrayList<>();
+        if (identifiers.isEmpty()) {
+            return identifiers;
         }
         
         AndedPatientTreatmentFilters filters = getFilters(filter);
 
-        List<String> sampleIds = identifiers.stream()
-            .map(SampleIdentifier::getSampleId)
-            .collect(Collectors.toList());
-
-        List<String> studyIds = identifiers.stream()
-            .map(SampleIdentifier::getStudyId)
-            .collect(Collectors.toList());
+        List<String> studyIds = new ArrayList<>();
+        List<String> sampleIds = new ArrayList<>();
+        identifiers.stream().forEach(identifier -> {
+            studyIds.add(identifier.getStudyId());
+            sampleIds.add(identifier.getSampleId());
+        });
 
         Map<String, Set<String>> rows =
             treatmentService.getAllPatientTreatmentRows(sampleIds, studyIds, getCode())
                 .stream()
                 .collect(Collectors.toMap(PatientTreatmentRow::getTreatment, treatmentRowExtractor::extractSamples));
 
-        return identifiers.stream()
-            .filter(i -> filters.filter(i, rows))
-            .collect(Collectors.toList());
+        return identifiers.retainIf(i -> filters.filter(i, rows));
     }
     
     protected abstract AndedPatientTreatmentFilters getFilters(StudyViewFilter filter);
@@ -3,9 +3,9 @@ package org.cbioportal.web.util.appliers;
 import org.cbioportal.model.ClinicalEventKeyCode;
 import org.cbioportal.model.SampleTreatmentRow;
 import org.cbioportal.service.TreatmentService;
-import org.cbioportal.web.parameter.SampleIdentifier;
 import org.cbioportal.web.parameter.StudyViewFilter;
 import org.cbioportal.web.parameter.filter.AndedSampleTreatmentFilters;
+import org.cbioportal.web.util.SampleBitSet;
 import org.springframework.beans.factory.annotation.Autowired;
 
 import java.util.ArrayList;
@@ -22,32 +22,30 @@ public abstract class AbstractSampleTreatmentFilter implements StudyViewSubFilte
     TreatmentRowExtractor treatmentRowExtractor;
 
     @Override
-    public List<SampleIdentifier> filter (
-        List<SampleIdentifier> identifiers,
+    public SampleBitSet filter (
+        SampleBitSet identifiers,
         StudyViewFilter filter
     ) {
     
-        if (identifiers == null || identifiers.isEmpty()) {
-            return new ArrayList<>();
+        if (identifiers.isEmpty()) {
+            return identifiers;
         }
 
         AndedSampleTreatmentFilters filters = getFilters(filter);
 
-        List<String> sampleIds = identifiers.stream()
-            .map(SampleIdentifier::getSampleId)
-            .collect(Collectors.toList());
-        List<String> studyIds = identifiers.stream()
-            .map(SampleIdentifier::getStudyId)
-            .collect(Collectors.toList());
+        List<String> studyIds = new ArrayList<>();
+        List<String> sampleIds = new ArrayList<>();
+        identifiers.stream().forEach(identifier -> {
+            studyIds.add(identifier.getStudyId());
+            sampleIds.add(identifier.getSampleId());
+        });
 
         Map<String, Set<String>> rows =
             treatmentService.getAllSampleTreatmentRows(sampleIds, studyIds, getCode())
                 .stream()
                 .collect(Collectors.toMap(SampleTreatmentRow::key, treatmentRowExtractor::extractSamples));
 
-        return identifiers.stream()
-            .filter(id -> filters.filter(id, rows))
-            .collect(Collectors.toList());
+        return identifiers.retainIf(id -> filters.filter(id, rows));
     }
     
     protected abstract AndedSampleTreatmentFilters getFilters(StudyViewFilter filter);
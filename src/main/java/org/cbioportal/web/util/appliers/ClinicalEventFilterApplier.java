@@ -5,6 +5,7 @@ import org.cbioportal.web.parameter.DataFilter;
 import org.cbioportal.web.parameter.DataFilterValue;
 import org.cbioportal.web.parameter.SampleIdentifier;
 import org.cbioportal.web.parameter.StudyViewFilter;
+import org.cbioportal.web.util.SampleBitSet;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Component;
@@ -25,19 +26,18 @@ public final class ClinicalEventFilterApplier implements StudyViewSubFilterAppli
     private ClinicalEventService clinicalEventService;
     
     @Override
-    public List<SampleIdentifier> filter(@NonNull List<SampleIdentifier> toFilter, @NonNull StudyViewFilter filters) {
+    public SampleBitSet filter(@NonNull SampleBitSet toFilter, @NonNull StudyViewFilter filters) {
 
-       if (toFilter == null || toFilter.isEmpty()) {
-           return new ArrayList<>();
+       if (toFilter.isEmpty()) {
+           return toFilter;
        }
         
-       List<String> studyIds = toFilter.stream()
-           .map(SampleIdentifier::getStudyId)
-           .collect(Collectors.toList());
-      
-       List<String> sampleIds = toFilter.stream()
-           .map(SampleIdentifier::getSampleId)
-           .collect(Collectors.toList());
+       List<String> studyIds = new ArrayList<>();
+       List<String> sampleIds = new ArrayList<>();
+       toFilter.stream().forEach(sampleIdentifier -> {
+           studyIds.add(sampleIdentifier.getStudyId());
+           sampleIds.add(sampleIdentifier.getSampleId());
+       });
        
        Map<String, Set<String>> samplesPerEventType = clinicalEventService.getPatientsSamplesPerClinicalEventType(studyIds, sampleIds);
        
@@ -45,9 +45,7 @@ public final class ClinicalEventFilterApplier implements StudyViewSubFilterAppli
            .map(ClinicalEventFilter::new)
            .collect(Collectors.toList());
        
-        return toFilter.stream()
-            .filter(i -> applyClinicalEventFilter(i, clinicalEventFilters, samplesPerEventType))
-            .collect(Collectors.toList());
+        return toFilter.retainIf(i -> applyClinicalEventFilter(i, clinicalEventFilters, samplesPerEventType));
     }
 
     boolean applyClinicalEventFilter(SampleIdentifier sampleIdentifier, List<ClinicalEventFilter> eventFilters, Map<String, Set<String>> samplesPerEventType) {
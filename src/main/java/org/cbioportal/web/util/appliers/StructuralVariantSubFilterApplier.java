@@ -7,6 +7,7 @@ import org.cbioportal.service.MolecularProfileService;
 import org.cbioportal.service.StructuralVariantService;
 import org.cbioportal.web.parameter.SampleIdentifier;
 import org.cbioportal.web.parameter.StudyViewFilter;
+import org.cbioportal.web.util.SampleBitSet;
 import org.cbioportal.web.util.StudyViewFilterUtil;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
@@ -30,7 +31,7 @@ public class StructuralVariantSubFilterApplier implements StudyViewSubFilterAppl
     private StudyViewFilterUtil studyViewFilterUtil;
     
     @Override
-    public List<SampleIdentifier> filter(List<SampleIdentifier> toFilter, StudyViewFilter filters) {
+    public SampleBitSet filter(SampleBitSet toFilter, StudyViewFilter filters) {
 
         final List<StudyViewStructuralVariantFilter> structVarFilters = getStructVarFilters(filters);
 
@@ -44,8 +45,6 @@ public class StructuralVariantSubFilterApplier implements StudyViewSubFilterAppl
         Map<String, MolecularProfile> molecularProfileMap = molecularProfiles.stream()
             .collect(Collectors.toMap(MolecularProfile::getStableId, Function.identity()));
 
-        List<SampleIdentifier> remainingSampleIdentifiers = toFilter;
-        
         for (StudyViewStructuralVariantFilter structuralVariantFilter : structVarFilters) {
 
             // Collect molecular profiles referenced in gene filter.
@@ -61,9 +60,9 @@ public class StructuralVariantSubFilterApplier implements StudyViewSubFilterAppl
 
             for (List<StructuralVariantFilterQuery> structVarQueries: structuralVariantFilter.getStructVarQueries()) {
 
-                // Remove samples in remainingSampleIdentifiers that belong to a study that is not accessible to the current user
+                // Remove samples in toFilter that belong to a study that is not accessible to the current user
                 // (do not appear in the molecularProfileMap argument). 
-                final List<SampleIdentifier> filteredSampleIdentifiers = remainingSampleIdentifiers.stream()
+                final List<SampleIdentifier> filteredSampleIdentifiers = toFilter.stream()
                     .filter(i -> mapByStudyId.containsKey(i.getStudyId())).collect(Collectors.toList());
 
                 final List<String> molecularProfileIds = filteredSampleIdentifiers.stream()
@@ -76,21 +75,15 @@ public class StructuralVariantSubFilterApplier implements StudyViewSubFilterAppl
                         .collect(Collectors.toList());
 
                 final List<StructuralVariantFilterQuery> entrezIdEnhancedSvQueries = studyViewFilterUtil.resolveEntrezGeneIds(structVarQueries);
-                remainingSampleIdentifiers = structuralVariantService
+                final SampleBitSet structuralVariantSamples = toFilter.getIndex().emptyBitSet();
+                structuralVariantService
                     .fetchStructuralVariantsByStructVarQueries(molecularProfileIds, sampleIds, entrezIdEnhancedSvQueries)
-                    .stream()
-                    .map(m -> {
-                        SampleIdentifier sampleIdentifier = new SampleIdentifier();
-                        sampleIdentifier.setSampleId(m.getSampleId());
-                        sampleIdentifier.setStudyId(m.getStudyId());
-                        return sampleIdentifier;
-                    })
-                    .distinct()
-                    .collect(Collectors.toList());
+                    .forEach(m -> structuralVariantSamples.add(m.getStudyId(), m.getSampleId()));
+                toFilter.and(structuralVariantSamples);
             }
 
         }
-        return remainingSampleIdentifiers;
+        return toFilter;
     }
 
     @Override
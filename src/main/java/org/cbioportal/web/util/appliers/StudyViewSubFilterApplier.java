@@ -1,12 +1,10 @@
 package org.cbioportal.web.util.appliers;
 
-import org.cbioportal.web.parameter.SampleIdentifier;
 import org.cbioportal.web.parameter.StudyViewFilter;
-
-import java.util.List;
+import org.cbioportal.web.util.SampleBitSet;
 
 public interface StudyViewSubFilterApplier {
-    List<SampleIdentifier> filter(List<SampleIdentifier> toFilter, StudyViewFilter filters);
+    SampleBitSet filter(SampleBitSet toFilter, StudyViewFilter filters);
     
    boolean shouldApplyFilter(StudyViewFilter studyViewFilter);
 }
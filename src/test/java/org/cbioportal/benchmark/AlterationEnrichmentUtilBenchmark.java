@@ -0,0 +1,78 @@
+package org.cbioportal.benchmark;
+
+import org.apache.commons.math3.util.Pair;
+import org.cbioportal.model.AlterationCountByGene;
+import org.cbioportal.model.AlterationEnrichment;
+import org.cbioportal.service.GeneService;
+import org.cbioportal.service.util.AlterationEnrichmentUtil;
+import org.cbioportal.service.util.FisherExactTestCalculator;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+
+/**
+ * Computes the alteration enrichments of 20000 genes between two (Fisher's exact test) or three (chi-squared test)
+ * groups splitting a synthetic cohort.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AlterationEnrichmentUtilBenchmark {
+
+    @Param({"10000", "100000"})
+    private int samples;
+
+    @Param({"2", "3"})
+    private int groups;
+
+    private AlterationEnrichmentUtil<AlterationCountByGene> alterationEnrichmentUtil;
+    private Map<String, Pair<List<AlterationCountByGene>, Long>> alterationCountsByGroup;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SyntheticCohort cohort = new SyntheticCohort(samples, 42);
+        alterationCountsByGroup = new HashMap<>();
+        int profiledCases = samples / groups;
+        for (int group = 0; group < groups; group++) {
+            String name = "group" + group;
+            alterationCountsByGroup.put(name, new Pair<>(
+                cohort.createAlterationCounts(name, SyntheticCohort.NUMBER_OF_GENES, profiledCases),
+                (long) profiledCases));
+        }
+
+        GeneService geneService = Mockito.mock(GeneService.class);
+        Mockito.when(geneService.fetchGenes(anyList(), anyString(), anyString()))
+            .thenReturn(cohort.createGenes(SyntheticCohort.NUMBER_OF_GENES));
+        alterationEnrichmentUtil = new AlterationEnrichmentUtil<>();
+        ReflectionTestUtils.setField(alterationEnrichmentUtil, "fisherExactTestCalculator",
+            new FisherExactTestCalculator());
+        ReflectionTestUtils.setField(alterationEnrichmentUtil, "geneService", geneService);
+    }
+
+    @Benchmark
+    public List<AlterationEnrichment> createAlterationEnrichments() {
+        return alterationEnrichmentUtil.createAlterationEnrichments(alterationCountsByGroup);
+    }
+}
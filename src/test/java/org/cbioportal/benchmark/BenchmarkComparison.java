@@ -0,0 +1,102 @@
+package org.cbioportal.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares the results of a benchmark run with those of a baseline run, both in JMH's JSON result format. The
+ * throughput of a benchmark is its score in throughput mode and the inverse of its score in the time modes (average,
+ * sample and single shot time); a benchmark has regressed if its throughput dropped by more than the threshold.
+ */
+public class BenchmarkComparison {
+
+    private static final String THROUGHPUT_MODE = "thrpt";
+
+    private final Map<String, Result> baselineResults;
+    private final Map<String, Result> results;
+
+    public BenchmarkComparison(Reader baseline, Reader results) throws IOException {
+        this.baselineResults = readResults(baseline);
+        this.results = readResults(results);
+    }
+
+    /**
+     * @param threshold the relative drop in throughput allowed, e.g. 0.1 for 10%
+     * @return a description of every benchmark (with its parameters) of both runs whose throughput dropped by more
+     * than the threshold
+     */
+    public List<String> findRegressions(double threshold) {
+        List<String> regressions = new ArrayList<>();
+        for (Map.Entry<String, Result> entry : results.entrySet()) {
+            Result baselineResult = baselineResults.get(entry.getKey());
+            // results in another mode or unit are not comparable
+            if (baselineResult == null || !baselineResult.mode.equals(entry.getValue().mode)
+                || !baselineResult.unit.equals(entry.getValue().unit)) {
+                continue;
+            }
+            double change = entry.getValue().getThroughput() / baselineResult.getThroughput() - 1;
+            if (change < -threshold) {
+                regressions.add(String.format("%s: %.3f %s (baseline %.3f %s, throughput %+.1f%%)", entry.getKey(),
+                    entry.getValue().score, entry.getValue().unit, baselineResult.score, baselineResult.unit,
+                    change * 100));
+            }
+        }
+        return regressions;
+    }
+
+    /**
+     * @return the benchmarks (with their parameters) of the run that are not in the baseline
+     */
+    public List<String> findNewBenchmarks() {
+        List<String> newBenchmarks = new ArrayList<>(results.keySet());
+        newBenchmarks.removeAll(baselineResults.keySet());
+        return newBenchmarks;
+    }
+
+    private static Map<String, Result> readResults(Reader reader) throws IOException {
+        Map<String, Result> results = new TreeMap<>();
+        for (JsonNode node : new ObjectMapper().readTree(reader)) {
+            StringBuilder name = new StringBuilder(node.get("benchmark").asText());
+            JsonNode params = node.get("params");
+            if (params != null && params.size() > 0) {
+                // JMH writes the parameters in declaration order, sort them so that reordering fields does not matter
+                Map<String, String> sortedParams = new TreeMap<>();
+                Iterator<Map.Entry<String, JsonNode>> fields = params.fields();
+                while (fields.hasNext()) {
+                    Map.Entry<String, JsonNode> field = fields.next();
+                    sortedParams.put(field.getKey(), field.getValue().asText());
+                }
+                name.append(sortedParams);
+            }
+            JsonNode primaryMetric = node.get("primaryMetric");
+            results.put(name.toString(), new Result(node.get("mode").asText(), primaryMetric.get("score").asDouble(),
+                primaryMetric.get("scoreUnit").asText()));
+        }
+        return results;
+    }
+
+    private static class Result {
+
+        private final String mode;
+        private final double score;
+        private final String unit;
+
+        private Result(String mode, double score, String unit) {
+            this.mode = mode;
+            this.score = score;
+            this.unit = unit;
+        }
+
+        private double getThroughput() {
+            return THROUGHPUT_MODE.equals(mode) ? score : 1 / score;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package org.cbioportal.benchmark;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.util.Collections;
+import java.util.List;
+
+public class BenchmarkComparisonTest {
+
+    private static final String BASELINE = "[" +
+        result("Binner.bin", "thrpt", "{\"samples\": \"10000\", \"attribute\": \"AGE\"}", 100, "ops/s") + "," +
+        result("Binner.bin", "thrpt", "{\"samples\": \"100000\", \"attribute\": \"AGE\"}", 10, "ops/s") + "," +
+        result("Codec.decode", "avgt", "{}", 20, "ms/op") + "," +
+        result("Codec.encode", "avgt", "{}", 20, "ms/op") + "]";
+
+    @Test
+    public void findRegressions() throws Exception {
+
+        BenchmarkComparison comparison = new BenchmarkComparison(new StringReader(BASELINE), new StringReader("[" +
+            result("Binner.bin", "thrpt", "{\"attribute\": \"AGE\", \"samples\": \"10000\"}", 91, "ops/s") + "," +
+            result("Binner.bin", "thrpt", "{\"attribute\": \"AGE\", \"samples\": \"100000\"}", 7, "ops/s") + "," +
+            result("Codec.decode", "avgt", "{}", 24, "ms/op") + "," +
+            result("Codec.encode", "avgt", "{}", 10, "ms/op") + "," +
+            result("Cache.get", "thrpt", "{}", 1, "ops/s") + "]"));
+
+        // a drop from 100 to 91 ops/s is within 10%, an average time of 24 instead of 20 ms/op is a 17% drop
+        List<String> regressions = comparison.findRegressions(0.1);
+        Assert.assertEquals(2, regressions.size());
+        Assert.assertTrue(regressions.get(0).startsWith("Binner.bin{attribute=AGE, samples=100000}: 7.000 ops/s"));
+        Assert.assertTrue(regressions.get(1).startsWith("Codec.decode: 24.000 ms/op"));
+        Assert.assertEquals(Collections.singletonList("Cache.get"), comparison.findNewBenchmarks());
+        Assert.assertEquals(1, comparison.findRegressions(0.2).size());
+    }
+
+    @Test
+    public void ignoreResultsInOtherUnits() throws Exception {
+
+        BenchmarkComparison comparison = new BenchmarkComparison(new StringReader(BASELINE), new StringReader("[" +
+            result("Codec.decode", "avgt", "{}", 25000, "us/op") + "]"));
+
+        Assert.assertTrue(comparison.findRegressions(0.1).isEmpty());
+    }
+
+    private static String result(String benchmark, String mode, String params, double score, String unit) {
+        return "{\"benchmark\": \"" + benchmark + "\", \"mode\": \"" + mode + "\", \"params\": " + params +
+            ", \"primaryMetric\": {\"score\": " + score + ", \"scoreUnit\": \"" + unit + "\"}}";
+    }
+}
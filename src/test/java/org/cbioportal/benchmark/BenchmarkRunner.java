@@ -0,0 +1,56 @@
+package org.cbioportal.benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.Reader;
+import java.util.List;
+
+/**
+ * Runs the benchmarks and, if a baseline is given, fails (exit code 1) when the throughput of any of them dropped by
+ * more than a threshold. Run with {@code mvn -P benchmark test}; configured by the system properties:
+ * <ul>
+ *     <li>benchmark.include: regular expression of the benchmarks to run, all by default</li>
+ *     <li>benchmark.result: the file to write the results to, in JMH's JSON format</li>
+ *     <li>benchmark.baseline: the results file of an earlier run to compare with, none by default</li>
+ *     <li>benchmark.threshold: the relative drop in throughput allowed, 0.1 by default</li>
+ * </ul>
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws Exception {
+        String include = System.getProperty("benchmark.include", ".*");
+        File result = new File(System.getProperty("benchmark.result", "target/benchmark-results.json"));
+        String baseline = System.getProperty("benchmark.baseline", "");
+        double threshold = Double.parseDouble(System.getProperty("benchmark.threshold", "0.1"));
+
+        result.getAbsoluteFile().getParentFile().mkdirs();
+        new Runner(new OptionsBuilder()
+            .include(include)
+            .resultFormat(ResultFormatType.JSON)
+            .result(result.getPath())
+            .build()).run();
+
+        if (baseline.isEmpty()) {
+            return;
+        }
+        BenchmarkComparison comparison;
+        try (Reader baselineReader = new FileReader(baseline); Reader resultReader = new FileReader(result)) {
+            comparison = new BenchmarkComparison(baselineReader, resultReader);
+        }
+        for (String newBenchmark : comparison.findNewBenchmarks()) {
+            System.out.println("Not in baseline: " + newBenchmark);
+        }
+        List<String> regressions = comparison.findRegressions(threshold);
+        if (regressions.isEmpty()) {
+            System.out.println("No throughput drop of more than " + threshold * 100 + "% from " + baseline);
+            return;
+        }
+        System.err.println("Throughput dropped by more than " + threshold * 100 + "% from " + baseline + ":");
+        regressions.forEach(System.err::println);
+        System.exit(1);
+    }
+}
@@ -0,0 +1,68 @@
+package org.cbioportal.benchmark;
+
+import org.cbioportal.model.CoExpression;
+import org.cbioportal.service.util.CoExpressionCalculator;
+import org.cbioportal.service.util.MolecularProfileValues;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Correlates the first gene of a synthetic expression profile with all others, and a gene of a second profile of
+ * the same samples with all genes of the first one, on the decoded values (CoExpressionCalculator).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MINUTES)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class CoExpressionBenchmark {
+
+    private static final double THRESHOLD = 0.3;
+
+    @Param({"1000", "10000"})
+    private int samples;
+
+    private CoExpressionCalculator coExpressionCalculator;
+    private MolecularProfileValues profileValues;
+    private int[] columns;
+    private double[] otherProfileValues;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        profileValues = new SyntheticCohort(samples, 42).createExpressionValues("tcga_pan_can_atlas_2018_rna_seq_mrna",
+            SyntheticCohort.NUMBER_OF_GENES);
+        columns = IntStream.range(0, samples).toArray();
+        otherProfileValues = new SyntheticCohort(samples, 43).createExpressionValues(
+            "tcga_pan_can_atlas_2018_rppa", 1).getRowValues(0);
+
+        coExpressionCalculator = new CoExpressionCalculator();
+        ReflectionTestUtils.setField(coExpressionCalculator, "parallelism", Runtime.getRuntime().availableProcessors());
+    }
+
+    @Benchmark
+    public List<CoExpression> computeCoExpressions() {
+        return coExpressionCalculator.computeCoExpressions(profileValues, 0, columns, THRESHOLD, 0);
+    }
+
+    @Benchmark
+    public List<CoExpression> computeCoExpressionsWithOtherProfile() {
+        return coExpressionCalculator.computeCoExpressions(profileValues, -1, columns, otherProfileValues, THRESHOLD,
+            0);
+    }
+}
@@ -0,0 +1,103 @@
+package org.cbioportal.benchmark;
+
+import org.cbioportal.model.Binnable;
+import org.cbioportal.model.DataBin;
+import org.cbioportal.web.parameter.ClinicalDataBinFilter;
+import org.cbioportal.web.parameter.ClinicalDataType;
+import org.cbioportal.web.parameter.SampleIdentifier;
+import org.cbioportal.web.util.DataBinHelper;
+import org.cbioportal.web.util.DataBinner;
+import org.cbioportal.web.util.DiscreteDataBinner;
+import org.cbioportal.web.util.LinearDataBinner;
+import org.cbioportal.web.util.LogScaleDataBinner;
+import org.cbioportal.web.util.ScientificSmallDataBinner;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Bins a numerical (with censored and missing values) or a categorical clinical attribute of a synthetic cohort,
+ * filtered to every other sample, as for a study view chart.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DataBinnerBenchmark {
+
+    @Param({"10000", "100000"})
+    private int samples;
+
+    @Param({SyntheticCohort.AGE, SyntheticCohort.CANCER_TYPE})
+    private String attributeId;
+
+    private DataBinner dataBinner;
+    private ClinicalDataBinFilter dataBinFilter;
+    private List<Binnable> unfilteredClinicalData;
+    private List<Binnable> filteredClinicalData;
+    private List<String> unfilteredIds;
+    private List<String> filteredIds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        DataBinHelper dataBinHelper = new DataBinHelper();
+        DiscreteDataBinner discreteDataBinner = new DiscreteDataBinner();
+        LinearDataBinner linearDataBinner = new LinearDataBinner();
+        ScientificSmallDataBinner scientificSmallDataBinner = new ScientificSmallDataBinner();
+        LogScaleDataBinner logScaleDataBinner = new LogScaleDataBinner();
+        dataBinner = new DataBinner();
+        for (Object binner : new Object[] {discreteDataBinner, linearDataBinner, scientificSmallDataBinner,
+            logScaleDataBinner, dataBinner}) {
+            ReflectionTestUtils.setField(binner, "dataBinHelper", dataBinHelper);
+        }
+        ReflectionTestUtils.setField(dataBinner, "discreteDataBinner", discreteDataBinner);
+        ReflectionTestUtils.setField(dataBinner, "linearDataBinner", linearDataBinner);
+        ReflectionTestUtils.setField(dataBinner, "scientificSmallDataBinner", scientificSmallDataBinner);
+        ReflectionTestUtils.setField(dataBinner, "logScaleDataBinner", logScaleDataBinner);
+
+        dataBinFilter = new ClinicalDataBinFilter();
+        dataBinFilter.setAttributeId(attributeId);
+
+        SyntheticCohort cohort = new SyntheticCohort(samples, 42);
+        unfilteredClinicalData = new ArrayList<>(cohort.createClinicalData(attributeId));
+        filteredClinicalData = new ArrayList<>();
+        for (int i = 0; i < unfilteredClinicalData.size(); i += 2) {
+            filteredClinicalData.add(unfilteredClinicalData.get(i));
+        }
+        unfilteredIds = toIds(cohort.getSampleIdentifiers());
+        filteredIds = new ArrayList<>();
+        for (int i = 0; i < unfilteredIds.size(); i += 2) {
+            filteredIds.add(unfilteredIds.get(i));
+        }
+    }
+
+    @Benchmark
+    public List<DataBin> calculateClinicalDataBins() {
+        return dataBinner.calculateClinicalDataBins(dataBinFilter, ClinicalDataType.SAMPLE, filteredClinicalData,
+            unfilteredClinicalData, filteredIds, unfilteredIds);
+    }
+
+    private static List<String> toIds(List<SampleIdentifier> sampleIdentifiers) {
+        // the unique case ids of DataBinner.countNAs
+        return sampleIdentifiers.stream()
+            .map(sampleIdentifier -> sampleIdentifier.getStudyId() + sampleIdentifier.getSampleId())
+            .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,175 @@
+package org.cbioportal.benchmark;
+
+import org.cbioportal.model.ClinicalData;
+import org.cbioportal.service.ClinicalAttributeService;
+import org.cbioportal.service.ClinicalDataService;
+import org.cbioportal.service.PatientService;
+import org.cbioportal.service.SampleListService;
+import org.cbioportal.service.SampleService;
+import org.cbioportal.web.parameter.ClinicalDataFilter;
+import org.cbioportal.web.parameter.DataFilterValue;
+import org.cbioportal.web.parameter.SampleIdentifier;
+import org.cbioportal.web.parameter.StudyViewFilter;
+import org.cbioportal.web.util.ClinicalDataEqualityFilterApplier;
+import org.cbioportal.web.util.ClinicalDataIntervalFilterApplier;
+import org.cbioportal.web.util.DataBinHelper;
+import org.cbioportal.web.util.SampleOrdinalIndex;
+import org.cbioportal.web.util.StudyViewFilterApplier;
+import org.cbioportal.web.util.StudyViewFilterUtil;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+
+/**
+ * Applies a study view filter with a clinical interval, a clinical equality and a case list clause to a synthetic
+ * cohort. The services are mocked to return the cohort, the filter appliers and utilities are the real ones.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StudyViewFilterApplierBenchmark {
+
+    @Param({"10000", "100000"})
+    private int samples;
+
+    private StudyViewFilterApplier studyViewFilterApplier;
+    private StudyViewFilter studyViewFilter;
+    private List<SampleIdentifier> ageClauseResult;
+    private List<SampleIdentifier> cancerTypeClauseResult;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SyntheticCohort cohort = new SyntheticCohort(samples, 42);
+        Map<String, List<ClinicalData>> clinicalDataByAttribute = new HashMap<>();
+        clinicalDataByAttribute.put(SyntheticCohort.AGE, cohort.createClinicalData(SyntheticCohort.AGE));
+        clinicalDataByAttribute.put(SyntheticCohort.CANCER_TYPE,
+            cohort.createClinicalData(SyntheticCohort.CANCER_TYPE));
+
+        SampleService sampleService = Mockito.mock(SampleService.class);
+        Mockito.when(sampleService.getAllSamplesInStudies(any(), any(), any(), any(), any(), any()))
+            .thenReturn(cohort.getSamples());
+        PatientService patientService = Mockito.mock(PatientService.class);
+        Mockito.when(patientService.getPatientsOfSamples(anyList(), anyList())).thenReturn(cohort.getPatients());
+        ClinicalAttributeService clinicalAttributeService = Mockito.mock(ClinicalAttributeService.class);
+        Mockito.when(clinicalAttributeService.getClinicalAttributesByStudyIdsAndAttributeIds(anyList(), anyList()))
+            .thenReturn(cohort.getClinicalAttributes());
+        ClinicalDataService clinicalDataService = Mockito.mock(ClinicalDataService.class);
+        Mockito.when(clinicalDataService.fetchClinicalData(anyList(), anyList(), anyList(), eq("SAMPLE"), anyString()))
+            .thenAnswer(invocation -> {
+                List<ClinicalData> clinicalDataList = new ArrayList<>();
+                for (String attributeId : invocation.<List<String>>getArgument(2)) {
+                    clinicalDataList.addAll(clinicalDataByAttribute.getOrDefault(attributeId, Collections.emptyList()));
+                }
+                return clinicalDataList;
+            });
+        Mockito.when(clinicalDataService.getPatientClinicalDataDetailedToSample(anyList(), anyList(), anyList()))
+            .thenReturn(Collections.emptyList());
+        SampleListService sampleListService = Mockito.mock(SampleListService.class);
+        Mockito.when(sampleListService.getAllSampleListsInStudies(anyList(), anyString()))
+            .thenReturn(cohort.createSampleLists(SyntheticCohort.SEQUENCED_SAMPLE_LIST));
+
+        StudyViewFilterUtil studyViewFilterUtil = new StudyViewFilterUtil();
+        DataBinHelper dataBinHelper = new DataBinHelper();
+        ClinicalDataEqualityFilterApplier clinicalDataEqualityFilterApplier = new ClinicalDataEqualityFilterApplier(
+            patientService, clinicalDataService, studyViewFilterUtil);
+        ReflectionTestUtils.setField(clinicalDataEqualityFilterApplier, "studyViewFilterUtil", studyViewFilterUtil);
+        ClinicalDataIntervalFilterApplier clinicalDataIntervalFilterApplier = new ClinicalDataIntervalFilterApplier(
+            patientService, clinicalDataService, studyViewFilterUtil);
+        ReflectionTestUtils.setField(clinicalDataIntervalFilterApplier, "dataBinHelper", dataBinHelper);
+
+        studyViewFilterApplier = new StudyViewFilterApplier();
+        ReflectionTestUtils.setField(studyViewFilterApplier, "sampleService", sampleService);
+        ReflectionTestUtils.setField(studyViewFilterApplier, "clinicalAttributeService", clinicalAttributeService);
+        ReflectionTestUtils.setField(studyViewFilterApplier, "sampleListService", sampleListService);
+        ReflectionTestUtils.setField(studyViewFilterApplier, "clinicalDataEqualityFilterApplier",
+            clinicalDataEqualityFilterApplier);
+        ReflectionTestUtils.setField(studyViewFilterApplier, "clinicalDataIntervalFilterApplier",
+            clinicalDataIntervalFilterApplier);
+        ReflectionTestUtils.setField(studyViewFilterApplier, "studyViewFilterUtil", studyViewFilterUtil);
+
+        ClinicalDataFilter ageFilter = createClinicalDataFilter(SyntheticCohort.AGE,
+            createRange(new BigDecimal(40), new BigDecimal(70)));
+        ClinicalDataFilter cancerTypeFilter = createClinicalDataFilter(SyntheticCohort.CANCER_TYPE,
+            Arrays.stream(SyntheticCohort.CANCER_TYPES, 0, 5).map(this::createValue).toArray(DataFilterValue[]::new));
+        studyViewFilter = new StudyViewFilter();
+        studyViewFilter.setStudyIds(cohort.getStudyIds());
+        studyViewFilter.setClinicalDataFilters(Arrays.asList(ageFilter, cancerTypeFilter));
+        studyViewFilter.setCaseLists(Collections.singletonList(
+            Collections.singletonList(SyntheticCohort.SEQUENCED_SAMPLE_LIST)));
+
+        ageClauseResult = studyViewFilterApplier.apply(createClauseFilter(cohort, ageFilter), false);
+        cancerTypeClauseResult = studyViewFilterApplier.apply(createClauseFilter(cohort, cancerTypeFilter), false);
+    }
+
+    @Benchmark
+    public List<SampleIdentifier> applyFilter() {
+        return studyViewFilterApplier.apply(studyViewFilter, false);
+    }
+
+    /**
+     * The intersection of the cached results of two clauses, as done when a filter is resolved clause by clause,
+     * including the ordinal index built for it.
+     */
+    @Benchmark
+    public List<SampleIdentifier> intersectClauseResults() {
+        SampleOrdinalIndex sampleOrdinalIndex = new SampleOrdinalIndex(ageClauseResult);
+        return sampleOrdinalIndex.allSamples()
+            .and(sampleOrdinalIndex.toBitSet(cancerTypeClauseResult))
+            .toSampleIdentifiers();
+    }
+
+    private StudyViewFilter createClauseFilter(SyntheticCohort cohort, ClinicalDataFilter clinicalDataFilter) {
+        StudyViewFilter clauseFilter = new StudyViewFilter();
+        clauseFilter.setStudyIds(cohort.getStudyIds());
+        clauseFilter.setClinicalDataFilters(Collections.singletonList(clinicalDataFilter));
+        return clauseFilter;
+    }
+
+    private ClinicalDataFilter createClinicalDataFilter(String attributeId, DataFilterValue... values) {
+        ClinicalDataFilter clinicalDataFilter = new ClinicalDataFilter();
+        clinicalDataFilter.setAttributeId(attributeId);
+        clinicalDataFilter.setValues(Arrays.asList(values));
+        return clinicalDataFilter;
+    }
+
+    private DataFilterValue createRange(BigDecimal start, BigDecimal end) {
+        DataFilterValue dataFilterValue = new DataFilterValue();
+        dataFilterValue.setStart(start);
+        dataFilterValue.setEnd(end);
+        return dataFilterValue;
+    }
+
+    private DataFilterValue createValue(String value) {
+        DataFilterValue dataFilterValue = new DataFilterValue();
+        dataFilterValue.setValue(value);
+        return dataFilterValue;
+    }
+}
@@ -0,0 +1,226 @@
+package org.cbioportal.benchmark;
+
+import org.cbioportal.model.AlterationCountByGene;
+import org.cbioportal.model.ClinicalAttribute;
+import org.cbioportal.model.ClinicalData;
+import org.cbioportal.model.Gene;
+import org.cbioportal.model.Patient;
+import org.cbioportal.model.Sample;
+import org.cbioportal.model.SampleList;
+import org.cbioportal.service.util.MolecularProfileValues;
+import org.cbioportal.web.parameter.SampleIdentifier;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * The data of a synthetic cohort sized like real ones (tens of thousands of samples spread over a few studies, 20000
+ * genes), generated reproducibly from a seed so that the benchmarks run without a database. There is one patient per
+ * sample; sample i has the internal id i + 1 and is the column i of the generated profile values.
+ */
+public class SyntheticCohort {
+
+    public static final int NUMBER_OF_GENES = 20000;
+    public static final String[] STUDY_IDS = {"msk_impact_2017", "tcga_pan_can_atlas_2018", "genie_public",
+        "mixed_pipelines"};
+    public static final String AGE = "AGE";
+    public static final String CANCER_TYPE = "CANCER_TYPE";
+    public static final String SAMPLE_TYPE = "SAMPLE_TYPE";
+    public static final String[] CANCER_TYPES = {"Breast Cancer", "Non-Small Cell Lung Cancer", "Colorectal Cancer",
+        "Prostate Cancer", "Glioma", "Melanoma", "Pancreatic Cancer", "Bladder Cancer", "Ovarian Cancer",
+        "Endometrial Cancer", "Renal Cell Carcinoma", "Hepatobiliary Cancer", "Esophagogastric Cancer",
+        "Soft Tissue Sarcoma", "Thyroid Cancer", "Head and Neck Cancer", "Germ Cell Tumor", "Mesothelioma", "Leukemia",
+        "Unknown"};
+    public static final String[] SAMPLE_TYPES = {"Primary", "Metastasis", "Recurrence"};
+    public static final String SEQUENCED_SAMPLE_LIST = "sequenced";
+
+    private final long seed;
+    private final List<Sample> samples = new ArrayList<>();
+    private final List<Patient> patients = new ArrayList<>();
+    private final List<SampleIdentifier> sampleIdentifiers = new ArrayList<>();
+
+    public SyntheticCohort(int numberOfSamples, long seed) {
+        this.seed = seed;
+        for (int i = 0; i < numberOfSamples; i++) {
+            String studyId = STUDY_IDS[i % STUDY_IDS.length];
+            Sample sample = new Sample();
+            sample.setInternalId(i + 1);
+            sample.setStableId(String.format("S-%07d-T01", i));
+            sample.setPatientStableId(String.format("P-%07d", i));
+            sample.setCancerStudyIdentifier(studyId);
+            samples.add(sample);
+
+            Patient patient = new Patient();
+            patient.setInternalId(i + 1);
+            patient.setStableId(sample.getPatientStableId());
+            patient.setCancerStudyIdentifier(studyId);
+            patients.add(patient);
+
+            SampleIdentifier sampleIdentifier = new SampleIdentifier();
+            sampleIdentifier.setStudyId(studyId);
+            sampleIdentifier.setSampleId(sample.getStableId());
+            sampleIdentifiers.add(sampleIdentifier);
+        }
+    }
+
+    public int getNumberOfSamples() {
+        return samples.size();
+    }
+
+    public List<Sample> getSamples() {
+        return samples;
+    }
+
+    public List<Patient> getPatients() {
+        return patients;
+    }
+
+    public List<SampleIdentifier> getSampleIdentifiers() {
+        return sampleIdentifiers;
+    }
+
+    public List<String> getStudyIds() {
+        return Arrays.asList(STUDY_IDS).subList(0, Math.min(STUDY_IDS.length, samples.size()));
+    }
+
+    public List<ClinicalAttribute> getClinicalAttributes() {
+        List<ClinicalAttribute> clinicalAttributes = new ArrayList<>();
+        for (String studyId : getStudyIds()) {
+            clinicalAttributes.add(createClinicalAttribute(studyId, AGE, "NUMBER"));
+            clinicalAttributes.add(createClinicalAttribute(studyId, CANCER_TYPE, "STRING"));
+            clinicalAttributes.add(createClinicalAttribute(studyId, SAMPLE_TYPE, "STRING"));
+        }
+        return clinicalAttributes;
+    }
+
+    /**
+     * @return the values of a sample attribute for most samples: ages from 18 to 90 with some censored ("&gt;89",
+     * "&lt;18") and missing ("NA") values, or one of a few categories
+     */
+    public List<ClinicalData> createClinicalData(String attributeId) {
+        Random random = new Random(seed + attributeId.hashCode());
+        List<ClinicalData> clinicalDataList = new ArrayList<>(samples.size());
+        for (Sample sample : samples) {
+            // like in real studies, not every sample has a value
+            if (random.nextInt(20) == 0) {
+                continue;
+            }
+            String value;
+            if (AGE.equals(attributeId)) {
+                int age = 18 + (int) Math.round(Math.abs(random.nextGaussian()) * 24);
+                int special = random.nextInt(100);
+                value = special == 0 ? "NA" : special == 1 ? "<18" : age > 89 ? ">89" :
+                    special < 10 ? age + "." + random.nextInt(10) : String.valueOf(age);
+            } else if (CANCER_TYPE.equals(attributeId)) {
+                // skewed towards the first types
+                value = CANCER_TYPES[(int) (Math.pow(random.nextDouble(), 2) * CANCER_TYPES.length)];
+            } else {
+                value = SAMPLE_TYPES[random.nextInt(SAMPLE_TYPES.length)];
+            }
+            clinicalDataList.add(createClinicalData(sample, attributeId, value));
+        }
+        return clinicalDataList;
+    }
+
+    /**
+     * @return the sample lists with the given suffix of every study, each with a random three quarters of the samples
+     */
+    public List<SampleList> createSampleLists(String suffix) {
+        Random random = new Random(seed + suffix.hashCode());
+        List<SampleList> sampleLists = new ArrayList<>();
+        for (String studyId : getStudyIds()) {
+            SampleList sampleList = new SampleList();
+            sampleList.setStableId(studyId + "_" + suffix);
+            sampleList.setCancerStudyIdentifier(studyId);
+            List<String> sampleIds = new ArrayList<>();
+            for (Sample sample : samples) {
+                if (sample.getCancerStudyIdentifier().equals(studyId) && random.nextInt(4) != 0) {
+                    sampleIds.add(sample.getStableId());
+                }
+            }
+            sampleList.setSampleIds(sampleIds);
+            sampleLists.add(sampleList);
+        }
+        return sampleLists;
+    }
+
+    /**
+     * @return log-normal expression values of the genes (with entrez gene ids 1 to numberOfGenes) in all samples,
+     * about 1% missing
+     */
+    public MolecularProfileValues createExpressionValues(String molecularProfileId, int numberOfGenes) {
+        Random random = new Random(seed);
+        int[] internalSampleIds = samples.stream().mapToInt(Sample::getInternalId).toArray();
+        List<String> stableIds = new ArrayList<>(numberOfGenes);
+        List<double[]> rows = new ArrayList<>(numberOfGenes);
+        for (int gene = 0; gene < numberOfGenes; gene++) {
+            stableIds.add(String.valueOf(gene + 1));
+            double mean = random.nextDouble() * 8;
+            double[] row = new double[samples.size()];
+            for (int column = 0; column < row.length; column++) {
+                row[column] = random.nextInt(100) == 0 ? Double.NaN : Math.exp(mean + random.nextGaussian());
+            }
+            rows.add(row);
+        }
+        return MolecularProfileValues.continuous(molecularProfileId, internalSampleIds, stableIds, rows);
+    }
+
+    public List<Gene> createGenes(int numberOfGenes) {
+        List<Gene> genes = new ArrayList<>(numberOfGenes);
+        for (int gene = 0; gene < numberOfGenes; gene++) {
+            Gene item = new Gene();
+            item.setEntrezGeneId(gene + 1);
+            item.setHugoGeneSymbol("GENE" + (gene + 1));
+            item.setType("protein-coding");
+            genes.add(item);
+        }
+        return genes;
+    }
+
+    /**
+     * @return the numbers of altered cases of the genes in a group of profiled cases, with a few frequently altered
+     * genes and a long tail of rarely altered ones, as in targeted sequencing cohorts
+     */
+    public List<AlterationCountByGene> createAlterationCounts(String group, int numberOfGenes, int profiledCases) {
+        Random random = new Random(seed + group.hashCode());
+        List<AlterationCountByGene> alterationCounts = new ArrayList<>(numberOfGenes);
+        for (int gene = 0; gene < numberOfGenes; gene++) {
+            double frequency = 0.3 / Math.pow(gene + 1, 0.8);
+            int alteredCases = (int) Math.min(profiledCases,
+                Math.round(profiledCases * frequency * (0.5 + random.nextDouble())));
+            if (alteredCases == 0) {
+                continue;
+            }
+            AlterationCountByGene alterationCount = new AlterationCountByGene();
+            alterationCount.setEntrezGeneId(gene + 1);
+            alterationCount.setHugoGeneSymbol("GENE" + (gene + 1));
+            alterationCount.setNumberOfAlteredCases(alteredCases);
+            alterationCount.setTotalCount(alteredCases);
+            alterationCount.setNumberOfProfiledCases(profiledCases);
+            alterationCounts.add(alterationCount);
+        }
+        return alterationCounts;
+    }
+
+    private static ClinicalAttribute createClinicalAttribute(String studyId, String attributeId, String datatype) {
+        ClinicalAttribute clinicalAttribute = new ClinicalAttribute();
+        clinicalAttribute.setAttrId(attributeId);
+        clinicalAttribute.setCancerStudyIdentifier(studyId);
+        clinicalAttribute.setDatatype(datatype);
+        clinicalAttribute.setPatientAttribute(false);
+        return clinicalAttribute;
+    }
+
+    private static ClinicalData createClinicalData(Sample sample, String attributeId, String value) {
+        ClinicalData clinicalData = new ClinicalData();
+        clinicalData.setInternalId(sample.getInternalId());
+        clinicalData.setStudyId(sample.getCancerStudyIdentifier());
+        clinicalData.setSampleId(sample.getStableId());
+        clinicalData.setPatientId(sample.getPatientStableId());
+        clinicalData.setAttrId(attributeId);
+        clinicalData.setAttrValue(value);
+        return clinicalData;
+    }
+}
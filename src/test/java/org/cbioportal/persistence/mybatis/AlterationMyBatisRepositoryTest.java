@@ -17,6 +17,7 @@ import org.cbioportal.model.MutationEventType;
 import org.cbioportal.model.QueryElement;
 import org.cbioportal.model.util.Select;
 import org.cbioportal.persistence.mybatis.config.TestConfig;
+import org.cbioportal.persistence.mybatis.util.CaseFilterTableUtil;
 import org.h2.tools.Server;
 import org.junit.Assert;
 import org.junit.Before;
@@ -25,9 +26,10 @@ import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.util.ReflectionTestUtils;
 
 @RunWith(SpringJUnit4ClassRunner.class)
-@SpringBootTest(classes = {AlterationMyBatisRepository.class, MolecularProfileMyBatisRepository.class, TestConfig.class})
+@SpringBootTest(classes = {AlterationMyBatisRepository.class, MolecularProfileMyBatisRepository.class, CaseFilterTableUtil.class, TestConfig.class})
 public class AlterationMyBatisRepositoryTest {
 
     //    mutation and cna events in testSql.sql
@@ -59,6 +61,8 @@ public class AlterationMyBatisRepositoryTest {
 
     @Autowired
     private AlterationMyBatisRepository alterationMyBatisRepository;
+    @Autowired
+    private CaseFilterTableUtil caseFilterTableUtil;
 
     Select<MutationEventType> mutationEventTypes = Select.byValues(Arrays.asList(
         MutationEventType.splice_site,
@@ -229,6 +233,31 @@ public class AlterationMyBatisRepositoryTest {
         Assert.assertEquals((Integer) 2, result208.getNumberOfAlteredCases());
     }
 
+    @Test
+    public void getSampleMutationAndCnaGeneCountWithCaseFilterTable() throws Exception {
+        ReflectionTestUtils.setField(caseFilterTableUtil, "threshold", 1);
+        List<AlterationCountByGene> result;
+        try {
+            result = alterationMyBatisRepository.getSampleAlterationGeneCounts(
+                sampleIdToProfileId,
+                entrezGeneIds,
+                alterationFilter);
+        } finally {
+            ReflectionTestUtils.setField(caseFilterTableUtil, "threshold", 5000);
+        }
+
+        Assert.assertEquals(3, result.size());
+        AlterationCountByGene result672 = result.stream().filter(r -> r.getEntrezGeneId() == 672).findFirst().get();
+        AlterationCountByGene result207 = result.stream().filter(r -> r.getEntrezGeneId() == 207).findFirst().get();
+        AlterationCountByGene result208 = result.stream().filter(r -> r.getEntrezGeneId() == 208).findFirst().get();
+        Assert.assertEquals((Integer) 5, result672.getTotalCount());
+        Assert.assertEquals((Integer) 4, result672.getNumberOfAlteredCases());
+        Assert.assertEquals((Integer) 4, result207.getTotalCount());
+        Assert.assertEquals((Integer) 2, result207.getNumberOfAlteredCases());
+        Assert.assertEquals((Integer) 2, result208.getTotalCount());
+        Assert.assertEquals((Integer) 2, result208.getNumberOfAlteredCases());
+    }
+
     @Test
     public void whenSampleNotProfiledForCNA() throws Exception {
 
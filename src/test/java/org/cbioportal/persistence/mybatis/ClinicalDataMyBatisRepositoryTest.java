@@ -20,6 +20,7 @@ import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.transaction.annotation.Transactional;
 
 
 @RunWith(SpringJUnit4ClassRunner.class)
@@ -32,9 +33,6 @@ import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
     TestConfig.class})
 public class ClinicalDataMyBatisRepositoryTest {
 
-    private static int noPaging = 0;
-    private static String noSearch = null;
-    private static String noSort = null;
 
     List<String> studyIds = new ArrayList<>();
     List<String> sampleIds = new ArrayList<>();
@@ -400,106 +398,6 @@ public class ClinicalDataMyBatisRepositoryTest {
         Assert.assertNull(clinicalAttribute.getClinicalAttribute());
     }
 
-    @Test
-    public void fetchClinicalSampleIdsClinicalTabShowAllSamples() {
-
-        List<Integer> result = clinicalDataMyBatisRepository.getVisibleSampleInternalIdsForClinicalTable(
-            studyIds, sampleIds, noPaging, noPaging, noSearch, noSort, "DESC");
-
-        Assert.assertEquals(14, result.size());
-    }
-
-    @Test
-    public void fetchClinicalSampleIdsClinicalTablePagingHandleNoneExistingPage() {
-
-        // There are only two patients in total. The second page (index 1) with pageSize 2 does not refer to any records.
-        List<Integer> resultNonExistingPage = clinicalDataMyBatisRepository.getVisibleSampleInternalIdsForClinicalTable(
-            studyIds, sampleIds, 2, 100, noSearch, noSort, "DESC");
-
-        Assert.assertEquals(0, resultNonExistingPage.size());
-    }
-
-    @Test
-    public void fetchClinicalSampleIdsClinicalTabStringSort() {
-
-        List<Integer> visibleSampleIdsAsc = clinicalDataMyBatisRepository.getVisibleSampleInternalIdsForClinicalTable(studyIds,
-            sampleIds, 2, 0, noSearch, "SAMPLE_TYPE", "ASC");
-        List<Integer> visibleSampleIdsDesc = clinicalDataMyBatisRepository.getVisibleSampleInternalIdsForClinicalTable(studyIds,
-            sampleIds, 2, 0, noSearch, "SAMPLE_TYPE", "DESC");
-        
-        Assert.assertEquals(2, visibleSampleIdsAsc.size());
-        Assert.assertEquals(2, visibleSampleIdsDesc.size());
-        Assert.assertEquals(2, (int) visibleSampleIdsAsc.get(0));
-        Assert.assertEquals(1, (int) visibleSampleIdsDesc.get(0));
-    }
-    
-    @Test
-    public void fetchClinicalSampleIdsClinicalTabNumericSort() {
-
-        List<Integer> visibleSampleIdsAsc = clinicalDataMyBatisRepository.getVisibleSampleInternalIdsForClinicalTable(studyIds,
-            sampleIds, 14, 0, noSearch, "DAYS_TO_COLLECTION", "ASC");
-        List<Integer> visibleSampleIdsDesc = clinicalDataMyBatisRepository.getVisibleSampleInternalIdsForClinicalTable(studyIds,
-            sampleIds, 14, 0, noSearch, "DAYS_TO_COLLECTION", "DESC");
-        
-        Assert.assertEquals(14, visibleSampleIdsAsc.size());
-        Assert.assertEquals(14, visibleSampleIdsDesc.size());
-        Assert.assertEquals(1, (int) visibleSampleIdsAsc.get(0));
-        Assert.assertEquals(2, (int) visibleSampleIdsDesc.get(0));
-    }
-    
-    @Test
-    public void fetchClinicalSampleIdsClinicalTabPageing() {
-        
-        List<Integer> visibleSampleIdsAsc = clinicalDataMyBatisRepository.getVisibleSampleInternalIdsForClinicalTable(studyIds,
-            sampleIds, 1, 1, noSearch, "SAMPLE_TYPE", "ASC");
-
-        Assert.assertEquals(1, visibleSampleIdsAsc.size());
-        Assert.assertEquals(1, (int) visibleSampleIdsAsc.get(0));
-    }
-    
-    @Test
-    public void fetchClinicalSampleIdsClinicalTabSearchBySampleId() {
-
-        List<Integer> visibleSampleIdsAsc = clinicalDataMyBatisRepository.getVisibleSampleInternalIdsForClinicalTable(studyIds,
-            sampleIds, noPaging, noPaging, "A0SB-01", noSort, noSort);
-
-        Assert.assertEquals(1, visibleSampleIdsAsc.size());
-        Assert.assertEquals(1, (int) visibleSampleIdsAsc.get(0));
-    }
-
-    @Test
-    public void fetchClinicalSampleIdsClinicalTabSearchByEmptyStringShowsAllSample() {
-
-        List<Integer> result = clinicalDataMyBatisRepository.getVisibleSampleInternalIdsForClinicalTable(
-            studyIds, sampleIds, noPaging, noPaging, "", noSort, "DESC");
-
-        Assert.assertEquals(14, result.size());
-    }
-
-    @Test
-    public void fetchClinicalSampleIdsClinicalTabSearchByAttributeValue() {
- 
-        List<Integer> visibleSampleIdsAsc = clinicalDataMyBatisRepository.getVisibleSampleInternalIdsForClinicalTable(studyIds,
-            sampleIds, noPaging, noPaging, "2013", noSort, noSort);
-
-        Assert.assertEquals(1, visibleSampleIdsAsc.size());
-        Assert.assertEquals(1, (int) visibleSampleIdsAsc.get(0));
-    }
-    
-    @Test
-    public void fetchClinicalSampleIdsClinicalTabSearchAndSort() {
-
-        List<Integer> visibleSampleIdsAsc = clinicalDataMyBatisRepository.getVisibleSampleInternalIdsForClinicalTable(studyIds,
-            sampleIds, 2, 0, "-01", "SAMPLE_TYPE", "ASC");
-        List<Integer> visibleSampleIdsDesc = clinicalDataMyBatisRepository.getVisibleSampleInternalIdsForClinicalTable(studyIds,
-            sampleIds, 2, 0, "-01", "SAMPLE_TYPE", "DESC");
-
-        Assert.assertEquals(2, visibleSampleIdsAsc.size());
-        Assert.assertEquals(2, visibleSampleIdsDesc.size());
-        Assert.assertEquals(2, (int) visibleSampleIdsAsc.get(0));
-        Assert.assertEquals(1, (int) visibleSampleIdsDesc.get(0));
-    }
-
     @Test
     public void fetchMetaClinicalDataNullAttribute() {
 
@@ -592,5 +490,31 @@ public class ClinicalDataMyBatisRepositoryTest {
         );
         Assert.assertEquals(0, result.size());
     }
-    
+
+    @Test
+    @Transactional
+    public void getClinicalDataInStudyIterable() {
+
+        List<ClinicalData> sampleClinicalData = new ArrayList<>();
+        clinicalDataMyBatisRepository.getSampleClinicalDataInStudyIterable("study_tcga_pub")
+            .forEach(sampleClinicalData::add);
+        List<ClinicalData> patientClinicalData = new ArrayList<>();
+        clinicalDataMyBatisRepository.getPatientClinicalDataInStudyIterable("study_tcga_pub")
+            .forEach(patientClinicalData::add);
+
+        ClinicalData sampleClinicalDatum = sampleClinicalData.stream()
+            .filter(c -> c.getAttrId().equals("DAYS_TO_COLLECTION") && c.getInternalId() == 1)
+            .findFirst()
+            .get();
+        Assert.assertEquals("TCGA-A1-A0SB-01", sampleClinicalDatum.getSampleId());
+        Assert.assertEquals("276", sampleClinicalDatum.getAttrValue());
+        ClinicalData patientClinicalDatum = patientClinicalData.stream()
+            .filter(c -> c.getAttrId().equals("FORM_COMPLETION_DATE"))
+            .findFirst()
+            .get();
+        Assert.assertEquals((Integer) 1, patientClinicalDatum.getInternalId());
+        Assert.assertEquals("TCGA-A1-A0SB", patientClinicalDatum.getPatientId());
+        Assert.assertEquals("2013-12-5", patientClinicalDatum.getAttrValue());
+        Assert.assertTrue(patientClinicalData.stream().noneMatch(c -> c.getInternalId() == 15));
+    }
 }
@@ -12,6 +12,7 @@ import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.transaction.annotation.Transactional;
 
 @RunWith(SpringJUnit4ClassRunner.class)
 @SpringBootTest(classes = {CopyNumberSegmentMyBatisRepository.class, TestConfig.class})
@@ -243,4 +244,25 @@ public class CopyNumberSegmentMyBatisRepositoryTest {
         
         Assert.assertEquals(1, result2.size());
     }
+
+    @Test
+    @Transactional
+    public void getCopyNumberSegmentsInStudyIterable() throws Exception {
+
+        List<CopyNumberSeg> result = new ArrayList<>();
+        copyNumberSegmentMyBatisRepository.getCopyNumberSegmentsInStudyIterable("study_tcga_pub").forEach(result::add);
+
+        Assert.assertEquals(4, result.size());
+        result.forEach(copyNumberSeg -> Assert.assertEquals("study_tcga_pub",
+            copyNumberSeg.getCancerStudyIdentifier()));
+        CopyNumberSeg copyNumberSeg = result.stream()
+            .filter(c -> c.getSegId() == 50236594L)
+            .findFirst()
+            .get();
+        Assert.assertEquals("TCGA-A1-A0SB-01", copyNumberSeg.getSampleStableId());
+        Assert.assertEquals("1", copyNumberSeg.getChr());
+        Assert.assertEquals((Integer) 324556, copyNumberSeg.getStart());
+        Assert.assertEquals((Integer) 180057677, copyNumberSeg.getEnd());
+        Assert.assertEquals(new BigDecimal("0.0519"), copyNumberSeg.getSegmentMean());
+    }
 }
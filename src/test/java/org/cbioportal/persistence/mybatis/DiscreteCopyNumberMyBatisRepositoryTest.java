@@ -13,6 +13,7 @@ import org.cbioportal.model.ReferenceGenomeGene;
 import org.cbioportal.model.meta.BaseMeta;
 import org.cbioportal.model.util.Select;
 import org.cbioportal.persistence.mybatis.config.TestConfig;
+import org.cbioportal.persistence.mybatis.util.CaseFilterTableUtil;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
@@ -22,7 +23,7 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 
 @RunWith(SpringJUnit4ClassRunner.class)
-@SpringBootTest(classes = {DiscreteCopyNumberMyBatisRepository.class, ReferenceGenomeGeneMyBatisRepository.class, TestConfig.class})
+@SpringBootTest(classes = {DiscreteCopyNumberMyBatisRepository.class, ReferenceGenomeGeneMyBatisRepository.class, CaseFilterTableUtil.class, TestConfig.class})
 public class DiscreteCopyNumberMyBatisRepositoryTest {
 
     //    mutation, cna and struct var events in testSql.sql
@@ -1,12 +1,16 @@
 package org.cbioportal.persistence.mybatis;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import org.cbioportal.model.GeneMolecularAlteration;
 import org.cbioportal.model.GenesetMolecularAlteration;
+import org.cbioportal.model.KeyedGeneMolecularAlteration;
+import org.cbioportal.model.MolecularDataKey;
 import org.cbioportal.model.MolecularProfileSamples;
 import org.cbioportal.persistence.mybatis.config.TestConfig;
 import org.junit.Assert;
@@ -119,6 +123,49 @@ public class MolecularDataMyBatisRepositoryTest {
         Assert.assertArrayEquals(expected3, molecularAlteration3.getSplitValues());
     }
 
+    @Test
+    @Transactional
+    public void streamGeneMolecularAlterationsInMultipleMolecularProfiles() throws Exception {
+
+        Set<String> molecularProfileIds = Stream.of("study_tcga_pub_mrna", "study_tcga_pub_gistic")
+            .collect(Collectors.toSet());
+
+        List<KeyedGeneMolecularAlteration> firstPage = new ArrayList<>();
+        molecularDataMyBatisRepository.streamGeneMolecularAlterationsInMultipleMolecularProfiles(molecularProfileIds,
+            null, "SUMMARY", null, 2, firstPage::add);
+
+        Assert.assertEquals(2, firstPage.size());
+        Assert.assertEquals(new MolecularDataKey(2, 1), firstPage.get(0).getKey());
+        Assert.assertEquals((Integer) 207, firstPage.get(0).getEntrezGeneId());
+        Assert.assertEquals("study_tcga_pub_gistic", firstPage.get(0).getMolecularProfileId());
+        Assert.assertEquals(new MolecularDataKey(2, 2), firstPage.get(1).getKey());
+
+        List<KeyedGeneMolecularAlteration> lastPage = new ArrayList<>();
+        molecularDataMyBatisRepository.streamGeneMolecularAlterationsInMultipleMolecularProfiles(molecularProfileIds,
+            null, "SUMMARY", firstPage.get(1).getKey(), 2, lastPage::add);
+
+        Assert.assertEquals(1, lastPage.size());
+        Assert.assertEquals(new MolecularDataKey(3, 2), lastPage.get(0).getKey());
+        Assert.assertEquals((Integer) 208, lastPage.get(0).getEntrezGeneId());
+        Assert.assertEquals("study_tcga_pub_mrna", lastPage.get(0).getMolecularProfileId());
+        Assert.assertEquals("-0.8097", lastPage.get(0).getSplitValues()[0]);
+    }
+
+    @Test
+    @Transactional
+    public void streamGeneMolecularAlterationsInMultipleMolecularProfilesByEntrezGeneIds() throws Exception {
+
+        List<KeyedGeneMolecularAlteration> result = new ArrayList<>();
+        molecularDataMyBatisRepository.streamGeneMolecularAlterationsInMultipleMolecularProfiles(
+            Stream.of("study_tcga_pub_mrna", "study_tcga_pub_gistic").collect(Collectors.toSet()),
+            Collections.singletonList(208), "DETAILED", null, 10, result::add);
+
+        Assert.assertEquals(2, result.size());
+        Assert.assertEquals(new MolecularDataKey(2, 2), result.get(0).getKey());
+        Assert.assertEquals("AKT2", result.get(0).getGene().getHugoGeneSymbol());
+        Assert.assertEquals(new MolecularDataKey(3, 2), result.get(1).getKey());
+    }
+
     @Test
     public void getGenesetMolecularAlterations() {
 
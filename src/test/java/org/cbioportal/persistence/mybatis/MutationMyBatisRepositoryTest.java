@@ -4,11 +4,14 @@ import org.cbioportal.model.AlleleSpecificCopyNumber;
 import org.cbioportal.model.Gene;
 import org.cbioportal.model.GeneFilterQuery;
 import org.cbioportal.model.GenomicDataCountItem;
+import org.cbioportal.model.KeyedMutation;
 import org.cbioportal.model.Mutation;
 import org.cbioportal.model.MutationCountByPosition;
+import org.cbioportal.model.MutationKey;
 import org.cbioportal.model.meta.MutationMeta;
 import org.cbioportal.model.util.Select;
 import org.cbioportal.persistence.mybatis.config.TestConfig;
+import org.cbioportal.persistence.mybatis.util.CaseFilterTableUtil;
 import org.cbioportal.persistence.mybatis.util.MolecularProfileCaseIdentifierUtil;
 import org.junit.Assert;
 import org.junit.Before;
@@ -17,6 +20,7 @@ import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -26,7 +30,7 @@ import java.util.Optional;
 import java.util.stream.Collectors;
 
 @RunWith(SpringJUnit4ClassRunner.class)
-@SpringBootTest(classes = {MutationMyBatisRepository.class, MolecularProfileCaseIdentifierUtil.class, TestConfig.class})
+@SpringBootTest(classes = {MutationMyBatisRepository.class, MolecularProfileCaseIdentifierUtil.class, CaseFilterTableUtil.class, TestConfig.class})
 public class MutationMyBatisRepositoryTest {
 
     //    mutation, cna and struct var events in testSql.sql
@@ -326,6 +330,57 @@ public class MutationMyBatisRepositoryTest {
         Assert.assertTrue(sampleOmutationOptional.isPresent());
     }
     
+    @Test
+    @Transactional
+    public void streamMutationsInMultipleMolecularProfiles() throws Exception {
+
+        List<String> molecularProfileIds = Arrays.asList("study_tcga_pub_mutations", "acc_tcga_mutations");
+
+        List<KeyedMutation> firstPage = new ArrayList<>();
+        mutationMyBatisRepository.streamMutationsInMultipleMolecularProfiles(molecularProfileIds, null, null,
+            "SUMMARY", null, 4, firstPage::add);
+
+        Assert.assertEquals(4, firstPage.size());
+        Assert.assertEquals(new MutationKey(6, 1, 2040), firstPage.get(0).getKey());
+        Assert.assertEquals("TCGA-A1-A0SB-01", firstPage.get(0).getSampleId());
+        Assert.assertEquals("study_tcga_pub_mutations", firstPage.get(0).getMolecularProfileId());
+        Assert.assertEquals("Nonsense_Mutation", firstPage.get(0).getMutationType());
+        Assert.assertEquals(new MutationKey(6, 6, 2038), firstPage.get(3).getKey());
+
+        // the second mutation of the sample that the first page ended with
+        List<KeyedMutation> secondPage = new ArrayList<>();
+        mutationMyBatisRepository.streamMutationsInMultipleMolecularProfiles(molecularProfileIds, null, null,
+            "SUMMARY", firstPage.get(3).getKey(), 4, secondPage::add);
+
+        Assert.assertEquals(4, secondPage.size());
+        Assert.assertEquals(new MutationKey(6, 6, 22604), secondPage.get(0).getKey());
+        Assert.assertEquals(new MutationKey(6, 13, 2039), secondPage.get(3).getKey());
+
+        List<KeyedMutation> lastPage = new ArrayList<>();
+        mutationMyBatisRepository.streamMutationsInMultipleMolecularProfiles(molecularProfileIds, null, null,
+            "SUMMARY", secondPage.get(3).getKey(), 4, lastPage::add);
+
+        Assert.assertEquals(1, lastPage.size());
+        Assert.assertEquals(new MutationKey(8, 15, 2042), lastPage.get(0).getKey());
+        Assert.assertEquals("acc_tcga_mutations", lastPage.get(0).getMolecularProfileId());
+    }
+
+    @Test
+    @Transactional
+    public void streamMutationsInMultipleMolecularProfilesBySampleIds() throws Exception {
+
+        List<String> molecularProfileIds = Arrays.asList("acc_tcga_mutations", "study_tcga_pub_mutations");
+        List<String> sampleIds = Arrays.asList("TCGA-A1-B0SO-01", "TCGA-A1-A0SH-01");
+
+        List<KeyedMutation> result = new ArrayList<>();
+        mutationMyBatisRepository.streamMutationsInMultipleMolecularProfiles(molecularProfileIds, sampleIds,
+            Collections.singletonList(672), "DETAILED", new MutationKey(6, 6, 2038), 10, result::add);
+
+        Assert.assertEquals(1, result.size());
+        Assert.assertEquals(new MutationKey(6, 6, 22604), result.get(0).getKey());
+        Assert.assertEquals("BRCA1", result.get(0).getGene().getHugoGeneSymbol());
+    }
+
     @Test
     public void getMutationsInMultipleMolecularProfilesByGeneQueries() throws Exception {
 
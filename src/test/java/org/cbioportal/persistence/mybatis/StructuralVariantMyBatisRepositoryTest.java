@@ -35,6 +35,7 @@ import org.cbioportal.model.StructuralVariantQuery;
 import org.cbioportal.model.StructuralVariantSpecialValue;
 import org.cbioportal.model.util.Select;
 import org.cbioportal.persistence.mybatis.config.TestConfig;
+import org.cbioportal.persistence.mybatis.util.CaseFilterTableUtil;
 import org.cbioportal.persistence.mybatis.util.MolecularProfileCaseIdentifierUtil;
 import org.junit.Assert;
 import org.junit.Before;
@@ -53,7 +54,7 @@ import java.util.stream.Collectors;
 
 @RunWith(SpringJUnit4ClassRunner.class)
 @SpringBootTest(classes = {StructuralVariantMyBatisRepository.class, StructuralVariantMapper.class,
-    MolecularProfileCaseIdentifierUtil.class, TestConfig.class})
+    MolecularProfileCaseIdentifierUtil.class, CaseFilterTableUtil.class, TestConfig.class})
 public class StructuralVariantMyBatisRepositoryTest {
 
     //    struct var events in testSql.sql
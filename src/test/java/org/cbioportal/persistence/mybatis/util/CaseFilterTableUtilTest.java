@@ -0,0 +1,99 @@
+package org.cbioportal.persistence.mybatis.util;
+
+import org.cbioportal.model.MolecularProfileCaseIdentifier;
+import org.cbioportal.persistence.mybatis.CaseFilterMapper;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class CaseFilterTableUtilTest {
+
+    @InjectMocks
+    private CaseFilterTableUtil caseFilterTableUtil;
+
+    @Mock
+    private CaseFilterMapper caseFilterMapper;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private TransactionStatus transactionStatus;
+
+    private final List<MolecularProfileCaseIdentifier> identifiers = Arrays.asList(
+        new MolecularProfileCaseIdentifier("sample1", "study_mutations"),
+        new MolecularProfileCaseIdentifier("sample2", "study_mutations"));
+
+    @Before
+    public void setUp() {
+        ReflectionTestUtils.setField(caseFilterTableUtil, "threshold", 1);
+        when(transactionManager.getTransaction(any())).thenReturn(transactionStatus);
+    }
+
+    @Test
+    public void queryCreatesTableWithCollationsOfSourceColumns() {
+        when(caseFilterMapper.getColumnCollation("genetic_profile", "STABLE_ID")).thenReturn("utf8mb4_0900_ai_ci");
+        when(caseFilterMapper.getColumnCollation("sample", "STABLE_ID")).thenReturn("utf8mb3_general_ci");
+
+        boolean active = caseFilterTableUtil.query(CaseFilterTableUtil.SAMPLES, identifiers, false,
+            () -> CaseFilterTableUtil.isActive(CaseFilterTableUtil.SAMPLES));
+
+        Assert.assertTrue(active);
+        verify(caseFilterMapper).createCaseFilterTable(CaseFilterTableUtil.SAMPLES, false, "utf8mb4_0900_ai_ci",
+            "utf8mb3_general_ci");
+        verify(caseFilterMapper).insertCaseFilterRows(CaseFilterTableUtil.SAMPLES, identifiers);
+        verify(caseFilterMapper, times(2)).dropCaseFilterTable(CaseFilterTableUtil.SAMPLES);
+    }
+
+    @Test
+    public void queryFallsBackToInListWhenTableCanNotBeCreated() {
+        doThrow(new DataAccessResourceFailureException("CREATE TEMPORARY TABLES command denied",
+            new SQLException("Access denied for user", "42000", 1044)))
+            .when(caseFilterMapper).createCaseFilterTable(anyString(), anyBoolean(), any(), any());
+
+        boolean active = caseFilterTableUtil.query(CaseFilterTableUtil.SAMPLES, identifiers, false,
+            () -> CaseFilterTableUtil.isActive(CaseFilterTableUtil.SAMPLES));
+        boolean activeAfterFailure = caseFilterTableUtil.query(CaseFilterTableUtil.SAMPLES, identifiers, false,
+            () -> CaseFilterTableUtil.isActive(CaseFilterTableUtil.SAMPLES));
+
+        Assert.assertFalse(active);
+        Assert.assertFalse(activeAfterFailure);
+        verify(caseFilterMapper, times(1)).createCaseFilterTable(anyString(), anyBoolean(), any(), any());
+        verify(caseFilterMapper, never()).insertCaseFilterRows(anyString(), any());
+    }
+
+    @Test
+    public void queryRetriesTableAfterOtherErrorsOnceBackOffHasPassed() {
+        doThrow(new DataAccessResourceFailureException("Lock wait timeout exceeded"))
+            .when(caseFilterMapper).createCaseFilterTable(anyString(), anyBoolean(), any(), any());
+
+        boolean active = caseFilterTableUtil.query(CaseFilterTableUtil.SAMPLES, identifiers, false,
+            () -> CaseFilterTableUtil.isActive(CaseFilterTableUtil.SAMPLES));
+        ReflectionTestUtils.setField(caseFilterTableUtil, "retrySeconds", 300L);
+        caseFilterTableUtil.query(CaseFilterTableUtil.SAMPLES, identifiers, false,
+            () -> CaseFilterTableUtil.isActive(CaseFilterTableUtil.SAMPLES));
+        boolean activeDuringBackOff = caseFilterTableUtil.query(CaseFilterTableUtil.SAMPLES, identifiers, false,
+            () -> CaseFilterTableUtil.isActive(CaseFilterTableUtil.SAMPLES));
+
+        Assert.assertFalse(active);
+        Assert.assertFalse(activeDuringBackOff);
+        // without a back-off the second query tries again, the third one is within the back-off of the second
+        verify(caseFilterMapper, times(2)).createCaseFilterTable(anyString(), anyBoolean(), any(), any());
+    }
+}
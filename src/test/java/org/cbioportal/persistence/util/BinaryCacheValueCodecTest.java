@@ -0,0 +1,165 @@
+package org.cbioportal.persistence.util;
+
+import org.cbioportal.model.AlleleSpecificCopyNumber;
+import org.cbioportal.model.AlterationCountByGene;
+import org.cbioportal.model.ClinicalData;
+import org.cbioportal.model.ClinicalViolinPlotIndividualPoint;
+import org.cbioportal.model.Gene;
+import org.cbioportal.model.Mutation;
+import org.cbioportal.model.Sample;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.TreeMap;
+
+public class BinaryCacheValueCodecTest {
+
+    private BinaryCacheValueCodec codec = new BinaryCacheValueCodec();
+
+    @Test
+    public void roundTripClinicalData() throws Exception {
+
+        List<ClinicalData> clinicalDataList = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            ClinicalData clinicalData = new ClinicalData();
+            clinicalData.setInternalId(i);
+            clinicalData.setSampleId("sample_" + i);
+            clinicalData.setPatientId("patient_" + i);
+            clinicalData.setStudyId("study_id");
+            clinicalData.setAttrId("AGE");
+            clinicalData.setAttrValue(String.valueOf(i % 7));
+            clinicalData.setUniqueSampleKey("key_" + i);
+            clinicalDataList.add(clinicalData);
+        }
+
+        byte[] encoded = codec.encode(clinicalDataList);
+        List<ClinicalData> result = (List<ClinicalData>) codec.decode(encoded);
+
+        Assert.assertEquals(100, result.size());
+        ClinicalData clinicalData = result.get(42);
+        Assert.assertEquals((Integer) 42, clinicalData.getInternalId());
+        Assert.assertEquals("sample_42", clinicalData.getSampleId());
+        Assert.assertEquals("study_id", clinicalData.getStudyId());
+        Assert.assertEquals("AGE", clinicalData.getAttrId());
+        Assert.assertEquals("0", clinicalData.getAttrValue());
+        Assert.assertEquals("key_42", clinicalData.getUniqueSampleKey());
+        Assert.assertNull(clinicalData.getClinicalAttribute());
+    }
+
+    @Test
+    public void roundTripMutation() throws Exception {
+
+        Mutation mutation = new Mutation();
+        mutation.setMolecularProfileId("study_mutations");
+        mutation.setSampleId("sample");
+        mutation.setEntrezGeneId(672);
+        mutation.setStartPosition(41276045L);
+        mutation.setProteinChange("P123L");
+        mutation.setTumorAltCount(-1);
+        Gene gene = new Gene();
+        gene.setEntrezGeneId(672);
+        gene.setHugoGeneSymbol("BRCA1");
+        mutation.setGene(gene);
+        AlleleSpecificCopyNumber alleleSpecificCopyNumber = new AlleleSpecificCopyNumber();
+        alleleSpecificCopyNumber.setCcfExpectedCopies(0.25f);
+        mutation.setAlleleSpecificCopyNumber(alleleSpecificCopyNumber);
+
+        Mutation result = (Mutation) codec.decode(codec.encode(mutation));
+
+        Assert.assertEquals("study_mutations", result.getMolecularProfileId());
+        Assert.assertEquals("sample", result.getSampleId());
+        Assert.assertEquals((Integer) 672, result.getEntrezGeneId());
+        Assert.assertEquals((Long) 41276045L, result.getStartPosition());
+        Assert.assertEquals("P123L", result.getProteinChange());
+        Assert.assertEquals((Integer) (-1), result.getTumorAltCount());
+        Assert.assertEquals("BRCA1", result.getGene().getHugoGeneSymbol());
+        Assert.assertEquals(0.25f, result.getAlleleSpecificCopyNumber().getCcfExpectedCopies(), 0);
+    }
+
+    @Test
+    public void roundTripAlterationCountsAndSamples() throws Exception {
+
+        AlterationCountByGene alterationCountByGene = new AlterationCountByGene();
+        alterationCountByGene.setEntrezGeneId(207);
+        alterationCountByGene.setNumberOfAlteredCases(3);
+        alterationCountByGene.setqValue(new BigDecimal("0.0012345"));
+        alterationCountByGene.setMatchingGenePanelIds(new HashSet<>(Arrays.asList("panel1", "panel2")));
+        Sample sample = new Sample();
+        sample.setStableId("sample");
+        sample.setSampleType(Sample.SampleType.PRIMARY_SOLID_TUMOR);
+
+        List<Object> result = (List<Object>) codec.decode(codec.encode(Arrays.asList(alterationCountByGene, sample)));
+
+        AlterationCountByGene resultCount = (AlterationCountByGene) result.get(0);
+        Assert.assertEquals((Integer) 207, resultCount.getEntrezGeneId());
+        Assert.assertEquals((Integer) 3, resultCount.getNumberOfAlteredCases());
+        Assert.assertEquals(new BigDecimal("0.0012345"), resultCount.getqValue());
+        Assert.assertEquals(new HashSet<>(Arrays.asList("panel1", "panel2")), resultCount.getMatchingGenePanelIds());
+        Sample resultSample = (Sample) result.get(1);
+        Assert.assertEquals("sample", resultSample.getStableId());
+        Assert.assertEquals(Sample.SampleType.PRIMARY_SOLID_TUMOR, resultSample.getSampleType());
+    }
+
+    @Test
+    public void roundTripModelWithPrimitiveField() throws Exception {
+
+        // not Serializable, so this only passes in the binary format
+        ClinicalViolinPlotIndividualPoint point = new ClinicalViolinPlotIndividualPoint();
+        point.setSampleId("sample");
+        point.setValue(1.5);
+
+        byte[] encoded = codec.encode(point);
+        ClinicalViolinPlotIndividualPoint result = (ClinicalViolinPlotIndividualPoint) codec.decode(encoded);
+
+        Assert.assertEquals("sample", result.getSampleId());
+        Assert.assertEquals(1.5, result.getValue(), 0);
+    }
+
+    @Test
+    public void roundTripCyclicValueWithJavaSerialization() throws Exception {
+
+        List<Object> value = new ArrayList<>();
+        value.add("a");
+        value.add(value);
+
+        List<?> result = (List<?>) codec.decode(codec.encode(value));
+
+        Assert.assertEquals("a", result.get(0));
+        Assert.assertSame(result, result.get(1));
+    }
+
+    @Test
+    public void roundTripOtherValuesWithJavaSerialization() throws Exception {
+
+        TreeMap<String, Integer> value = new TreeMap<>();
+        value.put("b", 2);
+        value.put("a", 1);
+
+        Object result = codec.decode(codec.encode(value));
+
+        Assert.assertEquals(value, result);
+        Assert.assertEquals(TreeMap.class, result.getClass());
+    }
+
+    @Test
+    public void decodeValueStoredWithJavaSerialization() throws Exception {
+
+        List<String> value = Arrays.asList("a", "b");
+
+        Assert.assertEquals(value, codec.decode(new JavaSerializationCodec().encode(value)));
+    }
+
+    @Test(expected = IOException.class)
+    public void decodeCorruptValue() throws Exception {
+
+        byte[] encoded = codec.encode(Arrays.asList("a", "b"));
+
+        codec.decode(Arrays.copyOf(encoded, 3));
+    }
+}
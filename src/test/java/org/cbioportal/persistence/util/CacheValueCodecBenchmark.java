@@ -0,0 +1,130 @@
+package org.cbioportal.persistence.util;
+
+import org.cbioportal.model.ClinicalData;
+import org.cbioportal.model.Gene;
+import org.cbioportal.model.Mutation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the Redis cache codecs on cached results of realistic size. Run from the IDE, or with the other benchmarks
+ * with {@code mvn -P benchmark test -Dbenchmark.include=CacheValueCodec} (see BenchmarkRunner); the encoded size of
+ * each payload is printed on setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CacheValueCodecBenchmark {
+
+    private static final String[] ATTRIBUTES = {"AGE", "SEX", "CANCER_TYPE", "OS_STATUS", "OS_MONTHS",
+        "TUMOR_STAGE", "MUTATION_COUNT", "FRACTION_GENOME_ALTERED", "SAMPLE_TYPE", "ONCOTREE_CODE"};
+    private static final String[] MUTATION_TYPES = {"Missense_Mutation", "Nonsense_Mutation", "Frame_Shift_Del",
+        "Splice_Site", "In_Frame_Del", "Silent"};
+
+    @Param({"java", "binary"})
+    private String codecName;
+
+    @Param({"clinicalData", "mutations"})
+    private String payload;
+
+    private CacheValueCodec codec;
+    private Object value;
+    private byte[] encoded;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        codec = "java".equals(codecName) ? new JavaSerializationCodec() : new BinaryCacheValueCodec();
+        value = "clinicalData".equals(payload) ? createClinicalData(200000) : createMutations(50000);
+        encoded = codec.encode(value);
+    }
+
+    @Benchmark
+    public byte[] encode() throws Exception {
+        return codec.encode(value);
+    }
+
+    @Benchmark
+    public Object decode() throws Exception {
+        return codec.decode(encoded);
+    }
+
+    static List<ClinicalData> createClinicalData(int size) {
+        Random random = new Random(42);
+        List<ClinicalData> clinicalDataList = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            int sample = i / ATTRIBUTES.length;
+            ClinicalData clinicalData = new ClinicalData();
+            clinicalData.setInternalId(sample);
+            clinicalData.setSampleId("P-" + String.format("%07d", sample) + "-T01-IM6");
+            clinicalData.setPatientId("P-" + String.format("%07d", sample));
+            clinicalData.setStudyId("msk_impact_2017");
+            clinicalData.setUniqueSampleKey("UC0wMDAwMDA" + sample);
+            clinicalData.setUniquePatientKey("UC0wMDAwMDA" + sample + "OnBhdGllbnQ");
+            clinicalData.setAttrId(ATTRIBUTES[i % ATTRIBUTES.length]);
+            clinicalData.setAttrValue(String.valueOf(random.nextInt(100)));
+            clinicalDataList.add(clinicalData);
+        }
+        return clinicalDataList;
+    }
+
+    static List<Mutation> createMutations(int size) {
+        Random random = new Random(42);
+        List<Gene> genes = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            Gene gene = new Gene();
+            gene.setEntrezGeneId(1000 + i);
+            gene.setHugoGeneSymbol("GENE" + i);
+            gene.setType("protein-coding");
+            genes.add(gene);
+        }
+        List<Mutation> mutations = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Gene gene = genes.get(random.nextInt(genes.size()));
+            Mutation mutation = new Mutation();
+            mutation.setMolecularProfileId("msk_impact_2017_mutations");
+            mutation.setSampleId("P-" + String.format("%07d", random.nextInt(10000)) + "-T01-IM6");
+            mutation.setPatientId(mutation.getSampleId().substring(0, 9));
+            mutation.setStudyId("msk_impact_2017");
+            mutation.setEntrezGeneId(gene.getEntrezGeneId());
+            mutation.setGene(gene);
+            mutation.setChr(String.valueOf(1 + random.nextInt(22)));
+            mutation.setStartPosition((long) random.nextInt(200000000));
+            mutation.setEndPosition(mutation.getStartPosition() + 1);
+            mutation.setReferenceAllele("C");
+            mutation.setTumorSeqAllele("T");
+            mutation.setProteinChange("P" + random.nextInt(1000) + "L");
+            mutation.setMutationType(MUTATION_TYPES[random.nextInt(MUTATION_TYPES.length)]);
+            mutation.setMutationStatus("SOMATIC");
+            mutation.setNcbiBuild("GRCh37");
+            mutation.setVariantType("SNP");
+            mutation.setTumorAltCount(random.nextInt(200));
+            mutation.setTumorRefCount(random.nextInt(500));
+            mutations.add(mutation);
+        }
+        return mutations;
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder().include(CacheValueCodecBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -2,6 +2,7 @@ package org.cbioportal.persistence.util;
 
 import org.cbioportal.model.CancerStudy;
 import org.cbioportal.persistence.CacheEnabledConfig;
+import org.cbioportal.persistence.StaticDataTimeStampRepository;
 import org.cbioportal.persistence.StudyRepository;
 import org.junit.Assert;
 import org.junit.Before;
@@ -10,12 +11,15 @@ import org.junit.runner.RunWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.lang.reflect.Method;
 import java.util.Arrays;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -29,6 +33,9 @@ public class CustomKeyGeneratorTest {
 
     @Mock
     private CacheEnabledConfig cacheEnabledConfig;
+
+    @Mock
+    private StaticDataTimeStampRepository staticDataTimeStampRepository;
     
     private String studyId1 = "test_study_1";
     private String studyId2 = "test_study_2";
@@ -36,6 +43,7 @@ public class CustomKeyGeneratorTest {
     @Before
     public void setUp() throws Exception {
         when(cacheEnabledConfig.isEnabled()).thenReturn(true);
+        ReflectionTestUtils.setField(customKeyGenerator, "studyCheckSeconds", 30L);
         CancerStudy cancerStudy1 = mock(CancerStudy.class);
         when(cancerStudy1.getCancerStudyIdentifier()).thenReturn(studyId1);
         CancerStudy cancerStudy2 = mock(CancerStudy.class);
@@ -92,6 +100,36 @@ public class CustomKeyGeneratorTest {
         Object hello = customKeyGenerator.generate(this, functionToPass, "one", requestParams.toString());
         
         Assert.assertTrue(hello instanceof String);
-        Assert.assertTrue(((String) hello).contains("test_study_1_test_study_2_22cc100378d5dc33c03fb0f39a61c692"));
+        Assert.assertTrue(((String) hello).contains("test_study_1_test_study_2_f0779b194efbf07a3e67466c05b86b51"));
+    }
+
+    // The study ids are matched against a matcher that is only rebuilt when the studies change,
+    // not against a freshly loaded study list for every key.
+    @Test
+    public void testStudyListLoadedOnceForLongParams() throws Exception {
+        Method functionToPass = this.getClass().getMethod("testGenerateCacheSuccessNoParams");
+        
+        StringBuilder requestParams = new StringBuilder(studyId2);
+        for (int i = CustomKeyGenerator.PARAM_LENGTH_HASH_LIMIT + 100; i > 0; i--) {
+            requestParams.append("-");
+        }
+        Object first = customKeyGenerator.generate(this, functionToPass, requestParams.toString());
+        Object second = customKeyGenerator.generate(this, functionToPass, requestParams.toString());
+
+        Assert.assertEquals(first, second);
+        Assert.assertTrue(((String) first).contains("_" + studyId2 + "_"));
+        Assert.assertFalse(((String) first).contains(studyId1));
+        Assert.assertEquals(2, customKeyGenerator.extractStudyIds(studyId1 + studyId2).size());
+        verify(studyRepository, times(1)).getAllStudies(any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    public void testStudyListReloadedAfterReset() {
+        Assert.assertEquals(2, customKeyGenerator.extractStudyIds(studyId1 + studyId2).size());
+
+        customKeyGenerator.resetStudyIdMatcher();
+        Assert.assertEquals(2, customKeyGenerator.extractStudyIds(studyId1 + studyId2).size());
+
+        verify(studyRepository, times(2)).getAllStudies(any(), any(), any(), any(), any(), any());
     }
-}
\ No newline at end of file
+}
@@ -1,5 +1,6 @@
 package org.cbioportal.persistence.util;
 
+import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -10,8 +11,11 @@ import org.mockito.junit.MockitoJUnitRunner;
 import javax.cache.Cache;
 import javax.cache.CacheManager;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
 
+import static org.mockito.ArgumentMatchers.anySet;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
@@ -26,6 +30,9 @@ public class EhCacheUtilsTest {
 
     @Mock
     private CacheManager cacheManager;
+
+    @Mock
+    private StudyKeyIndex studyKeyIndex;
     
     private String cacheName = "test_cache";
     
@@ -66,4 +73,26 @@ public class EhCacheUtilsTest {
         verify(cache, never()).remove(eq("a_study1_a"));
         verify(cache, times(1)).remove(eq("a__a"));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void evictByStudyWithCompleteIndex() {
+        when(studyKeyIndex.isComplete(eq(cacheName))).thenReturn(true);
+        when(studyKeyIndex.removeStudy(eq(cacheName), eq("study1"))).thenReturn(Arrays.asList("a_study1_a", "a__a"));
+        Assert.assertTrue(ehCacheUtils.evictByStudy(cacheName, "study1"));
+        verify(cache, times(1)).removeAll(eq(new HashSet<>(Arrays.asList("a_study1_a", "a__a"))));
+        verify(cache, never()).iterator();
+    }
+
+    @Test
+    public void evictByStudyWithIncompleteIndex() {
+        when(studyKeyIndex.isComplete(eq(cacheName))).thenReturn(false);
+        Assert.assertFalse(ehCacheUtils.evictByStudy(cacheName, "study1"));
+        verify(cache, never()).removeAll(anySet());
+    }
+
+    @Test
+    public void evictByPatternAllResetsIndex() {
+        ehCacheUtils.evictByPattern(cacheName, ".*");
+        verify(studyKeyIndex, times(1)).reset(eq(cacheName));
+    }
+}
@@ -0,0 +1,85 @@
+package org.cbioportal.persistence.util;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+public class MetricsCacheTest {
+
+    private static final String SAMPLES = "SampleMyBatisRepository_getAllSamplesInStudy";
+    private static final String PATIENTS = "PatientMyBatisRepository_getPatient";
+
+    private MeterRegistry meterRegistry;
+    private MetricsCache cache;
+
+    @Before
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new MetricsCache(new ConcurrentMapCache("test"), new CacheMetrics(meterRegistry));
+    }
+
+    @Test
+    public void recordHitsMissesAndLoadsPerMethod() {
+
+        Assert.assertNull(cache.get(SAMPLES + "_study_1"));
+        cache.put(SAMPLES + "_study_1", "samples");
+        Assert.assertNotNull(cache.get(SAMPLES + "_study_1"));
+        Assert.assertNotNull(cache.get(SAMPLES + "_study_1"));
+        Assert.assertNull(cache.get(PATIENTS + "_study_1_patient_1"));
+
+        Assert.assertEquals(2, getCount(SAMPLES, "hit"), 0);
+        Assert.assertEquals(1, getCount(SAMPLES, "miss"), 0);
+        Assert.assertEquals(1, getCount(PATIENTS, "miss"), 0);
+        Assert.assertEquals(2.0 / 3, meterRegistry.get("cbioportal.cache.hit.ratio").tag("method", SAMPLES)
+            .gauge().value(), 1e-9);
+        Assert.assertEquals(1, meterRegistry.get("cbioportal.cache.load").tag("method", SAMPLES).timer().count());
+        // the patient was never put
+        Assert.assertEquals(0, meterRegistry.get("cbioportal.cache.load").tag("method", PATIENTS).timer().count());
+    }
+
+    @Test
+    public void recordLoadsOfNestedMethods() {
+
+        // the outer method misses, calls an inner method that fails and then one that succeeds
+        cache.get(SAMPLES + "_outer");
+        cache.get(PATIENTS + "_failed");
+        cache.get(PATIENTS + "_inner");
+        cache.put(PATIENTS + "_inner", "patient");
+        cache.put(SAMPLES + "_outer", "samples");
+
+        Assert.assertEquals(1, meterRegistry.get("cbioportal.cache.load").tag("method", SAMPLES).timer().count());
+        Assert.assertEquals(1, meterRegistry.get("cbioportal.cache.load").tag("method", PATIENTS).timer().count());
+    }
+
+    @Test
+    public void recordSynchronizedLoadsAndEvictions() {
+
+        Assert.assertEquals("samples", cache.get(SAMPLES + "_study_1", () -> "samples"));
+        Assert.assertEquals("samples", cache.get(SAMPLES + "_study_1", () -> "other"));
+        cache.evict(SAMPLES + "_study_1");
+        cache.clear();
+
+        Assert.assertEquals(1, getCount(SAMPLES, "hit"), 0);
+        Assert.assertEquals(1, getCount(SAMPLES, "miss"), 0);
+        Assert.assertEquals(1, meterRegistry.get("cbioportal.cache.load").tag("method", SAMPLES).timer().count());
+        Assert.assertEquals(2, meterRegistry.get("cbioportal.cache.evictions").tag("cache", "test")
+            .counter().count(), 0);
+    }
+
+    @Test
+    public void getMethod() {
+
+        Assert.assertEquals(SAMPLES, CacheMetrics.getMethod(SAMPLES + "_study_1"));
+        Assert.assertEquals(SAMPLES, CacheMetrics.getMethod(SAMPLES + "_"));
+        Assert.assertEquals(CacheMetrics.UNKNOWN_METHOD, CacheMetrics.getMethod("key"));
+        Assert.assertEquals(CacheMetrics.UNKNOWN_METHOD, CacheMetrics.getMethod(42));
+    }
+
+    private double getCount(String method, String result) {
+        return meterRegistry.get("cbioportal.cache.gets").tag("method", method).tag("result", result)
+            .counter().count();
+    }
+}
@@ -0,0 +1,115 @@
+package org.cbioportal.persistence.util;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.redisson.api.BatchResult;
+import org.redisson.api.RBatch;
+import org.redisson.api.RBucket;
+import org.redisson.api.RFuture;
+import org.redisson.api.RKeys;
+import org.redisson.api.RScoredSortedSetAsync;
+import org.redisson.api.RScript;
+import org.redisson.api.RScriptAsync;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.cache.CacheManager;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class RedisStudyKeyIndexTest {
+
+    @Mock
+    private CacheManager cacheManager;
+    @Mock
+    private RedissonClient client;
+    @Mock
+    private RBatch batch;
+    @Mock
+    private RScoredSortedSetAsync<Object> studySet;
+    @Mock
+    private RScoredSortedSetAsync<Object> untaggedSet;
+    @Mock
+    private RScriptAsync script;
+    @Mock
+    private RFuture<BatchResult<?>> batchResult;
+    @Mock
+    private RBucket<Object> marker;
+
+    @Test
+    public void addWritesSetsWithTtlOfCacheInOneBatch() {
+        when(cacheManager.getCache("cache")).thenReturn(new CustomRedisCache("cache", client, 10));
+        when(client.createBatch()).thenReturn(batch);
+        when(batch.getScoredSortedSet(eq("cache-study-keys:study1"), eq(StringCodec.INSTANCE))).thenReturn(studySet);
+        when(batch.getScript(eq(StringCodec.INSTANCE))).thenReturn(script);
+        doReturn(batchResult).when(batch).executeAsync();
+
+        new RedisStudyKeyIndex(cacheManager).add("cache", "a_study1_a", Arrays.asList("study1"));
+
+        InOrder inOrder = inOrder(studySet, script, batch);
+        inOrder.verify(studySet).addAsync(anyDouble(), eq("a_study1_a"));
+        inOrder.verify(studySet).expireAsync(10, TimeUnit.MINUTES);
+        inOrder.verify(script).evalAsync(eq(RScript.Mode.READ_WRITE), anyString(), eq(RScript.ReturnType.INTEGER),
+            eq(Arrays.<Object>asList("cache-study-keys:study1")), anyString(), eq("cache:"), eq("1000"), anyString());
+        inOrder.verify(batch).executeAsync();
+        verify(batch, never()).execute();
+    }
+
+    @Test
+    public void addTrimsSetsOnlyOnceEveryAddsPerTrim() {
+        when(cacheManager.getCache("cache")).thenReturn(new CustomRedisCache("cache", client, 10));
+        when(client.createBatch()).thenReturn(batch);
+        when(batch.getScoredSortedSet(eq("cache-study-keys:study1"), eq(StringCodec.INSTANCE))).thenReturn(studySet);
+        when(batch.getScript(eq(StringCodec.INSTANCE))).thenReturn(script);
+        doReturn(batchResult).when(batch).executeAsync();
+
+        RedisStudyKeyIndex redisStudyKeyIndex = new RedisStudyKeyIndex(cacheManager);
+        for (int i = 0; i <= RedisStudyKeyIndex.ADDS_PER_TRIM; i++) {
+            redisStudyKeyIndex.add("cache", "a_study1_" + i, Arrays.asList("study1"));
+        }
+
+        verify(studySet, times(RedisStudyKeyIndex.ADDS_PER_TRIM + 1)).expireAsync(10, TimeUnit.MINUTES);
+        verify(script, times(2)).evalAsync(any(RScript.Mode.class), anyString(), any(RScript.ReturnType.class),
+            anyList(), anyString(), anyString(), anyString(), anyString());
+    }
+
+    @Test
+    public void addDoesNotExpireSetsOfStaticCache() {
+        when(cacheManager.getCache("static_cache")).thenReturn(
+            new CustomRedisCache("static_cache", client, CustomRedisCache.INFINITE_TTL));
+        when(client.createBatch()).thenReturn(batch);
+        when(batch.getScoredSortedSet(eq("static_cache-study-keys-untagged"), eq(StringCodec.INSTANCE)))
+            .thenReturn(untaggedSet);
+        doReturn(batchResult).when(batch).executeAsync();
+
+        new RedisStudyKeyIndex(cacheManager).add("static_cache", "a__a", Collections.emptyList());
+
+        verify(untaggedSet).addAsync(anyDouble(), eq("a__a"));
+        verify(untaggedSet, never()).expireAsync(anyLong(), any());
+        verify(batch, never()).getScript(any());
+        verify(batch).executeAsync();
+    }
+
+    @Test
+    public void resetExpiresCompleteMarkerWithTtlOfCache() {
+        when(cacheManager.getCache("cache")).thenReturn(new CustomRedisCache("cache", client, 10));
+        when(client.getKeys()).thenReturn(mock(RKeys.class));
+        when(client.getBucket(eq("cache-study-key-index"), eq(StringCodec.INSTANCE))).thenReturn(marker);
+
+        new RedisStudyKeyIndex(cacheManager).reset("cache");
+
+        verify(marker).set("complete", 10, TimeUnit.MINUTES);
+    }
+}
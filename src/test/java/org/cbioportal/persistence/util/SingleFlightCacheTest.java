@@ -0,0 +1,99 @@
+package org.cbioportal.persistence.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class SingleFlightCacheTest {
+
+    private static final long LEASE_MILLIS = 10000;
+
+    @Test
+    public void concurrentMissesShareOneComputation() throws Exception {
+
+        SingleFlightCache cache = new SingleFlightCache(new ConcurrentMapCache("test"),
+            new LocalCacheLeases(LEASE_MILLIS), LEASE_MILLIS);
+        AtomicInteger computations = new AtomicInteger();
+
+        // the first miss takes the lease
+        Assert.assertNull(cache.get("key"));
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<?>[] waiters = new Future<?>[4];
+            for (int i = 0; i < waiters.length; i++) {
+                waiters[i] = executor.submit(() -> cache.get("key", () -> {
+                    computations.incrementAndGet();
+                    return "other";
+                }));
+            }
+            // give the waiters time to block on the lease
+            Thread.sleep(100);
+            cache.put("key", "value");
+
+            for (Future<?> waiter : waiters) {
+                Assert.assertEquals("value", waiter.get(LEASE_MILLIS, TimeUnit.MILLISECONDS));
+            }
+            Assert.assertEquals(0, computations.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void failedComputationReleasesLease() throws Exception {
+
+        SingleFlightCache cache = new SingleFlightCache(new ConcurrentMapCache("test"),
+            new LocalCacheLeases(LEASE_MILLIS), LEASE_MILLIS);
+
+        try {
+            cache.get("key", () -> {
+                throw new IllegalStateException("failed");
+            });
+            Assert.fail();
+        } catch (Cache.ValueRetrievalException e) {
+            // expected
+        }
+
+        Assert.assertEquals("value", cache.get("key", () -> "value"));
+        Assert.assertEquals("value", cache.get("key").get());
+    }
+
+    @Test
+    public void leaseOfFailedMethodIsReleased() throws Exception {
+
+        LocalCacheLeases leases = new LocalCacheLeases(LEASE_MILLIS);
+        SingleFlightCache cache = new SingleFlightCache(new ConcurrentMapCache("test"), leases, LEASE_MILLIS);
+
+        // what SingleFlightLeaseInterceptor does around a @Cacheable method that misses and throws
+        int heldLeaseCount = SingleFlightCache.getHeldLeaseCount();
+        Assert.assertNull(cache.get("key"));
+        Assert.assertEquals(heldLeaseCount + 1, SingleFlightCache.getHeldLeaseCount());
+        SingleFlightCache.releaseLeasesAcquiredAfter(heldLeaseCount);
+
+        Assert.assertEquals(heldLeaseCount, SingleFlightCache.getHeldLeaseCount());
+        Assert.assertTrue(leases.awaitRelease("key", 0));
+    }
+
+    @Test
+    public void expiredLeaseIsTakenOver() throws Exception {
+
+        LocalCacheLeases leases = new LocalCacheLeases(50);
+        SingleFlightCache cache = new SingleFlightCache(new ConcurrentMapCache("test"), leases, LEASE_MILLIS);
+
+        Assert.assertNull(cache.get("key"));
+        // the owner never puts, another caller waits for the lease to expire and then computes the value itself
+        Thread other = new Thread(() -> cache.get("key", () -> "value"));
+        other.start();
+        other.join(LEASE_MILLIS);
+
+        Assert.assertEquals("value", cache.get("key").get());
+    }
+}
@@ -0,0 +1,38 @@
+package org.cbioportal.persistence.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+
+public class StudyIdMatcherTest {
+
+    private StudyIdMatcher matcher = new StudyIdMatcher(
+        Arrays.asList("brca_tcga", "brca_tcga_pan_can_atlas_2018", "acc_tcga", "tcga", "msk_impact_2017"));
+
+    @Test
+    public void matchOverlappingStudyIds() {
+        Assert.assertEquals(new LinkedHashSet<>(Arrays.asList("brca_tcga", "brca_tcga_pan_can_atlas_2018", "tcga")),
+            matcher.match("{\"studyIds\":[\"brca_tcga_pan_can_atlas_2018\"]}"));
+        Assert.assertEquals(new LinkedHashSet<>(Arrays.asList("acc_tcga", "tcga", "msk_impact_2017")),
+            matcher.match("[\"msk_impact_2017\",\"acc_tcga\"]"));
+    }
+
+    @Test
+    public void matchNothing() {
+        Assert.assertEquals(Collections.emptySet(), matcher.match("brca_tcg acc_tcg msk_impact"));
+        Assert.assertEquals(Collections.emptySet(), new StudyIdMatcher(Collections.emptyList()).match("brca_tcga"));
+    }
+
+    @Test
+    public void matchAcrossChunks() {
+        byte[] text = "xx_msk_impact_2017_yy".getBytes(StandardCharsets.UTF_8);
+        StudyIdMatcher.Search search = matcher.newSearch();
+        search.update(text, 0, 9);
+        search.update(text, 9, text.length - 9);
+        Assert.assertEquals(Collections.singleton("msk_impact_2017"), search.getMatches());
+    }
+}
@@ -0,0 +1,63 @@
+package org.cbioportal.persistence.util;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class StudyIndexingCacheTest {
+
+    private static final List<String> STUDY_IDS = Arrays.asList("study1", "study2");
+
+    private LocalStudyKeyIndex studyKeyIndex;
+    private StudyIndexingCache cache;
+
+    @Before
+    public void setUp() {
+        studyKeyIndex = new LocalStudyKeyIndex();
+        cache = new StudyIndexingCache(new ConcurrentMapCache("test_cache"), studyKeyIndex,
+            key -> STUDY_IDS.stream().filter(key::contains).collect(Collectors.toList()));
+        cache.clear();
+    }
+
+    @Test
+    public void removeStudyReturnsKeysOfStudyAndKeysWithoutStudy() {
+        cache.put("a_study1_a", 1);
+        cache.put("a_study2_a", 2);
+        cache.put("a_study1_study2_a", 3);
+        cache.put("a__a", 4);
+
+        Assert.assertTrue(studyKeyIndex.isComplete("test_cache"));
+        Assert.assertEquals(new HashSet<>(Arrays.asList("a_study1_a", "a_study1_study2_a", "a__a")),
+            new HashSet<>(studyKeyIndex.removeStudy("test_cache", "study1")));
+        Assert.assertEquals(new HashSet<>(Arrays.asList("a_study2_a", "a_study1_study2_a")),
+            new HashSet<>(studyKeyIndex.removeStudy("test_cache", "study2")));
+        Assert.assertTrue(studyKeyIndex.removeStudy("test_cache", "study1").isEmpty());
+    }
+
+    @Test
+    public void indexIsIncompleteUntilCacheIsCleared() {
+        Assert.assertFalse(studyKeyIndex.isComplete("other_cache"));
+        new StudyIndexingCache(new ConcurrentMapCache("other_cache"), studyKeyIndex, key -> STUDY_IDS).clear();
+        Assert.assertTrue(studyKeyIndex.isComplete("other_cache"));
+    }
+
+    @Test
+    public void indexIsDroppedWhenTooLarge() {
+        LocalStudyKeyIndex smallIndex = new LocalStudyKeyIndex(2);
+        smallIndex.reset("test_cache");
+        smallIndex.add("test_cache", "a_study1_a", Arrays.asList("study1"));
+        smallIndex.add("test_cache", "a_study2_a", Arrays.asList("study2"));
+        Assert.assertTrue(smallIndex.isComplete("test_cache"));
+
+        smallIndex.add("test_cache", "a__a", Arrays.asList());
+
+        Assert.assertFalse(smallIndex.isComplete("test_cache"));
+        Assert.assertTrue(smallIndex.removeStudy("test_cache", "study1").isEmpty());
+    }
+}
@@ -0,0 +1,145 @@
+package org.cbioportal.security.token.oauth2;
+
+import com.auth0.jwk.SigningKeyNotFoundException;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.security.jwt.JwtHelper;
+import org.springframework.security.jwt.crypto.sign.RsaSigner;
+import org.springframework.security.jwt.crypto.sign.RsaVerifier;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.interfaces.RSAPrivateKey;
+import java.security.interfaces.RSAPublicKey;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+public class JwtTokenVerifierBuilderTest {
+
+    private HttpServer jwksEndpoint;
+    private final AtomicInteger requestCount = new AtomicInteger();
+    private volatile List<String> publishedKeys = Collections.singletonList("key_1");
+    private KeyPair keyPair;
+    private JwtTokenVerifierBuilder jwtTokenVerifierBuilder;
+
+    @Before
+    public void setUp() throws Exception {
+        KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("RSA");
+        keyPairGenerator.initialize(2048);
+        keyPair = keyPairGenerator.generateKeyPair();
+
+        // a stub of the JWKS endpoint of the identity provider, publishing the key pair under the current key ids
+        jwksEndpoint = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        jwksEndpoint.createContext("/certs", exchange -> {
+            requestCount.incrementAndGet();
+            byte[] body = createJwks().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream outputStream = exchange.getResponseBody()) {
+                outputStream.write(body);
+            }
+        });
+        jwksEndpoint.start();
+
+        jwtTokenVerifierBuilder = new JwtTokenVerifierBuilder();
+        ReflectionTestUtils.setField(jwtTokenVerifierBuilder, "jwkUrl",
+            "http://localhost:" + jwksEndpoint.getAddress().getPort() + "/certs");
+        ReflectionTestUtils.setField(jwtTokenVerifierBuilder, "cacheTtlSeconds", 3600L);
+        ReflectionTestUtils.setField(jwtTokenVerifierBuilder, "minRefreshIntervalSeconds", 0L);
+    }
+
+    @After
+    public void tearDown() {
+        jwksEndpoint.stop(0);
+    }
+
+    @Test
+    public void buildDownloadsKeysOnce() throws Exception {
+
+        String token = JwtHelper.encode("{\"sub\":\"user\"}",
+            new RsaSigner((RSAPrivateKey) keyPair.getPrivate(), "SHA512withRSA")).getEncoded();
+        for (int i = 0; i < 10; i++) {
+            RsaVerifier verifier = jwtTokenVerifierBuilder.build("key_1");
+            Assert.assertEquals("{\"sub\":\"user\"}", JwtHelper.decodeAndVerify(token, verifier).getClaims());
+        }
+
+        Assert.assertEquals(1, requestCount.get());
+    }
+
+    @Test
+    public void buildDownloadsRotatedKeys() throws Exception {
+
+        jwtTokenVerifierBuilder.build("key_1");
+        publishedKeys = Arrays.asList("key_1", "key_2");
+
+        Assert.assertNotNull(jwtTokenVerifierBuilder.build("key_2"));
+        Assert.assertEquals(2, requestCount.get());
+    }
+
+    @Test
+    public void buildLimitsDownloadsOfUnknownKeys() throws Exception {
+
+        ReflectionTestUtils.setField(jwtTokenVerifierBuilder, "minRefreshIntervalSeconds", 3600L);
+        jwtTokenVerifierBuilder.build("key_1");
+
+        for (int i = 0; i < 3; i++) {
+            try {
+                jwtTokenVerifierBuilder.build("unknown");
+                Assert.fail();
+            } catch (SigningKeyNotFoundException e) {
+                // expected
+            }
+        }
+        Assert.assertEquals(1, requestCount.get());
+    }
+
+    @Test
+    public void buildRefreshesExpiredKeysInBackground() throws Exception {
+
+        jwtTokenVerifierBuilder.build("key_1");
+        ReflectionTestUtils.setField(jwtTokenVerifierBuilder, "cacheTtlSeconds", 0L);
+        publishedKeys = Collections.singletonList("key_2");
+
+        // the known key is still used while the keys are downloaded
+        Assert.assertNotNull(jwtTokenVerifierBuilder.build("key_1"));
+        for (int i = 0; i < 500 && requestCount.get() < 2; i++) {
+            Thread.sleep(10);
+        }
+        Assert.assertEquals(2, requestCount.get());
+        ReflectionTestUtils.setField(jwtTokenVerifierBuilder, "cacheTtlSeconds", 3600L);
+        AtomicBoolean refreshing = (AtomicBoolean) ReflectionTestUtils.getField(jwtTokenVerifierBuilder, "refreshing");
+        for (int i = 0; i < 500 && refreshing.get(); i++) {
+            Thread.sleep(10);
+        }
+        Assert.assertNotNull(jwtTokenVerifierBuilder.build("key_2"));
+    }
+
+    private String createJwks() {
+        RSAPublicKey publicKey = (RSAPublicKey) keyPair.getPublic();
+        return publishedKeys.stream()
+            .map(kid -> "{\"kid\":\"" + kid + "\",\"kty\":\"RSA\",\"alg\":\"RS512\",\"use\":\"sig\",\"n\":\""
+                + encode(publicKey.getModulus()) + "\",\"e\":\"" + encode(publicKey.getPublicExponent()) + "\"}")
+            .collect(Collectors.joining(",", "{\"keys\":[", "]}"));
+    }
+
+    private static String encode(BigInteger value) {
+        byte[] bytes = value.toByteArray();
+        if (bytes.length > 1 && bytes[0] == 0) {
+            bytes = Arrays.copyOfRange(bytes, 1, bytes.length);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
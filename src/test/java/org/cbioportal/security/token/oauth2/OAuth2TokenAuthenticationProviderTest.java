@@ -0,0 +1,170 @@
+package org.cbioportal.security.token.oauth2;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.core.Authentication;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class OAuth2TokenAuthenticationProviderTest {
+
+    private HttpServer tokenEndpoint;
+    private final ConcurrentMap<String, AtomicInteger> requestCounts = new ConcurrentHashMap<>();
+    private volatile CountDownLatch release = new CountDownLatch(0);
+    private OAuth2TokenAuthenticationProvider provider;
+
+    @Before
+    public void setUp() throws Exception {
+        // a stub of the token endpoint of the identity provider, the offline token is the user name
+        tokenEndpoint = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        tokenEndpoint.setExecutor(Executors.newCachedThreadPool());
+        tokenEndpoint.createContext("/token", exchange -> {
+            String offlineToken = getRefreshToken(exchange.getRequestBody());
+            requestCounts.computeIfAbsent(offlineToken, k -> new AtomicInteger()).incrementAndGet();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (offlineToken.startsWith("invalid")) {
+                exchange.sendResponseHeaders(400, -1);
+                exchange.close();
+                return;
+            }
+            long exp = System.currentTimeMillis() / 1000 + (offlineToken.startsWith("expiring") ? 10 : 300);
+            byte[] body = ("{\"access_token\":\"" + createAccessToken(offlineToken, exp) + "\"}")
+                .getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream outputStream = exchange.getResponseBody()) {
+                outputStream.write(body);
+            }
+        });
+        tokenEndpoint.start();
+
+        OAuth2TokenRefreshRestTemplate tokenRefreshRestTemplate = new OAuth2TokenRefreshRestTemplate(new RestTemplate());
+        ReflectionTestUtils.setField(tokenRefreshRestTemplate, "accessTokenUri",
+            "http://localhost:" + tokenEndpoint.getAddress().getPort() + "/token");
+        ReflectionTestUtils.setField(tokenRefreshRestTemplate, "clientId", "cbioportal_api");
+        ReflectionTestUtils.setField(tokenRefreshRestTemplate, "clientSecret", "secret");
+
+        provider = new OAuth2TokenAuthenticationProvider(tokenRefreshRestTemplate);
+        ReflectionTestUtils.setField(provider, "jwtRolesPath", "resource_access::cbioportal::roles");
+        ReflectionTestUtils.setField(provider, "cacheMaxEntries", 100);
+        ReflectionTestUtils.setField(provider, "cacheExpiryMarginSeconds", 30L);
+    }
+
+    @After
+    public void tearDown() {
+        tokenEndpoint.stop(0);
+    }
+
+    @Test
+    public void authenticateRequestsAccessTokenOnce() {
+
+        for (int i = 0; i < 10; i++) {
+            Authentication authentication = provider.authenticate(new OAuth2BearerAuthenticationToken("user_1"));
+            Assert.assertTrue(authentication.isAuthenticated());
+            Assert.assertEquals("user_1", authentication.getPrincipal());
+            Assert.assertEquals(1, authentication.getAuthorities().size());
+        }
+        provider.authenticate(new OAuth2BearerAuthenticationToken("user_2"));
+
+        Assert.assertEquals(1, requestCounts.get("user_1").get());
+        Assert.assertEquals(1, requestCounts.get("user_2").get());
+    }
+
+    @Test
+    public void authenticateRequestsAccessTokenAgainWhenItExpires() {
+
+        // expires within the margin, so it is never cached
+        provider.authenticate(new OAuth2BearerAuthenticationToken("expiring_user"));
+        provider.authenticate(new OAuth2BearerAuthenticationToken("expiring_user"));
+
+        Assert.assertEquals(2, requestCounts.get("expiring_user").get());
+    }
+
+    @Test
+    public void authenticateSharesConcurrentRequests() throws Exception {
+
+        release = new CountDownLatch(1);
+        ExecutorService requests = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Authentication>> results = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                results.add(requests.submit(() -> provider.authenticate(new OAuth2BearerAuthenticationToken("user_1"))));
+            }
+            while (!requestCounts.containsKey("user_1")) {
+                Thread.sleep(10);
+            }
+            release.countDown();
+            for (Future<Authentication> result : results) {
+                Assert.assertEquals("user_1", result.get(5, TimeUnit.SECONDS).getPrincipal());
+            }
+            Assert.assertEquals(1, requestCounts.get("user_1").get());
+        } finally {
+            release.countDown();
+            requests.shutdownNow();
+        }
+    }
+
+    @Test
+    public void authenticateDoesNotCacheRejectedTokens() {
+
+        for (int i = 0; i < 2; i++) {
+            try {
+                provider.authenticate(new OAuth2BearerAuthenticationToken("invalid_user"));
+                Assert.fail();
+            } catch (BadCredentialsException e) {
+                // expected
+            }
+        }
+
+        Assert.assertEquals(2, requestCounts.get("invalid_user").get());
+    }
+
+    private static String createAccessToken(String username, long exp) {
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        String header = "{\"alg\":\"RS256\",\"typ\":\"JWT\"}";
+        String claims = "{\"sub\":\"" + username + "\",\"exp\":" + exp
+            + ",\"resource_access\":{\"cbioportal\":{\"roles\":[\"study_es_0\"]}}}";
+        return encoder.encodeToString(header.getBytes(StandardCharsets.UTF_8)) + "."
+            + encoder.encodeToString(claims.getBytes(StandardCharsets.UTF_8)) + "."
+            + encoder.encodeToString("signature".getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String getRefreshToken(InputStream requestBody) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        requestBody.transferTo(body);
+        for (String parameter : body.toString(StandardCharsets.UTF_8).split("&")) {
+            String[] keyValue = parameter.split("=", 2);
+            if (keyValue[0].equals("refresh_token")) {
+                return URLDecoder.decode(keyValue[1], StandardCharsets.UTF_8);
+            }
+        }
+        return "";
+    }
+}
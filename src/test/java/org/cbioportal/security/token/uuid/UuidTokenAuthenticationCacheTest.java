@@ -0,0 +1,98 @@
+package org.cbioportal.security.token.uuid;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.Set;
+
+public class UuidTokenAuthenticationCacheTest {
+
+    private static final Date EXPIRATION = new Date(System.currentTimeMillis() + 100000000L);
+
+    private UuidTokenAuthenticationCache authenticationCache;
+
+    @Before
+    public void setUp() {
+        authenticationCache = new UuidTokenAuthenticationCache();
+        ReflectionTestUtils.setField(authenticationCache, "maxEntries", 2);
+        ReflectionTestUtils.setField(authenticationCache, "ttlSeconds", 300L);
+    }
+
+    @Test
+    public void getUsernameAndAuthorities() {
+
+        Set<GrantedAuthority> authorities = Collections.singleton(new SimpleGrantedAuthority("study_es_0"));
+        authenticationCache.putUsername("token_1", "user_1", EXPIRATION, authenticationCache.getRevision());
+        authenticationCache.putAuthorities("token_1", "user_1", authorities);
+
+        Assert.assertEquals("user_1", authenticationCache.getUsername("token_1"));
+        Assert.assertEquals(authorities, authenticationCache.getAuthorities("token_1", "user_1"));
+        Assert.assertNull(authenticationCache.getAuthorities("token_1", "user_2"));
+        Assert.assertNull(authenticationCache.getUsername("token_2"));
+    }
+
+    @Test
+    public void getUsernameOfExpiredToken() {
+
+        authenticationCache.putUsername("token_1", "user_1", new Date(System.currentTimeMillis() - 1000),
+            authenticationCache.getRevision());
+        ReflectionTestUtils.setField(authenticationCache, "ttlSeconds", 0L);
+        authenticationCache.putUsername("token_2", "user_1", EXPIRATION, authenticationCache.getRevision());
+
+        Assert.assertNull(authenticationCache.getUsername("token_1"));
+        Assert.assertNull(authenticationCache.getUsername("token_2"));
+    }
+
+    @Test
+    public void revokeToken() {
+
+        authenticationCache.putUsername("token_1", "user_1", EXPIRATION, authenticationCache.getRevision());
+        authenticationCache.putUsername("token_2", "user_1", EXPIRATION, authenticationCache.getRevision());
+
+        authenticationCache.revokeToken("token_1");
+
+        Assert.assertNull(authenticationCache.getUsername("token_1"));
+        Assert.assertEquals("user_1", authenticationCache.getUsername("token_2"));
+    }
+
+    @Test
+    public void revokeAllTokens() {
+
+        authenticationCache.putUsername("token_1", "user_1", EXPIRATION, authenticationCache.getRevision());
+        authenticationCache.putUsername("token_2", "user_2", EXPIRATION, authenticationCache.getRevision());
+
+        authenticationCache.revokeAllTokens("user_1");
+
+        Assert.assertNull(authenticationCache.getUsername("token_1"));
+        Assert.assertEquals("user_2", authenticationCache.getUsername("token_2"));
+    }
+
+    @Test
+    public void putUsernameReadBeforeRevocation() {
+
+        long revision = authenticationCache.getRevision();
+        authenticationCache.revokeToken("token_1");
+        authenticationCache.putUsername("token_1", "user_1", EXPIRATION, revision);
+
+        Assert.assertNull(authenticationCache.getUsername("token_1"));
+    }
+
+    @Test
+    public void putUsernameEvictsLeastRecentlyUsedToken() {
+
+        authenticationCache.putUsername("token_1", "user_1", EXPIRATION, authenticationCache.getRevision());
+        authenticationCache.putUsername("token_2", "user_1", EXPIRATION, authenticationCache.getRevision());
+        authenticationCache.getUsername("token_1");
+        authenticationCache.putUsername("token_3", "user_1", EXPIRATION, authenticationCache.getRevision());
+
+        Assert.assertEquals("user_1", authenticationCache.getUsername("token_1"));
+        Assert.assertNull(authenticationCache.getUsername("token_2"));
+        Assert.assertEquals("user_1", authenticationCache.getUsername("token_3"));
+    }
+}
@@ -0,0 +1,78 @@
+package org.cbioportal.security.token.uuid;
+
+import org.cbioportal.model.UserAuthorities;
+import org.cbioportal.persistence.SecurityRepository;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.Date;
+
+@RunWith(MockitoJUnitRunner.class)
+public class UuidTokenAuthenticationProviderTest {
+
+    private static final String TOKEN = "token";
+    private static final String USERNAME = "user";
+
+    @Mock
+    private SecurityRepository securityRepository;
+
+    private UuidTokenAuthenticationCache authenticationCache;
+    private UuidTokenAuthenticationProvider authenticationProvider;
+
+    @Before
+    public void setUp() {
+        authenticationCache = new UuidTokenAuthenticationCache();
+        ReflectionTestUtils.setField(authenticationCache, "maxEntries", 100);
+        ReflectionTestUtils.setField(authenticationCache, "ttlSeconds", 300L);
+        authenticationProvider = new UuidTokenAuthenticationProvider(securityRepository, authenticationCache);
+
+        UserAuthorities userAuthorities = new UserAuthorities();
+        userAuthorities.setEmail(USERNAME);
+        userAuthorities.setAuthorities(Arrays.asList("cbioportal:study_es_0", "cbioportal:study_es_1"));
+        Mockito.when(securityRepository.getPortalUserAuthorities(USERNAME)).thenReturn(userAuthorities);
+    }
+
+    @Test
+    public void authenticateCachedToken() {
+
+        authenticationCache.putUsername(TOKEN, USERNAME, new Date(System.currentTimeMillis() + 100000),
+            authenticationCache.getRevision());
+
+        for (int i = 0; i < 3; i++) {
+            Authentication authentication = authenticationProvider.authenticate(createAuthenticationRequest(TOKEN));
+            Assert.assertEquals(USERNAME, authentication.getPrincipal());
+            Assert.assertEquals(2, authentication.getAuthorities().size());
+        }
+        Mockito.verify(securityRepository, Mockito.times(1)).getPortalUserAuthorities(USERNAME);
+
+        authenticationCache.revokeToken(TOKEN);
+        authenticationProvider.authenticate(createAuthenticationRequest(TOKEN));
+        authenticationProvider.authenticate(createAuthenticationRequest(TOKEN));
+        Mockito.verify(securityRepository, Mockito.times(3)).getPortalUserAuthorities(USERNAME);
+    }
+
+    @Test
+    public void authenticateWithoutToken() {
+
+        Authentication authentication = authenticationProvider.authenticate(
+            new UsernamePasswordAuthenticationToken(USERNAME, "does not match unused"));
+
+        Assert.assertEquals(2, authentication.getAuthorities().size());
+    }
+
+    private static Authentication createAuthenticationRequest(String token) {
+        UsernamePasswordAuthenticationToken authenticationRequest =
+            new UsernamePasswordAuthenticationToken(USERNAME, "does not match unused");
+        authenticationRequest.setDetails(token);
+        return authenticationRequest;
+    }
+}
@@ -1,5 +1,6 @@
 package org.cbioportal.service.impl;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.apache.commons.math3.util.Pair;
 import org.cbioportal.model.*;
 import org.cbioportal.model.util.Select;
@@ -16,6 +17,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.util.*;
 
@@ -40,6 +42,8 @@ public class AlterationCountServiceImplTest extends BaseServiceImplTest {
     @Mock
     private MolecularProfileRepository molecularProfileRepository;
 
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     List<MolecularProfileCaseIdentifier> caseIdentifiers = Arrays.asList(new MolecularProfileCaseIdentifier("A", MOLECULAR_PROFILE_ID));
     Select<MutationEventType> mutationEventTypes = Select.byValues(Arrays.asList(MutationEventType.missense_mutation));
     Select<CNA> cnaEventTypes = Select.byValues(Arrays.asList(CNA.AMP));
@@ -64,11 +68,14 @@ public class AlterationCountServiceImplTest extends BaseServiceImplTest {
 
     @Before
     public void setup() {
+        ReflectionTestUtils.setField(alterationCountService, "meterRegistry", meterRegistry);
+
         MolecularProfile molecularProfile = new MolecularProfile();
         molecularProfile.setStableId(MOLECULAR_PROFILE_ID);
         molecularProfile.setCancerStudyIdentifier(STUDY_ID);
 
-        when(molecularProfileRepository.getMolecularProfiles(
+        // lenient, not every test resolves only this profile
+        lenient().when(molecularProfileRepository.getMolecularProfiles(
             Collections.singleton(MOLECULAR_PROFILE_ID),
             "SUMMARY"
         )).thenReturn(Arrays.asList(molecularProfile));
@@ -229,4 +236,74 @@ public class AlterationCountServiceImplTest extends BaseServiceImplTest {
         Assert.assertEquals(expectedStructuralVariantList, result.getFirst());
 
     }
-}
\ No newline at end of file
+
+    @Test
+    public void getSampleAlterationGeneCountsOfMultipleStudies() {
+
+        ReflectionTestUtils.setField(alterationCountService, "studyParallelism", 4);
+
+        MolecularProfile molecularProfileB = new MolecularProfile();
+        molecularProfileB.setStableId(MOLECULAR_PROFILE_ID_B);
+        molecularProfileB.setCancerStudyIdentifier("other_study_id");
+        MolecularProfile molecularProfile = new MolecularProfile();
+        molecularProfile.setStableId(MOLECULAR_PROFILE_ID);
+        molecularProfile.setCancerStudyIdentifier(STUDY_ID);
+        when(molecularProfileRepository.getMolecularProfiles(
+            new HashSet<>(Arrays.asList(MOLECULAR_PROFILE_ID, MOLECULAR_PROFILE_ID_B)),
+            "SUMMARY"
+        )).thenReturn(Arrays.asList(molecularProfile, molecularProfileB));
+
+        List<MolecularProfileCaseIdentifier> caseIdentifiersA = Arrays.asList(
+            new MolecularProfileCaseIdentifier("A", MOLECULAR_PROFILE_ID));
+        List<MolecularProfileCaseIdentifier> caseIdentifiersB = Arrays.asList(
+            new MolecularProfileCaseIdentifier("B", MOLECULAR_PROFILE_ID_B),
+            new MolecularProfileCaseIdentifier("C", MOLECULAR_PROFILE_ID_B));
+        when(alterationRepository.getSampleAlterationGeneCounts(new TreeSet<>(caseIdentifiersA), entrezGeneIds,
+            alterationFilter)).thenReturn(Arrays.asList(
+                createAlterationCountByGene(ENTREZ_GENE_ID_1, 1, "panel_a"),
+                createAlterationCountByGene(ENTREZ_GENE_ID_2, 1, "panel_a")));
+        when(alterationRepository.getSampleAlterationGeneCounts(new TreeSet<>(caseIdentifiersB), entrezGeneIds,
+            alterationFilter)).thenReturn(Arrays.asList(createAlterationCountByGene(ENTREZ_GENE_ID_1, 2, "panel_b")));
+        when(alterationEnrichmentUtil.includeFrequencyForSamples(eq(caseIdentifiersA), anyList(), anyBoolean()))
+            .thenReturn(1L);
+        when(alterationEnrichmentUtil.includeFrequencyForSamples(eq(caseIdentifiersB), anyList(), anyBoolean()))
+            .thenReturn(2L);
+
+        List<MolecularProfileCaseIdentifier> allCaseIdentifiers = new ArrayList<>(caseIdentifiersA);
+        allCaseIdentifiers.addAll(caseIdentifiersB);
+        Pair<List<AlterationCountByGene>, Long> result = alterationCountService.getSampleAlterationGeneCounts(
+            allCaseIdentifiers,
+            entrezGeneIds,
+            includeFrequency,
+            includeMissingAlterationsFromGenePanel,
+            alterationFilter);
+
+        Assert.assertEquals(Long.valueOf(3), result.getSecond());
+        Assert.assertEquals(2, result.getFirst().size());
+        AlterationCountByGene gene1 = result.getFirst().stream()
+            .filter(count -> count.getEntrezGeneId().equals(ENTREZ_GENE_ID_1)).findFirst().get();
+        Assert.assertEquals(Integer.valueOf(3), gene1.getNumberOfAlteredCases());
+        Assert.assertEquals(Integer.valueOf(3), gene1.getTotalCount());
+        Assert.assertEquals(new HashSet<>(Arrays.asList("panel_a", "panel_b")), gene1.getMatchingGenePanelIds());
+        Assert.assertEquals(2, meterRegistry.get("cbioportal.alteration.counts.study").tag("cases", "<100")
+            .timer().count());
+    }
+
+    @Test
+    public void bucketCaseCount() {
+        Assert.assertEquals("<100", AlterationCountServiceImpl.bucketCaseCount(1));
+        Assert.assertEquals("100-999", AlterationCountServiceImpl.bucketCaseCount(100));
+        Assert.assertEquals("1000-9999", AlterationCountServiceImpl.bucketCaseCount(9999));
+        Assert.assertEquals("10000+", AlterationCountServiceImpl.bucketCaseCount(10000));
+    }
+
+    private AlterationCountByGene createAlterationCountByGene(Integer entrezGeneId, int count, String genePanelId) {
+        AlterationCountByGene alterationCountByGene = new AlterationCountByGene();
+        alterationCountByGene.setEntrezGeneId(entrezGeneId);
+        alterationCountByGene.setNumberOfAlteredCases(count);
+        alterationCountByGene.setTotalCount(count);
+        alterationCountByGene.setNumberOfProfiledCases(count);
+        alterationCountByGene.setMatchingGenePanelIds(new HashSet<>(Collections.singletonList(genePanelId)));
+        return alterationCountByGene;
+    }
+}
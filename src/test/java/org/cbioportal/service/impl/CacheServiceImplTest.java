@@ -4,7 +4,9 @@ import org.cbioportal.model.CancerStudy;
 import org.cbioportal.persistence.StudyRepository;
 import org.cbioportal.persistence.cachemaputil.StaticRefCacheMapUtil;
 import org.cbioportal.persistence.util.CacheUtils;
+import org.cbioportal.persistence.util.CustomKeyGenerator;
 import org.cbioportal.service.exception.CacheOperationException;
+import org.cbioportal.service.util.InMemoryCacheInvalidator;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -40,6 +42,12 @@ public class CacheServiceImplTest {
 
     @Mock
     private StudyRepository studyRepository;
+
+    @Mock
+    private InMemoryCacheInvalidator inMemoryCacheInvalidator;
+
+    @Mock
+    private CustomKeyGenerator customKeyGenerator;
     
     @Before
     public void init() {
@@ -57,6 +65,8 @@ public class CacheServiceImplTest {
         cachingService.clearCaches(true);
         verify(cacheUtils, times(2)).evictByPattern(anyString(), eq(clearAllKeysRegex));
         verify(cacheMapUtil, times(1)).initializeCacheMemory();
+        verify(inMemoryCacheInvalidator, times(1)).clearAll();
+        verify(customKeyGenerator, times(1)).resetStudyIdMatcher();
     }
 
     @Test
@@ -87,6 +97,8 @@ public class CacheServiceImplTest {
         cachingService.clearCachesForStudy("study3", true);
         verify(cacheUtils, times(2)).evictByPattern(anyString(), eq("^(?=.*study3).*|^(?!.*study3)(?!.*study1)(?!.*study2).*"));
         verify(cacheMapUtil, times(1)).initializeCacheMemory();
+        verify(inMemoryCacheInvalidator, times(1)).clearStudy("study3");
+        verify(customKeyGenerator, times(1)).resetStudyIdMatcher();
     }
 
     @Test
@@ -105,6 +117,7 @@ public class CacheServiceImplTest {
         cachingService.clearCachesForStudy("study3", false);
         verify(cacheUtils, never()).evictByPattern(anyString(), anyString());
         verify(cacheMapUtil, times(1)).initializeCacheMemory();
+        verify(inMemoryCacheInvalidator, times(1)).clearStudy("study3");
     }
 
     @Test(expected = CacheOperationException.class)
@@ -113,5 +126,15 @@ public class CacheServiceImplTest {
         doThrow(RuntimeException.class).when(cacheUtils).evictByPattern(anyString(), anyString());
         cachingService.clearCachesForStudy("study3", true);
     }
+
+    @Test
+    public void evictCacheForStudyWithStudyKeyIndex() throws Exception {
+        when(cacheUtils.evictByStudy(anyString(), eq("study3"))).thenReturn(true);
+        cachingService.clearCachesForStudy("study3", true);
+        verify(cacheUtils, times(2)).evictByStudy(anyString(), eq("study3"));
+        verify(cacheUtils, never()).evictByPattern(anyString(), anyString());
+        verify(studyRepository, never()).getAllStudies(nullable(String.class), nullable(String.class), nullable(Integer.class), nullable(Integer.class), nullable(String.class), nullable(String.class));
+        verify(cacheMapUtil, times(1)).initializeCacheMemory();
+    }
     
-}
\ No newline at end of file
+}
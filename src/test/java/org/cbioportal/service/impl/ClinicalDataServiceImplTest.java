@@ -7,6 +7,8 @@ import org.cbioportal.persistence.ClinicalDataRepository;
 import org.cbioportal.service.*;
 import org.cbioportal.service.exception.*;
 import org.cbioportal.service.util.ClinicalAttributeUtil;
+import org.cbioportal.service.util.ClinicalTableIndex;
+import org.cbioportal.service.util.ClinicalTableIndexCache;
 import org.cbioportal.utils.Encoder;
 import org.junit.Assert;
 import org.junit.Before;
@@ -39,6 +41,8 @@ public class ClinicalDataServiceImplTest extends BaseServiceImplTest {
     private ClinicalAttributeService clinicalAttributeService;
     @Spy
     private ClinicalAttributeUtil clinicalAttributeUtil = new ClinicalAttributeUtil();
+    @Mock
+    private ClinicalTableIndexCache clinicalTableIndexCache;
     
     ClinicalData datum1 = new ClinicalData();
     ClinicalData datum2 = new ClinicalData();
@@ -52,8 +56,6 @@ public class ClinicalDataServiceImplTest extends BaseServiceImplTest {
     String searchTerm = "mySearch";
     String sortBy = "column name";
     String direction = "ASC";
-    List<Integer> sampleInternalIds = Arrays.asList(0, 1);
-    List<Integer> sampleInternalIdsAll = Arrays.asList(0, 1, 2, 3);
     
     @Before
     public void init() {
@@ -375,14 +377,24 @@ public class ClinicalDataServiceImplTest extends BaseServiceImplTest {
     @Test
     public void fetchSampleClinicalTableHappyCase() {
 
-        when(clinicalDataRepository.getVisibleSampleInternalIdsForClinicalTable(
-            sampleStudyIds, sampleIds, null, null, searchTerm, sortBy, direction
-        )).thenReturn(sampleInternalIdsAll);
-        
-        when(clinicalDataRepository.getSampleClinicalDataBySampleInternalIds(sampleInternalIds)).thenReturn(
+        ClinicalTableIndex.Builder builder = new ClinicalTableIndex.Builder(STUDY_ID);
+        builder.addSample(0, SAMPLE_ID1, 0, PATIENT_ID_1);
+        builder.addSample(1, SAMPLE_ID2, 1, PATIENT_ID_2);
+        builder.addSample(2, SAMPLE_ID3, 1, PATIENT_ID_2);
+        builder.addSample(3, SAMPLE_ID4, 2, PATIENT_ID_3);
+        builder.addSampleValue(0, sortBy, "c");
+        builder.addSampleValue(1, sortBy, "b");
+        builder.addSampleValue(2, sortBy, "a");
+        builder.addSampleValue(3, sortBy, "d");
+        builder.addPatientValue(0, CLINICAL_ATTRIBUTE_ID_1, "is MYSEARCH");
+        builder.addPatientValue(1, CLINICAL_ATTRIBUTE_ID_1, "mySearch");
+        when(clinicalTableIndexCache.get(STUDY_ID)).thenReturn(builder.build());
+
+        // sorted by the attribute and sliced to the page
+        when(clinicalDataRepository.getSampleClinicalDataBySampleInternalIds(Arrays.asList(2, 1))).thenReturn(
             List.of(datum1, datum2)
         );       
-        when(clinicalDataRepository.getPatientClinicalDataBySampleInternalIds(sampleInternalIds)).thenReturn(
+        when(clinicalDataRepository.getPatientClinicalDataBySampleInternalIds(Arrays.asList(2, 1))).thenReturn(
             List.of(datum1, datum2)
         );
 
@@ -392,7 +404,7 @@ public class ClinicalDataServiceImplTest extends BaseServiceImplTest {
         SampleClinicalDataCollection clinicalDataCollection = result.getLeft();
         Integer itemCount = result.getRight();
 
-        Assert.assertEquals(4, (int) itemCount);
+        Assert.assertEquals(3, (int) itemCount);
         Assert.assertEquals(2, clinicalDataCollection.getByUniqueSampleKey().size());
         Assert.assertTrue(clinicalDataCollection.getByUniqueSampleKey().containsKey(uniqueKeySample1));
         Assert.assertTrue(clinicalDataCollection.getByUniqueSampleKey().containsKey(uniqueKeySample2));
@@ -404,6 +416,37 @@ public class ClinicalDataServiceImplTest extends BaseServiceImplTest {
         Assert.assertEquals("Study2", clinicalDataCollection.getByUniqueSampleKey().get(uniqueKeySample2).get(0).getStudyId());
     }
     
+    @Test
+    public void fetchSampleClinicalTableSortsSamplesOfStudies() {
+
+        ClinicalTableIndex.Builder builder1 = new ClinicalTableIndex.Builder(STUDY_ID);
+        builder1.addSample(1, SAMPLE_ID1, 1, PATIENT_ID_1);
+        builder1.addSample(2, SAMPLE_ID2, 2, PATIENT_ID_2);
+        builder1.addSample(3, SAMPLE_ID3, 3, PATIENT_ID_3);
+        builder1.setNumeric(CLINICAL_ATTRIBUTE_ID_1);
+        builder1.addSampleValue(1, CLINICAL_ATTRIBUTE_ID_1, "10");
+        builder1.addSampleValue(2, CLINICAL_ATTRIBUTE_ID_1, "9");
+        when(clinicalTableIndexCache.get(STUDY_ID)).thenReturn(builder1.build());
+        ClinicalTableIndex.Builder builder2 = new ClinicalTableIndex.Builder("study_id2");
+        builder2.addSample(4, SAMPLE_ID1, 4, PATIENT_ID_1);
+        builder2.addSample(5, SAMPLE_ID2, 5, PATIENT_ID_2);
+        builder2.setNumeric(CLINICAL_ATTRIBUTE_ID_1);
+        builder2.addPatientValue(4, CLINICAL_ATTRIBUTE_ID_1, "9.5");
+        builder2.addPatientValue(5, CLINICAL_ATTRIBUTE_ID_1, "100");
+        when(clinicalTableIndexCache.get("study_id2")).thenReturn(builder2.build());
+        when(clinicalDataRepository.getSampleClinicalDataBySampleInternalIds(Arrays.asList(5, 1, 4, 2, 3)))
+            .thenReturn(List.of(datum1));
+
+        ImmutablePair<SampleClinicalDataCollection, Integer> result = clinicalDataService.fetchSampleClinicalTable(
+            Arrays.asList(STUDY_ID, STUDY_ID, STUDY_ID, "study_id2", "study_id2"),
+            Arrays.asList(SAMPLE_ID1, SAMPLE_ID2, SAMPLE_ID3, SAMPLE_ID1, SAMPLE_ID2), 10, 0, null,
+            CLINICAL_ATTRIBUTE_ID_1, "DESC");
+
+        // samples without a value go last
+        Assert.assertEquals(5, (int) result.getRight());
+        Assert.assertEquals(1, result.getLeft().getByUniqueSampleKey().size());
+    }
+
     @Test
     public void fetchSampleClinicalTableEmptyIdLists() {
         Assert.assertEquals(0, clinicalDataService.fetchSampleClinicalTable(
@@ -5,6 +5,8 @@ import org.cbioportal.model.meta.BaseMeta;
 import org.cbioportal.persistence.CopyNumberSegmentRepository;
 import org.cbioportal.service.SampleService;
 import org.cbioportal.service.exception.SampleNotFoundException;
+import org.cbioportal.service.util.CopyNumberSegmentIndex;
+import org.cbioportal.service.util.CopyNumberSegmentIndexCache;
 import org.junit.Assert;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -13,6 +15,7 @@ import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.MockitoJUnitRunner;
 
+import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -27,6 +30,8 @@ public class CopyNumberSegmentServiceImplTest extends BaseServiceImplTest {
     private CopyNumberSegmentRepository copyNumberSegmentRepository;
     @Mock
     private SampleService sampleService;
+    @Mock
+    private CopyNumberSegmentIndexCache copyNumberSegmentIndexCache;
 
     @Test
     public void getCopyNumberSegmentsInSampleInStudy() throws Exception {
@@ -119,4 +124,72 @@ public class CopyNumberSegmentServiceImplTest extends BaseServiceImplTest {
 
         Assert.assertEquals(expectedCopyNumberSegList, result);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void fetchCopyNumberSegmentsInRegion() throws Exception {
+
+        CopyNumberSegmentIndex.Builder builder = new CopyNumberSegmentIndex.Builder(STUDY_ID);
+        builder.add(createCopyNumberSeg(1L, 1, SAMPLE_ID1, 100, 200));
+        builder.add(createCopyNumberSeg(2L, 1, SAMPLE_ID1, 201, 300));
+        builder.add(createCopyNumberSeg(3L, 2, SAMPLE_ID2, 100, 300));
+        Mockito.when(copyNumberSegmentIndexCache.get(STUDY_ID)).thenReturn(builder.build());
+
+        List<CopyNumberSeg> result = copyNumberSegmentService.fetchCopyNumberSegmentsInRegion(
+            Arrays.asList(STUDY_ID, STUDY_ID), Arrays.asList(SAMPLE_ID2, SAMPLE_ID1), "1", 250, null, null, "SUMMARY");
+
+        Assert.assertEquals(2, result.size());
+        Assert.assertEquals(Long.valueOf(3L), result.get(0).getSegId());
+        Assert.assertEquals(Long.valueOf(2L), result.get(1).getSegId());
+        Mockito.verify(copyNumberSegmentIndexCache, Mockito.times(1)).get(STUDY_ID);
+    }
+
+    @Test
+    public void fetchCopyNumberSegmentsInRegionOfAllChromosomesInIdProjection() throws Exception {
+
+        CopyNumberSegmentIndex.Builder builder = new CopyNumberSegmentIndex.Builder(STUDY_ID);
+        builder.add(createCopyNumberSeg(1L, 1, SAMPLE_ID1, "1", 100, 200));
+        builder.add(createCopyNumberSeg(2L, 1, SAMPLE_ID1, "2", 100, 200));
+        builder.add(createCopyNumberSeg(3L, 2, SAMPLE_ID2, "1", 100, 200));
+        builder.add(createCopyNumberSeg(4L, 2, SAMPLE_ID2, "2", 100, 200));
+        Mockito.when(copyNumberSegmentIndexCache.get(STUDY_ID)).thenReturn(builder.build());
+
+        List<CopyNumberSeg> summaryResult = copyNumberSegmentService.fetchCopyNumberSegmentsInRegion(
+            Arrays.asList(STUDY_ID, STUDY_ID), Arrays.asList(SAMPLE_ID1, SAMPLE_ID2), " ", 150, null, null, "SUMMARY");
+        List<CopyNumberSeg> idResult = copyNumberSegmentService.fetchCopyNumberSegmentsInRegion(
+            Arrays.asList(STUDY_ID, STUDY_ID), Arrays.asList(SAMPLE_ID1, SAMPLE_ID2), "", 150, null, null, "ID");
+
+        Assert.assertEquals(Arrays.asList(1L, 2L, 3L, 4L), getSegIds(summaryResult));
+        Assert.assertEquals(Arrays.asList(1L, 3L, 2L, 4L), getSegIds(idResult));
+    }
+
+    private List<Long> getSegIds(List<CopyNumberSeg> copyNumberSegs) {
+
+        List<Long> segIds = new ArrayList<>();
+        for (CopyNumberSeg copyNumberSeg : copyNumberSegs) {
+            segIds.add(copyNumberSeg.getSegId());
+        }
+        return segIds;
+    }
+
+    private CopyNumberSeg createCopyNumberSeg(Long segId, Integer sampleId, String sampleStableId, int start,
+                                              int end) {
+
+        return createCopyNumberSeg(segId, sampleId, sampleStableId, "1", start, end);
+    }
+
+    private CopyNumberSeg createCopyNumberSeg(Long segId, Integer sampleId, String sampleStableId, String chr,
+                                              int start, int end) {
+
+        CopyNumberSeg copyNumberSeg = new CopyNumberSeg();
+        copyNumberSeg.setSegId(segId);
+        copyNumberSeg.setCancerStudyId(1);
+        copyNumberSeg.setSampleId(sampleId);
+        copyNumberSeg.setSampleStableId(sampleStableId);
+        copyNumberSeg.setChr(chr);
+        copyNumberSeg.setStart(start);
+        copyNumberSeg.setEnd(end);
+        copyNumberSeg.setNumProbes(1);
+        copyNumberSeg.setSegmentMean(BigDecimal.ONE);
+        return copyNumberSeg;
+    }
+}
@@ -0,0 +1,158 @@
+package org.cbioportal.service.impl;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import org.cbioportal.service.util.CustomDataSession;
+import org.cbioportal.service.util.SessionServiceRequestHandler;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class CustomDataServiceImplTest {
+
+    private static final String SESSION_JSON = "{\"id\":\"%s\",\"data\":{\"displayName\":\"test\"," +
+        "\"datatype\":\"STRING\",\"patientAttribute\":false,\"data\":[" +
+        "{\"sampleId\":\"sample_1\",\"patientId\":\"patient_1\",\"studyId\":\"study\",\"value\":\"yes\"}," +
+        "{\"sampleId\":\"sample_2\",\"patientId\":\"patient_2\",\"studyId\":\"study\",\"value\":\"NaN\"}]}}";
+
+    private HttpServer sessionService;
+    private final ConcurrentMap<String, AtomicInteger> requestCounts = new ConcurrentHashMap<>();
+    private volatile CountDownLatch release = new CountDownLatch(0);
+    private CustomDataServiceImpl customDataService;
+
+    @Before
+    public void setUp() throws Exception {
+        sessionService = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        sessionService.setExecutor(Executors.newCachedThreadPool());
+        sessionService.createContext("/api/sessions/test/custom_data/", exchange -> {
+            String id = exchange.getRequestURI().getPath().replaceAll(".*/", "");
+            requestCounts.computeIfAbsent(id, k -> new AtomicInteger()).incrementAndGet();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (id.startsWith("missing")) {
+                exchange.sendResponseHeaders(404, -1);
+                exchange.close();
+                return;
+            }
+            byte[] body = String.format(SESSION_JSON, id).getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream outputStream = exchange.getResponseBody()) {
+                outputStream.write(body);
+            }
+        });
+        sessionService.start();
+
+        SessionServiceRequestHandler sessionServiceRequestHandler = new SessionServiceRequestHandler();
+        ReflectionTestUtils.setField(sessionServiceRequestHandler, "sessionServiceURL",
+            "http://localhost:" + sessionService.getAddress().getPort() + "/api/sessions/test/");
+        ReflectionTestUtils.setField(sessionServiceRequestHandler, "maxConnections", 4);
+        ReflectionTestUtils.setField(sessionServiceRequestHandler, "timeoutMs", 5000);
+
+        customDataService = new CustomDataServiceImpl();
+        ReflectionTestUtils.setField(customDataService, "sessionServiceRequestHandler", sessionServiceRequestHandler);
+        ReflectionTestUtils.setField(customDataService, "sessionServiceObjectMapper",
+            new ObjectMapper().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false));
+        ReflectionTestUtils.setField(customDataService, "cacheTtlSeconds", 600L);
+        ReflectionTestUtils.setField(customDataService, "cacheMaxEntries", 100);
+        ReflectionTestUtils.setField(customDataService, "fetchThreads", 4);
+    }
+
+    @After
+    public void tearDown() {
+        sessionService.stop(0);
+    }
+
+    @Test
+    public void getCustomDataSessionsFetchesEachSessionOnce() {
+
+        List<String> attributeIds = Arrays.asList("session_1", "session_2");
+        for (int i = 0; i < 25; i++) {
+            Map<String, CustomDataSession> result = customDataService.getCustomDataSessions(attributeIds);
+            Assert.assertEquals(2, result.size());
+            Assert.assertEquals("session_1", result.get("session_1").getId());
+        }
+
+        Assert.assertEquals(1, requestCounts.get("session_1").get());
+        Assert.assertEquals(1, requestCounts.get("session_2").get());
+    }
+
+    @Test
+    public void getCustomDataSessionsPrecomputesValuesBySample() {
+
+        CustomDataSession session = customDataService.getCustomDataSessions(Collections.singletonList("session_1"))
+            .get("session_1");
+
+        Assert.assertEquals("YES", session.getValuesBySample().get("study", "sample_1"));
+        Assert.assertEquals("NA", session.getValuesBySample().get("study", "sample_2"));
+        Assert.assertNull(session.getValuesBySample().get("study", "sample_3"));
+    }
+
+    @Test
+    public void getCustomDataSessionsSharesConcurrentFetches() throws Exception {
+
+        release = new CountDownLatch(1);
+        ExecutorService requests = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Map<String, CustomDataSession>>> results = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                results.add(requests.submit(
+                    () -> customDataService.getCustomDataSessions(Collections.singletonList("session_1"))));
+            }
+            while (!requestCounts.containsKey("session_1")) {
+                Thread.sleep(10);
+            }
+            release.countDown();
+            for (Future<Map<String, CustomDataSession>> result : results) {
+                Assert.assertTrue(result.get(5, TimeUnit.SECONDS).containsKey("session_1"));
+            }
+            Assert.assertEquals(1, requestCounts.get("session_1").get());
+        } finally {
+            release.countDown();
+            requests.shutdownNow();
+        }
+    }
+
+    @Test
+    public void getCustomDataSessionsRetriesFailedFetches() {
+
+        Assert.assertTrue(customDataService.getCustomDataSessions(Collections.singletonList("missing_1")).isEmpty());
+        Assert.assertTrue(customDataService.getCustomDataSessions(Collections.singletonList("missing_1")).isEmpty());
+
+        Assert.assertEquals(2, requestCounts.get("missing_1").get());
+    }
+
+    @Test
+    public void getCustomDataSessionsFetchesExpiredSessionsAgain() {
+
+        ReflectionTestUtils.setField(customDataService, "cacheTtlSeconds", 0L);
+
+        customDataService.getCustomDataSessions(Collections.singletonList("session_1"));
+        customDataService.getCustomDataSessions(Collections.singletonList("session_1"));
+
+        Assert.assertEquals(2, requestCounts.get("session_1").get());
+    }
+}
@@ -10,7 +10,10 @@ import org.cbioportal.service.GenericAssayService;
 import org.cbioportal.service.MolecularProfileService;
 import org.cbioportal.service.SampleService;
 import org.cbioportal.service.exception.MolecularProfileNotFoundException;
+import org.cbioportal.service.util.ExpressionEnrichmentCalculator;
 import org.cbioportal.service.util.ExpressionEnrichmentUtil;
+import org.cbioportal.service.util.MolecularProfileValuesCache;
+import org.cbioportal.service.util.MolecularProfileValuesLoader;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
@@ -39,6 +42,13 @@ public class ExpressionEnrichmentServiceImplTest extends BaseServiceImplTest {
     private ExpressionEnrichmentUtil expressionEnrichmentUtil;
     @Mock
     private GenericAssayService genericAssayService;
+    @Mock
+    private MolecularProfileValuesCache molecularProfileValuesCache;
+    @Spy
+    @InjectMocks
+    private MolecularProfileValuesLoader molecularProfileValuesLoader;
+    @Spy
+    private ExpressionEnrichmentCalculator expressionEnrichmentCalculator;
 
     CancerStudy cancerStudy = new CancerStudy();
     MolecularProfile geneMolecularProfile = new MolecularProfile();
@@ -130,6 +140,9 @@ public class ExpressionEnrichmentServiceImplTest extends BaseServiceImplTest {
         Mockito.when(molecularDataRepository.getCommaSeparatedSampleIdsOfMolecularProfile(MOLECULAR_PROFILE_ID))
                 .thenReturn(molecularProfileSamples);
 
+        Mockito.when(molecularProfileValuesCache.get(geneMolecularProfile))
+                .thenAnswer(invocation -> molecularProfileValuesLoader.load(geneMolecularProfile));
+
         Mockito.when(sampleService.fetchSamples(Arrays.asList(STUDY_ID, STUDY_ID, STUDY_ID, STUDY_ID),
                 Arrays.asList(SAMPLE_ID3, SAMPLE_ID4, SAMPLE_ID1, SAMPLE_ID2), "ID")).thenReturn(samples);
     }
@@ -1,10 +1,12 @@
 package org.cbioportal.service.impl;
 
 import org.cbioportal.model.Gene;
+import org.cbioportal.model.GeneAlias;
 import org.cbioportal.model.meta.BaseMeta;
 import org.cbioportal.persistence.GeneRepository;
 import org.cbioportal.service.exception.GeneNotFoundException;
 import org.cbioportal.service.util.ChromosomeCalculator;
+import org.cbioportal.service.util.InMemoryCacheInvalidator;
 import org.junit.Assert;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -15,7 +17,9 @@ import org.mockito.junit.MockitoJUnitRunner;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.stream.Collectors;
 
 @RunWith(MockitoJUnitRunner.class)
 public class GeneServiceImplTest extends BaseServiceImplTest {
@@ -27,6 +31,8 @@ public class GeneServiceImplTest extends BaseServiceImplTest {
     private GeneRepository geneRepository;
     @Mock
     private ChromosomeCalculator chromosomeCalculator;
+    @Mock
+    private InMemoryCacheInvalidator inMemoryCacheInvalidator;
 
     @Test
     public void getAllGenes() throws Exception {
@@ -44,6 +50,37 @@ public class GeneServiceImplTest extends BaseServiceImplTest {
         Assert.assertEquals(expectedGeneList, result);
     }
 
+    @Test
+    public void getAllGenesByKeyword() throws Exception {
+
+        Mockito.when(geneRepository.getAllGenes(null, null, "SUMMARY", null, null, null, null)).thenReturn(Arrays.asList(
+            createGene(1, "ATP5"), createGene(2, "TP53BP1"), createGene(3, "TP53"), createGene(4, "BRCA1")));
+        GeneAlias geneAlias = new GeneAlias();
+        geneAlias.setEntrezGeneId(4);
+        geneAlias.setGeneAlias("tp53");
+        Mockito.when(geneRepository.getAllAliases()).thenReturn(Collections.singletonList(geneAlias));
+        Mockito.when(geneRepository.fetchGenesByEntrezGeneIds(Collections.singletonList(4), "SUMMARY"))
+            .thenReturn(Collections.singletonList(createGene(4, "BRCA1")));
+
+        List<Gene> result = geneService.getAllGenes("TP53", null, "ID", 10, 0, null, null);
+
+        Assert.assertEquals(Arrays.asList("TP53", "TP53BP1", "BRCA1"),
+            result.stream().map(Gene::getHugoGeneSymbol).collect(Collectors.toList()));
+        Assert.assertNull(result.get(0).getType());
+        Assert.assertEquals(Collections.singletonList("TP53BP1"), geneService.getAllGenes("bp1", null, "SUMMARY",
+            10, 0, null, null).stream().map(Gene::getHugoGeneSymbol).collect(Collectors.toList()));
+        Assert.assertEquals((Integer) 3, geneService.getMetaGenes("tp53", null).getTotalCount());
+        // the index is built once, and the keyword is not queried in the database
+        Mockito.verify(geneRepository).getAllAliases();
+        Mockito.verify(geneRepository, Mockito.never()).getAllGenes(Mockito.eq("TP53"), Mockito.any(),
+            Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any());
+
+        // rebuilt after the gene tables changed
+        geneService.clear();
+        geneService.getAllGenes("TP53", null, "ID", 10, 0, null, null);
+        Mockito.verify(geneRepository, Mockito.times(2)).getAllAliases();
+    }
+
     @Test
     public void getMetaGenes() throws Exception {
 
@@ -173,4 +210,12 @@ public class GeneServiceImplTest extends BaseServiceImplTest {
 
         Assert.assertEquals((Integer) 1, result.getTotalCount());
     }
-}
\ No newline at end of file
+
+    private Gene createGene(int entrezGeneId, String hugoGeneSymbol) {
+        Gene gene = new Gene();
+        gene.setEntrezGeneId(entrezGeneId);
+        gene.setHugoGeneSymbol(hugoGeneSymbol);
+        gene.setType("protein-coding");
+        return gene;
+    }
+}
@@ -194,7 +194,7 @@ public class GenericAssayEnrichmentServiceImplTest extends BaseServiceImplTest{
         Assert.assertEquals(new BigDecimal("0.0"), alteredGroupStats.getStandardDeviation());
 
         Assert.assertEquals(new BigDecimal("0.49999999999999983"), genericAssayBinaryEnrichment.getpValue());
-        Assert.assertEquals(new BigDecimal("0.99999999999999966"), genericAssayBinaryEnrichment.getqValue());
+        Assert.assertEquals(new BigDecimal("0.9999999999999997"), genericAssayBinaryEnrichment.getqValue());
 
         genericAssayBinaryEnrichment = result.get(1);
         Assert.assertEquals(HUGO_GENE_SYMBOL_2, genericAssayBinaryEnrichment.getStableId());
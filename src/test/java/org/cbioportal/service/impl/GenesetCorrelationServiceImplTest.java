@@ -5,15 +5,18 @@ import java.util.Arrays;
 import java.util.List;
 
 import org.cbioportal.model.Gene;
-import org.cbioportal.model.GeneMolecularData;
 import org.cbioportal.model.GenesetCorrelation;
 import org.cbioportal.model.GenesetMolecularData;
 import org.cbioportal.model.MolecularProfile;
+import org.cbioportal.model.Sample;
 import org.cbioportal.service.GenesetDataService;
 import org.cbioportal.service.GenesetService;
-import org.cbioportal.service.MolecularDataService;
 import org.cbioportal.service.MolecularProfileService;
 import org.cbioportal.service.SampleService;
+import org.cbioportal.service.util.CoExpressionCalculator;
+import org.cbioportal.service.util.MolecularProfileValues;
+import org.cbioportal.service.util.MolecularProfileValuesCache;
+import org.cbioportal.service.util.MolecularProfileValuesLoader;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
@@ -21,6 +24,7 @@ import org.junit.runner.RunWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.mockito.junit.MockitoJUnitRunner;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -32,13 +36,17 @@ public class GenesetCorrelationServiceImplTest extends BaseServiceImplTest {
     @Mock
     private GenesetDataService genesetDataService;
     @Mock
-    private MolecularDataService geneticDataService;
-    @Mock
     private GenesetService genesetService;
     @Mock
     private SampleService sampleService;
     @Mock
     private MolecularProfileService geneticProfileService;
+    @Mock
+    private MolecularProfileValuesCache molecularProfileValuesCache;
+    @Mock
+    private MolecularProfileValuesLoader molecularProfileValuesLoader;
+    @Spy
+    private CoExpressionCalculator coExpressionCalculator;
 
     /**
      * This is executed n times, for each of the n test methods below:
@@ -74,6 +82,7 @@ public class GenesetCorrelationServiceImplTest extends BaseServiceImplTest {
         //dummy stubs (normally these will return different profiles, but for the test this is enough:
         MolecularProfile geneticProfile = new MolecularProfile();
         geneticProfile.setStableId(MOLECULAR_PROFILE_ID);
+        geneticProfile.setCancerStudyIdentifier(STUDY_ID);
         Mockito.when(geneticProfileService.getMolecularProfilesReferredBy(MOLECULAR_PROFILE_ID))
             .thenReturn(Arrays.asList(geneticProfile));
         MolecularProfile zscoreGeneticProfile = new MolecularProfile();
@@ -82,28 +91,17 @@ public class GenesetCorrelationServiceImplTest extends BaseServiceImplTest {
         Mockito.when(geneticProfileService.getMolecularProfilesReferringTo(MOLECULAR_PROFILE_ID))
             .thenReturn(Arrays.asList(zscoreGeneticProfile));
         
-        //stub for gene data list, one gene at a time:
-        List<GeneMolecularData> geneDataList1 = new ArrayList<GeneMolecularData>();
-        geneDataList1.add(getSimpleFlatGeneDataItem(SAMPLE_ID1, 1, "0.2"));
-        geneDataList1.add(getSimpleFlatGeneDataItem(SAMPLE_ID2, 1, "0.350"));
-        Mockito.when(geneticDataService.fetchMolecularData(MOLECULAR_PROFILE_ID, Arrays.asList(SAMPLE_ID1, SAMPLE_ID2),
-                Arrays.asList(1), "SUMMARY"))
-            .thenReturn(geneDataList1);
-        //simulate 1 empty sample:
-        Mockito.when(geneticDataService.fetchMolecularData(MOLECULAR_PROFILE_ID, Arrays.asList(SAMPLE_ID1, SAMPLE_ID2, SAMPLE_ID3),
-                Arrays.asList(1), "SUMMARY"))
-            .thenReturn(geneDataList1);
-
-        List<GeneMolecularData> geneDataList2 = new ArrayList<GeneMolecularData>();
-        geneDataList2.add(getSimpleFlatGeneDataItem(SAMPLE_ID1, 2, "0.89"));
-        geneDataList2.add(getSimpleFlatGeneDataItem(SAMPLE_ID2, 2, "-0.509"));
-        Mockito.when(geneticDataService.fetchMolecularData(MOLECULAR_PROFILE_ID, Arrays.asList(SAMPLE_ID1, SAMPLE_ID2),
-                Arrays.asList(2), "SUMMARY"))
-            .thenReturn(geneDataList2);
-        //simulate 1 empty sample:
-        Mockito.when(geneticDataService.fetchMolecularData(MOLECULAR_PROFILE_ID, Arrays.asList(SAMPLE_ID1, SAMPLE_ID2, SAMPLE_ID3),
-                Arrays.asList(2), "SUMMARY"))
-            .thenReturn(geneDataList2);
+        //stub for the expression values of the profile, samples 1 and 2 (sample 3 is not profiled):
+        Mockito.when(molecularProfileValuesLoader.loadGenes(geneticProfile, Arrays.asList(1, 2)))
+            .thenReturn(MolecularProfileValues.continuous(MOLECULAR_PROFILE_ID, new int[] {1, 2},
+                Arrays.asList("1", "2"), Arrays.asList(new double[] {0.2, 0.350}, new double[] {0.89, -0.509})));
+        List<Sample> samples = Arrays.asList(getSample(SAMPLE_ID1, 1), getSample(SAMPLE_ID2, 2));
+        Mockito.when(sampleService.fetchSamples(Arrays.asList(STUDY_ID, STUDY_ID), Arrays.asList(SAMPLE_ID1, SAMPLE_ID2),
+                "ID"))
+            .thenReturn(samples);
+        Mockito.when(sampleService.fetchSamples(Arrays.asList(STUDY_ID, STUDY_ID, STUDY_ID),
+                Arrays.asList(SAMPLE_ID1, SAMPLE_ID2, SAMPLE_ID3), "ID"))
+            .thenReturn(samples);
     }
 
 
@@ -117,14 +115,12 @@ public class GenesetCorrelationServiceImplTest extends BaseServiceImplTest {
         return item;
     }
     
-    private GeneMolecularData getSimpleFlatGeneDataItem(String sampleStableId, int entrezGeneId, String value){
-        
-        GeneMolecularData item = new GeneMolecularData();
-        item.setMolecularProfileId(MOLECULAR_PROFILE_ID);
-        item.setEntrezGeneId(entrezGeneId);
-        item.setSampleId(sampleStableId);
-        item.setValue(value);
-        return item;
+    private Sample getSample(String sampleStableId, int internalId){
+
+        Sample sample = new Sample();
+        sample.setStableId(sampleStableId);
+        sample.setInternalId(internalId);
+        return sample;
     }
     
     @Test
@@ -154,5 +150,6 @@ public class GenesetCorrelationServiceImplTest extends BaseServiceImplTest {
         result = genesetCorrelationService.fetchCorrelatedGenes(GENESET_ID1, MOLECULAR_PROFILE_ID,
                 Arrays.asList(SAMPLE_ID1, SAMPLE_ID2, SAMPLE_ID3), -1.0);
         Assert.assertEquals(2, result.size());
+        Mockito.verify(molecularProfileValuesCache, Mockito.never()).get(Mockito.any());
     }
 }
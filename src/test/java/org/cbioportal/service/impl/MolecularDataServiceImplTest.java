@@ -3,6 +3,8 @@ package org.cbioportal.service.impl;
 import org.cbioportal.model.DiscreteCopyNumberData;
 import org.cbioportal.model.GeneMolecularAlteration;
 import org.cbioportal.model.GeneMolecularData;
+import org.cbioportal.model.KeyedGeneMolecularAlteration;
+import org.cbioportal.model.MolecularDataKey;
 import org.cbioportal.model.MolecularProfile;
 import org.cbioportal.model.MolecularProfileSamples;
 import org.cbioportal.model.Sample;
@@ -21,7 +23,9 @@ import org.mockito.junit.MockitoJUnitRunner;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.function.Consumer;
 
 import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
@@ -236,6 +240,64 @@ public class MolecularDataServiceImplTest extends BaseServiceImplTest {
         Assert.assertEquals((Integer) 2, result.getTotalCount());
     }
 
+    @Test
+    public void exportMolecularDataInMultipleMolecularProfiles() throws Exception {
+
+        MolecularProfileSamples molecularProfileSamples = new MolecularProfileSamples();
+        molecularProfileSamples.setMolecularProfileId(MOLECULAR_PROFILE_ID);
+        molecularProfileSamples.setCommaSeparatedSampleIds("1,2,");
+        when(molecularDataRepository.commaSeparatedSampleIdsOfMolecularProfilesMap(
+            Collections.singleton(MOLECULAR_PROFILE_ID)))
+            .thenReturn(Collections.singletonMap(MOLECULAR_PROFILE_ID, molecularProfileSamples));
+
+        MolecularProfile molecularProfile = new MolecularProfile();
+        molecularProfile.setStableId(MOLECULAR_PROFILE_ID);
+        molecularProfile.setCancerStudyIdentifier(STUDY_ID);
+        when(molecularProfileService.getMolecularProfiles(Collections.singleton(MOLECULAR_PROFILE_ID), "SUMMARY"))
+            .thenReturn(Arrays.asList(molecularProfile));
+
+        Sample sample = new Sample();
+        sample.setInternalId(2);
+        sample.setStableId(SAMPLE_ID2);
+        sample.setCancerStudyIdentifier(STUDY_ID);
+        when(sampleService.fetchSamples(Arrays.asList(STUDY_ID), Arrays.asList(SAMPLE_ID2), "ID"))
+            .thenReturn(Arrays.asList(sample));
+
+        // one row more than the page
+        List<KeyedGeneMolecularAlteration> molecularAlterations = new ArrayList<>();
+        KeyedGeneMolecularAlteration molecularAlteration1 = new KeyedGeneMolecularAlteration();
+        molecularAlteration1.setMolecularProfileId(MOLECULAR_PROFILE_ID);
+        molecularAlteration1.setEntrezGeneId(ENTREZ_GENE_ID_1);
+        molecularAlteration1.setValues("0.4674,-0.3456");
+        molecularAlteration1.setKey(new MolecularDataKey(1, 10));
+        molecularAlterations.add(molecularAlteration1);
+        KeyedGeneMolecularAlteration molecularAlteration2 = new KeyedGeneMolecularAlteration();
+        molecularAlteration2.setMolecularProfileId(MOLECULAR_PROFILE_ID);
+        molecularAlteration2.setEntrezGeneId(ENTREZ_GENE_ID_2);
+        molecularAlteration2.setValues("1.2,1.3");
+        molecularAlteration2.setKey(new MolecularDataKey(1, 20));
+        molecularAlterations.add(molecularAlteration2);
+        doAnswer(invocation -> {
+            Consumer<KeyedGeneMolecularAlteration> consumer = invocation.getArgument(5);
+            molecularAlterations.forEach(consumer);
+            return null;
+        }).when(molecularDataRepository).streamGeneMolecularAlterationsInMultipleMolecularProfiles(
+            eq(Collections.singleton(MOLECULAR_PROFILE_ID)), isNull(), eq("SUMMARY"), isNull(), eq(2), any());
+
+        List<GeneMolecularData> result = new ArrayList<>();
+        MolecularDataKey next = molecularDataService.exportMolecularDataInMultipleMolecularProfiles(
+            Arrays.asList(MOLECULAR_PROFILE_ID), Arrays.asList(SAMPLE_ID2), null, "SUMMARY", null, 1, result::add);
+
+        Assert.assertEquals(new MolecularDataKey(1, 10), next);
+        Assert.assertEquals(1, result.size());
+        GeneMolecularData molecularData = result.get(0);
+        Assert.assertEquals(MOLECULAR_PROFILE_ID, molecularData.getMolecularProfileId());
+        Assert.assertEquals(SAMPLE_ID2, molecularData.getSampleId());
+        Assert.assertEquals(STUDY_ID, molecularData.getStudyId());
+        Assert.assertEquals(ENTREZ_GENE_ID_1, molecularData.getEntrezGeneId());
+        Assert.assertEquals("-0.3456", molecularData.getValue());
+    }
+
     @Test
     public void getNumberOfSamplesInMolecularProfile() throws Exception {
 
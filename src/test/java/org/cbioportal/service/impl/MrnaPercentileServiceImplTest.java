@@ -3,18 +3,30 @@ package org.cbioportal.service.impl;
 import org.cbioportal.model.GeneMolecularData;
 import org.cbioportal.model.MolecularProfile;
 import org.cbioportal.model.MrnaPercentile;
+import org.cbioportal.model.Sample;
 import org.cbioportal.service.MolecularDataService;
 import org.cbioportal.service.MolecularProfileService;
+import org.cbioportal.service.SampleService;
+import org.cbioportal.service.util.EntityRankIndexCache;
+import org.cbioportal.service.util.InMemoryCacheInvalidator;
+import org.cbioportal.service.util.MolecularProfileValues;
+import org.cbioportal.service.util.MolecularProfileValuesCache;
+import org.cbioportal.service.util.MolecularProfileValuesLoader;
 import org.junit.Assert;
+import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -27,61 +39,92 @@ public class MrnaPercentileServiceImplTest extends BaseServiceImplTest {
     private MolecularDataService molecularDataService;
     @Mock
     private MolecularProfileService molecularProfileService;
+    @Mock
+    private SampleService sampleService;
+    @Mock
+    private MolecularProfileValuesCache molecularProfileValuesCache;
+    @Mock
+    private MolecularProfileValuesLoader molecularProfileValuesLoader;
+    @Spy
+    private EntityRankIndexCache entityRankIndexCache;
+    @Mock
+    private InMemoryCacheInvalidator inMemoryCacheInvalidator;
+
+    @Before
+    public void setUp() {
+        ReflectionTestUtils.setField(entityRankIndexCache, "inMemoryCacheInvalidator", inMemoryCacheInvalidator);
+    }
 
     @Test
     public void fetchMrnaPercentile() throws Exception {
 
+        MolecularProfile molecularProfile = mockMolecularData();
+        Mockito.when(molecularProfileValuesCache.getIfPresent(molecularProfile)).thenReturn(createProfileValues());
+
+        assertPercentiles(mrnaPercentileService.fetchMrnaPercentile(MOLECULAR_PROFILE_ID, "sample_id_2",
+            Arrays.asList(ENTREZ_GENE_ID_1, 2)));
+        Mockito.verify(entityRankIndexCache, Mockito.times(2)).get(Mockito.any(), Mockito.anyInt());
+    }
+
+    @Test
+    public void fetchMrnaPercentileOfProfileNotInCache() throws Exception {
+
+        MolecularProfile molecularProfile = mockMolecularData();
+        Mockito.when(molecularProfileValuesLoader.loadGenes(molecularProfile, Arrays.asList(ENTREZ_GENE_ID_1, 2)))
+            .thenReturn(createProfileValues());
+
+        assertPercentiles(mrnaPercentileService.fetchMrnaPercentile(MOLECULAR_PROFILE_ID, "sample_id_2",
+            Arrays.asList(ENTREZ_GENE_ID_1, 2)));
+        // only the requested genes are decoded, the whole profile is not loaded
+        Mockito.verify(molecularProfileValuesCache, Mockito.never()).get(molecularProfile);
+        Mockito.verify(entityRankIndexCache, Mockito.times(2)).get(Mockito.any(), Mockito.anyInt());
+    }
+
+    private MolecularProfile mockMolecularData() {
+
         List<GeneMolecularData> molecularDataList = new ArrayList<>();
         GeneMolecularData molecularData1 = new GeneMolecularData();
         molecularData1.setMolecularProfileId(MOLECULAR_PROFILE_ID);
         molecularData1.setEntrezGeneId(ENTREZ_GENE_ID_1);
-        molecularData1.setSampleId(SAMPLE_ID1);
-        molecularData1.setValue("0.3456");
+        molecularData1.setSampleId("sample_id_2");
+        molecularData1.setValue("0.2456");
         molecularDataList.add(molecularData1);
         GeneMolecularData molecularData2 = new GeneMolecularData();
         molecularData2.setMolecularProfileId(MOLECULAR_PROFILE_ID);
-        molecularData2.setEntrezGeneId(ENTREZ_GENE_ID_1);
+        molecularData2.setEntrezGeneId(2);
         molecularData2.setSampleId("sample_id_2");
-        molecularData2.setValue("0.2456");
+        molecularData2.setValue("0.1456");
         molecularDataList.add(molecularData2);
-        GeneMolecularData molecularData3 = new GeneMolecularData();
-        molecularData3.setMolecularProfileId(MOLECULAR_PROFILE_ID);
-        molecularData3.setEntrezGeneId(ENTREZ_GENE_ID_1);
-        molecularData3.setSampleId("sample_id_3");
-        molecularData3.setValue("0.2457");
-        molecularDataList.add(molecularData3);
-        GeneMolecularData molecularData4 = new GeneMolecularData();
-        molecularData4.setMolecularProfileId(MOLECULAR_PROFILE_ID);
-        molecularData4.setEntrezGeneId(2);
-        molecularData4.setSampleId(SAMPLE_ID1);
-        molecularData4.setValue("NA");
-        molecularDataList.add(molecularData4);
-        GeneMolecularData molecularData5 = new GeneMolecularData();
-        molecularData5.setMolecularProfileId(MOLECULAR_PROFILE_ID);
-        molecularData5.setEntrezGeneId(2);
-        molecularData5.setSampleId("sample_id_2");
-        molecularData5.setValue("0.1456");
-        molecularDataList.add(molecularData5);
-        GeneMolecularData molecularData6 = new GeneMolecularData();
-        molecularData6.setMolecularProfileId(MOLECULAR_PROFILE_ID);
-        molecularData6.setEntrezGeneId(2);
-        molecularData6.setSampleId("sample_id_3");
-        molecularData6.setValue("-0.1234");
-        molecularDataList.add(molecularData6);
 
         MolecularProfile molecularProfile = new MolecularProfile();
+        molecularProfile.setStableId(MOLECULAR_PROFILE_ID);
+        molecularProfile.setCancerStudyIdentifier(STUDY_ID);
         molecularProfile.setMolecularAlterationType(MolecularProfile.MolecularAlterationType.MRNA_EXPRESSION);
         Mockito.when(molecularProfileService.getMolecularProfile(MOLECULAR_PROFILE_ID)).thenReturn(molecularProfile);
+
+        Sample sample = new Sample();
+        sample.setInternalId(2);
+        Mockito.when(sampleService.fetchSamples(Collections.singletonList(STUDY_ID),
+            Collections.singletonList("sample_id_2"), "ID")).thenReturn(Collections.singletonList(sample));
         
         List<Integer> entrezGeneIds = new ArrayList<>();
         entrezGeneIds.add(ENTREZ_GENE_ID_1);
         entrezGeneIds.add(2);
 
-        Mockito.when(molecularDataService.fetchMolecularData(MOLECULAR_PROFILE_ID, null, entrezGeneIds, 
+        Mockito.when(molecularDataService.fetchMolecularData(MOLECULAR_PROFILE_ID,
+            Collections.singletonList("sample_id_2"), entrezGeneIds, 
             "SUMMARY")).thenReturn(molecularDataList);
-        
-        List<MrnaPercentile> result = mrnaPercentileService.fetchMrnaPercentile(MOLECULAR_PROFILE_ID, "sample_id_2", 
-            entrezGeneIds);
+        return molecularProfile;
+    }
+
+    // sample_id1, sample_id_2 and sample_id_3
+    private MolecularProfileValues createProfileValues() {
+        return MolecularProfileValues.continuous(MOLECULAR_PROFILE_ID, new int[] {1, 2, 3},
+            Arrays.asList(ENTREZ_GENE_ID_1.toString(), "2"),
+            Arrays.asList(new double[] {0.3456, 0.2456, 0.2457}, new double[] {Double.NaN, 0.1456, -0.1234}));
+    }
+
+    private void assertPercentiles(List<MrnaPercentile> result) {
 
         Assert.assertEquals(2, result.size());
         MrnaPercentile mrnaPercentile1 = result.get(0);
@@ -1,11 +1,14 @@
 package org.cbioportal.service.impl;
 
 import org.cbioportal.model.Patient;
+import org.cbioportal.model.Sample;
 import org.cbioportal.model.meta.BaseMeta;
 import org.cbioportal.persistence.PatientRepository;
 import org.cbioportal.service.StudyService;
 import org.cbioportal.service.exception.PatientNotFoundException;
 import org.cbioportal.service.exception.StudyNotFoundException;
+import org.cbioportal.service.util.StudyKeywordIndex;
+import org.cbioportal.service.util.StudyKeywordIndexCache;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
@@ -19,6 +22,7 @@ import org.springframework.test.util.ReflectionTestUtils;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.stream.Collectors;
 
 @RunWith(MockitoJUnitRunner.class)
 public class PatientServiceImplTest extends BaseServiceImplTest {
@@ -30,6 +34,8 @@ public class PatientServiceImplTest extends BaseServiceImplTest {
     private PatientRepository patientRepository;
     @Mock
     private StudyService studyService;
+    @Mock
+    private StudyKeywordIndexCache studyKeywordIndexCache;
     
     @Before
     public void setup() {
@@ -39,12 +45,31 @@ public class PatientServiceImplTest extends BaseServiceImplTest {
     @Test
     public void getAllPatients() throws Exception {
 
-        List<Patient> expectedPatientList = new ArrayList<>();
-        Patient patient = new Patient();
-        expectedPatientList.add(patient);
+        Mockito.when(studyKeywordIndexCache.getAllStudies()).thenReturn(
+            new StudyKeywordIndex(null, Arrays.asList(createSample("study_1", "p_2", "s_1"),
+                createSample("study_1", "keyword_1", "s_2"), createSample("study_1", "keyword_1", "s_3"),
+                createSample("study_2", "p_1", "s_keyword"), createSample("study_2", "p_3", "s_4"),
+                createSample("study_2", "keyword_1", "s_5"))));
+        List<Patient> patients = Arrays.asList(createPatient("study_1", "keyword_1"),
+            createPatient("study_2", "keyword_1"), createPatient("study_2", "p_1"));
+        Mockito.when(patientRepository.fetchPatients(Arrays.asList("study_1", "study_2", "study_2"),
+            Arrays.asList("keyword_1", "keyword_1", "p_1"), PROJECTION)).thenReturn(patients);
+
+        List<Patient> result = patientService.getAllPatients(KEYWORD, PROJECTION, PAGE_SIZE, PAGE_NUMBER, SORT, DIRECTION);
 
+        // patients starting with the keyword first, and every patient of every study once
+        Assert.assertEquals(Arrays.asList("keyword_1", "keyword_1", "p_1"),
+            result.stream().map(Patient::getStableId).collect(Collectors.toList()));
+        Assert.assertEquals("study_2", result.get(2).getCancerStudyIdentifier());
+    }
+
+    @Test
+    public void getAllPatientsFromDatabaseIfAllStudiesExceedBudget() throws Exception {
+
+        List<Patient> expectedPatientList = Arrays.asList(createPatient("study_1", "keyword_1"));
+        Mockito.when(studyKeywordIndexCache.getAllStudies()).thenReturn(null);
         Mockito.when(patientRepository.getAllPatients(KEYWORD, PROJECTION, PAGE_SIZE, PAGE_NUMBER, SORT, DIRECTION))
-                .thenReturn(expectedPatientList);
+            .thenReturn(expectedPatientList);
 
         List<Patient> result = patientService.getAllPatients(KEYWORD, PROJECTION, PAGE_SIZE, PAGE_NUMBER, SORT, DIRECTION);
 
@@ -54,11 +79,23 @@ public class PatientServiceImplTest extends BaseServiceImplTest {
     @Test
     public void getMetaPatients() throws Exception {
 
+        Mockito.when(studyKeywordIndexCache.getAllStudies()).thenReturn(
+            new StudyKeywordIndex(null, Arrays.asList(createSample("study_1", "keyword_1", "s_1"),
+                createSample("study_1", "keyword_1", "s_2"), createSample("study_1", "p_2", "s_3"))));
+
+        BaseMeta result = patientService.getMetaPatients(KEYWORD);
+
+        Assert.assertEquals((Integer) 1, result.getTotalCount());
+    }
+
+    @Test
+    public void getMetaPatientsWithoutKeyword() throws Exception {
+
         BaseMeta expectedBaseMeta = new BaseMeta();
 
-        Mockito.when(patientRepository.getMetaPatients(KEYWORD)).thenReturn(expectedBaseMeta);
+        Mockito.when(patientRepository.getMetaPatients(null)).thenReturn(expectedBaseMeta);
 
-        BaseMeta result = patientService.getMetaPatients(KEYWORD);
+        BaseMeta result = patientService.getMetaPatients(null);
 
         Assert.assertEquals(expectedBaseMeta, result);
     }
@@ -171,4 +208,19 @@ public class PatientServiceImplTest extends BaseServiceImplTest {
         Assert.assertEquals(1, result.size());
         Assert.assertEquals(PATIENT_ID_1, result.get(0).getStableId());
     }
+
+    private Sample createSample(String studyId, String patientId, String sampleId) {
+        Sample sample = new Sample();
+        sample.setCancerStudyIdentifier(studyId);
+        sample.setPatientStableId(patientId);
+        sample.setStableId(sampleId);
+        return sample;
+    }
+
+    private Patient createPatient(String studyId, String patientId) {
+        Patient patient = new Patient();
+        patient.setCancerStudyIdentifier(studyId);
+        patient.setStableId(patientId);
+        return patient;
+    }
 }
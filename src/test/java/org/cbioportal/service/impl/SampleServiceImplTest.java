@@ -12,6 +12,8 @@ import org.cbioportal.service.StudyService;
 import org.cbioportal.service.exception.PatientNotFoundException;
 import org.cbioportal.service.exception.SampleNotFoundException;
 import org.cbioportal.service.exception.StudyNotFoundException;
+import org.cbioportal.service.util.StudyKeywordIndex;
+import org.cbioportal.service.util.StudyKeywordIndexCache;
 import org.junit.Assert;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -43,12 +45,20 @@ public class SampleServiceImplTest extends BaseServiceImplTest {
     private CopyNumberSegmentRepository copyNumberSegmentRepository;
     @Mock
     private MolecularProfileRepository molecularProfileRepository;
+    @Mock
+    private StudyKeywordIndexCache studyKeywordIndexCache;
     
     private Sample createSample(String id) {
         Sample sample = new Sample();
         sample.setStableId(id);
         return sample;
     }
+
+    private Sample createSample(String studyId, String id) {
+        Sample sample = createSample(id);
+        sample.setCancerStudyIdentifier(studyId);
+        return sample;
+    }
     
     @Test
     public void getAllSamples() {
@@ -67,19 +77,52 @@ public class SampleServiceImplTest extends BaseServiceImplTest {
         Assert.assertEquals(expected, actual);
     }
     
+    @Test
+    public void getAllSamplesByKeyword() {
+        Mockito.when(studyKeywordIndexCache.getAll(Arrays.asList(STUDY_ID, "study_id2"))).thenReturn(Arrays.asList(
+            new StudyKeywordIndex(STUDY_ID, Arrays.asList(createSample(STUDY_ID, "other_sample_id1"),
+                createSample(STUDY_ID, "sample_id2"), createSample(STUDY_ID, "other"))),
+            new StudyKeywordIndex("study_id2", Arrays.asList(createSample("study_id2", "sample_id1")))));
+        Mockito.when(sampleRepository.fetchSamples(Arrays.asList("study_id2", STUDY_ID),
+                Arrays.asList("sample_id1", "sample_id2"), PROJECTION))
+            .thenReturn(Arrays.asList(createSample(STUDY_ID, "sample_id2"), createSample("study_id2", "sample_id1")));
+
+        List<Sample> result = sampleService.getAllSamples("sample_id", Arrays.asList(STUDY_ID, "study_id2"),
+            PROJECTION, 2, 0, null, DIRECTION);
+
+        // samples starting with the keyword first, paged
+        List<String> actual = result.stream().map(Sample::getStableId).collect(Collectors.toList());
+        Assert.assertEquals(Arrays.asList("sample_id1", "sample_id2"), actual);
+        Assert.assertEquals("study_id2", result.get(0).getCancerStudyIdentifier());
+        Mockito.verify(sampleRepository, Mockito.never()).getAllSamples(Mockito.any(), Mockito.any(),
+            Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any());
+    }
+
     @Test
     public void getAllMetaSamples() {
-        BaseMeta baseMeta = new BaseMeta();
-        baseMeta.setTotalCount(4);
-        Mockito.when(sampleRepository.getMetaSamples("sample_id", null)).thenReturn(baseMeta);
+        Mockito.when(studyKeywordIndexCache.getAllStudies()).thenReturn(
+            new StudyKeywordIndex(null, Arrays.asList(createSample(STUDY_ID, SAMPLE_ID1),
+                createSample(STUDY_ID, SAMPLE_ID2), createSample(STUDY_ID, "other"),
+                createSample("study_id2", SAMPLE_ID1))));
 
         BaseMeta result = sampleService.getMetaSamples("sample_id", null);
         Integer actual = result.getTotalCount();
-        Integer expected = 4;
+        Integer expected = 3;
 
         Assert.assertEquals(expected, actual);
     }
 
+    @Test
+    public void getAllMetaSamplesFromDatabaseIfAllStudiesExceedBudget() {
+        BaseMeta expectedBaseMeta = new BaseMeta();
+        Mockito.when(studyKeywordIndexCache.getAllStudies()).thenReturn(null);
+        Mockito.when(sampleRepository.getMetaSamples("sample_id", null)).thenReturn(expectedBaseMeta);
+
+        BaseMeta result = sampleService.getMetaSamples("sample_id", null);
+
+        Assert.assertEquals(expectedBaseMeta, result);
+    }
+
     @Test
     public void getAllSamplesInStudy() throws Exception {
 
@@ -60,6 +60,7 @@ import org.springframework.context.annotation.Import;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.security.core.Authentication;
 import org.junit.Assert;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -181,4 +182,22 @@ public class UuidDataAccessTokenServiceImplTest {
         }
     }
 
+    /* Tests that authenticating with a token reads it from the repository once, until it is revoked
+     */
+    @Test
+    public void createAuthenticationRequestCachesTokenUntilRevoked() {
+        String token = UuidDataAccessTokenServiceImplTestConfiguration.CACHED_TOKEN_STRING;
+        for (int i = 0; i < 3; i++) {
+            Authentication authenticationRequest = uuidDataAccessTokenServiceImpl.createAuthenticationRequest(token);
+            Assert.assertEquals(UuidDataAccessTokenServiceImplTestConfiguration.MOCK_USERNAME, authenticationRequest.getPrincipal());
+            Assert.assertEquals(token, authenticationRequest.getDetails());
+        }
+        Mockito.verify(dataAccessTokenRepository, Mockito.times(1)).getDataAccessToken(token);
+
+        // revoking reads the token once more, and so does the next authentication
+        uuidDataAccessTokenServiceImpl.revokeDataAccessToken(token);
+        uuidDataAccessTokenServiceImpl.createAuthenticationRequest(token);
+        Mockito.verify(dataAccessTokenRepository, Mockito.times(3)).getDataAccessToken(token);
+    }
+
 }
@@ -59,6 +59,7 @@ import org.mockito.stubbing.Answer;
 import org.mockito.invocation.InvocationOnMock;
 import org.cbioportal.model.DataAccessToken;
 import org.cbioportal.persistence.DataAccessTokenRepository;
+import org.cbioportal.security.token.uuid.UuidTokenAuthenticationCache;
 
 @TestConfiguration
 public class UuidDataAccessTokenServiceImplTestConfiguration {
@@ -70,6 +71,7 @@ public class UuidDataAccessTokenServiceImplTestConfiguration {
     public static String FAIL_TO_GET_TOKEN_STRING = "FAIL_TO_GET_TOKEN_STRING";
     public static String EXPIRED_TOKEN_STRING = "EXPIRED_TOKEN_STRING";
     public static String VALID_TOKEN_STRING = "VALID_TOKEN_STRING";
+    public static String CACHED_TOKEN_STRING = "CACHED_TOKEN_STRING";
     public static String OLDEST_TOKEN_UUID = "OLDEST_TOKEN_UUID";
     public static String NEWEST_TOKEN_UUID = "NEWEST_TOKEN_UUID";
 
@@ -86,6 +88,11 @@ public class UuidDataAccessTokenServiceImplTestConfiguration {
         return new UuidDataAccessTokenServiceImpl();
     }
 
+    @Bean
+    public UuidTokenAuthenticationCache uuidTokenAuthenticationCache() {
+        return new UuidTokenAuthenticationCache();
+    }
+
     @Bean
     public DataAccessTokenRepository dataAccessTokenRepository() {
         Answer<Void> dataAccessTokenRepositoryCreateTokenAnswer = new Answer<Void>() {
@@ -105,6 +112,7 @@ public class UuidDataAccessTokenServiceImplTestConfiguration {
         Mockito.when(dataAccessTokenRepository.getDataAccessToken(NONEXISTENT_TOKEN_STRING)).thenReturn(null);
         Mockito.when(dataAccessTokenRepository.getDataAccessToken(EXPIRED_TOKEN_STRING)).thenReturn(makeExpiredDataAccessToken());
         Mockito.when(dataAccessTokenRepository.getDataAccessToken(VALID_TOKEN_STRING)).thenReturn(makeValidDataAccessToken());
+        Mockito.when(dataAccessTokenRepository.getDataAccessToken(CACHED_TOKEN_STRING)).thenReturn(makeValidDataAccessToken());
         Mockito.when(dataAccessTokenRepository.getAllDataAccessTokensForUsername(MOCK_USERNAME_WITH_ONE_TOKEN)).thenReturn(dataAccessTokenListForMockUserWithOneToken);
         Mockito.when(dataAccessTokenRepository.getAllDataAccessTokensForUsername(MOCK_USERNAME_WITH_FIVE_TOKENS)).thenReturn(sortByExpiration(dataAccessTokenListForMockUserWithFiveTokens));
         Mockito.doAnswer(dataAccessTokenRepositoryDeleteTokenAnswer).when(dataAccessTokenRepository).removeDataAccessToken(ArgumentMatchers.anyString());
@@ -0,0 +1,129 @@
+package org.cbioportal.service.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class BudgetedLruCacheTest {
+
+    private final List<String> loadedKeys = new ArrayList<>();
+    private final BudgetedLruCache<StringBuilder> cache = new BudgetedLruCache<>("values", StringBuilder::length,
+        () -> 10);
+
+    @Test
+    public void getLoadsOnce() {
+
+        StringBuilder value = cache.get("a", this::load);
+
+        Assert.assertSame(value, cache.get("a", this::load));
+        Assert.assertEquals(List.of("a"), loadedKeys);
+        Assert.assertEquals(3, cache.getSizeInBytes());
+    }
+
+    @Test
+    public void getEvictsLeastRecentlyUsed() {
+
+        cache.get("a", this::load);
+        cache.get("b", this::load);
+        cache.get("c", this::load);
+        cache.get("a", this::load);
+        cache.get("d", this::load);
+
+        Assert.assertEquals(9, cache.getSizeInBytes());
+        cache.get("a", this::load);
+        cache.get("b", this::load);
+        Assert.assertEquals(List.of("a", "b", "c", "d", "b"), loadedKeys);
+    }
+
+    @Test
+    public void getDoesNotCacheValuesOverBudgetOrNull() {
+
+        cache.get("too long", key -> new StringBuilder("12345678901"));
+        cache.get("null", key -> null);
+
+        Assert.assertEquals(0, cache.getSizeInBytes());
+    }
+
+    @Test
+    public void getDoesNotCacheValuesLoadedBeforeInvalidation() {
+
+        StringBuilder value = cache.get("a", key -> {
+            cache.invalidate("b");
+            return load(key);
+        });
+
+        Assert.assertEquals("a__", value.toString());
+        Assert.assertEquals(0, cache.getSizeInBytes());
+    }
+
+    @Test
+    public void getLoadsConcurrentRequestsOnce() throws Exception {
+
+        CountDownLatch loadStarted = new CountDownLatch(1);
+        CountDownLatch loadMayFinish = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+        Thread thread = new Thread(() -> cache.get("a", key -> {
+            loads.incrementAndGet();
+            loadStarted.countDown();
+            try {
+                loadMayFinish.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return new StringBuilder("a");
+        }));
+        thread.start();
+        loadStarted.await();
+        Thread waiter = new Thread(() -> cache.get("a", key -> {
+            loads.incrementAndGet();
+            return new StringBuilder("b");
+        }));
+        waiter.start();
+        loadMayFinish.countDown();
+        thread.join();
+        waiter.join();
+
+        Assert.assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void invalidateIfRemovesMatchingKeys() {
+
+        cache.get("study_1_mrna", key -> new StringBuilder("1"));
+        cache.get("study_1_cna", key -> new StringBuilder("22"));
+        cache.get("study_2_mrna", key -> new StringBuilder("333"));
+
+        cache.invalidateIf(key -> key.startsWith("study_1_"));
+
+        Assert.assertEquals(3, cache.getSizeInBytes());
+        cache.clear();
+        Assert.assertEquals(0, cache.getSizeInBytes());
+    }
+
+    @Test
+    public void updateSizeEvictsToStayWithinBudget() {
+
+        StringBuilder a = cache.get("a", this::load);
+        cache.get("b", this::load);
+        cache.get("c", this::load);
+
+        cache.get("a", this::load).append("12");
+        cache.updateSize("a", a);
+        Assert.assertEquals(8, cache.getSizeInBytes());
+
+        a.append("12345");
+        cache.updateSize("a", a);
+        Assert.assertEquals(10, cache.getSizeInBytes());
+        cache.get("b", this::load);
+        Assert.assertEquals(List.of("a", "b", "c", "b"), loadedKeys);
+    }
+
+    private StringBuilder load(String key) {
+        loadedKeys.add(key);
+        return new StringBuilder(key + "__");
+    }
+}
@@ -0,0 +1,125 @@
+package org.cbioportal.service.util;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.BitSet;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ClinicalTableIndexTest {
+
+    private ClinicalTableIndex clinicalTableIndex;
+
+    @Before
+    public void setUp() {
+        ClinicalTableIndex.Builder builder = new ClinicalTableIndex.Builder("study_id");
+        builder.addSample(10, "TCGA-A1-A0SB-01", 1, "TCGA-A1-A0SB");
+        builder.addSample(11, "TCGA-A1-A0SD-01", 2, "TCGA-A1-A0SD");
+        builder.addSample(12, "TCGA-A1-A0SD-02", 2, "TCGA-A1-A0SD");
+        builder.setNumeric("AGE");
+        builder.addPatientValue(1, "AGE", "50");
+        builder.addPatientValue(2, "AGE", "7.5");
+        builder.addSampleValue(10, "SAMPLE_TYPE", "Primary");
+        builder.addSampleValue(12, "SAMPLE_TYPE", "metastasis");
+        builder.addSampleValue(11, "OTHER", "primary tumor");
+        builder.addSampleValue(99, "SAMPLE_TYPE", "not in study");
+        clinicalTableIndex = builder.build();
+    }
+
+    @Test
+    public void getPosition() {
+
+        Assert.assertEquals(Integer.valueOf(1), clinicalTableIndex.getPosition("TCGA-A1-A0SD-01"));
+        Assert.assertEquals(11, clinicalTableIndex.getSampleInternalId(1));
+        Assert.assertNull(clinicalTableIndex.getPosition("TCGA-A1-A0SD"));
+    }
+
+    @Test
+    public void searchIgnoresCase() {
+
+        Assert.assertEquals(positions(0, 1), clinicalTableIndex.search("PRIMAR"));
+        Assert.assertEquals(positions(0, 1), clinicalTableIndex.search("primary"));
+        Assert.assertEquals(positions(2), clinicalTableIndex.search("Metastasis"));
+    }
+
+    @Test
+    public void searchSampleAndPatientIds() {
+
+        Assert.assertEquals(positions(1, 2), clinicalTableIndex.search("a0sd"));
+        Assert.assertEquals(positions(2), clinicalTableIndex.search("SD-02"));
+        Assert.assertEquals(positions(0, 1, 2), clinicalTableIndex.search("tcga-a1"));
+    }
+
+    @Test
+    public void searchShortTerms() {
+
+        Assert.assertEquals(positions(1, 2), clinicalTableIndex.search("7."));
+        Assert.assertEquals(positions(0, 1, 2), clinicalTableIndex.search("-"));
+    }
+
+    @Test
+    public void searchWithoutMatch() {
+
+        Assert.assertTrue(clinicalTableIndex.search("primary tumour").isEmpty());
+        Assert.assertTrue(clinicalTableIndex.search("not in study").isEmpty());
+        Assert.assertTrue(clinicalTableIndex.search("%").isEmpty());
+    }
+
+    @Test
+    public void getSortOrderOfNumericAttribute() {
+
+        ClinicalTableIndex.SortOrder sortOrder = clinicalTableIndex.getSortOrder("AGE");
+
+        Assert.assertEquals(3, sortOrder.size());
+        // 7.5 is less than 50, although not as a string
+        Assert.assertEquals(1, sortOrder.getPosition(0));
+        Assert.assertEquals(2, sortOrder.getPosition(1));
+        Assert.assertEquals(0, sortOrder.getPosition(2));
+        Assert.assertTrue(sortOrder.compare(0, sortOrder, 2) < 0);
+        Assert.assertSame(sortOrder, clinicalTableIndex.getSortOrder("AGE"));
+    }
+
+    @Test
+    public void getSortOrderOfStringAttribute() {
+
+        ClinicalTableIndex.SortOrder sortOrder = clinicalTableIndex.getSortOrder("SAMPLE_TYPE");
+
+        // samples without a value are left out
+        Assert.assertEquals(2, sortOrder.size());
+        Assert.assertEquals(2, sortOrder.getPosition(0));
+        Assert.assertEquals(0, sortOrder.getPosition(1));
+    }
+
+    @Test
+    public void getSortOrderOfIds() {
+
+        ClinicalTableIndex.SortOrder sortOrder = clinicalTableIndex.getSortOrder(ClinicalTableIndex.PATIENT_ID);
+
+        Assert.assertEquals(3, sortOrder.size());
+        Assert.assertEquals(0, sortOrder.getPosition(0));
+        Assert.assertEquals(0, clinicalTableIndex.getSortOrder("UNKNOWN").size());
+    }
+
+    @Test
+    public void getSortOrderCountsTowardsSize() {
+
+        AtomicInteger sizeChanges = new AtomicInteger();
+        clinicalTableIndex.setSizeChangeListener(sizeChanges::incrementAndGet);
+        long sizeInBytes = clinicalTableIndex.getSizeInBytes();
+
+        clinicalTableIndex.getSortOrder("AGE");
+        clinicalTableIndex.getSortOrder("AGE");
+
+        Assert.assertEquals(1, sizeChanges.get());
+        Assert.assertTrue(clinicalTableIndex.getSizeInBytes() > sizeInBytes);
+    }
+
+    private BitSet positions(int... positions) {
+        BitSet bitSet = new BitSet();
+        for (int position : positions) {
+            bitSet.set(position);
+        }
+        return bitSet;
+    }
+}
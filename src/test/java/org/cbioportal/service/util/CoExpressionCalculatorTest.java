@@ -0,0 +1,138 @@
+package org.cbioportal.service.util;
+
+import org.cbioportal.model.CoExpression;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+public class CoExpressionCalculatorTest {
+
+    private static final double THRESHOLD = 0.3;
+    private static final double DELTA = 1e-12;
+
+    private CoExpressionCalculator coExpressionCalculator = new CoExpressionCalculator();
+
+    @Test
+    public void computeCoExpressions() throws Exception {
+
+        List<CoExpression> result = coExpressionCalculator.computeCoExpressions(createValues(), 0,
+            new int[] {0, 1, 2}, THRESHOLD, 0);
+
+        Assert.assertEquals(3, result.size());
+        CoExpression coExpression1 = result.get(0);
+        Assert.assertEquals("2", coExpression1.getGeneticEntityId());
+        Assert.assertEquals(0.5, coExpression1.getSpearmansCorrelation().doubleValue(), DELTA);
+        Assert.assertEquals(0.6666666666666667, coExpression1.getpValue().doubleValue(), DELTA);
+        CoExpression coExpression2 = result.get(1);
+        Assert.assertEquals("3", coExpression2.getGeneticEntityId());
+        Assert.assertEquals(0.8660254037844386, coExpression2.getSpearmansCorrelation().doubleValue(), DELTA);
+        Assert.assertEquals(0.3333333333333333, coExpression2.getpValue().doubleValue(), DELTA);
+        CoExpression coExpression3 = result.get(2);
+        Assert.assertEquals("5", coExpression3.getGeneticEntityId());
+        Assert.assertEquals(0.8660254037844386, coExpression3.getSpearmansCorrelation().doubleValue(), DELTA);
+    }
+
+    @Test
+    public void computeCoExpressionsWithQueryValues() throws Exception {
+
+        // values of another profile in the samples of columns 2, 0 and 1
+        List<CoExpression> result = coExpressionCalculator.computeCoExpressions(createValues(), 3,
+            new int[] {2, 0, 1}, new double[] {3, 2.1, 3}, THRESHOLD, 0);
+
+        Assert.assertEquals(4, result.size());
+        Assert.assertEquals("1", result.get(0).getGeneticEntityId());
+        Assert.assertEquals(1.0, result.get(0).getSpearmansCorrelation().doubleValue(), DELTA);
+        Assert.assertEquals("2", result.get(1).getGeneticEntityId());
+        Assert.assertEquals(0.5, result.get(1).getSpearmansCorrelation().doubleValue(), DELTA);
+        Assert.assertEquals(0.6666666666666667, result.get(1).getpValue().doubleValue(), DELTA);
+        Assert.assertEquals("3", result.get(2).getGeneticEntityId());
+        Assert.assertEquals("5", result.get(3).getGeneticEntityId());
+    }
+
+    @Test
+    public void computeCoExpressionsWithMissingValues() throws Exception {
+
+        List<CoExpression> result = coExpressionCalculator.computeCoExpressions(createValues(), 0,
+            new int[] {0, 1, 2, 3}, THRESHOLD, 0);
+
+        // the last sample has no value for genes 2, 3 and 4 and is left out for them
+        Assert.assertEquals(3, result.size());
+        Assert.assertEquals("2", result.get(0).getGeneticEntityId());
+        Assert.assertEquals(0.5, result.get(0).getSpearmansCorrelation().doubleValue(), DELTA);
+        Assert.assertEquals("3", result.get(1).getGeneticEntityId());
+        Assert.assertEquals(0.8660254037844386, result.get(1).getSpearmansCorrelation().doubleValue(), DELTA);
+        Assert.assertEquals("5", result.get(2).getGeneticEntityId());
+        Assert.assertEquals(Math.sqrt(0.9), result.get(2).getSpearmansCorrelation().doubleValue(), DELTA);
+        Assert.assertEquals(1 - Math.sqrt(0.9), result.get(2).getpValue().doubleValue(), DELTA);
+    }
+
+    @Test
+    public void computeCoExpressionsWithMaxResults() throws Exception {
+
+        List<CoExpression> result = coExpressionCalculator.computeCoExpressions(createValues(), 0,
+            new int[] {0, 1, 2, 3}, THRESHOLD, 2);
+
+        Assert.assertEquals(2, result.size());
+        Assert.assertEquals("3", result.get(0).getGeneticEntityId());
+        Assert.assertEquals("5", result.get(1).getGeneticEntityId());
+    }
+
+    @Test
+    public void computeCoExpressionsWithTooFewSamples() throws Exception {
+
+        List<CoExpression> result = coExpressionCalculator.computeCoExpressions(createValues(), 0,
+            new int[] {0, 1}, 0, 0);
+
+        Assert.assertEquals(0, result.size());
+    }
+
+    @Test
+    public void computeCorrelationsWithQueryValues() throws Exception {
+
+        double[] result = coExpressionCalculator.computeCorrelations(createValues(), new int[] {4, 1, 3},
+            new int[] {0, 1, 2, 3}, new double[] {1, 2, 3, 4});
+
+        // genes 2 and 4 have no value for the last sample and are correlated over the first three
+        Assert.assertEquals(1.0, result[0], DELTA);
+        Assert.assertEquals(0.0, result[1], DELTA);
+        Assert.assertEquals(-0.5, result[2], DELTA);
+    }
+
+    @Test
+    public void computeCorrelationsWithConstantOrTooFewValues() throws Exception {
+
+        double[] constant = coExpressionCalculator.computeCorrelations(createValues(), new int[] {4},
+            new int[] {0, 1, 2, 3}, new double[] {1, 1, 1, 1});
+        double[] tooFew = coExpressionCalculator.computeCorrelations(createValues(), new int[] {1},
+            new int[] {2, 3}, new double[] {1, 2});
+
+        Assert.assertTrue(Double.isNaN(constant[0]));
+        Assert.assertEquals(0.0, tooFew[0], 0);
+    }
+
+    @Test
+    public void rankWithTies() throws Exception {
+
+        double[] values = {3, 1, 3, 2, 3};
+        double[] ranks = SpearmanCorrelation.rank(values, values.length, new double[5], new double[5]);
+
+        Assert.assertEquals(4.0, ranks[0], 0);
+        Assert.assertEquals(1.0, ranks[1], 0);
+        Assert.assertEquals(4.0, ranks[2], 0);
+        Assert.assertEquals(2.0, ranks[3], 0);
+        Assert.assertEquals(4.0, ranks[4], 0);
+    }
+
+    private MolecularProfileValues createValues() {
+        return MolecularProfileValues.continuous("profile", new int[] {1, 2, 3, 4},
+            Arrays.asList("1", "2", "3", "4", "5"),
+            Arrays.asList(
+                new double[] {2.1, 3, 3, 7},
+                new double[] {2, 3, 2, Double.NaN},
+                new double[] {1.1, 5, 3, Double.NaN},
+                new double[] {1, 4, 0, Double.NaN},
+                new double[] {1, 2, 3, 4}));
+    }
+}
@@ -0,0 +1,123 @@
+package org.cbioportal.service.util;
+
+import org.cbioportal.model.CopyNumberSeg;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class CopyNumberSegmentIndexTest {
+
+    private static final String STUDY_ID = "study_id";
+
+    private CopyNumberSegmentIndex copyNumberSegmentIndex;
+
+    @Before
+    public void setUp() {
+        CopyNumberSegmentIndex.Builder builder = new CopyNumberSegmentIndex.Builder(STUDY_ID);
+        // added out of order on purpose
+        builder.add(createSegment(4L, 2, "sample_2", "1", 1, 1000, 10, "-0.5"));
+        builder.add(createSegment(2L, 1, "sample_1", "1", 101, 200, 5, "1.0"));
+        builder.add(createSegment(3L, 1, "sample_1", "1", 201, 10000, 20, "0.2"));
+        builder.add(createSegment(1L, 1, "sample_1", "1", 1, 100, 4, "-1.0"));
+        builder.add(createSegment(5L, 1, "sample_1", "2", 1, 50000, 40, "0.0519"));
+        copyNumberSegmentIndex = builder.build();
+    }
+
+    @Test
+    public void queryRegion() {
+
+        List<CopyNumberSeg> result = copyNumberSegmentIndex.query(null, "1", 150, 250, 1);
+
+        Assert.assertEquals(3, result.size());
+        // samples in the order of the study, segments by start
+        Assert.assertEquals(Long.valueOf(4L), result.get(0).getSegId());
+        Assert.assertEquals(Long.valueOf(2L), result.get(1).getSegId());
+        Assert.assertEquals(Long.valueOf(3L), result.get(2).getSegId());
+        CopyNumberSeg copyNumberSeg = result.get(1);
+        Assert.assertEquals(STUDY_ID, copyNumberSeg.getCancerStudyIdentifier());
+        Assert.assertEquals((Integer) 1, copyNumberSeg.getSampleId());
+        Assert.assertEquals("sample_1", copyNumberSeg.getSampleStableId());
+        Assert.assertEquals("sample_1_patient", copyNumberSeg.getPatientId());
+        Assert.assertEquals("1", copyNumberSeg.getChr());
+        Assert.assertEquals((Integer) 101, copyNumberSeg.getStart());
+        Assert.assertEquals((Integer) 200, copyNumberSeg.getEnd());
+        Assert.assertEquals((Integer) 5, copyNumberSeg.getNumProbes());
+        Assert.assertEquals(new BigDecimal("1.0"), copyNumberSeg.getSegmentMean());
+    }
+
+    @Test
+    public void queryRegionBoundariesAreInclusive() {
+
+        List<CopyNumberSeg> result = copyNumberSegmentIndex.query(Collections.singletonList("sample_1"), "1", 100,
+            101, 1);
+
+        Assert.assertEquals(2, result.size());
+        Assert.assertEquals(Long.valueOf(1L), result.get(0).getSegId());
+        Assert.assertEquals(Long.valueOf(2L), result.get(1).getSegId());
+    }
+
+    @Test
+    public void querySamplesOfAllChromosomes() {
+
+        List<CopyNumberSeg> result = copyNumberSegmentIndex.query(Arrays.asList("sample_1", "unknown", "sample_1"),
+            null, Integer.MIN_VALUE, Integer.MAX_VALUE, 1);
+
+        Assert.assertEquals(4, result.size());
+        Assert.assertEquals("2", result.get(3).getChr());
+        Assert.assertEquals(new BigDecimal("0.0519"), result.get(3).getSegmentMean());
+        Assert.assertTrue(copyNumberSegmentIndex.query(Collections.singletonList("sample_2"), "2", Integer.MIN_VALUE,
+            Integer.MAX_VALUE, 1).isEmpty());
+    }
+
+    @Test
+    public void queryMergesSegmentsBelowResolution() {
+
+        List<CopyNumberSeg> result = copyNumberSegmentIndex.query(Collections.singletonList("sample_1"), "1",
+            Integer.MIN_VALUE, Integer.MAX_VALUE, 200);
+
+        Assert.assertEquals(2, result.size());
+        CopyNumberSeg merged = result.get(0);
+        Assert.assertNull(merged.getSegId());
+        Assert.assertEquals((Integer) 1, merged.getStart());
+        Assert.assertEquals((Integer) 200, merged.getEnd());
+        Assert.assertEquals((Integer) 9, merged.getNumProbes());
+        Assert.assertEquals(0.0, merged.getSegmentMean().doubleValue(), 1e-9);
+        Assert.assertEquals(Long.valueOf(3L), result.get(1).getSegId());
+    }
+
+    @Test
+    public void queryFindsSegmentsContainedInEarlierSegments() {
+
+        CopyNumberSegmentIndex.Builder builder = new CopyNumberSegmentIndex.Builder(STUDY_ID);
+        builder.add(createSegment(1L, 1, "sample_1", "1", 1, 10000, 1, "0.1"));
+        builder.add(createSegment(2L, 1, "sample_1", "1", 10, 20, 1, "0.2"));
+        builder.add(createSegment(3L, 1, "sample_1", "1", 30, 40, 1, "0.3"));
+
+        List<CopyNumberSeg> result = builder.build().query(null, "1", 5000, 6000, 1);
+
+        Assert.assertEquals(1, result.size());
+        Assert.assertEquals(Long.valueOf(1L), result.get(0).getSegId());
+    }
+
+    private CopyNumberSeg createSegment(Long segId, Integer sampleId, String sampleStableId, String chr, int start,
+                                        int end, int numProbes, String segmentMean) {
+        CopyNumberSeg copyNumberSeg = new CopyNumberSeg();
+        copyNumberSeg.setSegId(segId);
+        copyNumberSeg.setCancerStudyId(1);
+        copyNumberSeg.setCancerStudyIdentifier(STUDY_ID);
+        copyNumberSeg.setSampleId(sampleId);
+        copyNumberSeg.setSampleStableId(sampleStableId);
+        copyNumberSeg.setPatientId(sampleStableId + "_patient");
+        copyNumberSeg.setChr(chr);
+        copyNumberSeg.setStart(start);
+        copyNumberSeg.setEnd(end);
+        copyNumberSeg.setNumProbes(numProbes);
+        copyNumberSeg.setSegmentMean(new BigDecimal(segmentMean));
+        return copyNumberSeg;
+    }
+}
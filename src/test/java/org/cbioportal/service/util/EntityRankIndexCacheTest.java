@@ -0,0 +1,86 @@
+package org.cbioportal.service.util;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+
+public class EntityRankIndexCacheTest {
+
+    private EntityRankIndexCache entityRankIndexCache = new EntityRankIndexCache();
+    private InMemoryCacheInvalidator inMemoryCacheInvalidator = new InMemoryCacheInvalidator();
+
+    @Before
+    public void setUp() {
+        ReflectionTestUtils.setField(entityRankIndexCache, "maxMegaBytes", 1L);
+        ReflectionTestUtils.setField(entityRankIndexCache, "inMemoryCacheInvalidator", inMemoryCacheInvalidator);
+        entityRankIndexCache.registerForInvalidation();
+    }
+
+    @Test
+    public void rankWithTiesAndMissingValues() {
+
+        EntityRankIndex rankIndex = entityRankIndexCache.get(createValues(), 0);
+
+        // ties get the maximum rank, missing values are left out
+        Assert.assertEquals(4, rankIndex.getNumberOfValues());
+        Assert.assertEquals(3, rankIndex.getRank(0));
+        Assert.assertEquals(1, rankIndex.getRank(1));
+        Assert.assertEquals(0, rankIndex.getRank(2));
+        Assert.assertEquals(3, rankIndex.getRank(3));
+        Assert.assertEquals(4, rankIndex.getRank(4));
+        Assert.assertEquals(75.0, rankIndex.getPercentile(0), 0);
+        Assert.assertTrue(Double.isNaN(rankIndex.getPercentile(2)));
+        Assert.assertEquals(0, rankIndex.rankOf(-1));
+        Assert.assertEquals(3, rankIndex.rankOf(1.5));
+    }
+
+    @Test
+    public void shareIndexesBetweenValuesOfTheSameProfile() {
+
+        MolecularProfileValues values = createValues();
+        EntityRankIndex rankIndex = entityRankIndexCache.get(values, 1);
+
+        Assert.assertSame(rankIndex, entityRankIndexCache.get(values, 1));
+        Assert.assertNotSame(rankIndex, entityRankIndexCache.get(values, 0));
+        // the values of some genes of the profile, as loaded when the whole profile is not cached
+        MolecularProfileValues geneValues = MolecularProfileValues.continuous("study_profile",
+            new int[] {1, 2, 3, 4, 5}, Arrays.asList("2"), Arrays.asList(new double[] {3, 2, 1, 0, -1}));
+        Assert.assertSame(rankIndex, entityRankIndexCache.get(geneValues, 0));
+    }
+
+    @Test
+    public void rebuildWhenStudyIsCleared() {
+
+        MolecularProfileValues values = createValues();
+        EntityRankIndex rankIndex = entityRankIndexCache.get(values, 1);
+
+        inMemoryCacheInvalidator.clearStudy("other_study");
+        Assert.assertSame(rankIndex, entityRankIndexCache.get(values, 1));
+        inMemoryCacheInvalidator.clearStudy("study");
+        Assert.assertNotSame(rankIndex, entityRankIndexCache.get(values, 1));
+    }
+
+    @Test
+    public void doNotCacheIndexesOverBudget() {
+
+        MolecularProfileValues values = createValues();
+        EntityRankIndex rankIndex = entityRankIndexCache.get(values, 0);
+        long entrySize = entityRankIndexCache.getSizeInBytes();
+        ReflectionTestUtils.setField(entityRankIndexCache, "maxMegaBytes", 0L);
+
+        Assert.assertNotSame(rankIndex, entityRankIndexCache.get(values, 1));
+        Assert.assertEquals(entrySize, entityRankIndexCache.getSizeInBytes());
+        entityRankIndexCache.clear();
+        Assert.assertEquals(0, entityRankIndexCache.getSizeInBytes());
+    }
+
+    private MolecularProfileValues createValues() {
+        return MolecularProfileValues.continuous("study_profile", new int[] {1, 2, 3, 4, 5}, Arrays.asList("1", "2"),
+            Arrays.asList(
+                new double[] {1, 0.5, Double.NaN, 1, 2},
+                new double[] {3, 2, 1, 0, -1}));
+    }
+}
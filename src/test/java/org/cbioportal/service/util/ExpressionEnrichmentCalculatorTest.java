@@ -0,0 +1,117 @@
+package org.cbioportal.service.util;
+
+import org.apache.commons.math3.stat.StatUtils;
+import org.apache.commons.math3.stat.descriptive.DescriptiveStatistics;
+import org.apache.commons.math3.stat.inference.OneWayAnova;
+import org.apache.commons.math3.stat.inference.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+public class ExpressionEnrichmentCalculatorTest {
+
+    private ExpressionEnrichmentCalculator expressionEnrichmentCalculator = new ExpressionEnrichmentCalculator();
+
+    @Test
+    public void computeStatisticsForTwoGroups() throws Exception {
+
+        List<ExpressionEnrichmentCalculator.RowStatistics> result = expressionEnrichmentCalculator.computeStatistics(
+            createValues(), new int[][] {{2, 3}, {0, 1}}, false);
+
+        // gene 4 has a single value in the first group and gene 5 has no variance
+        Assert.assertEquals(3, result.size());
+        ExpressionEnrichmentCalculator.RowStatistics rowStatistics = result.get(0);
+        Assert.assertEquals(0, rowStatistics.getRow());
+        Assert.assertArrayEquals(new int[] {0, 1}, rowStatistics.getGroups());
+        Assert.assertEquals(2.55, rowStatistics.getMeans()[0], 0);
+        Assert.assertEquals(0.6363961030678927, rowStatistics.getStandardDeviations()[0], 0);
+        Assert.assertEquals(2.5, rowStatistics.getMeans()[1], 0);
+        Assert.assertEquals(0.7071067811865476, rowStatistics.getStandardDeviations()[1], 0);
+        Assert.assertEquals(0.9475795430163914, rowStatistics.getPValue(), 0);
+        Assert.assertEquals(0.8716148250471419, result.get(1).getPValue(), 0);
+        Assert.assertEquals(2, result.get(2).getRow());
+    }
+
+    @Test
+    public void computeStatisticsSkipsGroupsWithTooFewValues() throws Exception {
+
+        List<ExpressionEnrichmentCalculator.RowStatistics> result = expressionEnrichmentCalculator.computeStatistics(
+            createValues(), new int[][] {{0}, {1, 2, 3}, {0, 1}}, false);
+
+        ExpressionEnrichmentCalculator.RowStatistics rowStatistics = result.get(0);
+        Assert.assertArrayEquals(new int[] {1, 2}, rowStatistics.getGroups());
+        Assert.assertEquals(TestUtils.tTest(new double[] {3, 2.1, 3}, new double[] {2, 3}),
+            rowStatistics.getPValue(), 0);
+    }
+
+    @Test
+    public void computeStatisticsMatchesCommonsMath() throws Exception {
+
+        Random random = new Random(42);
+        int numberOfColumns = 60;
+        List<String> stableIds = new ArrayList<>();
+        List<double[]> rows = new ArrayList<>();
+        for (int row = 0; row < 1000; row++) {
+            double[] values = new double[numberOfColumns];
+            for (int column = 0; column < numberOfColumns; column++) {
+                values[column] = random.nextInt(10) == 0 ? Double.NaN : random.nextGaussian() * 3 + row % 7;
+            }
+            stableIds.add(String.valueOf(row));
+            rows.add(values);
+        }
+        MolecularProfileValues values = MolecularProfileValues.continuous("profile_rna_seq",
+            new int[numberOfColumns], stableIds, rows);
+        int[][] twoGroups = {range(0, 25), range(25, 60)};
+        int[][] threeGroups = {range(0, 10), range(10, 35), range(35, 60)};
+
+        for (boolean logTransform : new boolean[] {false, true}) {
+            for (int[][] groupColumns : Arrays.asList(twoGroups, threeGroups)) {
+                List<ExpressionEnrichmentCalculator.RowStatistics> result = expressionEnrichmentCalculator
+                    .computeStatistics(values, groupColumns, logTransform);
+                Assert.assertEquals(1000, result.size());
+                for (ExpressionEnrichmentCalculator.RowStatistics rowStatistics : result) {
+                    List<double[]> groupedValues = new ArrayList<>();
+                    for (int i = 0; i < groupColumns.length; i++) {
+                        double[] groupValues = Arrays.stream(groupColumns[i])
+                            .mapToDouble(column -> values.getValue(rowStatistics.getRow(), column))
+                            .filter(value -> !Double.isNaN(value))
+                            .map(value -> logTransform ? Math.log1p(value < 0 ? 0 : value) / Math.log(2) : value)
+                            .toArray();
+                        DescriptiveStatistics descriptiveStatistics = new DescriptiveStatistics(groupValues);
+                        Assert.assertEquals(StatUtils.mean(groupValues), rowStatistics.getMeans()[i], 0);
+                        Assert.assertEquals(descriptiveStatistics.getStandardDeviation(),
+                            rowStatistics.getStandardDeviations()[i], 0);
+                        groupedValues.add(groupValues);
+                    }
+                    double expectedPValue = groupedValues.size() == 2
+                        ? TestUtils.tTest(groupedValues.get(0), groupedValues.get(1))
+                        : new OneWayAnova().anovaPValue(groupedValues);
+                    Assert.assertEquals(expectedPValue, rowStatistics.getPValue(), 0);
+                }
+            }
+        }
+    }
+
+    private static int[] range(int from, int to) {
+        int[] range = new int[to - from];
+        for (int i = from; i < to; i++) {
+            range[i - from] = i;
+        }
+        return range;
+    }
+
+    private MolecularProfileValues createValues() {
+        return MolecularProfileValues.continuous("profile", new int[] {1, 2, 3, 4},
+            Arrays.asList("2", "3", "4", "5", "6"),
+            Arrays.asList(
+                new double[] {2, 3, 2.1, 3},
+                new double[] {1.1, 5, 2.3, 3},
+                new double[] {1, 2, 3, 5},
+                new double[] {1, 4, Double.NaN, 2},
+                new double[] {1, 1, 1, 1}));
+    }
+}
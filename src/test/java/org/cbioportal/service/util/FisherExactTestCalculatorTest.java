@@ -0,0 +1,42 @@
+package org.cbioportal.service.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class FisherExactTestCalculatorTest {
+
+    private FisherExactTestCalculator fisherExactTestCalculator = new FisherExactTestCalculator();
+
+    @Test
+    public void getTwoTailedPValue() throws Exception {
+
+        // the tea tasting experiment
+        Assert.assertEquals(0.4857142857142857, fisherExactTestCalculator.getTwoTailedPValue(3, 1, 1, 3), 1e-12);
+        Assert.assertEquals(1.0, fisherExactTestCalculator.getTwoTailedPValue(1, 1, 1, 1), 1e-12);
+    }
+
+    @Test
+    public void getTwoTailedPValues() throws Exception {
+
+        int[] a = {3, 1, 120, 0};
+        int[] b = {1, 1, 30, 5};
+        int[] c = {1, 1, 80, 500};
+        int[] d = {3, 1, 70, 2};
+
+        double[] result = fisherExactTestCalculator.getTwoTailedPValues(a, b, c, d);
+
+        Assert.assertEquals(4, result.length);
+        for (int i = 0; i < a.length; i++) {
+            Assert.assertEquals(fisherExactTestCalculator.getTwoTailedPValue(a[i], b[i], c[i], d[i]), result[i], 0);
+        }
+    }
+
+    @Test
+    public void calcqValue() throws Exception {
+
+        double[] result = fisherExactTestCalculator.calcqValue(new double[] {0.01, 0.03, 0.04, 0.2});
+
+        Assert.assertArrayEquals(new double[] {0.04, 0.16 / 3, 0.16 / 3, 0.2}, result, 1e-15);
+        Assert.assertEquals(0, fisherExactTestCalculator.calcqValue(new double[0]).length);
+    }
+}
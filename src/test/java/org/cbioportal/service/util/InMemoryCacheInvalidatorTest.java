@@ -0,0 +1,106 @@
+package org.cbioportal.service.util;
+
+import org.cbioportal.model.TableTimestampPair;
+import org.cbioportal.persistence.StaticDataTimeStampRepository;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.anyList;
+
+@RunWith(MockitoJUnitRunner.class)
+public class InMemoryCacheInvalidatorTest {
+
+    @InjectMocks
+    private InMemoryCacheInvalidator inMemoryCacheInvalidator;
+
+    @Mock
+    private StaticDataTimeStampRepository staticDataTimeStampRepository;
+    @Mock
+    private InvalidatableCache segmentCache;
+    @Mock
+    private InvalidatableCache sampleCache;
+
+    @Before
+    public void setUp() {
+        ReflectionTestUtils.setField(inMemoryCacheInvalidator, "tableCheckIntervalSeconds", 0L);
+        inMemoryCacheInvalidator.register(segmentCache, Collections.singletonList("copy_number_seg"));
+        inMemoryCacheInvalidator.register(sampleCache, Arrays.asList("patient", "sample"));
+    }
+
+    @Test
+    public void checkForTableChangesClearsCachesOfChangedTables() {
+
+        mockTimestamps("2024-01-01", "2024-01-01");
+        inMemoryCacheInvalidator.checkForTableChanges();
+        inMemoryCacheInvalidator.checkForTableChanges();
+        Mockito.verify(segmentCache, Mockito.never()).clear();
+        Mockito.verify(sampleCache, Mockito.never()).clear();
+
+        mockTimestamps("2024-01-01", "2024-02-01");
+        inMemoryCacheInvalidator.checkForTableChanges();
+        Mockito.verify(segmentCache, Mockito.never()).clear();
+        Mockito.verify(sampleCache, Mockito.times(1)).clear();
+        Mockito.verify(staticDataTimeStampRepository, Mockito.times(3))
+            .getTimestamps(Arrays.asList("copy_number_seg", "patient", "sample"));
+    }
+
+    @Test
+    public void checkForTableChangesAtMostOncePerInterval() {
+
+        ReflectionTestUtils.setField(inMemoryCacheInvalidator, "tableCheckIntervalSeconds", 60L);
+        mockTimestamps("2024-01-01", "2024-01-01");
+        inMemoryCacheInvalidator.checkForTableChanges();
+        inMemoryCacheInvalidator.checkForTableChanges();
+
+        Mockito.verify(staticDataTimeStampRepository, Mockito.times(1)).getTimestamps(anyList());
+    }
+
+    @Test
+    public void checkForTableChangesWithoutTimestamps() {
+
+        Mockito.when(staticDataTimeStampRepository.getTimestamps(anyList())).thenReturn(Collections.emptyList());
+        inMemoryCacheInvalidator.checkForTableChanges();
+        Mockito.when(staticDataTimeStampRepository.getTimestamps(anyList())).thenThrow(new RuntimeException());
+        inMemoryCacheInvalidator.checkForTableChanges();
+
+        Mockito.verify(segmentCache, Mockito.never()).clear();
+        Mockito.verify(sampleCache, Mockito.never()).clear();
+    }
+
+    @Test
+    public void clearStudyClearsAllCaches() {
+
+        inMemoryCacheInvalidator.clearStudy("study_es_0");
+        inMemoryCacheInvalidator.clearAll();
+
+        Mockito.verify(segmentCache).clearStudy("study_es_0");
+        Mockito.verify(sampleCache).clearStudy("study_es_0");
+        Mockito.verify(segmentCache).clear();
+        Mockito.verify(sampleCache).clear();
+    }
+
+    private void mockTimestamps(String segmentTime, String sampleTime) {
+        List<TableTimestampPair> timestamps = Arrays.asList(
+            createTimestamp("copy_number_seg", segmentTime),
+            createTimestamp("patient", "2023-01-01"),
+            createTimestamp("sample", sampleTime));
+        Mockito.when(staticDataTimeStampRepository.getTimestamps(anyList())).thenReturn(timestamps);
+    }
+
+    private TableTimestampPair createTimestamp(String tableName, String updateTime) {
+        TableTimestampPair tableTimestampPair = new TableTimestampPair();
+        tableTimestampPair.setTableName(tableName);
+        tableTimestampPair.setUpdateTime(updateTime);
+        return tableTimestampPair;
+    }
+}
@@ -0,0 +1,86 @@
+package org.cbioportal.service.util;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+public class KeywordIndexTest {
+
+    private KeywordIndex<String> keywordIndex;
+
+    @Before
+    public void setUp() {
+        KeywordIndex.Builder<String> builder = new KeywordIndex.Builder<>();
+        for (String symbol : Arrays.asList("TP53BP1", "BRCA2", "tp53", "ATP5", "BRCA1", "TP53", "CDKN2A")) {
+            builder.add(symbol, symbol);
+        }
+        keywordIndex = builder.build();
+    }
+
+    @Test
+    public void searchRanksKeysStartingWithKeywordFirst() {
+
+        Assert.assertEquals(Arrays.asList("TP53", "tp53", "TP53BP1"), keywordIndex.search("tp53"));
+        Assert.assertEquals(Arrays.asList("TP53", "tp53", "TP53BP1", "ATP5"), keywordIndex.search("TP5"));
+        Assert.assertEquals(Arrays.asList("BRCA2", "CDKN2A"), keywordIndex.search("2"));
+    }
+
+    @Test
+    public void searchMatchesEveryTerm() {
+
+        Assert.assertEquals(Collections.singletonList("BRCA2"), keywordIndex.search("brc 2"));
+        Assert.assertEquals(Collections.singletonList("TP53BP1"), keywordIndex.search("bp1  53"));
+        Assert.assertTrue(keywordIndex.search("brca tp53").isEmpty());
+        Assert.assertTrue(keywordIndex.search("TP53X").isEmpty());
+        Assert.assertEquals(7, keywordIndex.search(" ").size());
+    }
+
+    @Test
+    public void searchMatchesAnyKeyOfAnItem() {
+
+        KeywordIndex<String> patients = new KeywordIndex.Builder<String>()
+            .add("patient_2/sample_a", "patient_2", "sample_a")
+            .add("patient_1/sample_b", "patient_1", "sample_b")
+            .add("patient_1/sample_c", "patient_1", "sample_c")
+            .build();
+
+        Assert.assertEquals(Arrays.asList("patient_1/sample_b", "patient_1/sample_c", "patient_2/sample_a"),
+            patients.search("patient"));
+        Assert.assertEquals(Collections.singletonList("patient_2/sample_a"), patients.search("_a"));
+        Assert.assertEquals(Collections.singletonList("patient_1/sample_b"), patients.search("sample_b patient_1"));
+        Assert.assertTrue(patients.search("sample_a patient_1").isEmpty());
+    }
+
+    @Test
+    public void mergeKeepsRanking() {
+
+        KeywordIndex<String> other = new KeywordIndex.Builder<String>()
+            .add("TP53", "TP53")
+            .add("ATP53", "ATP53")
+            .add("TP53I3", "TP53I3")
+            .build();
+
+        List<String> merged = KeywordIndex.merge("tp53",
+            Arrays.asList(keywordIndex.search("tp53"), other.search("tp53")), Function.identity());
+
+        Assert.assertEquals(Arrays.asList("TP53", "TP53", "tp53", "TP53BP1", "TP53I3", "ATP53"), merged);
+    }
+
+    @Test
+    public void page() {
+
+        List<String> result = Arrays.asList("a", "b", "c", "d", "e");
+
+        Assert.assertEquals(Arrays.asList("c", "d"), KeywordIndex.page(result, 2, 1));
+        Assert.assertEquals(Collections.singletonList("e"), KeywordIndex.page(result, 2, 2));
+        Assert.assertTrue(KeywordIndex.page(result, 2, 3).isEmpty());
+        Assert.assertEquals(result, KeywordIndex.page(result, 0, 0));
+        Assert.assertEquals(result, KeywordIndex.page(result, 10000000, 0));
+        Assert.assertTrue(KeywordIndex.page(result, 10000000, 1000).isEmpty());
+    }
+}
@@ -0,0 +1,73 @@
+package org.cbioportal.service.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+public class MolecularAlterationDecoderTest {
+
+    @Test
+    public void decodeContinuous() {
+
+        double[] values = MolecularAlterationDecoder.decodeContinuous("1.5,-2,NA,, 3e2 ,NaN,Infinity,abc,", 9);
+
+        Assert.assertEquals(9, values.length);
+        Assert.assertEquals(1.5, values[0], 0);
+        Assert.assertEquals(-2, values[1], 0);
+        Assert.assertTrue(Double.isNaN(values[2]));
+        Assert.assertTrue(Double.isNaN(values[3]));
+        Assert.assertEquals(300, values[4], 0);
+        Assert.assertTrue(Double.isNaN(values[5]));
+        Assert.assertTrue(Double.isNaN(values[6]));
+        Assert.assertTrue(Double.isNaN(values[7]));
+        Assert.assertTrue(Double.isNaN(values[8]));
+    }
+
+    @Test
+    public void decodeContinuousIgnoresExtraValues() {
+
+        double[] values = MolecularAlterationDecoder.decodeContinuous("1,2,3,", 2);
+
+        Assert.assertEquals(2, values.length);
+        Assert.assertEquals(2, values[1], 0);
+    }
+
+    @Test
+    public void dictionaryEncodesDiscreteValues() {
+
+        MolecularAlterationDecoder.Dictionary dictionary = new MolecularAlterationDecoder.Dictionary();
+        byte[] row1 = dictionary.encode("-2,0,2,0", 4);
+        byte[] row2 = dictionary.encode("2,NA,-2,", 4);
+        List<String> dictionaryValues = dictionary.getValues();
+
+        Assert.assertEquals(Arrays.asList("-2", "0", "2", "NA", ""), dictionaryValues);
+        Assert.assertEquals("0", dictionaryValues.get(row1[3]));
+        Assert.assertEquals("NA", dictionaryValues.get(row2[1]));
+        Assert.assertEquals("", dictionaryValues.get(row2[3]));
+
+        MolecularProfileValues profileValues = MolecularProfileValues.discrete("profile", new int[]{11, 12, 13, 14},
+            Arrays.asList("1", "2"), Arrays.asList(row1, row2), dictionaryValues);
+
+        Assert.assertTrue(profileValues.isDiscrete());
+        Assert.assertEquals(2, profileValues.getValue(0, 2), 0);
+        Assert.assertTrue(Double.isNaN(profileValues.getValue(1, 1)));
+        Assert.assertEquals(1, profileValues.getRow("2"));
+        Assert.assertEquals(2, profileValues.getColumn(13));
+        Assert.assertEquals(-1, profileValues.getColumn(15));
+        Assert.assertArrayEquals(new double[]{-2, 2}, profileValues.gatherValues(1, new int[]{2, 0}, new double[2]), 0);
+    }
+
+    @Test
+    public void dictionaryOverflow() {
+
+        MolecularAlterationDecoder.Dictionary dictionary = new MolecularAlterationDecoder.Dictionary();
+        StringBuilder values = new StringBuilder();
+        for (int i = 0; i <= MolecularAlterationDecoder.MAX_DICTIONARY_SIZE; i++) {
+            values.append(i).append(",");
+        }
+
+        Assert.assertNull(dictionary.encode(values.toString(), MolecularAlterationDecoder.MAX_DICTIONARY_SIZE + 1));
+    }
+}
@@ -0,0 +1,139 @@
+package org.cbioportal.service.util;
+
+import org.cbioportal.model.MolecularProfile;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collections;
+
+@RunWith(MockitoJUnitRunner.class)
+public class MolecularProfileValuesCacheTest {
+
+    private static final String MOLECULAR_PROFILE_ID_1 = "study_mrna";
+    private static final String MOLECULAR_PROFILE_ID_2 = "study_gistic";
+    private static final String MOLECULAR_PROFILE_ID_3 = "other_study_mrna";
+
+    @InjectMocks
+    private MolecularProfileValuesCache molecularProfileValuesCache;
+
+    @Mock
+    private MolecularProfileValuesLoader molecularProfileValuesLoader;
+    @Mock
+    private InMemoryCacheInvalidator inMemoryCacheInvalidator;
+
+    private MolecularProfile molecularProfile1;
+    private MolecularProfile molecularProfile2;
+    private MolecularProfile molecularProfile3;
+
+    @Before
+    public void setUp() {
+        ReflectionTestUtils.setField(molecularProfileValuesCache, "maxMegaBytes", 1L);
+        molecularProfile1 = new MolecularProfile();
+        molecularProfile1.setStableId(MOLECULAR_PROFILE_ID_1);
+        molecularProfile2 = new MolecularProfile();
+        molecularProfile2.setStableId(MOLECULAR_PROFILE_ID_2);
+        molecularProfile3 = new MolecularProfile();
+        molecularProfile3.setStableId(MOLECULAR_PROFILE_ID_3);
+    }
+
+    @Test
+    public void getLoadsOnce() {
+        MolecularProfileValues values = mockValues(1000);
+        Mockito.when(molecularProfileValuesLoader.load(molecularProfile1)).thenReturn(values);
+
+        Assert.assertSame(values, molecularProfileValuesCache.get(molecularProfile1));
+        Assert.assertSame(values, molecularProfileValuesCache.get(molecularProfile1));
+
+        Mockito.verify(molecularProfileValuesLoader, Mockito.times(1)).load(molecularProfile1);
+        Assert.assertEquals(1000, molecularProfileValuesCache.getSizeInBytes());
+    }
+
+    @Test
+    public void getChecksForTableChanges() {
+        MolecularProfileValues values = mockValues(1000);
+        Mockito.when(molecularProfileValuesLoader.load(molecularProfile1)).thenReturn(values);
+
+        molecularProfileValuesCache.get(molecularProfile1);
+        molecularProfileValuesCache.get(molecularProfile1);
+
+        Mockito.verify(inMemoryCacheInvalidator, Mockito.times(2)).checkForTableChanges();
+    }
+
+    @Test
+    public void clearStudyDropsProfilesOfStudy() {
+        MolecularProfileValues values1 = mockValues(1000);
+        MolecularProfileValues values2 = mockValues(1000);
+        MolecularProfileValues values3 = mockValues(1000);
+        Mockito.when(molecularProfileValuesLoader.load(molecularProfile1)).thenReturn(values1);
+        Mockito.when(molecularProfileValuesLoader.load(molecularProfile2)).thenReturn(values2);
+        Mockito.when(molecularProfileValuesLoader.load(molecularProfile3)).thenReturn(values3);
+        molecularProfileValuesCache.get(molecularProfile1);
+        molecularProfileValuesCache.get(molecularProfile2);
+        molecularProfileValuesCache.get(molecularProfile3);
+
+        molecularProfileValuesCache.clearStudy("study");
+
+        Assert.assertEquals(1000, molecularProfileValuesCache.getSizeInBytes());
+        molecularProfileValuesCache.get(molecularProfile1);
+        molecularProfileValuesCache.get(molecularProfile3);
+        Mockito.verify(molecularProfileValuesLoader, Mockito.times(2)).load(molecularProfile1);
+        Mockito.verify(molecularProfileValuesLoader, Mockito.times(1)).load(molecularProfile3);
+    }
+
+    @Test
+    public void getDoesNotCacheValuesLoadedBeforeClear() {
+        MolecularProfileValues values = MolecularProfileValues.continuous(MOLECULAR_PROFILE_ID_1, new int[] {1},
+            Collections.singletonList("1"), Collections.singletonList(new double[] {1}));
+        Mockito.when(molecularProfileValuesLoader.load(molecularProfile1)).thenAnswer(invocation -> {
+            // the study is reloaded while its values are being read
+            molecularProfileValuesCache.clear();
+            return values;
+        });
+
+        Assert.assertSame(values, molecularProfileValuesCache.get(molecularProfile1));
+
+        Assert.assertEquals(0, molecularProfileValuesCache.getSizeInBytes());
+    }
+
+    @Test
+    public void getEvictsLeastRecentlyUsed() {
+        MolecularProfileValues values1 = mockValues(600 * 1024);
+        MolecularProfileValues values2 = mockValues(600 * 1024);
+        Mockito.when(molecularProfileValuesLoader.load(molecularProfile1)).thenReturn(values1);
+        Mockito.when(molecularProfileValuesLoader.load(molecularProfile2)).thenReturn(values2);
+
+        molecularProfileValuesCache.get(molecularProfile1);
+        molecularProfileValuesCache.get(molecularProfile2);
+        Assert.assertEquals(600 * 1024, molecularProfileValuesCache.getSizeInBytes());
+
+        molecularProfileValuesCache.get(molecularProfile2);
+        Mockito.verify(molecularProfileValuesLoader, Mockito.times(1)).load(molecularProfile2);
+        molecularProfileValuesCache.get(molecularProfile1);
+        Mockito.verify(molecularProfileValuesLoader, Mockito.times(2)).load(molecularProfile1);
+    }
+
+    @Test
+    public void getDoesNotCacheValuesOverBudget() {
+        MolecularProfileValues values = mockValues(2 * 1024 * 1024);
+        Mockito.when(molecularProfileValuesLoader.load(molecularProfile1)).thenReturn(values);
+
+        Assert.assertSame(values, molecularProfileValuesCache.get(molecularProfile1));
+        molecularProfileValuesCache.get(molecularProfile1);
+
+        Mockito.verify(molecularProfileValuesLoader, Mockito.times(2)).load(molecularProfile1);
+        Assert.assertEquals(0, molecularProfileValuesCache.getSizeInBytes());
+    }
+
+    private MolecularProfileValues mockValues(long sizeInBytes) {
+        MolecularProfileValues values = Mockito.mock(MolecularProfileValues.class);
+        Mockito.when(values.getSizeInBytes()).thenReturn(sizeInBytes);
+        return values;
+    }
+}
@@ -0,0 +1,75 @@
+package org.cbioportal.service.util;
+
+import org.cbioportal.model.Sample;
+import org.cbioportal.persistence.SampleRepository;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+@RunWith(MockitoJUnitRunner.class)
+public class StudyKeywordIndexCacheTest {
+
+    @InjectMocks
+    private StudyKeywordIndexCache studyKeywordIndexCache;
+
+    @Mock
+    private SampleRepository sampleRepository;
+    @Mock
+    private InMemoryCacheInvalidator inMemoryCacheInvalidator;
+
+    @Before
+    public void setUp() {
+        ReflectionTestUtils.setField(studyKeywordIndexCache, "maxMegaBytes", 1L);
+    }
+
+    @Test
+    public void getAllStudiesLoadsSamplesOfAllStudiesOnce() {
+        Mockito.when(sampleRepository.getAllSamples(null, null, "ID", null, null, null, null))
+            .thenReturn(Arrays.asList(createSample("study_1", "s_1"), createSample("study_2", "s_2")));
+
+        StudyKeywordIndex index = studyKeywordIndexCache.getAllStudies();
+
+        Assert.assertSame(index, studyKeywordIndexCache.getAllStudies());
+        Assert.assertEquals(2, index.searchSamples("s_").size());
+        Mockito.verify(sampleRepository, Mockito.times(1)).getAllSamples(null, null, "ID", null, null, null, null);
+        Mockito.verify(sampleRepository, Mockito.never()).getAllSamplesInStudy(Mockito.any(), Mockito.any(),
+            Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any());
+        Assert.assertEquals(index.getSizeInBytes(), studyKeywordIndexCache.getSizeInBytes());
+    }
+
+    @Test
+    public void getAllStudiesReturnsNullWhileSamplesExceedBudget() {
+        List<Sample> samples = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            samples.add(createSample("study_1", "sample_" + i));
+        }
+        Mockito.when(sampleRepository.getAllSamples(null, null, "ID", null, null, null, null)).thenReturn(samples);
+
+        Assert.assertNotNull(studyKeywordIndexCache.getAllStudies());
+        Assert.assertNull(studyKeywordIndexCache.getAllStudies());
+        Assert.assertEquals(0, studyKeywordIndexCache.getSizeInBytes());
+
+        studyKeywordIndexCache.clear();
+
+        Assert.assertNotNull(studyKeywordIndexCache.getAllStudies());
+        Mockito.verify(sampleRepository, Mockito.times(2)).getAllSamples(null, null, "ID", null, null, null, null);
+    }
+
+    private Sample createSample(String studyId, String sampleId) {
+        Sample sample = new Sample();
+        sample.setCancerStudyIdentifier(studyId);
+        sample.setStableId(sampleId);
+        sample.setPatientStableId("p_" + sampleId);
+        return sample;
+    }
+}
@@ -186,6 +186,49 @@ public class CopyNumberSegmentControllerTest {
             .andExpect(MockMvcResultMatchers.header().string(HeaderKeyConstants.TOTAL_COUNT, "2"));
     }
 
+    @Test
+    @WithMockUser
+    public void fetchCopyNumberSegmentsInRegion() throws Exception {
+
+        List<CopyNumberSeg> copyNumberSegList = createExampleCopyNumberSegs();
+
+        Mockito.when(copyNumberSegmentService.fetchCopyNumberSegmentsInRegion(Mockito.any(), Mockito.any(),
+            Mockito.eq(TEST_CHR_1), Mockito.eq(10), Mockito.eq(30), Mockito.eq(1000), Mockito.eq("SUMMARY")))
+            .thenReturn(copyNumberSegList);
+
+        List<SampleIdentifier> sampleIdentifiers = new ArrayList<>();
+        SampleIdentifier sampleIdentifier1 = new SampleIdentifier();
+        sampleIdentifier1.setStudyId(TEST_CANCER_STUDY_IDENTIFIER_1);
+        sampleIdentifier1.setSampleId(TEST_SAMPLE_STABLE_ID_1);
+        sampleIdentifiers.add(sampleIdentifier1);
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/copy-number-segments/fetch").with(csrf())
+            .param("chromosome", TEST_CHR_1)
+            .param("start", "10")
+            .param("end", "30")
+            .param("resolution", "1000")
+            .accept(MediaType.APPLICATION_JSON)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(sampleIdentifiers)))
+            .andExpect(MockMvcResultMatchers.status().isOk())
+            .andExpect(MockMvcResultMatchers.jsonPath("$", Matchers.hasSize(2)))
+            .andExpect(MockMvcResultMatchers.jsonPath("$[0].start").value(TEST_START_1))
+            .andExpect(MockMvcResultMatchers.jsonPath("$[1].start").value(TEST_START_2));
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/copy-number-segments/fetch").with(csrf())
+            .param("chromosome", TEST_CHR_1)
+            .param("start", "10")
+            .param("end", "30")
+            .param("resolution", "1000")
+            .param("projection", "META")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(sampleIdentifiers)))
+            .andExpect(MockMvcResultMatchers.status().isOk())
+            .andExpect(MockMvcResultMatchers.header().string(HeaderKeyConstants.TOTAL_COUNT, "2"));
+        Mockito.verify(copyNumberSegmentService, Mockito.never()).fetchCopyNumberSegments(Mockito.any(),
+            Mockito.any(), Mockito.any(), Mockito.any());
+    }
+
     private List<CopyNumberSeg> createExampleCopyNumberSegs() {
         List<CopyNumberSeg> copyNumberSegList = new ArrayList<>();
         CopyNumberSeg copyNumberSeg1 = new CopyNumberSeg();
@@ -7,12 +7,15 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.function.Consumer;
 import org.cbioportal.model.GeneMolecularData;
+import org.cbioportal.model.MolecularDataKey;
 import org.cbioportal.service.MolecularDataService;
 import org.cbioportal.web.config.TestConfig;
 import org.cbioportal.web.parameter.HeaderKeyConstants;
 import org.cbioportal.web.parameter.MolecularDataFilter;
 import org.cbioportal.web.parameter.MolecularDataMultipleStudyFilter;
+import org.cbioportal.web.util.ContinuationTokenUtil;
 import org.hamcrest.Matchers;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -25,6 +28,7 @@ import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 
@@ -198,6 +202,69 @@ public class MolecularDataControllerTest {
             .andExpect(MockMvcResultMatchers.jsonPath("$[1].gene").doesNotExist());
     }
 
+    @Test
+    @WithMockUser
+    public void exportMolecularDataInMultipleMolecularProfiles() throws Exception {
+
+        List<GeneMolecularData> molecularDataList = createExampleMolecularData();
+        GeneMolecularData notANumber = new GeneMolecularData();
+        notANumber.setMolecularProfileId(TEST_MOLECULAR_PROFILE_STABLE_ID_2);
+        notANumber.setSampleId(TEST_SAMPLE_STABLE_ID_1);
+        notANumber.setEntrezGeneId(TEST_ENTREZ_GENE_ID_2);
+        notANumber.setValue("NA");
+        molecularDataList.add(notANumber);
+        MolecularDataKey nextKey = new MolecularDataKey(2, 20);
+
+        Mockito.when(molecularDataService.exportMolecularDataInMultipleMolecularProfiles(Mockito.any(),
+            Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.anyInt(), Mockito.any()))
+            .thenAnswer(invocation -> {
+                Consumer<GeneMolecularData> consumer = invocation.getArgument(6);
+                molecularDataList.forEach(consumer);
+                return nextKey;
+            });
+
+        MolecularDataMultipleStudyFilter molecularDataMultipleStudyFilter = new MolecularDataMultipleStudyFilter();
+        molecularDataMultipleStudyFilter.setMolecularProfileIds(Arrays.asList(TEST_MOLECULAR_PROFILE_STABLE_ID_1,
+            TEST_MOLECULAR_PROFILE_STABLE_ID_2));
+
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders
+            .post("/api/molecular-data/export").with(csrf())
+            .accept(MediaType.APPLICATION_JSON)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(molecularDataMultipleStudyFilter)))
+            .andExpect(MockMvcResultMatchers.request().asyncStarted())
+            .andReturn();
+
+        mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
+            .andExpect(MockMvcResultMatchers.status().isOk())
+            .andExpect(MockMvcResultMatchers.content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+            .andExpect(MockMvcResultMatchers.jsonPath("$.molecularData", Matchers.hasSize(2)))
+            .andExpect(MockMvcResultMatchers.jsonPath("$.molecularData[0].sampleId").value(TEST_SAMPLE_STABLE_ID_1))
+            .andExpect(MockMvcResultMatchers.jsonPath("$.molecularData[0].value").value(2.3))
+            .andExpect(MockMvcResultMatchers.jsonPath("$.molecularData[1].sampleId").value(TEST_SAMPLE_STABLE_ID_2))
+            .andExpect(MockMvcResultMatchers.jsonPath("$.molecularData[1].value").value(2.4))
+            .andExpect(MockMvcResultMatchers.jsonPath("$.continuationToken")
+                .value(ContinuationTokenUtil.encode(nextKey)));
+    }
+
+    @Test
+    @WithMockUser
+    public void exportMolecularDataWithMalformedContinuationToken() throws Exception {
+
+        MolecularDataMultipleStudyFilter molecularDataMultipleStudyFilter = new MolecularDataMultipleStudyFilter();
+        molecularDataMultipleStudyFilter.setMolecularProfileIds(Arrays.asList(TEST_MOLECULAR_PROFILE_STABLE_ID_1));
+
+        mockMvc.perform(MockMvcRequestBuilders
+            .post("/api/molecular-data/export").with(csrf())
+            .param("continuationToken", "not a token")
+            .accept(MediaType.APPLICATION_JSON)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(molecularDataMultipleStudyFilter)))
+            .andExpect(MockMvcResultMatchers.status().isBadRequest());
+
+        Mockito.verifyNoInteractions(molecularDataService);
+    }
+
     private List<GeneMolecularData> createExampleMolecularData() {
 
         List<GeneMolecularData> geneMolecularDataList = new ArrayList<>();
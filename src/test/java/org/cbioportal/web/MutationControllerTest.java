@@ -5,6 +5,7 @@ import org.cbioportal.model.AlleleSpecificCopyNumber;
 import org.cbioportal.model.Gene;
 import org.cbioportal.model.Mutation;
 import org.cbioportal.model.MutationCountByPosition;
+import org.cbioportal.model.MutationKey;
 import org.cbioportal.model.meta.MutationMeta;
 import org.cbioportal.service.MutationService;
 import org.cbioportal.web.config.TestConfig;
@@ -13,7 +14,9 @@ import org.cbioportal.web.parameter.MutationFilter;
 import org.cbioportal.web.parameter.MutationMultipleStudyFilter;
 import org.cbioportal.web.parameter.MutationPositionIdentifier;
 import org.cbioportal.web.parameter.SampleMolecularIdentifier;
+import org.cbioportal.web.util.ContinuationTokenUtil;
 import org.hamcrest.Matchers;
+import org.junit.Assert;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Mockito;
@@ -25,11 +28,13 @@ import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 
@@ -629,6 +634,101 @@ public class MutationControllerTest {
             .andExpect(MockMvcResultMatchers.header().string(HeaderKeyConstants.SAMPLE_COUNT, "3"));
     }
 
+    @Test
+    @WithMockUser
+    public void exportMutationsInMultipleMolecularProfiles() throws Exception {
+
+        List<Mutation> mutationList = createExampleMutations();
+        MutationKey nextKey = new MutationKey(TEST_MOLECULAR_PROFILE_ID_2, TEST_SAMPLE_ID_2, 2);
+
+        Mockito.when(mutationService.exportMutationsInMultipleMolecularProfiles(Mockito.any(), Mockito.any(),
+            Mockito.any(), Mockito.any(), Mockito.any(), Mockito.anyInt(), Mockito.any())).thenAnswer(invocation -> {
+                Consumer<Mutation> consumer = invocation.getArgument(6);
+                mutationList.forEach(consumer);
+                return nextKey;
+            });
+
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.post("/api/mutations/export").with(csrf())
+            .accept(MediaType.APPLICATION_JSON)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(createExampleMutationMultipleStudyFilter())))
+            .andExpect(MockMvcResultMatchers.request().asyncStarted())
+            .andReturn();
+
+        mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
+            .andExpect(MockMvcResultMatchers.status().isOk())
+            .andExpect(MockMvcResultMatchers.content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+            .andExpect(MockMvcResultMatchers.jsonPath("$.mutations", Matchers.hasSize(2)))
+            .andExpect(MockMvcResultMatchers.jsonPath("$.mutations[0].sampleId").value(TEST_SAMPLE_STABLE_ID_1))
+            .andExpect(MockMvcResultMatchers.jsonPath("$.mutations[1].sampleId").value(TEST_SAMPLE_STABLE_ID_2))
+            .andExpect(MockMvcResultMatchers.jsonPath("$.continuationToken")
+                .value(ContinuationTokenUtil.encode(nextKey)));
+    }
+
+    @Test
+    @WithMockUser
+    public void exportLastPageOfMutationsAsNdjson() throws Exception {
+
+        List<Mutation> mutationList = createExampleMutations();
+
+        Mockito.when(mutationService.exportMutationsInMultipleMolecularProfiles(Mockito.any(), Mockito.any(),
+            Mockito.any(), Mockito.any(), Mockito.eq(new MutationKey(1, 1, 1)), Mockito.anyInt(), Mockito.any()))
+            .thenAnswer(invocation -> {
+                Consumer<Mutation> consumer = invocation.getArgument(6);
+                mutationList.forEach(consumer);
+                return null;
+            });
+
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.post("/api/mutations/export").with(csrf())
+            .param("continuationToken", ContinuationTokenUtil.encode(new MutationKey(1, 1, 1)))
+            .accept(MediaType.APPLICATION_NDJSON)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(createExampleMutationMultipleStudyFilter())))
+            .andExpect(MockMvcResultMatchers.request().asyncStarted())
+            .andReturn();
+
+        String content = mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
+            .andExpect(MockMvcResultMatchers.status().isOk())
+            .andExpect(MockMvcResultMatchers.content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+            .andReturn().getResponse().getContentAsString();
+
+        // one mutation per line, and no continuation token after the last page
+        String[] lines = content.split("\n");
+        Assert.assertEquals(2, lines.length);
+        Assert.assertEquals(TEST_SAMPLE_STABLE_ID_1, objectMapper.readTree(lines[0]).get("sampleId").asText());
+        Assert.assertEquals(TEST_SAMPLE_STABLE_ID_2, objectMapper.readTree(lines[1]).get("sampleId").asText());
+    }
+
+    @Test
+    @WithMockUser
+    public void exportMutationsWithMalformedContinuationToken() throws Exception {
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/mutations/export").with(csrf())
+            .param("continuationToken", "not a token")
+            .accept(MediaType.APPLICATION_JSON)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(createExampleMutationMultipleStudyFilter())))
+            .andExpect(MockMvcResultMatchers.status().isBadRequest())
+            .andExpect(MockMvcResultMatchers.jsonPath("$.message")
+                .value("Invalid continuation token: not a token"));
+
+        Mockito.verifyNoInteractions(mutationService);
+    }
+
+    @Test
+    @WithMockUser
+    public void exportMutationsWithMetaProjection() throws Exception {
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/mutations/export").with(csrf())
+            .param("projection", "META")
+            .accept(MediaType.APPLICATION_JSON)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(createExampleMutationMultipleStudyFilter())))
+            .andExpect(MockMvcResultMatchers.status().isBadRequest());
+
+        Mockito.verifyNoInteractions(mutationService);
+    }
+
     @Test
     @WithMockUser
     public void fetchMutationCountsByPosition() throws Exception {
@@ -680,6 +780,16 @@ public class MutationControllerTest {
             .andExpect(MockMvcResultMatchers.jsonPath("$[1].count").value(TEST_MUTATION_COUNT_2));
     }
 
+    private MutationMultipleStudyFilter createExampleMutationMultipleStudyFilter() {
+
+        List<String> molecularProfileIds = new ArrayList<>();
+        molecularProfileIds.add(TEST_MOLECULAR_PROFILE_STABLE_ID_1);
+        molecularProfileIds.add(TEST_MOLECULAR_PROFILE_STABLE_ID_2);
+        MutationMultipleStudyFilter mutationMultipleStudyFilter = new MutationMultipleStudyFilter();
+        mutationMultipleStudyFilter.setMolecularProfileIds(molecularProfileIds);
+        return mutationMultipleStudyFilter;
+    }
+
     private List<Mutation> createExampleMutations() {
 
         List<Mutation> mutationList = new ArrayList<>();
@@ -0,0 +1,64 @@
+package org.cbioportal.web.util;
+
+import org.cbioportal.model.MolecularDataKey;
+import org.cbioportal.model.MutationKey;
+import org.cbioportal.service.exception.InvalidContinuationTokenException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+public class ContinuationTokenUtilTest {
+
+    @Test
+    public void decodeMutationKeyOfEncodedKey() throws Exception {
+
+        MutationKey key = new MutationKey(6, 13, 22604);
+
+        Assert.assertEquals(key, ContinuationTokenUtil.decodeMutationKey(ContinuationTokenUtil.encode(key)));
+    }
+
+    @Test
+    public void decodeMolecularDataKeyOfEncodedKey() throws Exception {
+
+        MolecularDataKey key = new MolecularDataKey(3, 2);
+
+        Assert.assertEquals(key, ContinuationTokenUtil.decodeMolecularDataKey(ContinuationTokenUtil.encode(key)));
+    }
+
+    @Test(expected = InvalidContinuationTokenException.class)
+    public void decodeMutationKeyOfMalformedToken() throws Exception {
+
+        ContinuationTokenUtil.decodeMutationKey("not a token!");
+    }
+
+    @Test(expected = InvalidContinuationTokenException.class)
+    public void decodeMutationKeyOfNonNumericId() throws Exception {
+
+        ContinuationTokenUtil.decodeMutationKey(encodeText("m2:6:x:22604"));
+    }
+
+    @Test(expected = InvalidContinuationTokenException.class)
+    public void decodeMutationKeyOfOlderVersion() throws Exception {
+
+        ContinuationTokenUtil.decodeMutationKey(encodeText("m1:6:13:672:22604"));
+    }
+
+    @Test
+    public void decodeKeyOfTokenOfOtherExport() {
+
+        String mutationToken = ContinuationTokenUtil.encode(new MutationKey(6, 13, 22604));
+
+        try {
+            ContinuationTokenUtil.decodeMolecularDataKey(mutationToken);
+            Assert.fail();
+        } catch (InvalidContinuationTokenException e) {
+            Assert.assertEquals(mutationToken, e.getContinuationToken());
+        }
+    }
+
+    private String encodeText(String text) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,31 @@
+package org.cbioportal.web.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+public class InvolvedCancerStudyExtractorInterceptorTest {
+
+    @Test
+    public void readsRequestBodyOfPathsWithExtractor() {
+
+        Assert.assertTrue(InvolvedCancerStudyExtractorInterceptor.readsRequestBody(request("POST", "/api/samples/fetch")));
+        Assert.assertTrue(InvolvedCancerStudyExtractorInterceptor.readsRequestBody(
+            request("POST", "/api/molecular-data/export")));
+        Assert.assertTrue(InvolvedCancerStudyExtractorInterceptor.readsRequestBody(
+            request("POST", "/api/clinical-data-table/fetch")));
+    }
+
+    @Test
+    public void doesNotReadRequestBodyOfOtherRequests() {
+
+        Assert.assertFalse(InvolvedCancerStudyExtractorInterceptor.readsRequestBody(request("GET", "/api/samples/fetch")));
+        Assert.assertFalse(InvolvedCancerStudyExtractorInterceptor.readsRequestBody(request("POST", "/api/genes/fetch")));
+    }
+
+    private static MockHttpServletRequest request(String method, String path) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+        request.setServletPath(path);
+        return request;
+    }
+}
@@ -0,0 +1,68 @@
+package org.cbioportal.web.util;
+
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.util.ContentCachingRequestWrapper;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+public class ResettableHttpServletRequestFilterTest {
+
+    private ResettableHttpServletRequestFilter filter = new ResettableHttpServletRequestFilter();
+    private ServletRequest filteredRequest;
+    private ServletResponse filteredResponse;
+
+    @Before
+    public void setUp() {
+        ReflectionTestUtils.setField(filter, "streamingResponsePaths",
+            new String[] {"/**/mutations/fetch", "/**/molecular-data/fetch"});
+    }
+
+    @Test
+    public void bufferedRequestAndResponse() throws Exception {
+
+        MockHttpServletResponse response = doFilter("POST", "/api/sample-counts/fetch");
+
+        Assert.assertTrue(filteredRequest instanceof ContentCachingRequestWrapper);
+        Assert.assertTrue(filteredResponse instanceof ContentCachingResponseWrapper);
+        Assert.assertEquals("[]", response.getContentAsString());
+    }
+
+    @Test
+    public void streamingResponse() throws Exception {
+
+        MockHttpServletResponse response = doFilter("POST", "/api/mutations/fetch");
+
+        // the body is read by InvolvedCancerStudyExtractorInterceptor, the response is not buffered
+        Assert.assertTrue(filteredRequest instanceof ContentCachingRequestWrapper);
+        Assert.assertSame(response, filteredResponse);
+        Assert.assertEquals("[]", response.getContentAsString());
+    }
+
+    @Test
+    public void requestBodyNotReadByInterceptor() throws Exception {
+
+        doFilter("GET", "/api/studies");
+
+        Assert.assertFalse(filteredRequest instanceof ContentCachingRequestWrapper);
+        Assert.assertTrue(filteredResponse instanceof ContentCachingResponseWrapper);
+    }
+
+    private MockHttpServletResponse doFilter(String method, String path) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+        request.setServletPath(path);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, (filteredRequest, filteredResponse) -> {
+            this.filteredRequest = filteredRequest;
+            this.filteredResponse = filteredResponse;
+            filteredResponse.getWriter().write("[]");
+            filteredResponse.getWriter().flush();
+        });
+        return response;
+    }
+}
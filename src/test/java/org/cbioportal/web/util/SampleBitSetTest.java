@@ -0,0 +1,98 @@
+package org.cbioportal.web.util;
+
+import org.cbioportal.web.parameter.SampleIdentifier;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class SampleBitSetTest {
+
+    private List<SampleIdentifier> all;
+    private SampleOrdinalIndex sampleOrdinalIndex;
+
+    @Before
+    public void setUp() {
+        all = Arrays.asList(
+            sampleIdentifier("study_1", "sample_1"),
+            sampleIdentifier("study_1", "sample_2"),
+            sampleIdentifier("study_2", "sample_1"),
+            sampleIdentifier("study_2", "sample_3"));
+        sampleOrdinalIndex = new SampleOrdinalIndex(all);
+    }
+
+    @Test
+    public void ordinalsFollowTheIndexedOrder() {
+        assertEquals(0, sampleOrdinalIndex.lookup("study_1", "sample_1"));
+        assertEquals(2, sampleOrdinalIndex.lookup("study_2", "sample_1"));
+        assertEquals(-1, sampleOrdinalIndex.lookup("study_1", "sample_3"));
+        assertEquals(-1, sampleOrdinalIndex.lookup("unknown", "sample_1"));
+        assertSame(all.get(3), sampleOrdinalIndex.get(3));
+        assertEquals(4, sampleOrdinalIndex.size());
+    }
+
+    @Test
+    public void composeAndListInIndexedOrder() {
+        SampleBitSet universe = sampleOrdinalIndex.allSamples();
+        SampleBitSet clinical = sampleOrdinalIndex.emptyBitSet()
+            .add("study_2", "sample_3")
+            .add("study_1", "sample_1")
+            .add("study_2", "sample_1");
+        SampleBitSet caseList = sampleOrdinalIndex.emptyBitSet()
+            .add("study_2", "sample_1");
+
+        SampleBitSet result = universe.copy().and(clinical).andNot(caseList);
+        assertEquals(2, result.cardinality());
+        assertTrue(result.contains("study_1", "sample_1"));
+        assertFalse(result.contains("study_2", "sample_1"));
+        assertFalse(result.contains("unknown", "sample_1"));
+
+        List<SampleIdentifier> sampleIdentifiers = result.toSampleIdentifiers();
+        assertEquals(Arrays.asList(all.get(0), all.get(3)), sampleIdentifiers);
+        assertSame(all.get(0), sampleIdentifiers.get(0));
+
+        assertEquals(4, result.or(caseList).or(universe).cardinality());
+    }
+
+    @Test
+    public void retainIfRemovesSamplesNotMatchingThePredicate() {
+        SampleBitSet result = sampleOrdinalIndex.allSamples()
+            .retainIf(sampleIdentifier -> sampleIdentifier.getSampleId().equals("sample_1"));
+
+        assertEquals(Arrays.asList(all.get(0), all.get(2)), result.toSampleIdentifiers());
+    }
+
+    @Test
+    public void samplesOutsideOfTheIndexAreIgnored() {
+        SampleBitSet set = sampleOrdinalIndex.toBitSet(Arrays.asList(
+            sampleIdentifier("study_1", "sample_2"),
+            sampleIdentifier("study_3", "sample_1")));
+        set.add("study_1", "sample_4");
+
+        assertEquals(Arrays.asList(all.get(1)), set.toSampleIdentifiers());
+    }
+
+    @Test
+    public void duplicatesKeepTheirFirstOrdinal() {
+        SampleIdentifier sampleIdentifier = sampleIdentifier("study_1", "sample_1");
+        SampleOrdinalIndex index = new SampleOrdinalIndex(
+            Arrays.asList(sampleIdentifier, sampleIdentifier("study_1", "sample_2"), sampleIdentifier));
+
+        assertEquals(2, index.size());
+        assertEquals(0, index.lookup("study_1", "sample_1"));
+        assertEquals(2, index.allSamples().toSampleIdentifiers().size());
+    }
+
+    private SampleIdentifier sampleIdentifier(String studyId, String sampleId) {
+        SampleIdentifier sampleIdentifier = new SampleIdentifier();
+        sampleIdentifier.setStudyId(studyId);
+        sampleIdentifier.setSampleId(sampleId);
+        return sampleIdentifier;
+    }
+}
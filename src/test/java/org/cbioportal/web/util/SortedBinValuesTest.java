@@ -0,0 +1,134 @@
+package org.cbioportal.web.util;
+
+import com.google.common.collect.Range;
+import org.cbioportal.model.DataBin;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+public class SortedBinValuesTest {
+
+    private DataBinHelper dataBinHelper = new DataBinHelper();
+
+    @Test
+    public void countNumericalValues() {
+        SortedBinValues values = new SortedBinValues(decimals("5", "1", "2", "2.0", "3", "10", "2"));
+
+        Assert.assertEquals(decimals("1", "2", "2.0", "2", "3", "5", "10"), values.getSortedValues());
+        Assert.assertEquals(3, values.count(bin("1", "2", null)));
+        Assert.assertEquals(3, values.count(bin("2", "2", null)));
+        Assert.assertEquals(2, values.count(bin("2", "5", null)));
+        Assert.assertEquals(4, values.count(bin(null, "2", "<=")));
+        Assert.assertEquals(1, values.count(bin(null, "2", "<")));
+        Assert.assertEquals(2, values.count(bin("3", null, ">")));
+        Assert.assertEquals(3, values.count(bin("3", null, ">=")));
+        Assert.assertEquals(0, values.count(bin("5", "3", null)));
+    }
+
+    @Test
+    public void countSpecialAndNonNumericalValues() {
+        SortedBinValues values = new SortedBinValues(
+            decimals("1", "90"),
+            Arrays.asList(dataBinHelper.calcRange(">", new BigDecimal("80")),
+                dataBinHelper.calcRange(">", new BigDecimal("85")),
+                dataBinHelper.calcRange("<", new BigDecimal("18"))),
+            Arrays.asList("Unknown", "UNKNOWN", "other"));
+
+        Assert.assertEquals(3, values.count(bin("80", null, ">")));
+        Assert.assertEquals(2, values.count(bin("85", null, ">=")));
+        Assert.assertEquals(1, values.count(bin("85", "90", null)));
+        Assert.assertEquals(2, values.count(bin(null, "18", "<=")));
+        Assert.assertEquals(1, values.count(bin(null, "17", "<=")));
+        Assert.assertEquals(2, values.count(bin(null, null, "unknown")));
+        Assert.assertEquals(0, values.count(bin(null, null, "NA")));
+    }
+
+    @Test
+    public void countSpecialRangesMatchesEnclosedRanges() {
+        Random random = new Random(42);
+        String[] operators = {"<", "<=", ">", ">="};
+        // special values are parsed into open ranges
+        List<Range<BigDecimal>> specialRanges = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            specialRanges.add(dataBinHelper.calcRange(random.nextBoolean() ? "<" : ">",
+                BigDecimal.valueOf(random.nextInt(20))));
+        }
+        SortedBinValues values = new SortedBinValues(Collections.emptyList(), specialRanges, Collections.emptyList());
+
+        for (String operator : operators) {
+            for (int i = 0; i < 20; i++) {
+                BigDecimal endpoint = BigDecimal.valueOf(i);
+                DataBin dataBin = operator.contains(">") ? bin(endpoint.toString(), null, operator) :
+                    bin(null, endpoint.toString(), operator);
+                Range<BigDecimal> range = dataBinHelper.calcRange(dataBin);
+
+                Assert.assertEquals(specialRanges.stream().filter(range::encloses).count(),
+                    values.countSpecialRanges(dataBin));
+            }
+        }
+    }
+
+    @Test
+    public void compareBoundariesExactly() {
+        // the same double, different decimals
+        SortedBinValues values = new SortedBinValues(decimals("0.1", "0.10000000000000000001", "0.09999999999999999999"));
+
+        Assert.assertEquals(1, values.count(bin("0.1", "0.1", null)));
+        Assert.assertEquals(2, values.count(bin(null, "0.1", "<=")));
+        Assert.assertEquals(1, values.count(bin("0.1", null, ">")));
+        Assert.assertEquals(Collections.singleton(new BigDecimal("0.1")),
+            values.findDistinctValues(bin("0.09999999999999999999", "0.1", null)));
+    }
+
+    @Test
+    public void countMatchesRanges() {
+        Random random = new Random(42);
+        List<BigDecimal> numericalValues = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            numericalValues.add(BigDecimal.valueOf(random.nextInt(200), random.nextInt(3)));
+        }
+        SortedBinValues values = new SortedBinValues(numericalValues);
+        String[] specialValues = {null, "<", "<=", ">", ">="};
+
+        for (int i = 0; i < 1000; i++) {
+            BigDecimal start = random.nextInt(10) == 0 ? null : BigDecimal.valueOf(random.nextInt(100), 1);
+            BigDecimal end = random.nextInt(10) == 0 ? null : start == null ?
+                BigDecimal.valueOf(random.nextInt(100), 1) : start.add(BigDecimal.valueOf(random.nextInt(50), 1));
+            DataBin dataBin = new DataBin();
+            dataBin.setStart(start);
+            dataBin.setEnd(end);
+            dataBin.setSpecialValue(specialValues[random.nextInt(specialValues.length)]);
+            Range<BigDecimal> range = dataBinHelper.calcRange(dataBin);
+            if (range == null) {
+                continue;
+            }
+
+            Assert.assertEquals(numericalValues.stream().filter(range::contains).count(), values.count(dataBin));
+            Set<BigDecimal> distinctValues = dataBinHelper.findDistinctValues(dataBin, numericalValues);
+            Assert.assertEquals(distinctValues, values.findDistinctValues(dataBin));
+        }
+    }
+
+    private static List<BigDecimal> decimals(String... values) {
+        List<BigDecimal> decimals = new ArrayList<>();
+        for (String value : values) {
+            decimals.add(new BigDecimal(value));
+        }
+        return decimals;
+    }
+
+    private static DataBin bin(String start, String end, String specialValue) {
+        DataBin dataBin = new DataBin();
+        dataBin.setStart(start == null ? null : new BigDecimal(start));
+        dataBin.setEnd(end == null ? null : new BigDecimal(end));
+        dataBin.setSpecialValue(specialValue);
+        return dataBin;
+    }
+}
@@ -15,7 +15,9 @@ import org.cbioportal.model.MolecularProfileCaseIdentifier;
 import org.cbioportal.model.Mutation;
 import org.cbioportal.model.Patient;
 import org.cbioportal.model.Sample;
+import org.cbioportal.model.SampleList;
 import org.cbioportal.model.util.Select;
+import org.cbioportal.persistence.CacheEnabledConfig;
 import org.cbioportal.service.ClinicalAttributeService;
 import org.cbioportal.service.ClinicalDataService;
 import org.cbioportal.service.DiscreteCopyNumberService;
@@ -53,6 +55,7 @@ import org.mockito.Spy;
 import org.springframework.context.ApplicationContext;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.util.ResourceUtils;
 
 import java.io.IOException;
@@ -151,6 +154,8 @@ public class StudyViewFilterApplierTest {
     @Spy
     @InjectMocks
     private MolecularProfileUtil molecularProfileUtil;
+    @Mock
+    private CacheEnabledConfig cacheEnabledConfig;
 
     @Mock
     private SessionServiceRequestHandler sessionServiceRequestHandler;
@@ -943,6 +948,42 @@ public class StudyViewFilterApplierTest {
         Assert.assertEquals(1, result.size());
     }
 
+    @Test
+    public void applyWithClauseCaching() throws Exception {
+        ReflectionTestUtils.setField(studyViewFilterApplier, "clauseCachingEnabled", true);
+        when(cacheEnabledConfig.isEnabled()).thenReturn(true);
+
+        List<SampleIdentifier> sampleIdentifiers = new ArrayList<>();
+        sampleIdentifiers.add(createSampleIdentifier(SAMPLE_ID1));
+        sampleIdentifiers.add(createSampleIdentifier(SAMPLE_ID2));
+        sampleIdentifiers.add(createSampleIdentifier(SAMPLE_ID3));
+        StudyViewFilter studyViewFilter = new StudyViewFilter();
+        studyViewFilter.setSampleIdentifiers(sampleIdentifiers);
+        studyViewFilter.setCaseLists(Arrays.asList(Arrays.asList("cnaseq"), Arrays.asList("all")));
+
+        List<String> sampleIds = Arrays.asList(SAMPLE_ID1, SAMPLE_ID2, SAMPLE_ID3);
+        List<String> studyIds = Collections.nCopies(3, STUDY_ID);
+        List<Sample> samples = sampleIds.stream().map(this::createSample).collect(toList());
+        when(sampleService.fetchSamples(eq(studyIds), eq(sampleIds), eq("ID"))).thenReturn(samples);
+
+        SampleList cnaSeqSampleList = new SampleList();
+        cnaSeqSampleList.setStableId(STUDY_ID + "_cnaseq");
+        cnaSeqSampleList.setCancerStudyIdentifier(STUDY_ID);
+        cnaSeqSampleList.setSampleIds(Arrays.asList(SAMPLE_ID3, SAMPLE_ID1));
+        SampleList allSampleList = new SampleList();
+        allSampleList.setStableId(STUDY_ID + "_all");
+        allSampleList.setCancerStudyIdentifier(STUDY_ID);
+        allSampleList.setSampleIds(Arrays.asList(SAMPLE_ID1, SAMPLE_ID3, SAMPLE_ID4));
+        when(sampleListService.getAllSampleListsInStudies(Arrays.asList(STUDY_ID), Projection.DETAILED.name()))
+            .thenReturn(Arrays.asList(cnaSeqSampleList, allSampleList));
+
+        List<SampleIdentifier> result = studyViewFilterApplier.apply(studyViewFilter);
+
+        Assert.assertEquals(2, result.size());
+        Assert.assertEquals(SAMPLE_ID1, result.get(0).getSampleId());
+        Assert.assertEquals(SAMPLE_ID3, result.get(1).getSampleId());
+    }
+
     @Test
     public void applyMutationDataFilter() throws Exception {
 
@@ -12,6 +12,7 @@ import org.cbioportal.model.PatientTreatmentRow;
 import org.cbioportal.service.TreatmentService;
 import org.cbioportal.web.parameter.SampleIdentifier;
 import org.cbioportal.web.parameter.StudyViewFilter;
+import org.cbioportal.web.util.SampleOrdinalIndex;
 import org.cbioportal.web.parameter.filter.AndedPatientTreatmentFilters;
 import org.cbioportal.web.parameter.filter.OredPatientTreatmentFilters;
 import org.cbioportal.web.parameter.filter.PatientTreatmentFilter;
@@ -49,7 +50,8 @@ public class PatientTreatmentFilterApplierTest {
             .when(treatmentService.getAllPatientTreatmentRows(Mockito.anyList(), Mockito.anyList(), Mockito.any()))
             .thenReturn(new ArrayList<>());
 
-        List<SampleIdentifier> actual = subject.filter(samples, andedFilters);
+        List<SampleIdentifier> actual =
+            subject.filter(new SampleOrdinalIndex(samples).allSamples(), andedFilters).toSampleIdentifiers();
         List<SampleIdentifier> expected = new ArrayList<>();
         
         Assert.assertEquals(expected, actual);
@@ -71,7 +73,8 @@ public class PatientTreatmentFilterApplierTest {
             .when(treatmentService.getAllPatientTreatmentRows(Mockito.anyList(), Mockito.anyList(), Mockito.any()))
             .thenReturn(new ArrayList<>());
 
-        List<SampleIdentifier> actual = subject.filter(samples, andedFilters);
+        List<SampleIdentifier> actual =
+            subject.filter(new SampleOrdinalIndex(samples).allSamples(), andedFilters).toSampleIdentifiers();
         List<SampleIdentifier> expected = new ArrayList<>();
 
         Assert.assertEquals(expected, actual);
@@ -99,7 +102,8 @@ public class PatientTreatmentFilterApplierTest {
                 new PatientTreatmentRow("Fabricada", 2, toSet(createEvent("SA_2", "ST_1"), createEvent("SA_3", "ST_1")))
             ));
 
-        List<SampleIdentifier> actual = subject.filter(samples, andedFilters);
+        List<SampleIdentifier> actual =
+            subject.filter(new SampleOrdinalIndex(samples).allSamples(), andedFilters).toSampleIdentifiers();
         List<SampleIdentifier> expected = Arrays.asList(
             createSampleId("SA_0", "ST_0"),
             createSampleId("SA_1", "ST_0"),
@@ -6,6 +6,7 @@ import org.cbioportal.model.TemporalRelation;
 import org.cbioportal.service.TreatmentService;
 import org.cbioportal.web.parameter.SampleIdentifier;
 import org.cbioportal.web.parameter.StudyViewFilter;
+import org.cbioportal.web.util.SampleOrdinalIndex;
 import org.cbioportal.web.parameter.filter.AndedSampleTreatmentFilters;
 import org.cbioportal.web.parameter.filter.OredSampleTreatmentFilters;
 import org.cbioportal.web.parameter.filter.SampleTreatmentFilter;
@@ -53,7 +54,8 @@ public class SampleTreatmentFilterApplierTest {
             .when(treatmentService.getAllSampleTreatmentRows(Mockito.anyList(), Mockito.anyList(), Mockito.any()))
             .thenReturn(new ArrayList<>());
 
-        List<SampleIdentifier> actual = subject.filter(samples, andedFilters);
+        List<SampleIdentifier> actual =
+            subject.filter(new SampleOrdinalIndex(samples).allSamples(), andedFilters).toSampleIdentifiers();
         List<SampleIdentifier> expected = new ArrayList<>();
 
         Assert.assertEquals(expected, actual);
@@ -75,7 +77,8 @@ public class SampleTreatmentFilterApplierTest {
             .when(treatmentService.getAllSampleTreatmentRows(Mockito.anyList(), Mockito.anyList(), Mockito.any()))
             .thenReturn(new ArrayList<>());
 
-        List<SampleIdentifier> actual = subject.filter(samples, andedFilters);
+        List<SampleIdentifier> actual =
+            subject.filter(new SampleOrdinalIndex(samples).allSamples(), andedFilters).toSampleIdentifiers();
         List<SampleIdentifier> expected = new ArrayList<>();
 
         Assert.assertEquals(expected, actual);
@@ -105,7 +108,8 @@ public class SampleTreatmentFilterApplierTest {
                 new SampleTreatmentRow(Pre, "Fabricada", 2, toSet(createEvent("SA_2", "ST_1"), createEvent("SA_3", "ST_1")))
             ));
 
-        List<SampleIdentifier> actual = subject.filter(samples, andedFilters);
+        List<SampleIdentifier> actual =
+            subject.filter(new SampleOrdinalIndex(samples).allSamples(), andedFilters).toSampleIdentifiers();
         List<SampleIdentifier> expected = Arrays.asList(
             createSampleId("SA_0", "ST_0"),
             createSampleId("SA_1", "ST_0"),
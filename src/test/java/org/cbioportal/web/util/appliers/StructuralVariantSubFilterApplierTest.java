@@ -9,6 +9,7 @@ import org.cbioportal.service.MolecularProfileService;
 import org.cbioportal.service.impl.StructuralVariantServiceImpl;
 import org.cbioportal.web.parameter.SampleIdentifier;
 import org.cbioportal.web.parameter.StudyViewFilter;
+import org.cbioportal.web.util.SampleOrdinalIndex;
 import org.cbioportal.web.util.StudyViewFilterUtil;
 import org.junit.Assert;
 import org.junit.Before;
@@ -110,7 +111,8 @@ public class StructuralVariantSubFilterApplierTest {
             createSampleId("4", ST_1_ID),
             createSampleId("5", ST_1_ID)
         );
-        Assert.assertEquals(expected, subject.filter(sampleIdentifiers, structVarStudyViewFilter));
+        Assert.assertEquals(expected, subject.filter(
+            new SampleOrdinalIndex(sampleIdentifiers).allSamples(), structVarStudyViewFilter).toSampleIdentifiers());
     }
 
     @Test